@@ -0,0 +1,234 @@
+package com.github.relucent.base.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.github.relucent.base.common.collection.Mapx;
+
+/**
+ * 基准测试数据
+ */
+public class BenchmarkData {
+
+	// ==============================Constructors=====================================
+	/**
+	 * 工具类私有构造
+	 */
+	private BenchmarkData() {
+	}
+
+	// ==============================Methods==========================================
+	/**
+	 * 创建订单数据
+	 * @param itemCount 订单明细数量
+	 * @return 订单数据
+	 */
+	public static Order createOrder(int itemCount) {
+		Order order = new Order();
+		order.setId(1000000001L);
+		order.setCode("ORDER-20260101-0001");
+		order.setCustomer("Relucent");
+		order.setAmount(itemCount * 99.5D);
+		order.setPaid(Boolean.TRUE);
+		order.setCreated(new Date(1767225600000L));
+		List<Item> items = new ArrayList<>(itemCount);
+		for (int i = 0; i < itemCount; i++) {
+			Item item = new Item();
+			item.setId((long) i);
+			item.setName("item-" + i);
+			item.setQuantity(i % 10 + 1);
+			item.setPrice(9.95D);
+			items.add(item);
+		}
+		order.setItems(items);
+		return order;
+	}
+
+	/**
+	 * 创建与订单属性对应的 Map 数据（属性值都是字符串，需要类型转换）
+	 * @return Map数据
+	 */
+	public static Mapx createOrderMap() {
+		Mapx map = new Mapx();
+		map.put("id", "1000000001");
+		map.put("code", "ORDER-20260101-0001");
+		map.put("customer", "Relucent");
+		map.put("amount", "995.0");
+		map.put("paid", "true");
+		map.put("created", "2026-01-01 00:00:00");
+		return map;
+	}
+
+	// ==============================InnerClass=======================================
+	/**
+	 * 订单
+	 */
+	public static class Order {
+		private Long id;
+		private String code;
+		private String customer;
+		private Double amount;
+		private Boolean paid;
+		private Date created;
+		private List<Item> items;
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+
+		public String getCode() {
+			return code;
+		}
+
+		public void setCode(String code) {
+			this.code = code;
+		}
+
+		public String getCustomer() {
+			return customer;
+		}
+
+		public void setCustomer(String customer) {
+			this.customer = customer;
+		}
+
+		public Double getAmount() {
+			return amount;
+		}
+
+		public void setAmount(Double amount) {
+			this.amount = amount;
+		}
+
+		public Boolean getPaid() {
+			return paid;
+		}
+
+		public void setPaid(Boolean paid) {
+			this.paid = paid;
+		}
+
+		public Date getCreated() {
+			return created;
+		}
+
+		public void setCreated(Date created) {
+			this.created = created;
+		}
+
+		public List<Item> getItems() {
+			return items;
+		}
+
+		public void setItems(List<Item> items) {
+			this.items = items;
+		}
+	}
+
+	/**
+	 * 订单明细
+	 */
+	public static class Item {
+		private Long id;
+		private String name;
+		private Integer quantity;
+		private Double price;
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Integer getQuantity() {
+			return quantity;
+		}
+
+		public void setQuantity(Integer quantity) {
+			this.quantity = quantity;
+		}
+
+		public Double getPrice() {
+			return price;
+		}
+
+		public void setPrice(Double price) {
+			this.price = price;
+		}
+	}
+
+	/**
+	 * 订单（与 {@link Order} 属性名称相同，属性类型不同，用于测试属性拷贝时的类型转换）
+	 */
+	public static class OrderDto {
+		private String id;
+		private String code;
+		private String customer;
+		private String amount;
+		private String paid;
+		private Date created;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getCode() {
+			return code;
+		}
+
+		public void setCode(String code) {
+			this.code = code;
+		}
+
+		public String getCustomer() {
+			return customer;
+		}
+
+		public void setCustomer(String customer) {
+			this.customer = customer;
+		}
+
+		public String getAmount() {
+			return amount;
+		}
+
+		public void setAmount(String amount) {
+			this.amount = amount;
+		}
+
+		public String getPaid() {
+			return paid;
+		}
+
+		public void setPaid(String paid) {
+			this.paid = paid;
+		}
+
+		public Date getCreated() {
+			return created;
+		}
+
+		public void setCreated(Date created) {
+			this.created = created;
+		}
+	}
+}
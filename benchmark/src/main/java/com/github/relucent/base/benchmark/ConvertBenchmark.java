@@ -0,0 +1,90 @@
+package com.github.relucent.base.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.relucent.base.benchmark.BenchmarkData.Order;
+import com.github.relucent.base.benchmark.BenchmarkData.OrderDto;
+import com.github.relucent.base.common.bean.copier.BeanCopier;
+import com.github.relucent.base.common.collection.Mapx;
+import com.github.relucent.base.common.convert.ConvertUtil;
+
+/**
+ * 类型转换与属性拷贝基准测试（{@link ConvertUtil#convert} 与 {@link BeanCopier}）<br>
+ * 内存分配率可以通过 {@code -prof gc} 参数查看。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvertBenchmark {
+
+	// ==============================Fields===========================================
+	private Order order;
+	private OrderDto dto;
+	private Mapx map;
+
+	// ==============================Methods==========================================
+	@Setup
+	public void setup() {
+		order = BenchmarkData.createOrder(0);
+		order.setItems(null);
+		map = BenchmarkData.createOrderMap();
+		dto = new OrderDto();
+		new BeanCopier(map, dto).copy();
+	}
+
+	@Benchmark
+	public Integer convertStringToInteger() {
+		return ConvertUtil.convert("123456", Integer.class);
+	}
+
+	@Benchmark
+	public Long convertIntegerToLong() {
+		return ConvertUtil.convert(Integer.valueOf(123456), Long.class);
+	}
+
+	@Benchmark
+	public Date convertStringToDate() {
+		return ConvertUtil.convert("2026-01-01 12:30:45", Date.class);
+	}
+
+	@Benchmark
+	public Order convertMapToBean() {
+		return ConvertUtil.convert(map, Order.class);
+	}
+
+	@Benchmark
+	public Order copyBeanToBean() {
+		Order target = new Order();
+		new BeanCopier(dto, target).copy();
+		return target;
+	}
+
+	@Benchmark
+	public Order copyMapToBean() {
+		Order target = new Order();
+		new BeanCopier(map, target).copy();
+		return target;
+	}
+
+	@Benchmark
+	public Mapx copyBeanToMap() {
+		Mapx target = new Mapx();
+		new BeanCopier(order, target).copy();
+		return target;
+	}
+}
@@ -0,0 +1,89 @@
+package com.github.relucent.base.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.relucent.base.benchmark.BenchmarkData.Order;
+import com.github.relucent.base.common.collection.Mapx;
+import com.github.relucent.base.common.json.JsonHandler;
+import com.github.relucent.base.common.json.impl.DefaultJsonHandler;
+import com.github.relucent.base.plugin.gson.GsonHandler;
+import com.github.relucent.base.plugin.jackson.JacksonHandler;
+
+/**
+ * JSON 处理器基准测试（编码、类型解码、Mapx解码）<br>
+ * 内存分配率可以通过 {@code -prof gc} 参数查看。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonHandlerBenchmark {
+
+	// ==============================Fields===========================================
+	/** JSON处理器 */
+	@Param({ "default", "jackson", "gson" })
+	private String handler;
+
+	/** 数据量(订单明细数量)：small=1, medium=100, large=10000 */
+	@Param({ "small", "medium", "large" })
+	private String payload;
+
+	private JsonHandler jsonHandler;
+	private Order order;
+	private String json;
+
+	// ==============================Methods==========================================
+	@Setup
+	public void setup() {
+		switch (handler) {
+		case "jackson":
+			jsonHandler = JacksonHandler.DEFAULT;
+			break;
+		case "gson":
+			jsonHandler = GsonHandler.INSTANCE;
+			break;
+		default:
+			jsonHandler = DefaultJsonHandler.INSTANCE;
+		}
+		switch (payload) {
+		case "large":
+			order = BenchmarkData.createOrder(10000);
+			break;
+		case "medium":
+			order = BenchmarkData.createOrder(100);
+			break;
+		default:
+			order = BenchmarkData.createOrder(1);
+		}
+		json = jsonHandler.encode(order);
+	}
+
+	@Benchmark
+	public String encode() {
+		return jsonHandler.encode(order);
+	}
+
+	@Benchmark
+	public Order decodeTyped() {
+		return jsonHandler.decode(json, Order.class);
+	}
+
+	@Benchmark
+	public Mapx decodeMap() {
+		return jsonHandler.decodeMap(json);
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * JMH 基准测试
+ */
+package com.github.relucent.base.benchmark;
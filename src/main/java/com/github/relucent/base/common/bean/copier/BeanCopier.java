@@ -3,9 +3,7 @@ package com.github.relucent.base.common.bean.copier;
 import java.lang.reflect.Type;
 import java.util.Map;
 
-import com.github.relucent.base.common.bean.BeanUtil;
 import com.github.relucent.base.common.bean.BeanVisitor;
-import com.github.relucent.base.common.bean.introspector.PropDesc;
 import com.github.relucent.base.common.convert.ConvertUtil;
 import com.github.relucent.base.common.reflect.TypeUtil;
 
@@ -96,45 +94,15 @@ public class BeanCopier {
             }
             // Map To Bean
             else {
-                final Map<String, PropDesc> targetPdMap = BeanUtil.getBeanDesc(target.getClass()).getPropMap();
-
-                ((Map<?, ?>) source).forEach((key, value) -> {
-
-                    String name = key.toString();
-
-                    PropDesc pd = targetPdMap.get(name);
-
-                    // 字段不可写
-                    if (pd == null || !pd.isWritable(options.isCheckTransient())) {
-                        return;
-                    }
-
-                    // 目标字段类型
-                    Type toType = TypeUtil.getActualType(targetType, pd.getFieldType());
-
-                    value = ConvertUtil.convert(value, toType, null);
-
-                    // 忽略 null
-                    if (value == null && options.isIgnoreNull()) {
-                        return;
-                    }
-
-                    // 不是覆盖模式，并且目标对象有值
-                    if (!options.isOverride() && pd.getValue(target) != null) {
-                        return;
-                    }
-
-                    // 目标赋值
-                    pd.setValue(this.target, value);
-                });
+                CopyPlan.of(targetType, target.getClass()).copyMapToBean((Map<?, ?>) source, target, options);
             }
         } else {
 
-            BeanVisitor beanVisitor = new BeanVisitor(source).setIgnoreNull(options.isIgnoreNull());
-
             // Bean To Map
             if (target instanceof Map) {
 
+                BeanVisitor beanVisitor = new BeanVisitor(source).setIgnoreNull(options.isIgnoreNull());
+
                 @SuppressWarnings("rawtypes")
                 final Map mapTarget = (Map) target;
 
@@ -162,36 +130,7 @@ public class BeanCopier {
             }
             // Bean To Bean
             else {
-
-                final Map<String, PropDesc> targetPdMap = BeanUtil.getBeanDesc(target.getClass()).getPropMap();
-
-                beanVisitor.visit((name, value) -> {
-
-                    PropDesc pd = targetPdMap.get(name);
-
-                    // 字段不可写
-                    if (pd == null || !pd.isWritable(options.isCheckTransient())) {
-                        return;
-                    }
-
-                    // 目标字段类型
-                    Type toType = TypeUtil.getActualType(targetType, pd.getFieldType());
-
-                    value = ConvertUtil.convert(value, toType, null);
-
-                    // 忽略 null
-                    if (value == null && options.isIgnoreNull()) {
-                        return;
-                    }
-
-                    // 不是覆盖模式，并且目标对象有值
-                    if (!options.isOverride() && pd.getValue(target) != null) {
-                        return;
-                    }
-
-                    // 目标赋值
-                    pd.setValue(this.target, value);
-                });
+                CopyPlan.of(targetType, target.getClass()).copyBeanToBean(source, target, options);
             }
         }
     }
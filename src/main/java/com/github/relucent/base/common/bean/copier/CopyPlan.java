@@ -0,0 +1,241 @@
+package com.github.relucent.base.common.bean.copier;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.relucent.base.common.bean.BeanUtil;
+import com.github.relucent.base.common.bean.introspector.PropDesc;
+import com.github.relucent.base.common.collection.WeakConcurrentMap;
+import com.github.relucent.base.common.convert.BasicConverter;
+import com.github.relucent.base.common.convert.ConvertUtil;
+import com.github.relucent.base.common.convert.Converter;
+import com.github.relucent.base.common.convert.ConverterManager;
+import com.github.relucent.base.common.reflect.Primitives;
+import com.github.relucent.base.common.reflect.TypeUtil;
+
+/**
+ * Bean 拷贝计划<br>
+ * 针对目标类型预先计算好属性的实际类型、可写状态和类型转换器，针对源对象类型预先计算好源属性与目标属性的对应关系，拷贝时只需要执行简单的循环。<br>
+ * 拷贝计划按照目标类型缓存，源属性对应关系按照源对象类型缓存；当转换器注册表发生变化时（{@link ConverterManager#getVersion()}），缓存的拷贝计划会重新生成。
+ */
+class CopyPlan {
+
+    // ==============================Constants========================================
+    /** 拷贝计划缓存 */
+    private static final WeakConcurrentMap<Type, CopyPlan> CACHE = new WeakConcurrentMap<>();
+
+    // ==============================Fields===========================================
+    /** 目标对象类 */
+    private final Class<?> targetClass;
+    /** 转换器注册表版本号 */
+    private final int version;
+    /** 目标属性表 */
+    private final Map<String, TargetProp> targetProps;
+    /** 源属性与目标属性对应关系(按源对象类型缓存) */
+    private final WeakConcurrentMap<Class<?>, Binding> bindings = new WeakConcurrentMap<>();
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param targetType 目标对象类型(可能包含泛型参数)
+     * @param targetClass 目标对象类
+     * @param version 转换器注册表版本号
+     */
+    private CopyPlan(Type targetType, Class<?> targetClass, int version) {
+        this.targetClass = targetClass;
+        this.version = version;
+        Collection<PropDesc> pds = BeanUtil.getBeanDesc(targetClass).getProps();
+        Map<String, TargetProp> props = new HashMap<>(pds.size() * 2);
+        for (PropDesc pd : pds) {
+            // 字段不可写
+            if (!pd.isWritable(false)) {
+                continue;
+            }
+            props.put(pd.getFieldName(), new TargetProp(pd, TypeUtil.getActualType(targetType, pd.getFieldType())));
+        }
+        this.targetProps = props;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 获得拷贝计划
+     * @param targetType 目标对象类型(可能包含泛型参数)
+     * @param targetClass 目标对象类
+     * @return 拷贝计划
+     */
+    static CopyPlan of(Type targetType, Class<?> targetClass) {
+        int version = ConverterManager.getInstance().getVersion();
+        CopyPlan plan = CACHE.get(targetType);
+        if (plan != null && plan.version == version && plan.targetClass == targetClass) {
+            return plan;
+        }
+        plan = new CopyPlan(targetType, targetClass, version);
+        // 目标对象类与目标类型不一致的情况（很少见）不缓存
+        if (targetClass == TypeUtil.getClass(targetType)) {
+            CACHE.put(targetType, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 拷贝 Map 到 Bean
+     * @param source 源Map
+     * @param target 目标Bean
+     * @param options 配置项
+     */
+    void copyMapToBean(Map<?, ?> source, Object target, CopyOptions options) {
+        final boolean checkTransient = options.isCheckTransient();
+        final boolean ignoreNull = options.isIgnoreNull();
+        final boolean override = options.isOverride();
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            TargetProp prop = targetProps.get(entry.getKey().toString());
+            if (prop == null) {
+                continue;
+            }
+            prop.copy(entry.getValue(), target, checkTransient, ignoreNull, override);
+        }
+    }
+
+    /**
+     * 拷贝 Bean 到 Bean
+     * @param source 源Bean
+     * @param target 目标Bean
+     * @param options 配置项
+     */
+    void copyBeanToBean(Object source, Object target, CopyOptions options) {
+        final boolean checkTransient = options.isCheckTransient();
+        final boolean ignoreNull = options.isIgnoreNull();
+        final boolean override = options.isOverride();
+        final Binding binding = bindings.computeIfAbsent(source.getClass(), this::bind);
+        final PropDesc[] sources = binding.sources;
+        final TargetProp[] targets = binding.targets;
+        for (int i = 0; i < sources.length; i++) {
+            Object value = sources[i].getValue(source);
+            // 忽略 null
+            if (value == null && ignoreNull) {
+                continue;
+            }
+            targets[i].copy(value, target, checkTransient, ignoreNull, override);
+        }
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 计算源对象类型的属性与目标属性的对应关系
+     * @param sourceClass 源对象类型
+     * @return 属性对应关系
+     */
+    private Binding bind(Class<?> sourceClass) {
+        List<PropDesc> sources = new ArrayList<>();
+        List<TargetProp> targets = new ArrayList<>();
+        for (PropDesc pd : BeanUtil.getBeanDesc(sourceClass).getProps()) {
+            TargetProp prop = targetProps.get(pd.getFieldName());
+            if (prop != null) {
+                sources.add(pd);
+                targets.add(prop);
+            }
+        }
+        return new Binding(sources.toArray(new PropDesc[0]), targets.toArray(new TargetProp[0]));
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 源属性与目标属性的对应关系
+     */
+    private static class Binding {
+        final PropDesc[] sources;
+        final TargetProp[] targets;
+
+        Binding(PropDesc[] sources, TargetProp[] targets) {
+            this.sources = sources;
+            this.targets = targets;
+        }
+    }
+
+    /**
+     * 目标属性(包含预先计算的实际类型和类型转换方式)
+     */
+    private static class TargetProp {
+        /** 属性描述 */
+        final PropDesc pd;
+        /** 属性实际类型 */
+        final Type toType;
+        /** 检查 Transient 时是否可写 */
+        final boolean transientWritable;
+        /** 类型转换器(由 {@link ConverterManager#resolve(Type)} 解析)，为null时使用 {@link ConvertUtil#convert(Object, Type, Object)} */
+        final Converter<Object> converter;
+        /** 值是该类型的实例时无需转换，为null时总是需要转换 */
+        final Class<?> assignableClass;
+
+        @SuppressWarnings("unchecked")
+        TargetProp(PropDesc pd, Type toType) {
+            this.pd = pd;
+            this.toType = toType;
+            this.transientWritable = pd.isWritable(true);
+            this.converter = toType == null ? null : (Converter<Object>) ConverterManager.getInstance().resolve(toType);
+            this.assignableClass = resolveAssignableClass(toType, converter);
+        }
+
+        /**
+         * 转换值并赋值给目标对象
+         * @param value 值
+         * @param target 目标对象
+         * @param checkTransient 是否检查Transient
+         * @param ignoreNull 是否忽略null值
+         * @param override 是否覆盖目标值
+         */
+        void copy(Object value, Object target, boolean checkTransient, boolean ignoreNull, boolean override) {
+            // 字段不可写
+            if (checkTransient && !transientWritable) {
+                return;
+            }
+            value = convert(value);
+            // 忽略 null
+            if (value == null && ignoreNull) {
+                return;
+            }
+            // 不是覆盖模式，并且目标对象有值
+            if (!override && pd.getValue(target) != null) {
+                return;
+            }
+            // 目标赋值
+            pd.setValue(target, value);
+        }
+
+        /**
+         * 将值转换为属性类型
+         * @param value 值
+         * @return 转换后的值
+         */
+        Object convert(Object value) {
+            if (value != null && assignableClass != null && assignableClass.isInstance(value)) {
+                return value;
+            }
+            if (converter != null) {
+                return converter.convert(value, toType, null);
+            }
+            return ConvertUtil.convert(value, toType, null);
+        }
+
+        /**
+         * 获得无需转换的值类型：只有转换结果一定是值本身的情况（目标类型为 Object，或者由 {@link BasicConverter} 转换的明确类型）才跳过转换
+         * @param toType 属性实际类型
+         * @param converter 类型转换器
+         * @return 无需转换的值类型，如果总是需要转换返回null
+         */
+        private static Class<?> resolveAssignableClass(Type toType, Converter<?> converter) {
+            if (!(toType instanceof Class)) {
+                return null;
+            }
+            Class<?> toClass = (Class<?>) toType;
+            if (toClass == Object.class) {
+                return toClass;
+            }
+            return converter instanceof BasicConverter ? Primitives.wrap(toClass) : null;
+        }
+    }
+}
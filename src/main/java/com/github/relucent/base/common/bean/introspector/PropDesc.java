@@ -5,12 +5,17 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+import com.github.relucent.base.common.exception.ExceptionUtil;
+import com.github.relucent.base.common.exception.GeneralException;
 import com.github.relucent.base.common.reflect.AnnotationUtil;
 import com.github.relucent.base.common.reflect.FieldUtil;
 import com.github.relucent.base.common.reflect.MethodUtil;
 import com.github.relucent.base.common.reflect.ModifierUtil;
 import com.github.relucent.base.common.reflect.TypeUtil;
+import com.github.relucent.base.common.reflect.access.LambdaAccess;
 
 /**
  * 属性描述，为{@code java.beans.PropertyDescriptor} 的替代方案<br>
@@ -33,6 +38,14 @@ public class PropDesc implements Serializable {
      * Setter方法
      */
     protected final Method setter;
+    /**
+     * Getter方法访问函数(首次使用时生成)
+     */
+    private transient volatile Function<Object, Object> getterAccessor;
+    /**
+     * Setter方法访问函数(首次使用时生成)
+     */
+    private transient volatile BiConsumer<Object, Object> setterAccessor;
 
     // ==============================Constructors=====================================
     /**
@@ -140,7 +153,18 @@ public class PropDesc implements Serializable {
      */
     public Object getValue(Object bean) {
         if (getter != null) {
-            return MethodUtil.invoke(bean, getter);
+            Function<Object, Object> accessor = getterAccessor;
+            if (accessor == null) {
+                getterAccessor = accessor = createGetterAccessor();
+            }
+            try {
+                return accessor.apply(bean);
+            } catch (GeneralException e) {
+                throw e;
+            } catch (Throwable e) {
+                // LambdaMetafactory 生成的函数直接调用方法，方法抛出的受检异常也会原样抛出，与反射调用一样包装为 GeneralException
+                throw ExceptionUtil.propagate(e);
+            }
         } else if (ModifierUtil.isPublic(field)) {
             return FieldUtil.getFieldValue(bean, field);
         }
@@ -176,13 +200,48 @@ public class PropDesc implements Serializable {
      */
     public void setValue(Object bean, Object value) {
         if (setter != null) {
-            MethodUtil.invoke(bean, setter, value);
+            BiConsumer<Object, Object> accessor = setterAccessor;
+            if (accessor == null) {
+                setterAccessor = accessor = createSetterAccessor();
+            }
+            try {
+                accessor.accept(bean, value);
+            } catch (GeneralException e) {
+                throw e;
+            } catch (Throwable e) {
+                // LambdaMetafactory 生成的函数直接调用方法，方法抛出的受检异常也会原样抛出，与反射调用一样包装为 GeneralException
+                throw ExceptionUtil.propagate(e);
+            }
         } else if (ModifierUtil.isPublic(field)) {
             FieldUtil.setFieldValue(bean, field, value);
         }
     }
 
     // ==============================PrivateMethods===================================
+    /**
+     * 创建Getter方法访问函数，优先使用 {@link LambdaAccess} 生成的函数，无法生成时回退为反射调用
+     * @return Getter方法访问函数
+     */
+    private Function<Object, Object> createGetterAccessor() {
+        Function<Object, Object> accessor = LambdaAccess.getter(getter);
+        if (accessor == null) {
+            accessor = bean -> MethodUtil.invoke(bean, getter);
+        }
+        return accessor;
+    }
+
+    /**
+     * 创建Setter方法访问函数，优先使用 {@link LambdaAccess} 生成的函数，无法生成时回退为反射调用
+     * @return Setter方法访问函数
+     */
+    private BiConsumer<Object, Object> createSetterAccessor() {
+        BiConsumer<Object, Object> accessor = LambdaAccess.setter(setter);
+        if (accessor == null) {
+            accessor = (bean, value) -> MethodUtil.invoke(bean, setter, value);
+        }
+        return accessor;
+    }
+
     /**
      * 通过Getter和Setter方法中找到属性类型
      * @param getter Getter方法
@@ -0,0 +1,212 @@
+package com.github.relucent.base.common.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地缓存管理器(进程内存)<br>
+ * 缓存对象按 {@link CacheDefinition#getTtl()} 和 {@link CacheDefinition#getMaxIdleTime()} 过期(读取时检查，过期的对象在读取或者淘汰时移除)。<br>
+ * 每个缓存最多保存指定数量的对象，指定了权重计算器时对象的总权重(例如估算的字节数)也不超过上限，超出时按最久没有访问的顺序淘汰。<br>
+ * 相同名称的缓存定义返回同一个缓存实例。
+ */
+public class LocalCacheManager implements CacheManager {
+
+    // ==============================Constants========================================
+    /** 默认每个缓存的最大对象数 */
+    private static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    // ==============================Fields===========================================
+    /** 每个缓存的最大对象数 */
+    private final int maximumSize;
+    /** 每个缓存的最大总权重，0 表示不限制 */
+    private final long maximumWeight;
+    /** 权重计算器 */
+    private final Weigher weigher;
+    /** 缓存实例 */
+    private final Map<String, LocalCache<?>> caches = new ConcurrentHashMap<>();
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数，每个缓存最多保存10000个对象
+     */
+    public LocalCacheManager() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * 构造函数
+     * @param maximumSize 每个缓存的最大对象数
+     */
+    public LocalCacheManager(int maximumSize) {
+        this(maximumSize, 0L, null);
+    }
+
+    /**
+     * 构造函数
+     * @param maximumSize 每个缓存的最大对象数
+     * @param maximumWeight 每个缓存的最大总权重(例如字节数)，0 表示不限制
+     * @param weigher 权重计算器，{@code maximumWeight} 为 0 时可以为 {@code null}
+     */
+    public LocalCacheManager(int maximumSize, long maximumWeight, Weigher weigher) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight must not be negative: " + maximumWeight);
+        }
+        if (maximumWeight > 0 && weigher == null) {
+            throw new NullPointerException("weigher");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = maximumWeight > 0 ? weigher : null;
+    }
+
+    // ==============================Methods==========================================
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Cache<T> getCache(CacheDefinition<T> definition) {
+        return (Cache<T>) caches.computeIfAbsent(definition.getName(), name -> new LocalCache<>(definition, maximumSize, maximumWeight, weigher));
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 权重计算器，用于限制缓存对象的总大小
+     */
+    @FunctionalInterface
+    public interface Weigher {
+        /**
+         * 计算缓存对象的权重
+         * @param key 缓存键
+         * @param value 缓存对象
+         * @return 权重(不能为负数)
+         */
+        long weigh(String key, Object value);
+    }
+
+    /**
+     * 本地缓存
+     * @param <T> 缓存对象类型
+     */
+    private static class LocalCache<T> implements Cache<T> {
+
+        private final long ttlNanos;
+        private final long maxIdleNanos;
+        private final int maximumSize;
+        private final long maximumWeight;
+        private final Weigher weigher;
+        /** 访问顺序的 LinkedHashMap，最久没有访问的对象在最前面 */
+        private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75F, true);
+        /** 当前的总权重 */
+        private long totalWeight;
+
+        private LocalCache(CacheDefinition<T> definition, int maximumSize, long maximumWeight, Weigher weigher) {
+            this.ttlNanos = toNanos(definition.getTtl());
+            this.maxIdleNanos = toNanos(definition.getMaxIdleTime());
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+        }
+
+        @Override
+        public synchronized T get(String key) {
+            Entry<T> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (isExpired(entry, now)) {
+                remove(key);
+                return null;
+            }
+            entry.accessedAt = now;
+            return entry.value;
+        }
+
+        @Override
+        public synchronized void put(String key, T value) {
+            if (value == null) {
+                remove(key);
+                return;
+            }
+            long weight = weigh(key, value);
+            // 单个对象超过最大总权重时不缓存，也不淘汰其它对象
+            if (maximumWeight > 0 && weight > maximumWeight) {
+                remove(key);
+                return;
+            }
+            Entry<T> old = entries.put(key, new Entry<>(value, System.nanoTime(), weight));
+            if (old != null) {
+                totalWeight -= old.weight;
+            }
+            totalWeight += weight;
+            evict();
+        }
+
+        @Override
+        public synchronized void remove(String key) {
+            Entry<T> old = entries.remove(key);
+            if (old != null) {
+                totalWeight -= old.weight;
+            }
+        }
+
+        @Override
+        public synchronized void clear() {
+            entries.clear();
+            totalWeight = 0;
+        }
+
+        /**
+         * 超出最大对象数或者最大总权重时，按最久没有访问的顺序淘汰对象(每次淘汰 O(1))
+         */
+        private void evict() {
+            Iterator<Entry<T>> iterator = entries.values().iterator();
+            while ((entries.size() > maximumSize || (maximumWeight > 0 && totalWeight > maximumWeight)) && iterator.hasNext()) {
+                totalWeight -= iterator.next().weight;
+                iterator.remove();
+            }
+        }
+
+        private long weigh(String key, T value) {
+            if (weigher == null) {
+                return 0L;
+            }
+            long weight = weigher.weigh(key, value);
+            if (weight < 0) {
+                throw new IllegalArgumentException("weight must not be negative: " + weight);
+            }
+            return weight;
+        }
+
+        private boolean isExpired(Entry<T> entry, long now) {
+            return (ttlNanos > 0 && now - entry.createdAt >= ttlNanos) || (maxIdleNanos > 0 && now - entry.accessedAt >= maxIdleNanos);
+        }
+
+        private static long toNanos(Duration duration) {
+            return duration == null || duration.isNegative() ? 0 : duration.toNanos();
+        }
+    }
+
+    /**
+     * 缓存条目
+     * @param <T> 缓存对象类型
+     */
+    private static class Entry<T> {
+
+        private final T value;
+        private final long createdAt;
+        private final long weight;
+        private long accessedAt;
+
+        private Entry(T value, long createdAt, long weight) {
+            this.value = value;
+            this.createdAt = createdAt;
+            this.weight = weight;
+            this.accessedAt = createdAt;
+        }
+    }
+}
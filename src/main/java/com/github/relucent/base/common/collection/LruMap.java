@@ -0,0 +1,45 @@
+package com.github.relucent.base.common.collection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 有容量上限的 LRU(最近最少使用) 映射，元素数超过上限时淘汰最久没有访问的元素。<br>
+ * 该类不是线程安全的，多线程使用时可以通过 {@link java.util.Collections#synchronizedMap(Map)} 包装。
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+@SuppressWarnings("serial")
+public class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    // ==============================Fields===========================================
+    /** 最大元素数 */
+    private final int maximumSize;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param maximumSize 最大元素数
+     */
+    public LruMap(int maximumSize) {
+        super(16, 0.75F, true);
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 获得最大元素数
+     * @return 最大元素数
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maximumSize;
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.relucent.base.common.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应并发限制器（梯度算法）<br>
+ * 根据请求的响应时间(RTT)自动调整并发上限：短期 RTT 接近长期 RTT 时说明下游没有排队，上限逐步增加；短期 RTT 明显变大时说明下游开始排队，上限按比例降低；请求失败(超时、连接被拒绝等)时上限乘以 0.9。<br>
+ * 达到上限时 {@link #tryAcquire()} 立即返回 {@code false}，调用方应该直接拒绝请求（快速失败），而不是排队等待，避免在下游过载时堆积请求。<br>
+ * 每次 {@link #tryAcquire()} 成功后，必须调用 {@link #onSuccess(long)}、{@link #onDropped()} 或 {@link #onIgnore()} 中的一个释放许可。
+ *
+ * <pre>
+ * AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 1000);
+ * if (!limiter.tryAcquire()) {
+ *     throw new RejectedExecutionException();
+ * }
+ * long start = System.nanoTime();
+ * try {
+ *     call();
+ *     limiter.onSuccess(System.nanoTime() - start);
+ * } catch (TimeoutException e) {
+ *     limiter.onDropped();
+ * }
+ * </pre>
+ */
+public class AdaptiveLimiter {
+
+    // ==============================Constants========================================
+    /** 新上限的平滑系数 */
+    private static final double SMOOTHING = 0.2D;
+    /** 允许短期 RTT 超过长期 RTT 的倍数 */
+    private static final double RTT_TOLERANCE = 1.5D;
+    /** 长期 RTT 的窗口(样本数) */
+    private static final int LONG_WINDOW = 600;
+    /** 请求失败时上限的乘数 */
+    private static final double BACKOFF_RATIO = 0.9D;
+
+    // ==============================Fields===========================================
+    /** 最小上限 */
+    private final int minLimit;
+    /** 最大上限 */
+    private final int maxLimit;
+    /** 当前上限 */
+    private double limit;
+    /** 正在执行的请求数 */
+    private int inFlight;
+    /** 长期 RTT(纳秒，指数移动平均) */
+    private double longRtt;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param initialLimit 初始上限
+     * @param minLimit 最小上限
+     * @param maxLimit 最大上限
+     */
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit range: [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 尝试获得许可(不等待)
+     * @return 正在执行的请求数没有达到上限返回 {@code true}
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * 请求成功，释放许可并根据 RTT 调整上限
+     * @param rttNanos 请求的响应时间(纳秒)
+     */
+    public synchronized void onSuccess(long rttNanos) {
+        int current = inFlight;
+        inFlight--;
+        double shortRtt = Math.max(rttNanos, 1L);
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt = longRtt + (shortRtt - longRtt) / LONG_WINDOW;
+        }
+        // 负载下降后长期 RTT 可能偏高很久，加速向短期 RTT 靠拢
+        if (longRtt / shortRtt > 2D) {
+            longRtt *= 0.95D;
+        }
+        // 请求数远低于上限时，RTT 不能说明上限是否合适，只允许降低上限
+        double gradient = Math.max(0.5D, Math.min(1D, RTT_TOLERANCE * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (newLimit > limit && current < limit / 2) {
+            return;
+        }
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * 请求失败(超时、过载等)，释放许可并降低上限
+     */
+    public synchronized void onDropped() {
+        inFlight--;
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    /**
+     * 释放许可，不调整上限(请求的结果不能反映下游的负载，如参数错误)
+     */
+    public synchronized void onIgnore() {
+        inFlight--;
+    }
+
+    /**
+     * 获得当前上限
+     * @return 当前上限
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * 获得正在执行的请求数
+     * @return 正在执行的请求数
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 获得长期 RTT
+     * @param unit 时间单位
+     * @return 长期 RTT
+     */
+    public synchronized long getLongRtt(TimeUnit unit) {
+        return unit.convert((long) longRtt, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AdaptiveLimiter [limit=" + (int) limit + ", inFlight=" + inFlight + "]";
+    }
+}
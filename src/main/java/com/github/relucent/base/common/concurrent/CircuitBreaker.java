@@ -0,0 +1,215 @@
+package com.github.relucent.base.common.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器（考虑延迟）<br>
+ * 统计最近若干次调用的结果，失败或者慢于阈值的调用都算作“坏调用”。坏调用的比例达到阈值时熔断器打开，之后的调用直接拒绝（快速失败）；<br>
+ * 打开一段时间后进入半开状态，允许少量试探调用：试探调用全部正常则关闭熔断器，出现坏调用则重新打开。<br>
+ * 每次 {@link #tryAcquire()} 成功后，必须调用 {@link #onSuccess(long)}、{@link #onError(long)} 或 {@link #onIgnore()} 中的一个。
+ */
+public class CircuitBreaker {
+
+    // ==============================Constants========================================
+    /** 默认统计窗口(调用次数) */
+    private static final int DEFAULT_WINDOW_SIZE = 100;
+    /** 默认计算比例需要的最少调用次数 */
+    private static final int DEFAULT_MINIMUM_CALLS = 20;
+    /** 默认半开状态的试探调用次数 */
+    private static final int DEFAULT_HALF_OPEN_CALLS = 5;
+
+    // ==============================Fields===========================================
+    /** 坏调用比例的阈值(0~1) */
+    private final double failureRateThreshold;
+    /** 慢调用的阈值(纳秒) */
+    private final long slowCallNanos;
+    /** 打开状态的持续时间(纳秒) */
+    private final long openNanos;
+    /** 计算比例需要的最少调用次数 */
+    private final int minimumCalls;
+    /** 半开状态的试探调用次数 */
+    private final int halfOpenCalls;
+    /** 最近调用的结果(环形缓冲区，true 表示坏调用) */
+    private final boolean[] window;
+    /** 环形缓冲区的写入位置 */
+    private int position;
+    /** 窗口中的调用次数 */
+    private int calls;
+    /** 窗口中的坏调用次数 */
+    private int failures;
+    /** 状态 */
+    private State state = State.CLOSED;
+    /** 打开的时间 */
+    private long openedAt;
+    /** 半开状态已经放行的试探调用次数 */
+    private int halfOpenPermits;
+    /** 半开状态已经成功的试探调用次数 */
+    private int halfOpenSuccesses;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数，统计最近100次调用，至少20次调用后才计算比例，半开状态试探5次
+     * @param failureRateThreshold 坏调用比例的阈值(0~1)
+     * @param slowCallMillis 慢调用的阈值(毫秒)，小于等于0表示不统计慢调用
+     * @param openMillis 打开状态的持续时间(毫秒)
+     */
+    public CircuitBreaker(double failureRateThreshold, long slowCallMillis, long openMillis) {
+        this(failureRateThreshold, slowCallMillis, openMillis, DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_HALF_OPEN_CALLS);
+    }
+
+    /**
+     * 构造函数
+     * @param failureRateThreshold 坏调用比例的阈值(0~1)
+     * @param slowCallMillis 慢调用的阈值(毫秒)，小于等于0表示不统计慢调用
+     * @param openMillis 打开状态的持续时间(毫秒)
+     * @param windowSize 统计窗口(调用次数)
+     * @param minimumCalls 计算比例需要的最少调用次数
+     * @param halfOpenCalls 半开状态的试探调用次数
+     */
+    public CircuitBreaker(double failureRateThreshold, long slowCallMillis, long openMillis, int windowSize, int minimumCalls, int halfOpenCalls) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be in range (0, 1]: " + failureRateThreshold);
+        }
+        if (windowSize <= 0 || minimumCalls <= 0 || halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("windowSize, minimumCalls and halfOpenCalls must be positive");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallMillis <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 尝试调用
+     * @return 允许调用返回 {@code true}，熔断器打开(或者半开状态的试探调用已满)时返回 {@code false}
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    /**
+     * 调用成功(耗时超过慢调用阈值时算作坏调用)
+     * @param durationNanos 调用耗时(纳秒)
+     */
+    public synchronized void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallNanos);
+    }
+
+    /**
+     * 调用失败
+     * @param durationNanos 调用耗时(纳秒)
+     */
+    public synchronized void onError(long durationNanos) {
+        record(true);
+    }
+
+    /**
+     * 忽略这次调用(调用没有真正执行，或者失败与下游无关)
+     */
+    public synchronized void onIgnore() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    /**
+     * 获得状态
+     * @return 状态
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * 获得窗口中坏调用的比例
+     * @return 坏调用的比例(0~1)，没有调用时返回0
+     */
+    public synchronized double getFailureRate() {
+        return calls == 0 ? 0D : (double) failures / calls;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker [state=" + getState() + ", calls=" + calls + ", failures=" + failures + "]";
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 记录调用结果并转换状态
+     * @param bad 是否是坏调用
+     */
+    private void record(boolean bad) {
+        if (state == State.HALF_OPEN) {
+            if (bad) {
+                open();
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // 打开之前放行的调用
+            return;
+        }
+        if (calls == window.length) {
+            if (window[position]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[position] = bad;
+        if (bad) {
+            failures++;
+        }
+        position = (position + 1) % window.length;
+        if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        position = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /** 关闭(正常调用) */
+        CLOSED,
+        /** 打开(拒绝调用) */
+        OPEN,
+        /** 半开(允许少量试探调用) */
+        HALF_OPEN;
+    }
+}
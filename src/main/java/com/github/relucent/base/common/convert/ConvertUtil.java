@@ -3,21 +3,14 @@ package com.github.relucent.base.common.convert;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Map;
+import java.util.List;
 
-import com.github.relucent.base.common.bean.BeanUtil;
 import com.github.relucent.base.common.collection.Listx;
 import com.github.relucent.base.common.collection.Mapx;
-import com.github.relucent.base.common.convert.impl.ArrayConverter;
-import com.github.relucent.base.common.convert.impl.BeanConverter;
-import com.github.relucent.base.common.convert.impl.ClassConverter;
-import com.github.relucent.base.common.convert.impl.CollectionConverter;
-import com.github.relucent.base.common.convert.impl.EnumConverter;
-import com.github.relucent.base.common.convert.impl.MapConverter;
 import com.github.relucent.base.common.reflect.TypeReference;
-import com.github.relucent.base.common.reflect.TypeUtil;
 
 /**
  * 类型转换工具类(Type Conversion) Standard Wrapped
@@ -307,58 +300,152 @@ public class ConvertUtil {
             return convert(source, (Type) ((TypeReference) toType).getType(), defaultValue);
         }
 
-        if (toType == Object.class) {
-            return (T) source;
-        }
-
-        Converter converter = ConverterManager.getInstance().lookup(toType);
+        Converter converter = ConverterManager.getInstance().resolve(toType);
 
         if (converter != null) {
             return (T) converter.convert(source, toType, defaultValue);
         }
 
-        Class<T> rowType = (Class<T>) TypeUtil.getClass(toType);
-
-        if (rowType == null) {
-            if (defaultValue != null) {
-                rowType = (Class<T>) defaultValue.getClass();
-            } else {
-                // 此处考虑抛出异常
-                return defaultValue;
-            }
+        // 目标类型无法确定具体的类，使用默认值的类型
+        if (defaultValue != null) {
+            converter = ConverterManager.getInstance().resolve(toType, defaultValue.getClass());
+            return (T) converter.convert(source, toType, defaultValue);
         }
 
-        // 枚举类型
-        if (rowType.isEnum()) {
-            return (T) EnumConverter.INSTANCE.convert(source, (Class<? extends Enum>) toType, (Enum) defaultValue);
-        }
+        // 此处考虑抛出异常
+        return defaultValue;
+    }
 
-        // 数组类型
-        if (rowType.isArray()) {
-            return (T) ArrayConverter.INSTANCE.convert(source, toType, defaultValue);
-        }
+    /**
+     * 将集合中的每个元素转换为指定的类型<br>
+     * 类型转换器只解析一次，适用于批量转换同一类型的场景。
+     * @param <T> 转换类型泛型
+     * @param values 要转换的元素集合
+     * @param toType 转换的目标类型
+     * @return 转换类型后的列表(无法正确转换类型的元素为 {@code null})
+     */
+    public static <T> List<T> convertAll(Iterable<?> values, Class<T> toType) {
+        return convertAll(values, (Type) toType);
+    }
 
-        // 集合类型（含有泛型参数）
-        if (Collection.class.isAssignableFrom(rowType)) {
-            return (T) CollectionConverter.INSTANCE.convert(source, toType, (Collection<?>) defaultValue);
-        }
+    /**
+     * 将集合中的每个元素转换为指定的类型<br>
+     * 类型转换器只解析一次，适用于批量转换同一类型的场景。
+     * @param <T> 转换类型泛型
+     * @param values 要转换的元素集合
+     * @param typeReference 转换的目标类型引用(可包含泛型参数)
+     * @return 转换类型后的列表(无法正确转换类型的元素为 {@code null})
+     */
+    public static <T> List<T> convertAll(Iterable<?> values, TypeReference<T> typeReference) {
+        return convertAll(values, typeReference.getType());
+    }
 
-        // Map 类型
-        if (Map.class.isAssignableFrom(rowType)) {
-            return (T) MapConverter.INSTANCE.convert(source, toType, (Map<?, ?>) defaultValue);
+    /**
+     * 将集合中的每个元素转换为指定的类型<br>
+     * 类型转换器只解析一次，适用于批量转换同一类型的场景。
+     * @param <T> 转换类型泛型
+     * @param values 要转换的元素集合
+     * @param toType 转换的目标类型
+     * @return 转换类型后的列表(无法正确转换类型的元素为 {@code null})
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static <T> List<T> convertAll(Iterable<?> values, Type toType) {
+        if (values == null) {
+            return new ArrayList<>();
+        }
+        List<T> result = values instanceof Collection ? new ArrayList<>(((Collection<?>) values).size()) : new ArrayList<>();
+        Converter converter = toType == null ? null : ConverterManager.getInstance().resolve(toType);
+        for (Object value : values) {
+            result.add(converter == null ? null : (T) converter.convert(value, toType, null));
         }
+        return result;
+    }
+
+    /**
+     * 将集合转换为 int 数组<br>
+     * 数字和数字字符串直接转换，不会产生装箱对象；无法转换的元素为 0
+     * @param values 要转换的元素集合
+     * @return int 数组
+     */
+    public static int[] toIntArray(Collection<?> values) {
+        return toIntArray(values, 0);
+    }
 
-        // Bean
-        if (BeanUtil.isWritableBean(rowType)) {
-            return (T) BeanConverter.INSTANCE.convert(source, toType);
+    /**
+     * 将集合转换为 int 数组<br>
+     * 数字和数字字符串直接转换，不会产生装箱对象
+     * @param values 要转换的元素集合
+     * @param defaultValue 元素为 {@code null} 或者无法转换时使用的默认值
+     * @return int 数组
+     */
+    public static int[] toIntArray(Collection<?> values, int defaultValue) {
+        if (values == null) {
+            return new int[0];
+        }
+        int[] result = new int[values.size()];
+        int i = 0;
+        for (Object value : values) {
+            result[i++] = toIntValue(value, defaultValue);
         }
+        return result;
+    }
+
+    /**
+     * 将集合转换为 long 数组<br>
+     * 数字和数字字符串直接转换，不会产生装箱对象；无法转换的元素为 0
+     * @param values 要转换的元素集合
+     * @return long 数组
+     */
+    public static long[] toLongArray(Collection<?> values) {
+        return toLongArray(values, 0L);
+    }
 
-        // Class
-        if ("java.lang.Class".equals(rowType.getName())) {
-            return (T) ClassConverter.INSTANCE.convert(source, toType);
+    /**
+     * 将集合转换为 long 数组<br>
+     * 数字和数字字符串直接转换，不会产生装箱对象
+     * @param values 要转换的元素集合
+     * @param defaultValue 元素为 {@code null} 或者无法转换时使用的默认值
+     * @return long 数组
+     */
+    public static long[] toLongArray(Collection<?> values, long defaultValue) {
+        if (values == null) {
+            return new long[0];
         }
+        long[] result = new long[values.size()];
+        int i = 0;
+        for (Object value : values) {
+            result[i++] = toLongValue(value, defaultValue);
+        }
+        return result;
+    }
 
-        return defaultValue;
+    /**
+     * 将集合转换为 double 数组<br>
+     * 数字和数字字符串直接转换，不会产生装箱对象；无法转换的元素为 0
+     * @param values 要转换的元素集合
+     * @return double 数组
+     */
+    public static double[] toDoubleArray(Collection<?> values) {
+        return toDoubleArray(values, 0D);
+    }
+
+    /**
+     * 将集合转换为 double 数组<br>
+     * 数字和数字字符串直接转换，不会产生装箱对象
+     * @param values 要转换的元素集合
+     * @param defaultValue 元素为 {@code null} 或者无法转换时使用的默认值
+     * @return double 数组
+     */
+    public static double[] toDoubleArray(Collection<?> values, double defaultValue) {
+        if (values == null) {
+            return new double[0];
+        }
+        double[] result = new double[values.size()];
+        int i = 0;
+        for (Object value : values) {
+            result[i++] = toDoubleValue(value, defaultValue);
+        }
+        return result;
     }
 
     /**
@@ -398,4 +485,120 @@ public class ConvertUtil {
         }
         return false;
     }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 将对象转换为 int 值(数字和十进制整数字符串不装箱)
+     * @param value 待转换对象
+     * @param defaultValue 默认值
+     * @return int 值
+     */
+    private static int toIntValue(Object value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            if (isDecimalInteger(text, 10)) {
+                return Integer.parseInt(text);
+            }
+        }
+        Integer result = convert(value, Integer.class, null);
+        return result == null ? defaultValue : result.intValue();
+    }
+
+    /**
+     * 将对象转换为 long 值(数字和十进制整数字符串不装箱)
+     * @param value 待转换对象
+     * @param defaultValue 默认值
+     * @return long 值
+     */
+    private static long toLongValue(Object value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            if (isDecimalInteger(text, 19)) {
+                return Long.parseLong(text);
+            }
+        }
+        Long result = convert(value, Long.class, null);
+        return result == null ? defaultValue : result.longValue();
+    }
+
+    /**
+     * 将对象转换为 double 值(数字和十进制数字字符串不装箱)
+     * @param value 待转换对象
+     * @param defaultValue 默认值
+     * @return double 值
+     */
+    private static double toDoubleValue(Object value, double defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            if (isDecimalInteger(text, 15)) {
+                return Long.parseLong(text);
+            }
+            // 小数(例如 4.5)直接解析，解析失败时再使用转换器
+            if (isDecimalStart(text)) {
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    // ignore
+                }
+            }
+        }
+        Double result = convert(value, Double.class, null);
+        return result == null ? defaultValue : result.doubleValue();
+    }
+
+    /**
+     * 判断字符串是否是可以直接解析的十进制整数(可带正负号，数字位数小于 maxDigits，解析时一定不会溢出)
+     * @param text 字符串
+     * @param maxDigits 位数上限(int为10，long为19，double为15)
+     * @return 可以直接解析返回{@code true}
+     */
+    private static boolean isDecimalInteger(String text, int maxDigits) {
+        int length = text.length();
+        int start = 0;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            start = 1;
+        }
+        int digits = length - start;
+        if (digits == 0 || digits >= maxDigits) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断字符串是否以数字、正负号或小数点开头(用于跳过明显不是数字的字符串，避免解析异常的开销)
+     * @param text 字符串
+     * @return 以数字、正负号或小数点开头返回{@code true}
+     */
+    private static boolean isDecimalStart(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char c = text.charAt(0);
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+    }
 }
@@ -18,6 +18,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.TemporalAccessor;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
@@ -28,13 +29,20 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.github.relucent.base.common.bean.BeanUtil;
 import com.github.relucent.base.common.collection.WeakConcurrentMap;
+import com.github.relucent.base.common.convert.impl.ArrayConverter;
+import com.github.relucent.base.common.convert.impl.BeanConverter;
 import com.github.relucent.base.common.convert.impl.BooleanConverter;
 import com.github.relucent.base.common.convert.impl.CalendarConverter;
 import com.github.relucent.base.common.convert.impl.CharacterConverter;
+import com.github.relucent.base.common.convert.impl.ClassConverter;
+import com.github.relucent.base.common.convert.impl.CollectionConverter;
 import com.github.relucent.base.common.convert.impl.DateConverter;
 import com.github.relucent.base.common.convert.impl.DurationConverter;
+import com.github.relucent.base.common.convert.impl.EnumConverter;
 import com.github.relucent.base.common.convert.impl.LocaleConverter;
+import com.github.relucent.base.common.convert.impl.MapConverter;
 import com.github.relucent.base.common.convert.impl.NumberConverter;
 import com.github.relucent.base.common.convert.impl.PeriodConverter;
 import com.github.relucent.base.common.convert.impl.PrimitiveConverter;
@@ -42,6 +50,7 @@ import com.github.relucent.base.common.convert.impl.StringConverter;
 import com.github.relucent.base.common.convert.impl.TemporalAccessorConverter;
 import com.github.relucent.base.common.convert.impl.TimeZoneConverter;
 import com.github.relucent.base.common.convert.impl.ZoneIdConverter;
+import com.github.relucent.base.common.reflect.TypeUtil;
 
 /**
  * 类型转换管理器<br>
@@ -60,11 +69,32 @@ public class ConverterManager {
         return CONVERTER_MANAGER;
     }
 
+    // =================================Constants==============================================
+    /** 直接返回源对象的转换器(目标类型为 Object) */
+    private static final Converter<Object> IDENTITY_CONVERTER = new Converter<Object>() {
+        @Override
+        public Object convert(Object source, Type toType) {
+            return source;
+        }
+
+        @Override
+        public Object convert(Object source, Type toType, Object defaultValue) {
+            return source;
+        }
+    };
+
+    /** 不支持转换的转换器(总是返回默认值) */
+    private static final Converter<Object> UNSUPPORTED_CONVERTER = (source, toType) -> null;
+
     // =================================Fields=================================================
     /** 默认类型转换器 */
     private final Map<Type, Converter<?>> defaultConverters = new ConcurrentHashMap<>();
     /** 自定义类型转换器 */
     private final Map<Type, Converter<?>> customConverters = new WeakConcurrentMap<>();
+    /** 转换器注册表版本号(每次注册或者取消注册转换器时递增，用于使依赖转换器查找结果的缓存失效) */
+    private final AtomicInteger version = new AtomicInteger();
+    /** 转换器解析结果缓存(注册表变化时整体替换) */
+    private volatile Resolutions resolutions = new Resolutions();
 
     // =================================Constructors===========================================
     /** 类型转换管理器 */
@@ -141,6 +171,8 @@ public class ConverterManager {
      */
     public <T> void register(final Class<T> type, final Converter<T> converter) {
         customConverters.put(type, converter);
+        resolutions = new Resolutions();
+        version.incrementAndGet();
     }
 
     /**
@@ -175,5 +207,127 @@ public class ConverterManager {
      */
     public void unregister(final Type type) {
         customConverters.remove(type);
+        resolutions = new Resolutions();
+        version.incrementAndGet();
+    }
+
+    /**
+     * 获得转换器注册表的版本号<br>
+     * 每次注册或者取消注册转换器时版本号都会改变，缓存了转换器查找结果的组件可以通过比较版本号判断缓存是否失效
+     * @return 版本号
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 解析指定类型最终使用的转换器，并缓存解析结果<br>
+     * 与 {@link #lookup(Type)} 不同，该方法还会解析没有注册转换器的类型（枚举、数组、集合、Map、Bean、Class）所使用的转换器，
+     * 解析规则与 {@link ConvertUtil#convert(Object, Type, Object)} 一致，所以每次转换只需要一次缓存查找。<br>
+     * 返回的转换器应该通过 {@link Converter#convert(Object, Type, Object)} 调用。
+     * @param type 转换的目标类型
+     * @return 目标类型对应的转换器，如果目标类型无法确定具体的类(例如未知的泛型变量)返回 {@code null}
+     */
+    public Converter<?> resolve(final Type type) {
+        final Resolutions current = resolutions;
+        if (type instanceof Class) {
+            return current.classes.get((Class<?>) type);
+        }
+        Converter<?> converter = current.types.get(type);
+        if (converter == null) {
+            converter = resolve(type, TypeUtil.getClass(type));
+            if (converter != null) {
+                current.types.put(type, converter);
+            }
+        }
+        return converter;
+    }
+
+    /**
+     * 解析指定类型最终使用的转换器(不使用缓存)
+     * @param type 转换的目标类型
+     * @param rowType 目标类型对应的类
+     * @return 目标类型对应的转换器，如果类为 {@code null} 返回 {@code null}
+     */
+    Converter<?> resolve(final Type type, final Class<?> rowType) {
+        if (type == Object.class) {
+            return IDENTITY_CONVERTER;
+        }
+
+        Converter<?> converter = lookup(type);
+        if (converter != null) {
+            return converter;
+        }
+
+        if (rowType == null) {
+            return null;
+        }
+
+        // 枚举类型
+        if (rowType.isEnum()) {
+            return EnumConverter.INSTANCE;
+        }
+
+        // 数组类型
+        if (rowType.isArray()) {
+            return ArrayConverter.INSTANCE;
+        }
+
+        // 集合类型（含有泛型参数）
+        if (Collection.class.isAssignableFrom(rowType)) {
+            return CollectionConverter.INSTANCE;
+        }
+
+        // Map 类型
+        if (Map.class.isAssignableFrom(rowType)) {
+            return MapConverter.INSTANCE;
+        }
+
+        // Bean
+        if (BeanUtil.isWritableBean(rowType)) {
+            return ignoreDefaultValue(BeanConverter.INSTANCE);
+        }
+
+        // Class
+        if ("java.lang.Class".equals(rowType.getName())) {
+            return ignoreDefaultValue(ClassConverter.INSTANCE);
+        }
+
+        return UNSUPPORTED_CONVERTER;
+    }
+
+    /**
+     * 包装转换器，转换结果为 {@code null} 时也不使用默认值
+     * @param <T> 转换的类型的泛型
+     * @param converter 转换器
+     * @return 包装后的转换器
+     */
+    private static <T> Converter<T> ignoreDefaultValue(final Converter<T> converter) {
+        return new Converter<T>() {
+            @Override
+            public T convert(Object source, Type toType) {
+                return converter.convert(source, toType);
+            }
+
+            @Override
+            public T convert(Object source, Type toType, T defaultValue) {
+                return converter.convert(source, toType);
+            }
+        };
+    }
+
+    /**
+     * 转换器解析结果缓存
+     */
+    private class Resolutions {
+        /** 类的解析结果 */
+        private final ClassValue<Converter<?>> classes = new ClassValue<Converter<?>>() {
+            @Override
+            protected Converter<?> computeValue(Class<?> type) {
+                return resolve(type, type);
+            }
+        };
+        /** 泛型等其他类型的解析结果 */
+        private final Map<Type, Converter<?>> types = new WeakConcurrentMap<>();
     }
 }
@@ -4,11 +4,10 @@ import java.sql.Timestamp;
 import java.time.temporal.TemporalAccessor;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.github.relucent.base.common.convert.BasicConverter;
 import com.github.relucent.base.common.convert.Converter;
+import com.github.relucent.base.common.lang.StringUtil;
 import com.github.relucent.base.common.reflect.TypeReference;
 import com.github.relucent.base.common.reflect.TypeReferenceCache;
 import com.github.relucent.base.common.reflect.internal.ObjectConstructor;
@@ -26,7 +25,8 @@ public class DateConverter implements BasicConverter<Date> {
 
     public static final DateConverter INSTANCE = new DateConverter();
 
-    private static final Pattern DATE_PATTERN = Pattern.compile("^new Date\\((\\d+)\\)$");
+    private static final String DATE_PREFIX = "new Date(";
+    private static final String DATE_SUFFIX = ")";
 
     public Date convertInternal(Object source, Class<? extends Date> toType) {
         try {
@@ -57,10 +57,12 @@ public class DateConverter implements BasicConverter<Date> {
         }
 
         final String value = String.valueOf(source);
-        Matcher dateMatcher = DATE_PATTERN.matcher(value);
-        if (dateMatcher.matches() && dateMatcher.find()) {
-            String msel = dateMatcher.group(1);
-            return Long.parseLong(msel);
+        // new Date(1234567890)
+        if (value.startsWith(DATE_PREFIX) && value.endsWith(DATE_SUFFIX)) {
+            String msel = value.substring(DATE_PREFIX.length(), value.length() - DATE_SUFFIX.length());
+            if (StringUtil.isDigits(msel)) {
+                return Long.parseLong(msel);
+            }
         }
 
         final TemporalAccessor temporal = TemporalAccessorUtil.parse(value);
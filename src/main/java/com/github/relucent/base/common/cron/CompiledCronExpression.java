@@ -0,0 +1,826 @@
+package com.github.relucent.base.common.cron;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译后的 CRON 表达式<br>
+ * 由 {@link CronExpression} 解析后的结果编译而来，每个字段保存为一个位掩码（long），基于 {@code java.time} 计算下一次/上一次触发时间。<br>
+ * 与 {@link CronExpression#getTimeAfter(Date)} 逐个时间单位调整日历不同，这里每个字段都是通过位运算直接跳到下一个（上一个）有效值，不满足条件的月份和年份整体跳过，
+ * 所以类似 {@code 0 0 0 29 2 ?} 这样稀疏的表达式计算成本与普通表达式相同。<br>
+ * 夏令时开始时不存在的本地时间向后顺延（与 {@link ZonedDateTime#ofLocal} 相同），夏令时结束时重复的本地时间只触发一次。<br>
+ * 实例是不可变的，可以在多线程之间共享。
+ */
+public final class CompiledCronExpression {
+
+    // ==============================Constants========================================
+    /** 支持的最小年份 */
+    private static final int MIN_YEAR = 1970;
+    /** 支持的最大年份 */
+    private static final int MAX_YEAR = 2999;
+    /** 每天的秒数 */
+    private static final int SECONDS_PER_DAY = 86400;
+    /** 从0000年到1970年的天数 */
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    /** 400年的天数 */
+    private static final int DAYS_PER_CYCLE = 146097;
+    /** 不存在的时间 */
+    private static final long NONE = Long.MIN_VALUE;
+    /** 非固定时区偏移 */
+    private static final int VARIABLE_OFFSET = Integer.MIN_VALUE;
+
+    // ==============================Fields===========================================
+    /** CRON 表达式 */
+    private final String expression;
+    /** 时区 */
+    private final ZoneId zoneId;
+    /** 时区规则 */
+    private final ZoneRules rules;
+    /** 固定的时区偏移秒数，时区有夏令时等变化时为 {@link #VARIABLE_OFFSET} */
+    private final int fixedOffset;
+    /** 秒(0~59) */
+    private final long seconds;
+    /** 分(0~59) */
+    private final long minutes;
+    /** 时(0~23) */
+    private final long hours;
+    /** 日(1~31) */
+    private final long daysOfMonth;
+    /** 月(1~12) */
+    private final long months;
+    /** 星期(1~7，1表示星期日) */
+    private final long daysOfWeek;
+    /** 年(MIN_YEAR~MAX_YEAR，按位存储) */
+    private final long[] years;
+    /** 按照星期计算日期(日字段为 '?') */
+    private final boolean dayOfWeekRule;
+    /** 每月最后一天(L) */
+    private final boolean lastDayOfMonth;
+    /** 每月最后一天的偏移(L-n) */
+    private final int lastDayOffset;
+    /** 最近的工作日(W) */
+    private final boolean nearestWeekday;
+    /** 每月最后一个星期几(nL) */
+    private final boolean lastDayOfWeek;
+    /** 每月第几个星期几(n#m) */
+    private final int nthDayOfWeek;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param cron 已经解析的 CRON 表达式
+     * @param zoneId 时区
+     */
+    CompiledCronExpression(CronExpression cron, ZoneId zoneId) {
+        this.expression = cron.getCronExpression();
+        this.zoneId = zoneId;
+        this.rules = zoneId.getRules();
+        this.fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH).getTotalSeconds() : VARIABLE_OFFSET;
+        this.seconds = toMask(cron.seconds, 0, 59);
+        this.minutes = toMask(cron.minutes, 0, 59);
+        this.hours = toMask(cron.hours, 0, 23);
+        this.daysOfMonth = toMask(cron.daysOfMonth, 1, 31);
+        this.months = toMask(cron.months, 1, 12);
+        this.daysOfWeek = toMask(cron.daysOfWeek, 1, 7);
+        this.years = new long[((MAX_YEAR - MIN_YEAR) >> 6) + 1];
+        for (Integer year : cron.years) {
+            if (year >= MIN_YEAR && year <= MAX_YEAR) {
+                years[(year - MIN_YEAR) >> 6] |= 1L << (year - MIN_YEAR);
+            }
+        }
+        this.dayOfWeekRule = cron.daysOfMonth.contains(CronExpression.NO_SPEC);
+        this.lastDayOfMonth = cron.lastdayOfMonth;
+        this.lastDayOffset = cron.lastdayOffset;
+        this.nearestWeekday = cron.nearestWeekday;
+        this.lastDayOfWeek = cron.lastdayOfWeek;
+        this.nthDayOfWeek = cron.nthdayOfWeek;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 编译 CRON 表达式(使用默认时区)
+     * @param expression CRON 表达式
+     * @return 编译后的 CRON 表达式
+     * @throws ParseException 如果表达式格式不正确
+     */
+    public static CompiledCronExpression compile(String expression) throws ParseException {
+        return new CronExpression(expression).compile();
+    }
+
+    /**
+     * 编译 CRON 表达式
+     * @param expression CRON 表达式
+     * @param zoneId 时区
+     * @return 编译后的 CRON 表达式
+     * @throws ParseException 如果表达式格式不正确
+     */
+    public static CompiledCronExpression compile(String expression, ZoneId zoneId) throws ParseException {
+        return new CompiledCronExpression(new CronExpression(expression), zoneId);
+    }
+
+    /**
+     * 获得指定时间之后的下一次触发时间
+     * @param from 开始时间(不包含)
+     * @return 下一次触发时间(使用表达式的时区)，如果不存在返回{@code null}
+     */
+    public ZonedDateTime nextFireTime(ZonedDateTime from) {
+        long second = next(from.toEpochSecond(), new Cursor());
+        return second == NONE ? null : ZonedDateTime.ofInstant(Instant.ofEpochSecond(second), zoneId);
+    }
+
+    /**
+     * 获得指定时间之前的上一次触发时间
+     * @param from 开始时间(不包含)
+     * @return 上一次触发时间(使用表达式的时区)，如果不存在返回{@code null}
+     */
+    public ZonedDateTime previousFireTime(ZonedDateTime from) {
+        long before = from.getNano() == 0 ? from.toEpochSecond() : from.toEpochSecond() + 1;
+        long second = previous(before, new Cursor());
+        return second == NONE ? null : ZonedDateTime.ofInstant(Instant.ofEpochSecond(second), zoneId);
+    }
+
+    /**
+     * 获得指定时间之后的下一次触发时间(与 {@link CronExpression#getTimeAfter(Date)} 相同)
+     * @param afterTime 开始时间(不包含)
+     * @return 下一次触发时间，如果不存在返回{@code null}
+     */
+    public Date getTimeAfter(Date afterTime) {
+        long second = next(Math.floorDiv(afterTime.getTime(), 1000L), new Cursor());
+        return second == NONE ? null : new Date(second * 1000L);
+    }
+
+    /**
+     * 获得指定时间之后的多次触发时间
+     * @param from 开始时间(不包含)
+     * @param n 获取的次数
+     * @return 触发时间列表，如果表达式之后的触发次数不足，列表长度会小于 n
+     */
+    public List<ZonedDateTime> nextFireTimes(ZonedDateTime from, int n) {
+        List<ZonedDateTime> result = new ArrayList<>(n);
+        Cursor cursor = new Cursor();
+        long second = from.toEpochSecond();
+        while (result.size() < n && (second = next(second, cursor)) != NONE) {
+            result.add(ZonedDateTime.ofInstant(Instant.ofEpochSecond(second), zoneId));
+        }
+        return result;
+    }
+
+    /**
+     * 获得指定时间之后的多次触发时间，写入到数组中<br>
+     * 使用固定偏移的时区时，除了一个计算游标之外不会创建其它对象。
+     * @param fromEpochMilli 开始时间毫秒数(不包含)
+     * @param dest 保存触发时间毫秒数的数组，获取的次数为数组的长度
+     * @return 写入的次数，如果表达式之后的触发次数不足，会小于数组长度
+     */
+    public int nextFireTimes(long fromEpochMilli, long[] dest) {
+        Cursor cursor = new Cursor();
+        long second = Math.floorDiv(fromEpochMilli, 1000L);
+        int count = 0;
+        while (count < dest.length && (second = next(second, cursor)) != NONE) {
+            dest[count++] = second * 1000L;
+        }
+        return count;
+    }
+
+    /**
+     * 判断给定的时间是否满足表达式(忽略毫秒)
+     * @param time 时间
+     * @return 满足表达式返回{@code true}
+     */
+    public boolean isSatisfiedBy(ZonedDateTime time) {
+        long second = time.toEpochSecond();
+        return next(second - 1, new Cursor()) == second;
+    }
+
+    /**
+     * 获得 CRON 表达式
+     * @return CRON 表达式
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * 获得时区
+     * @return 时区
+     */
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 计算下一次触发时间
+     * @param afterSecond 开始时间秒数(不包含)
+     * @param c 计算游标
+     * @return 下一次触发时间秒数，如果不存在返回 {@link #NONE}
+     */
+    private long next(long afterSecond, Cursor c) {
+        long start = afterSecond + 1;
+        c.setLocal(start + offsetAt(start));
+        while (findNext(c)) {
+            // 时间重叠(夏令时结束)时优先使用较早的偏移
+            long second = toEpochSecond(c, false);
+            if (second > afterSecond) {
+                return second;
+            }
+            second = toEpochSecond(c, true);
+            if (second > afterSecond) {
+                return second;
+            }
+            c.plusSecond();
+        }
+        return NONE;
+    }
+
+    /**
+     * 计算上一次触发时间
+     * @param beforeSecond 开始时间秒数(不包含)
+     * @param c 计算游标
+     * @return 上一次触发时间秒数，如果不存在返回 {@link #NONE}
+     */
+    private long previous(long beforeSecond, Cursor c) {
+        long start = beforeSecond - 1;
+        c.setLocal(start + offsetAt(start));
+        while (findPrevious(c)) {
+            long second = toEpochSecond(c, true);
+            if (second < beforeSecond) {
+                return second;
+            }
+            second = toEpochSecond(c, false);
+            if (second < beforeSecond) {
+                return second;
+            }
+            c.minusSecond();
+        }
+        return NONE;
+    }
+
+    /**
+     * 将游标移动到当前时间或之后最近的满足表达式的本地时间
+     * @param c 计算游标
+     * @return 如果找到返回{@code true}
+     */
+    private boolean findNext(Cursor c) {
+        while (nextDate(c)) {
+            if (nextTime(c)) {
+                return true;
+            }
+            c.plusDay();
+        }
+        return false;
+    }
+
+    /**
+     * 将游标移动到当前时间或之前最近的满足表达式的本地时间
+     * @param c 计算游标
+     * @return 如果找到返回{@code true}
+     */
+    private boolean findPrevious(Cursor c) {
+        while (previousDate(c)) {
+            if (previousTime(c)) {
+                return true;
+            }
+            c.minusDay();
+        }
+        return false;
+    }
+
+    /**
+     * 将游标移动到当前日期或之后最近的有效日期，日期变化时时间重置为 00:00:00
+     * @param c 计算游标
+     * @return 如果找到返回{@code true}
+     */
+    private boolean nextDate(Cursor c) {
+        int year = c.year;
+        int month = c.month;
+        int day = c.day;
+        boolean moved = false;
+        while (true) {
+            int y = nextYear(year);
+            if (y < 0) {
+                return false;
+            }
+            if (y != year) {
+                year = y;
+                month = 1;
+                day = 1;
+                moved = true;
+            }
+            int m = nextBit(months, month);
+            if (m < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                moved = true;
+                continue;
+            }
+            if (m != month) {
+                month = m;
+                day = 1;
+                moved = true;
+            }
+            int d = nextBit(dayMask(year, month), day);
+            if (d < 0) {
+                if (++month > 12) {
+                    year++;
+                    month = 1;
+                }
+                day = 1;
+                moved = true;
+                continue;
+            }
+            if (d != day) {
+                day = d;
+                moved = true;
+            }
+            break;
+        }
+        c.year = year;
+        c.month = month;
+        c.day = day;
+        if (moved) {
+            c.hour = 0;
+            c.minute = 0;
+            c.second = 0;
+        }
+        return true;
+    }
+
+    /**
+     * 将游标移动到当前日期或之前最近的有效日期，日期变化时时间重置为 23:59:59
+     * @param c 计算游标
+     * @return 如果找到返回{@code true}
+     */
+    private boolean previousDate(Cursor c) {
+        int year = c.year;
+        int month = c.month;
+        int day = c.day;
+        boolean moved = false;
+        while (true) {
+            int y = previousYear(year);
+            if (y < 0) {
+                return false;
+            }
+            if (y != year) {
+                year = y;
+                month = 12;
+                day = 31;
+                moved = true;
+            }
+            int m = previousBit(months, month);
+            if (m < 0) {
+                year--;
+                month = 12;
+                day = 31;
+                moved = true;
+                continue;
+            }
+            if (m != month) {
+                month = m;
+                day = 31;
+                moved = true;
+            }
+            int d = previousBit(dayMask(year, month), day);
+            if (d < 0) {
+                if (--month < 1) {
+                    year--;
+                    month = 12;
+                }
+                day = 31;
+                moved = true;
+                continue;
+            }
+            if (d != day) {
+                day = d;
+                moved = true;
+            }
+            break;
+        }
+        c.year = year;
+        c.month = month;
+        c.day = day;
+        if (moved) {
+            c.hour = 23;
+            c.minute = 59;
+            c.second = 59;
+        }
+        return true;
+    }
+
+    /**
+     * 将游标移动到当天当前时间或之后最近的有效时间
+     * @param c 计算游标
+     * @return 如果当天之后没有有效时间返回{@code false}
+     */
+    private boolean nextTime(Cursor c) {
+        int h = nextBit(hours, c.hour);
+        if (h < 0) {
+            return false;
+        }
+        if (h == c.hour) {
+            int m = nextBit(minutes, c.minute);
+            if (m == c.minute) {
+                int s = nextBit(seconds, c.second);
+                if (s >= 0) {
+                    c.second = s;
+                    return true;
+                }
+                m = nextBit(minutes, c.minute + 1);
+            }
+            if (m >= 0) {
+                c.minute = m;
+                c.second = firstBit(seconds);
+                return true;
+            }
+            h = nextBit(hours, c.hour + 1);
+            if (h < 0) {
+                return false;
+            }
+        }
+        c.hour = h;
+        c.minute = firstBit(minutes);
+        c.second = firstBit(seconds);
+        return true;
+    }
+
+    /**
+     * 将游标移动到当天当前时间或之前最近的有效时间
+     * @param c 计算游标
+     * @return 如果当天之前没有有效时间返回{@code false}
+     */
+    private boolean previousTime(Cursor c) {
+        int h = previousBit(hours, c.hour);
+        if (h < 0) {
+            return false;
+        }
+        if (h == c.hour) {
+            int m = previousBit(minutes, c.minute);
+            if (m == c.minute) {
+                int s = previousBit(seconds, c.second);
+                if (s >= 0) {
+                    c.second = s;
+                    return true;
+                }
+                m = previousBit(minutes, c.minute - 1);
+            }
+            if (m >= 0) {
+                c.minute = m;
+                c.second = lastBit(seconds);
+                return true;
+            }
+            h = previousBit(hours, c.hour - 1);
+            if (h < 0) {
+                return false;
+            }
+        }
+        c.hour = h;
+        c.minute = lastBit(minutes);
+        c.second = lastBit(seconds);
+        return true;
+    }
+
+    /**
+     * 计算指定月份中满足日期规则的日期(按位存储，第n位表示n日)
+     * @param year 年
+     * @param month 月
+     * @return 日期位掩码
+     */
+    private long dayMask(int year, int month) {
+        int lastDay = lengthOfMonth(year, month);
+        if (!dayOfWeekRule) {
+            if (lastDayOfMonth) {
+                int day = lastDay - lastDayOffset;
+                if (day < 1) {
+                    return 0L;
+                }
+                return 1L << (nearestWeekday ? nearestWeekday(year, month, day, lastDay) : day);
+            }
+            if (nearestWeekday) {
+                int day = firstBit(daysOfMonth);
+                if (day < 0) {
+                    return 0L;
+                }
+                // 日期超过当月最后一天时(例如 30 天的月份中的 31W)使用当月最后一天，与 CronExpression 一致
+                return 1L << nearestWeekday(year, month, Math.min(day, lastDay), lastDay);
+            }
+            return daysOfMonth & ((1L << (lastDay + 1)) - 1);
+        }
+        int firstDayOfWeek = dayOfWeek(year, month, 1);
+        if (lastDayOfWeek || nthDayOfWeek != 0) {
+            int target = firstBit(daysOfWeek);
+            if (target < 0) {
+                return 0L;
+            }
+            int first = 1 + Math.floorMod(target - firstDayOfWeek, 7);
+            int day = lastDayOfWeek ? first + (lastDay - first) / 7 * 7 : first + (nthDayOfWeek - 1) * 7;
+            return day > lastDay ? 0L : 1L << day;
+        }
+        long mask = 0L;
+        for (int day = 1, dow = firstDayOfWeek; day <= lastDay; day++) {
+            if ((daysOfWeek & (1L << dow)) != 0) {
+                mask |= 1L << day;
+            }
+            dow = dow == 7 ? 1 : dow + 1;
+        }
+        return mask;
+    }
+
+    /**
+     * 获得离指定日期最近的工作日(不会跨越月份)
+     * @param year 年
+     * @param month 月
+     * @param day 日
+     * @param lastDay 当月最后一天
+     * @return 最近的工作日
+     */
+    private static int nearestWeekday(int year, int month, int day, int lastDay) {
+        int dow = dayOfWeek(year, month, day);
+        if (dow == 7) {
+            return day == 1 ? day + 2 : day - 1;
+        }
+        if (dow == 1) {
+            return day == lastDay ? day - 2 : day + 1;
+        }
+        return day;
+    }
+
+    /**
+     * 获得指定年份或之后最近的有效年份
+     * @param year 年
+     * @return 有效年份，不存在返回 -1
+     */
+    private int nextYear(int year) {
+        if (year < MIN_YEAR) {
+            year = MIN_YEAR;
+        }
+        for (int i = year - MIN_YEAR, index = i >> 6; index < years.length; index++, i = index << 6) {
+            long bits = years[index] & (-1L << i);
+            if (bits != 0) {
+                return MIN_YEAR + (index << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获得指定年份或之前最近的有效年份
+     * @param year 年
+     * @return 有效年份，不存在返回 -1
+     */
+    private int previousYear(int year) {
+        if (year > MAX_YEAR) {
+            year = MAX_YEAR;
+        }
+        for (int i = year - MIN_YEAR, index = i >> 6; i >= 0; index--, i = (index << 6) + 63) {
+            long bits = years[index] & (-1L >>> (63 - (i & 63)));
+            if (bits != 0) {
+                return MIN_YEAR + (index << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获得指定时间的时区偏移秒数
+     * @param epochSecond 时间秒数
+     * @return 时区偏移秒数
+     */
+    private int offsetAt(long epochSecond) {
+        if (fixedOffset != VARIABLE_OFFSET) {
+            return fixedOffset;
+        }
+        return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+
+    /**
+     * 将游标表示的本地时间转换为时间秒数
+     * @param c 计算游标
+     * @param later 时间重叠时是否使用较晚的偏移
+     * @return 时间秒数
+     */
+    private long toEpochSecond(Cursor c, boolean later) {
+        long local = c.toLocalSecond();
+        if (fixedOffset != VARIABLE_OFFSET) {
+            return local - fixedOffset;
+        }
+        LocalDateTime dateTime = LocalDateTime.of(c.year, c.month, c.day, c.hour, c.minute, c.second);
+        List<ZoneOffset> offsets = rules.getValidOffsets(dateTime);
+        if (offsets.isEmpty()) {
+            // 时间间隙(夏令时开始)，与 ZonedDateTime.ofLocal 相同，时间向后顺延
+            ZoneOffsetTransition transition = rules.getTransition(dateTime);
+            return local - transition.getOffsetBefore().getTotalSeconds();
+        }
+        return local - offsets.get(later ? offsets.size() - 1 : 0).getTotalSeconds();
+    }
+
+    /**
+     * 将集合转换为位掩码(忽略范围之外的值)
+     * @param values 值集合
+     * @param min 最小值
+     * @param max 最大值
+     * @return 位掩码
+     */
+    private static long toMask(Set<Integer> values, int min, int max) {
+        long mask = 0L;
+        for (Integer value : values) {
+            if (value >= min && value <= max) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 获得大于等于指定位置的第一个有效位
+     * @param mask 位掩码
+     * @param from 开始位置
+     * @return 有效位的位置，不存在返回 -1
+     */
+    private static int nextBit(long mask, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        long bits = mask & (-1L << from);
+        return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * 获得小于等于指定位置的最后一个有效位
+     * @param mask 位掩码
+     * @param from 开始位置
+     * @return 有效位的位置，不存在返回 -1
+     */
+    private static int previousBit(long mask, int from) {
+        if (from < 0) {
+            return -1;
+        }
+        long bits = from >= 63 ? mask : mask & ((1L << (from + 1)) - 1);
+        return bits == 0 ? -1 : 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    private static int firstBit(long mask) {
+        return mask == 0 ? -1 : Long.numberOfTrailingZeros(mask);
+    }
+
+    private static int lastBit(long mask) {
+        return mask == 0 ? -1 : 63 - Long.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * 获得星期(1表示星期日，7表示星期六，与 {@link java.util.Calendar#DAY_OF_WEEK} 相同)
+     * @param year 年
+     * @param month 月
+     * @param day 日
+     * @return 星期
+     */
+    private static int dayOfWeek(int year, int month, int day) {
+        // 1970-01-01 是星期四
+        return (int) Math.floorMod(toEpochDay(year, month, day) + 4, 7L) + 1;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            return isLeapYear(year) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * 计算日期的天数(与 {@link java.time.LocalDate#toEpochDay()} 相同)
+     * @param year 年
+     * @param month 月
+     * @param day 日
+     * @return 从1970-01-01开始的天数
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 计算游标(本地日期时间)
+     */
+    private static class Cursor {
+        int year;
+        int month;
+        int day;
+        int hour;
+        int minute;
+        int second;
+
+        /**
+         * 设置本地时间(算法与 {@link java.time.LocalDate#ofEpochDay(long)} 相同)
+         * @param localSecond 本地时间秒数
+         */
+        void setLocal(long localSecond) {
+            long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+            int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+            long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+            long adjust = 0;
+            if (zeroDay < 0) {
+                long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+                adjust = adjustCycles * 400;
+                zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+            }
+            long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+            long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+            if (doyEst < 0) {
+                yearEst--;
+                doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+            }
+            yearEst += adjust;
+            int marchDoy0 = (int) doyEst;
+            int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+            this.month = (marchMonth0 + 2) % 12 + 1;
+            this.day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+            this.year = (int) (yearEst + marchMonth0 / 10);
+            this.hour = secondOfDay / 3600;
+            this.minute = secondOfDay / 60 % 60;
+            this.second = secondOfDay % 60;
+        }
+
+        /**
+         * 获得本地时间秒数
+         * @return 本地时间秒数
+         */
+        long toLocalSecond() {
+            return toEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        }
+
+        void plusSecond() {
+            setLocal(toLocalSecond() + 1);
+        }
+
+        void minusSecond() {
+            setLocal(toLocalSecond() - 1);
+        }
+
+        void plusDay() {
+            if (++day > lengthOfMonth(year, month)) {
+                day = 1;
+                if (++month > 12) {
+                    month = 1;
+                    year++;
+                }
+            }
+            hour = 0;
+            minute = 0;
+            second = 0;
+        }
+
+        void minusDay() {
+            if (--day < 1) {
+                if (--month < 1) {
+                    month = 12;
+                    year--;
+                }
+                day = lengthOfMonth(year, month);
+            }
+            hour = 23;
+            minute = 59;
+            second = 59;
+        }
+    }
+}
@@ -282,6 +282,15 @@ public final class CronExpression implements Serializable {
         return new Date(lastDate.getTime() + 1000);
     }
 
+    /**
+     * Compiles this expression into a {@link CompiledCronExpression}, which keeps every field as a bit mask and computes fire times over {@code java.time} with jump arithmetic.
+     * The time zone of this expression is used.
+     * @return the compiled expression
+     */
+    public CompiledCronExpression compile() {
+        return new CompiledCronExpression(this, getTimeZone().toZoneId());
+    }
+
     /**
      * Returns the time zone for which this <code>CronExpression</code> will be resolved.
      * @return TimeZone
@@ -1204,6 +1213,12 @@ public final class CronExpression implements Serializable {
                     t = day;
                     day = daysOfMonth.first();
 
+                    // the day may be past the end of a short month (e.g. 31W in a 30-day month): use the last day of the month
+                    int ldom = getLastDayOfMonth(mon, cl.get(Calendar.YEAR));
+                    if (day > ldom) {
+                        day = ldom;
+                    }
+
                     java.util.Calendar tcal = java.util.Calendar.getInstance(getTimeZone());
                     tcal.set(Calendar.SECOND, 0);
                     tcal.set(Calendar.MINUTE, 0);
@@ -1212,7 +1227,6 @@ public final class CronExpression implements Serializable {
                     tcal.set(Calendar.MONTH, mon - 1);
                     tcal.set(Calendar.YEAR, cl.get(Calendar.YEAR));
 
-                    int ldom = getLastDayOfMonth(mon, cl.get(Calendar.YEAR));
                     int dow = tcal.get(Calendar.DAY_OF_WEEK);
 
                     if (dow == Calendar.SATURDAY && day == 1) {
@@ -1232,7 +1246,8 @@ public final class CronExpression implements Serializable {
                     tcal.set(Calendar.MONTH, mon - 1);
                     Date nTime = tcal.getTime();
                     if (nTime.before(afterTime)) {
-                        day = daysOfMonth.first();
+                        // start from the first day of the next month, so that the day is checked against its length again
+                        day = 1;
                         mon++;
                     }
                 } else if (st != null && st.size() != 0) {
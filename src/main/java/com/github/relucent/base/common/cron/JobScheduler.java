@@ -0,0 +1,541 @@
+package com.github.relucent.base.common.cron;
+
+import java.text.ParseException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.github.relucent.base.common.concurrent.GlobalThreadPool;
+import com.github.relucent.base.common.concurrent.NamedThreadFactory;
+
+/**
+ * 基于分层时间轮的任务调度器<br>
+ * 最底层的时间轮由指定数量的时间槽组成，每个时间槽是一个双向链表，任务按照触发的刻度放入对应的时间槽；
+ * 上层的时间轮各有64个时间槽，每个时间槽的跨度是下一层时间轮一圈的长度。触发时间超过一圈的任务放入上层时间轮，
+ * 下层时间轮每转一圈，上层时间轮对应时间槽中的任务逐级下放，远期的任务不会在每一圈被重复扫描。<br>
+ * 插入和取消任务都是 O(1) 的（层数固定，先放入无锁队列，由时间轮线程在下一个刻度处理），每个任务最多下放层数次，适合管理大量的定时任务（例如数百万个超时检测）。<br>
+ * 时间轮线程只负责派发，任务在执行器中运行，单个任务执行缓慢不会影响其它任务的触发。<br>
+ * 支持的调度方式：单次延迟、固定频率、固定延迟、CRON 表达式；支持错过触发的处理策略和同一任务的防重叠执行。<br>
+ * 触发精度为一个刻度（默认10毫秒），不适合需要更高精度的场景。
+ */
+public class JobScheduler {
+
+    // ==============================Constants========================================
+    /** 默认刻度时长(毫秒) */
+    private static final long DEFAULT_TICK_DURATION = 10L;
+    /** 默认时间槽数量 */
+    private static final int DEFAULT_TICKS_PER_WHEEL = 512;
+    /** 默认错过触发的阈值(毫秒) */
+    private static final long DEFAULT_MISFIRE_THRESHOLD = 1000L;
+    /** 每个刻度最多转移的任务数量，避免时间轮线程长时间停留在转移任务上 */
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+    /** 上层时间轮时间槽数量的位数 */
+    private static final int UPPER_WHEEL_BITS = 6;
+    /** 状态：未启动 */
+    private static final int STATE_INIT = 0;
+    /** 状态：已启动 */
+    private static final int STATE_STARTED = 1;
+    /** 状态：已关闭 */
+    private static final int STATE_SHUTDOWN = 2;
+
+    // ==============================Fields===========================================
+    /** 刻度时长(纳秒) */
+    private final long tickDuration;
+    /** 分层的时间轮(第0层为最底层) */
+    private final Bucket[][] wheels;
+    /** 每层时间轮的时间槽跨度的位数(时间槽下标为触发的刻度右移该位数) */
+    private final int[] shifts;
+    /** 执行任务的执行器 */
+    private final Executor executor;
+    /** 等待放入时间轮的任务 */
+    private final Queue<ScheduledJob> pendingJobs = new ConcurrentLinkedQueue<>();
+    /** 等待从时间轮中移除的任务 */
+    private final Queue<ScheduledJob> cancelledJobs = new ConcurrentLinkedQueue<>();
+    /** 调度器状态 */
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+    /** 等待触发的任务数量 */
+    private final AtomicLong jobCount = new AtomicLong();
+    /** 时间轮线程 */
+    private final Thread workerThread;
+    /** 开始时间(纳秒) */
+    private final long startTime;
+    /** 错过触发的阈值(纳秒) */
+    private volatile long misfireThreshold = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MISFIRE_THRESHOLD);
+    /** 当前刻度(只由时间轮线程访问) */
+    private long tick;
+
+    // ==============================Construction=====================================
+    /**
+     * 获得全局共享的任务调度器，任务在 {@link GlobalThreadPool} 中执行<br>
+     * 共享的调度器随进程一直存在，不要关闭。
+     * @return 全局共享的任务调度器
+     */
+    public static JobScheduler getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /** 单例模式用于延迟初始化 */
+    private static class Holder {
+        static final JobScheduler INSTANCE = new JobScheduler("yyl-job-scheduler", DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL,
+                task -> GlobalThreadPool.getInstance().execute(task));
+    }
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param name 名称(用于时间轮线程名称)
+     * @param executor 执行任务的执行器
+     */
+    public JobScheduler(String name, Executor executor) {
+        this(name, DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL, executor);
+    }
+
+    /**
+     * 构造函数
+     * @param name 名称(用于时间轮线程名称)
+     * @param tickDuration 刻度时长
+     * @param unit 刻度时长的单位
+     * @param ticksPerWheel 时间槽数量(会调整为2的幂)
+     * @param executor 执行任务的执行器
+     */
+    public JobScheduler(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor executor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be in range [1, 2^30]: " + ticksPerWheel);
+        }
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        int size = Integer.highestOneBit(ticksPerWheel);
+        if (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        // 层数保证最上层时间轮覆盖全部刻度(63位)
+        int bits = Integer.numberOfTrailingZeros(size);
+        int levels = 1 + (63 - bits + UPPER_WHEEL_BITS - 1) / UPPER_WHEEL_BITS;
+        this.wheels = new Bucket[levels][];
+        this.shifts = new int[levels];
+        for (int level = 0; level < levels; level++) {
+            this.wheels[level] = new Bucket[level == 0 ? size : 1 << UPPER_WHEEL_BITS];
+            for (int i = 0; i < wheels[level].length; i++) {
+                this.wheels[level][i] = new Bucket();
+            }
+            this.shifts[level] = level == 0 ? 0 : bits + (level - 1) * UPPER_WHEEL_BITS;
+        }
+        this.tickDuration = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.executor = executor;
+        this.startTime = System.nanoTime();
+        this.workerThread = new NamedThreadFactory(name, true).newThread(this::work);
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 延迟执行一次任务
+     * @param task 执行的任务
+     * @param delay 延迟时间
+     * @param unit 时间单位
+     * @return 调度任务
+     */
+    public ScheduledJob schedule(Runnable task, long delay, TimeUnit unit) {
+        return submit(new ScheduledJob(this, task, ScheduledJob.ONCE, 0L, null, MisfirePolicy.FIRE_ONCE_NOW, false), unit.toNanos(delay));
+    }
+
+    /**
+     * 按固定频率执行任务，错过触发时立即补充执行一次，上一次执行未结束时跳过本次触发
+     * @param task 执行的任务
+     * @param initialDelay 首次执行的延迟时间
+     * @param period 执行周期
+     * @param unit 时间单位
+     * @return 调度任务
+     */
+    public ScheduledJob scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return scheduleAtFixedRate(task, initialDelay, period, unit, MisfirePolicy.FIRE_ONCE_NOW, false);
+    }
+
+    /**
+     * 按固定频率执行任务
+     * @param task 执行的任务
+     * @param initialDelay 首次执行的延迟时间
+     * @param period 执行周期
+     * @param unit 时间单位
+     * @param misfirePolicy 错过触发的处理策略
+     * @param concurrent 上一次执行未结束时是否允许并发执行，为{@code false}时跳过本次触发
+     * @return 调度任务
+     */
+    public ScheduledJob scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit, MisfirePolicy misfirePolicy, boolean concurrent) {
+        long periodNanos = checkPeriod(period, unit);
+        return submit(new ScheduledJob(this, task, ScheduledJob.FIXED_RATE, periodNanos, null, misfirePolicy, concurrent), unit.toNanos(initialDelay));
+    }
+
+    /**
+     * 按固定延迟执行任务，每次执行结束后间隔指定的时间再执行下一次
+     * @param task 执行的任务
+     * @param initialDelay 首次执行的延迟时间
+     * @param delay 两次执行之间的间隔
+     * @param unit 时间单位
+     * @return 调度任务
+     */
+    public ScheduledJob scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        long delayNanos = checkPeriod(delay, unit);
+        return submit(new ScheduledJob(this, task, ScheduledJob.FIXED_DELAY, delayNanos, null, MisfirePolicy.FIRE_ONCE_NOW, false), unit.toNanos(initialDelay));
+    }
+
+    /**
+     * 按 CRON 表达式执行任务(使用系统默认时区)，错过触发时立即补充执行一次，上一次执行未结束时跳过本次触发
+     * @param task 执行的任务
+     * @param expression CRON 表达式
+     * @return 调度任务
+     * @throws IllegalArgumentException 表达式格式错误
+     */
+    public ScheduledJob scheduleCron(Runnable task, String expression) {
+        CompiledCronExpression cron;
+        try {
+            cron = CompiledCronExpression.compile(expression);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return scheduleCron(task, cron);
+    }
+
+    /**
+     * 按 CRON 表达式执行任务，错过触发时立即补充执行一次，上一次执行未结束时跳过本次触发
+     * @param task 执行的任务
+     * @param cron 编译后的 CRON 表达式
+     * @return 调度任务
+     */
+    public ScheduledJob scheduleCron(Runnable task, CompiledCronExpression cron) {
+        return scheduleCron(task, cron, MisfirePolicy.FIRE_ONCE_NOW, false);
+    }
+
+    /**
+     * 按 CRON 表达式执行任务
+     * @param task 执行的任务
+     * @param cron 编译后的 CRON 表达式
+     * @param misfirePolicy 错过触发的处理策略
+     * @param concurrent 上一次执行未结束时是否允许并发执行，为{@code false}时跳过本次触发
+     * @return 调度任务，如果表达式没有后续的触发时间，返回的任务已经结束
+     */
+    public ScheduledJob scheduleCron(Runnable task, CompiledCronExpression cron, MisfirePolicy misfirePolicy, boolean concurrent) {
+        if (cron == null) {
+            throw new NullPointerException("cron");
+        }
+        return submit(new ScheduledJob(this, task, ScheduledJob.CRON, 0L, cron, misfirePolicy, concurrent), 0L);
+    }
+
+    /**
+     * 设置错过触发的阈值，实际触发时间晚于计划触发时间超过该阈值时视为错过触发
+     * @param threshold 阈值
+     * @param unit 时间单位
+     */
+    public void setMisfireThreshold(long threshold, TimeUnit unit) {
+        this.misfireThreshold = unit.toNanos(threshold);
+    }
+
+    /**
+     * 获得等待触发的任务数量
+     * @return 等待触发的任务数量
+     */
+    public long size() {
+        return jobCount.get();
+    }
+
+    /**
+     * 判断调度器是否已经关闭
+     * @return 已经关闭返回{@code true}
+     */
+    public boolean isShutdown() {
+        return state.get() == STATE_SHUTDOWN;
+    }
+
+    /**
+     * 关闭调度器，等待触发的任务不再触发，已经派发到执行器的任务不受影响
+     */
+    public void shutdown() {
+        if (state.getAndSet(STATE_SHUTDOWN) == STATE_STARTED) {
+            LockSupport.unpark(workerThread);
+        }
+    }
+
+    // ==============================PackageMethods===================================
+    /**
+     * 获得调度器的相对纳秒时间
+     * @return 相对纳秒时间
+     */
+    long nanoTime() {
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * 获得错过触发的阈值
+     * @return 阈值(纳秒)
+     */
+    long getMisfireThresholdNanos() {
+        return misfireThreshold;
+    }
+
+    /**
+     * 获得执行任务的执行器
+     * @return 执行器
+     */
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 将任务放入等待队列，由时间轮线程在下一个刻度放入时间轮
+     * @param job 调度任务
+     */
+    void enqueue(ScheduledJob job) {
+        pendingJobs.add(job);
+    }
+
+    /**
+     * 任务被取消
+     * @param job 调度任务
+     */
+    void cancelled(ScheduledJob job) {
+        jobCount.decrementAndGet();
+        if (state.get() == STATE_STARTED) {
+            cancelledJobs.add(job);
+        }
+    }
+
+    /**
+     * 任务结束
+     */
+    void released() {
+        jobCount.decrementAndGet();
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 提交任务
+     * @param job 调度任务
+     * @param initialDelay 首次执行的延迟时间(纳秒)
+     * @return 调度任务
+     */
+    private ScheduledJob submit(ScheduledJob job, long initialDelay) {
+        start();
+        jobCount.incrementAndGet();
+        if (job.init(initialDelay)) {
+            enqueue(job);
+        }
+        return job;
+    }
+
+    /**
+     * 启动时间轮线程
+     */
+    private void start() {
+        int current = state.get();
+        if (current == STATE_INIT && state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+            workerThread.start();
+        } else if (current == STATE_SHUTDOWN) {
+            throw new RejectedExecutionException("JobScheduler has been shutdown");
+        }
+    }
+
+    /**
+     * 检查周期参数
+     * @param period 周期
+     * @param unit 时间单位
+     * @return 周期(纳秒)
+     */
+    private static long checkPeriod(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0: " + period);
+        }
+        return unit.toNanos(period);
+    }
+
+    /**
+     * 时间轮线程的主循环
+     */
+    private void work() {
+        tick = nanoTime() / tickDuration;
+        while (state.get() == STATE_STARTED) {
+            long now = waitForNextTick();
+            if (now < 0) {
+                break;
+            }
+            processCancelledJobs();
+            transferPendingJobs();
+            cascadeJobs();
+            wheels[0][(int) (tick & (wheels[0].length - 1))].expireJobs(now);
+            tick++;
+        }
+        pendingJobs.clear();
+        cancelledJobs.clear();
+    }
+
+    /**
+     * 等待到下一个刻度
+     * @return 当前时间(相对纳秒时间)，调度器关闭时返回 -1
+     */
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        for (;;) {
+            long current = nanoTime();
+            long sleepNanos = deadline - current;
+            if (sleepNanos <= 0) {
+                return current;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+            if (state.get() != STATE_STARTED) {
+                return -1L;
+            }
+        }
+    }
+
+    /**
+     * 将等待队列中的任务放入时间轮
+     */
+    private void transferPendingJobs() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            ScheduledJob job = pendingJobs.poll();
+            if (job == null) {
+                break;
+            }
+            if (!job.isWaiting()) {
+                continue;
+            }
+            // 已经过期的任务放入当前刻度，立即触发
+            job.expireTick = Math.max(job.deadline / tickDuration, tick);
+            addToWheel(job);
+        }
+    }
+
+    /**
+     * 将任务放入时间轮：触发的刻度与当前刻度在上一层的同一个时间槽内时放入该层，否则放入更上层
+     * @param job 调度任务(触发的刻度不早于当前刻度)
+     */
+    private void addToWheel(ScheduledJob job) {
+        int level = 0;
+        while (level < wheels.length - 1 && (job.expireTick >>> shifts[level + 1]) != (tick >>> shifts[level + 1])) {
+            level++;
+        }
+        Bucket[] wheel = wheels[level];
+        wheel[(int) ((job.expireTick >>> shifts[level]) & (wheel.length - 1))].add(job);
+    }
+
+    /**
+     * 当前刻度进入上层时间槽的范围时，将该时间槽中的任务下放到下层时间轮(从最上层开始，下放的任务可能继续下放)
+     */
+    private void cascadeJobs() {
+        for (int level = wheels.length - 1; level > 0; level--) {
+            int shift = shifts[level];
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            Bucket[] wheel = wheels[level];
+            Bucket bucket = wheel[(int) ((tick >>> shift) & (wheel.length - 1))];
+            for (ScheduledJob job = bucket.poll(); job != null; job = bucket.poll()) {
+                if (job.isWaiting()) {
+                    addToWheel(job);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从时间轮中移除已经取消的任务
+     */
+    private void processCancelledJobs() {
+        for (;;) {
+            ScheduledJob job = cancelledJobs.poll();
+            if (job == null) {
+                break;
+            }
+            if (job.bucket != null) {
+                job.bucket.remove(job);
+            }
+        }
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 时间槽(双向链表，只由时间轮线程访问)
+     */
+    static final class Bucket {
+
+        private ScheduledJob head;
+        private ScheduledJob tail;
+
+        /**
+         * 添加任务
+         * @param job 调度任务
+         */
+        void add(ScheduledJob job) {
+            job.bucket = this;
+            if (head == null) {
+                head = tail = job;
+            } else {
+                tail.next = job;
+                job.prev = tail;
+                tail = job;
+            }
+        }
+
+        /**
+         * 移除任务
+         * @param job 调度任务
+         */
+        void remove(ScheduledJob job) {
+            ScheduledJob next = job.next;
+            if (job.prev != null) {
+                job.prev.next = next;
+            }
+            if (job.next != null) {
+                job.next.prev = job.prev;
+            }
+            if (job == head) {
+                if (job == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (job == tail) {
+                tail = job.prev;
+            }
+            job.prev = null;
+            job.next = null;
+            job.bucket = null;
+        }
+
+        /**
+         * 移除并返回第一个任务
+         * @return 第一个任务，没有任务时返回 {@code null}
+         */
+        ScheduledJob poll() {
+            ScheduledJob job = head;
+            if (job != null) {
+                remove(job);
+            }
+            return job;
+        }
+
+        /**
+         * 触发到期的任务
+         * @param now 当前时间(相对纳秒时间)
+         */
+        void expireJobs(long now) {
+            ScheduledJob job = head;
+            while (job != null) {
+                ScheduledJob next = job.next;
+                remove(job);
+                if (job.isWaiting()) {
+                    job.expire(now);
+                }
+                job = next;
+            }
+        }
+    }
+}
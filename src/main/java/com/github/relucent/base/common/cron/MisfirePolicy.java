@@ -0,0 +1,14 @@
+package com.github.relucent.base.common.cron;
+
+/**
+ * 错过触发的处理策略<br>
+ * 任务实际触发时间晚于计划触发时间超过阈值（调度线程繁忙、系统休眠、线程池拒绝等）时，视为错过触发。
+ */
+public enum MisfirePolicy {
+
+    /** 立即补充执行一次，之后按照计划继续执行（错过的多次触发只补充一次） */
+    FIRE_ONCE_NOW,
+
+    /** 忽略错过的触发，等待下一次计划触发时间 */
+    SKIP;
+}
@@ -0,0 +1,318 @@
+package com.github.relucent.base.common.cron;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.relucent.base.common.logging.Logger;
+
+/**
+ * 调度任务<br>
+ * 由 {@link JobScheduler} 创建，同时也是时间轮中的节点（前后指针保存在任务自身，所以插入和取消都是 O(1) 的）。<br>
+ * 任务本身在调度器的执行器中运行，时间轮线程只负责计算触发时间和派发任务。
+ */
+public class ScheduledJob {
+
+    // ==============================Constants========================================
+    private static final Logger LOGGER = Logger.getLogger(ScheduledJob.class);
+    /** 单次执行 */
+    static final int ONCE = 0;
+    /** 固定频率 */
+    static final int FIXED_RATE = 1;
+    /** 固定延迟 */
+    static final int FIXED_DELAY = 2;
+    /** CRON 表达式 */
+    static final int CRON = 3;
+    /** 没有下一次触发 */
+    private static final long NONE = Long.MIN_VALUE;
+    /** 状态：等待触发 */
+    private static final int WAITING = 0;
+    /** 状态：已取消 */
+    private static final int CANCELLED = 1;
+    /** 状态：已结束 */
+    private static final int DONE = 2;
+
+    // ==============================Fields===========================================
+    /** 调度器 */
+    private final JobScheduler scheduler;
+    /** 执行的任务 */
+    private final Runnable task;
+    /** 调度类型 */
+    private final int type;
+    /** 周期(纳秒) */
+    private final long period;
+    /** CRON 表达式 */
+    private final CompiledCronExpression cron;
+    /** 错过触发的处理策略 */
+    private final MisfirePolicy misfirePolicy;
+    /** 是否允许同一任务并发执行 */
+    private final boolean concurrent;
+    /** 状态 */
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+    /** 正在执行的次数 */
+    private final AtomicInteger active = new AtomicInteger();
+    /** 已执行的次数 */
+    private final AtomicLong fireCount = new AtomicLong();
+    /** 下一次触发时间(调度器的相对纳秒时间) */
+    volatile long deadline;
+    /** 下一次触发时间(毫秒时间戳) */
+    private volatile long nextFireTime;
+
+    // 以下字段只由时间轮线程访问
+    /** 触发的刻度 */
+    long expireTick;
+    /** 所在的时间槽 */
+    JobScheduler.Bucket bucket;
+    /** 前一个节点 */
+    ScheduledJob prev;
+    /** 后一个节点 */
+    ScheduledJob next;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param scheduler 调度器
+     * @param task 执行的任务
+     * @param type 调度类型
+     * @param period 周期(纳秒)
+     * @param cron CRON 表达式
+     * @param misfirePolicy 错过触发的处理策略
+     * @param concurrent 是否允许同一任务并发执行
+     */
+    ScheduledJob(JobScheduler scheduler, Runnable task, int type, long period, CompiledCronExpression cron, MisfirePolicy misfirePolicy, boolean concurrent) {
+        this.scheduler = scheduler;
+        this.task = task;
+        this.type = type;
+        this.period = period;
+        this.cron = cron;
+        this.misfirePolicy = misfirePolicy;
+        this.concurrent = concurrent;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 取消任务，已经开始执行的任务不会被中断，但不会再次触发
+     * @return 如果是本次调用取消的返回{@code true}，任务已经取消或者已经结束返回{@code false}
+     */
+    public boolean cancel() {
+        if (state.compareAndSet(WAITING, CANCELLED)) {
+            scheduler.cancelled(this);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 判断任务是否已经取消
+     * @return 已经取消返回{@code true}
+     */
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    /**
+     * 判断任务是否已经结束（已取消、单次任务已触发、CRON 表达式没有后续的触发时间）
+     * @return 已经结束返回{@code true}
+     */
+    public boolean isDone() {
+        return state.get() != WAITING;
+    }
+
+    /**
+     * 判断任务是否正在执行
+     * @return 正在执行返回{@code true}
+     */
+    public boolean isRunning() {
+        return active.get() > 0;
+    }
+
+    /**
+     * 获得下一次计划触发时间
+     * @return 下一次计划触发时间的毫秒时间戳，如果任务已经结束返回 -1
+     */
+    public long getNextFireTime() {
+        return isDone() ? -1L : nextFireTime;
+    }
+
+    /**
+     * 获得已经执行的次数
+     * @return 已经执行的次数
+     */
+    public long getFireCount() {
+        return fireCount.get();
+    }
+
+    // ==============================PackageMethods===================================
+    /**
+     * 判断任务是否在等待触发
+     * @return 等待触发返回{@code true}
+     */
+    boolean isWaiting() {
+        return state.get() == WAITING;
+    }
+
+    /**
+     * 初始化第一次触发时间
+     * @param initialDelay 初始延迟(纳秒)
+     * @return 有下一次触发时间返回{@code true}
+     */
+    boolean init(long initialDelay) {
+        long now = scheduler.nanoTime();
+        long next = type == CRON ? nextCronDeadline(now, System.currentTimeMillis()) : plus(now, initialDelay);
+        if (next == NONE) {
+            complete();
+            return false;
+        }
+        setDeadline(next, now);
+        return true;
+    }
+
+    /**
+     * 到达触发时间（由时间轮线程调用）
+     * @param now 当前时间(调度器的相对纳秒时间)
+     */
+    void expire(long now) {
+        if (!isWaiting()) {
+            return;
+        }
+        boolean misfired = now - deadline > scheduler.getMisfireThresholdNanos();
+        boolean fire = !misfired || misfirePolicy == MisfirePolicy.FIRE_ONCE_NOW;
+        if (type == ONCE) {
+            if (complete() && fire) {
+                dispatch();
+            }
+            return;
+        }
+        if (type == FIXED_DELAY) {
+            // 固定延迟的任务执行结束后再重新安排
+            if (!fire || !dispatch()) {
+                reschedule(plus(now, period), now);
+            }
+            return;
+        }
+        if (fire) {
+            dispatch();
+        }
+        long next = type == FIXED_RATE ? nextFixedRateDeadline(now) : nextCronDeadline(now, System.currentTimeMillis());
+        if (next == NONE) {
+            complete();
+        } else {
+            reschedule(next, now);
+        }
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 派发任务到执行器
+     * @return 派发成功返回{@code true}
+     */
+    private boolean dispatch() {
+        if (concurrent) {
+            active.incrementAndGet();
+        } else if (!active.compareAndSet(0, 1)) {
+            // 上一次执行还没有结束，跳过本次触发
+            return false;
+        }
+        try {
+            scheduler.getExecutor().execute(this::run);
+            return true;
+        } catch (RejectedExecutionException e) {
+            active.decrementAndGet();
+            LOGGER.warn("#", e);
+            return false;
+        }
+    }
+
+    /**
+     * 执行任务
+     */
+    private void run() {
+        try {
+            fireCount.incrementAndGet();
+            task.run();
+        } catch (Throwable e) {
+            LOGGER.error("!", e);
+        } finally {
+            active.decrementAndGet();
+            if (type == FIXED_DELAY && isWaiting()) {
+                long now = scheduler.nanoTime();
+                reschedule(plus(now, period), now);
+            }
+        }
+    }
+
+    /**
+     * 重新安排触发时间
+     * @param next 下一次触发时间(调度器的相对纳秒时间)
+     * @param now 当前时间(调度器的相对纳秒时间)
+     */
+    private void reschedule(long next, long now) {
+        setDeadline(next, now);
+        scheduler.enqueue(this);
+    }
+
+    /**
+     * 设置下一次触发时间
+     * @param next 下一次触发时间(调度器的相对纳秒时间)
+     * @param now 当前时间(调度器的相对纳秒时间)
+     */
+    private void setDeadline(long next, long now) {
+        if (type != CRON) {
+            nextFireTime = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(next - now);
+        }
+        deadline = next;
+    }
+
+    /**
+     * 结束任务
+     * @return 如果是本次调用结束的返回{@code true}
+     */
+    private boolean complete() {
+        if (state.compareAndSet(WAITING, DONE)) {
+            scheduler.released();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 计算固定频率任务的下一次触发时间，落后超过一个周期时跳过错过的触发，不会连续补充执行
+     * @param now 当前时间(调度器的相对纳秒时间)
+     * @return 下一次触发时间(调度器的相对纳秒时间)
+     */
+    private long nextFixedRateDeadline(long now) {
+        long next = plus(deadline, period);
+        if (next <= now) {
+            next += ((now - next) / period + 1) * period;
+        }
+        return next;
+    }
+
+    /**
+     * 计算 CRON 任务的下一次触发时间
+     * @param now 当前时间(调度器的相对纳秒时间)
+     * @param currentTimeMillis 当前时间的毫秒时间戳
+     * @return 下一次触发时间(调度器的相对纳秒时间)，没有下一次触发返回 {@link #NONE}
+     */
+    private long nextCronDeadline(long now, long currentTimeMillis) {
+        // 时间轮按照单调时钟触发，与系统时钟可能有细微偏差，以上一次计划触发时间为下限避免重复触发
+        long[] dest = new long[1];
+        if (cron.nextFireTimes(Math.max(nextFireTime, currentTimeMillis), dest) == 0) {
+            return NONE;
+        }
+        nextFireTime = dest[0];
+        return plus(now, TimeUnit.MILLISECONDS.toNanos(Math.max(dest[0] - currentTimeMillis, 0L)));
+    }
+
+    /**
+     * 时间相加，溢出时取最大值
+     * @param time 时间(纳秒)
+     * @param delay 延迟(纳秒)
+     * @return 相加的结果
+     */
+    private static long plus(long time, long delay) {
+        long result = time + Math.max(delay, 0L);
+        return result < time ? Long.MAX_VALUE : result;
+    }
+}
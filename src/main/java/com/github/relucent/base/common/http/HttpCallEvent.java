@@ -0,0 +1,349 @@
+package com.github.relucent.base.common.http;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.relucent.base.common.logging.Logger;
+
+/**
+ * 一次 HTTP 请求的事件（计时和流量统计）<br>
+ * 由传输层创建和更新：{@link #start(HttpEventListener, String, URI)} 通知请求开始，{@link #finish(int, Throwable)} 通知请求结束(只通知一次)。<br>
+ * 时间都是 {@link System#nanoTime()} 的纳秒值，没有发生的阶段返回 -1。
+ */
+public class HttpCallEvent {
+
+    // ==============================Constants========================================
+    private static final Logger LOGGER = Logger.getLogger(HttpCallEvent.class);
+
+    // ==============================Fields===========================================
+    /** 监听器 */
+    private final HttpEventListener listener;
+    /** 请求方法 */
+    private final String method;
+    /** 主机标识(协议://主机:端口) */
+    private final String host;
+    /** 路径(不包括查询参数) */
+    private final String path;
+    /** 开始时间 */
+    private final long startNanos = System.nanoTime();
+    /** 是否已经结束 */
+    private final AtomicBoolean finished = new AtomicBoolean();
+    /** 开始建立连接的时间 */
+    private volatile long connectStartNanos = -1;
+    /** 连接建立的时间 */
+    private volatile long connectEndNanos = -1;
+    /** 是否复用了连接 */
+    private volatile boolean connectionReused;
+    /** 收到第一个响应字节的时间 */
+    private volatile long firstByteNanos = -1;
+    /** 结束时间 */
+    private volatile long endNanos = -1;
+    /** 发送的字节数 */
+    private volatile long bytesSent;
+    /** 接收的字节数 */
+    private volatile long bytesReceived;
+    /** 状态码，没有收到响应时为 -1 */
+    private volatile int statusCode = -1;
+    /** 异常 */
+    private volatile Throwable error;
+
+    // ==============================Constructors=====================================
+    private HttpCallEvent(HttpEventListener listener, String method, String scheme, String host, int port, String path) {
+        scheme = scheme == null ? "http" : scheme.toLowerCase(Locale.ROOT);
+        if (port == -1) {
+            port = "https".equals(scheme) ? 443 : 80;
+        }
+        this.listener = listener;
+        this.method = method.toUpperCase(Locale.ROOT);
+        this.host = scheme + "://" + (host == null ? "" : host.toLowerCase(Locale.ROOT)) + ":" + port;
+        this.path = path == null || path.isEmpty() ? "/" : path;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 创建请求事件，通知请求开始
+     * @param listener 监听器，可以为 {@code null}
+     * @param method   请求方法
+     * @param uri      请求地址
+     * @return 请求事件
+     */
+    public static HttpCallEvent start(HttpEventListener listener, String method, URI uri) {
+        HttpCallEvent event = new HttpCallEvent(listener, method, uri.getScheme(), uri.getHost(), uri.getPort(), uri.getRawPath());
+        event.notifyStarted();
+        return event;
+    }
+
+    /**
+     * 创建请求事件，通知请求开始
+     * @param listener 监听器，可以为 {@code null}
+     * @param method   请求方法
+     * @param url      请求地址
+     * @return 请求事件
+     */
+    public static HttpCallEvent start(HttpEventListener listener, String method, URL url) {
+        HttpCallEvent event = new HttpCallEvent(listener, method, url.getProtocol(), url.getHost(), url.getPort(), url.getPath());
+        event.notifyStarted();
+        return event;
+    }
+
+    /**
+     * 获得主机标识
+     * @param uri 请求地址
+     * @return 主机标识(协议://主机:端口)
+     */
+    public static String hostOf(URI uri) {
+        return new HttpCallEvent(null, "GET", uri.getScheme(), uri.getHost(), uri.getPort(), null).host;
+    }
+
+    /**
+     * 开始建立连接(传输层调用)
+     */
+    public void connectStarted() {
+        connectStartNanos = System.nanoTime();
+    }
+
+    /**
+     * 连接建立，或者获得了复用的连接(传输层调用)
+     * @param reused 是否复用了连接
+     */
+    public void connected(boolean reused) {
+        connectionReused = reused;
+        connectEndNanos = System.nanoTime();
+        if (reused) {
+            connectStartNanos = connectEndNanos;
+        }
+    }
+
+    /**
+     * 收到响应数据(传输层调用)，第一次调用时记录首字节时间
+     */
+    public void responseStarted() {
+        if (firstByteNanos == -1) {
+            firstByteNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 累加发送的字节数(传输层调用)
+     * @param bytes 字节数
+     */
+    public void addBytesSent(long bytes) {
+        bytesSent += bytes;
+    }
+
+    /**
+     * 累加接收的字节数(传输层调用)
+     * @param bytes 字节数
+     */
+    public void addBytesReceived(long bytes) {
+        bytesReceived += bytes;
+    }
+
+    /**
+     * 包装请求体的输出流，统计发送的字节数(传输层调用)
+     * @param out 输出流
+     * @return 统计发送字节数的输出流
+     */
+    public OutputStream countSent(OutputStream out) {
+        return new CountingOutputStream(out, this);
+    }
+
+    /**
+     * 包装响应体的输入流，统计接收的字节数(传输层调用)
+     * @param in 输入流
+     * @return 统计接收字节数的输入流
+     */
+    public InputStream countReceived(InputStream in) {
+        return new CountingInputStream(in, this);
+    }
+
+    /**
+     * 请求结束，通知监听器(只有第一次调用生效)
+     * @param statusCode 状态码，没有收到响应时为 -1
+     * @param error      异常，请求成功时为 {@code null}
+     */
+    public void finish(int statusCode, Throwable error) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        this.endNanos = System.nanoTime();
+        this.statusCode = statusCode;
+        this.error = error;
+        if (listener != null) {
+            try {
+                listener.requestFinished(this);
+            } catch (Throwable e) {
+                LOGGER.warn("#", e);
+            }
+        }
+    }
+
+    /**
+     * 是否已经结束
+     * @return 已经结束返回 {@code true}
+     */
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * 获得主机标识
+     * @return 主机标识(协议://主机:端口)
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * 获得路径
+     * @return 路径(不包括查询参数)
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 获得路由标识
+     * @return 路由标识(方法 协议://主机:端口/路径)
+     */
+    public String getRoute() {
+        return method + " " + host + path;
+    }
+
+    /**
+     * 获得建立连接的耗时
+     * @return 耗时(纳秒)，复用连接时为 0，没有建立连接时为 -1
+     */
+    public long getConnectNanos() {
+        long start = connectStartNanos;
+        long end = connectEndNanos;
+        return start == -1 || end == -1 ? -1 : end - start;
+    }
+
+    /**
+     * 获得首字节时间（从请求开始到收到第一个响应字节）
+     * @return 耗时(纳秒)，没有收到响应时为 -1
+     */
+    public long getTimeToFirstByteNanos() {
+        long firstByte = firstByteNanos;
+        return firstByte == -1 ? -1 : firstByte - startNanos;
+    }
+
+    /**
+     * 获得请求的总耗时
+     * @return 耗时(纳秒)，请求没有结束时为 -1
+     */
+    public long getLatencyNanos() {
+        long end = endNanos;
+        return end == -1 ? -1 : end - startNanos;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public boolean isConnectionReused() {
+        return connectionReused;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpCallEvent [route=" + getRoute() + ", statusCode=" + statusCode + ", latencyNanos=" + getLatencyNanos() + ", bytesSent=" + bytesSent
+                + ", bytesReceived=" + bytesReceived + "]";
+    }
+
+    // ==============================PrivateMethods===================================
+    private void notifyStarted() {
+        if (listener != null) {
+            try {
+                listener.requestStarted(this);
+            } catch (Throwable e) {
+                LOGGER.warn("#", e);
+            }
+        }
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 统计接收字节数的输入流
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final HttpCallEvent event;
+
+        private CountingInputStream(InputStream in, HttpCallEvent event) {
+            super(in);
+            this.event = event;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                event.addBytesReceived(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                event.addBytesReceived(n);
+            }
+            return n;
+        }
+    }
+
+    /**
+     * 统计发送字节数的输出流
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final HttpCallEvent event;
+
+        private CountingOutputStream(OutputStream out, HttpCallEvent event) {
+            super(out);
+            this.event = event;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            event.addBytesSent(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            event.addBytesSent(len);
+        }
+    }
+}
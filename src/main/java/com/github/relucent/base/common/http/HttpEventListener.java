@@ -0,0 +1,34 @@
+package com.github.relucent.base.common.http;
+
+/**
+ * HTTP 请求事件监听器<br>
+ * 由传输层在请求开始、结束和连接池变化时调用（可能在 I/O 线程中调用），实现应该快速返回，不能阻塞；监听器抛出的异常会被忽略(记录日志)。<br>
+ * 可以使用 {@link HttpMetrics} 按主机和路由汇总，或者实现此接口对接其它的指标系统。
+ */
+public interface HttpEventListener {
+
+    /**
+     * 请求开始
+     * @param event 请求事件
+     */
+    default void requestStarted(HttpCallEvent event) {
+    }
+
+    /**
+     * 请求结束（收到完整的响应，或者请求失败）
+     * @param event 请求事件
+     */
+    default void requestFinished(HttpCallEvent event) {
+    }
+
+    /**
+     * 主机的连接池发生变化（只有自己管理连接池的传输层会调用）
+     * @param host            主机标识(协议://主机:端口)
+     * @param openConnections 打开的连接数(包括空闲连接)
+     * @param idleConnections 空闲的连接数
+     * @param pendingRequests 等待连接的请求数
+     * @param maxConnections  最大连接数
+     */
+    default void connectionPoolChanged(String host, int openConnections, int idleConnections, int pendingRequests, int maxConnections) {
+    }
+}
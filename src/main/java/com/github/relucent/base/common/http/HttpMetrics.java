@@ -0,0 +1,253 @@
+package com.github.relucent.base.common.http;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.relucent.base.common.time.ConcurrentLatencyHistogram;
+import com.github.relucent.base.common.time.LatencyHistogram;
+
+/**
+ * HTTP 请求指标（按主机和路由汇总的 {@link HttpEventListener}）<br>
+ * 统计建立连接的耗时、首字节时间、总耗时的直方图，发送和接收的字节数，各状态码的次数，进行中的请求数和连接池的使用率。<br>
+ * 路由为 “方法 协议://主机:端口/路径”，路径中含有 ID 等变量时路由会很多，最多统计 {@value #MAX_ROUTES} 个路由，超出的只计入主机的指标。<br>
+ * 直方图使用 {@link ConcurrentLatencyHistogram}（所有线程共享，每个约5KB），内存占用与记录的线程数无关。
+ *
+ * <pre>
+ * HttpMetrics metrics = new HttpMetrics();
+ * HttpClient client = HttpClient.newBuilder().eventListener(metrics).build();
+ * HttpUtil.setEventListener(metrics);
+ * ...
+ * for (Map.Entry&lt;String, HttpMetrics.Stats&gt; entry : metrics.getHosts().entrySet()) {
+ *     long p99 = entry.getValue().getLatency().getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+ * }
+ * </pre>
+ */
+public class HttpMetrics implements HttpEventListener {
+
+    // ==============================Constants========================================
+    /** 最多统计的路由数 */
+    public static final int MAX_ROUTES = 1000;
+
+    // ==============================Fields===========================================
+    private final Map<String, Stats> hosts = new ConcurrentHashMap<>();
+    private final Map<String, Stats> routes = new ConcurrentHashMap<>();
+    /** 各主机进行中的请求数，清空指标时保留，避免清空前开始的请求结束时计数变为负数 */
+    private final Map<String, AtomicInteger> activeRequests = new ConcurrentHashMap<>();
+
+    // ==============================Methods==========================================
+    @Override
+    public void requestStarted(HttpCallEvent event) {
+        hostStats(event.getHost()).activeRequests.incrementAndGet();
+    }
+
+    @Override
+    public void requestFinished(HttpCallEvent event) {
+        Stats host = hostStats(event.getHost());
+        host.activeRequests.decrementAndGet();
+        host.record(event);
+        String route = event.getRoute();
+        Stats stats = routes.get(route);
+        if (stats == null && routes.size() < MAX_ROUTES) {
+            stats = routes.computeIfAbsent(route, key -> new Stats());
+        }
+        if (stats != null) {
+            stats.record(event);
+        }
+    }
+
+    @Override
+    public void connectionPoolChanged(String host, int openConnections, int idleConnections, int pendingRequests, int maxConnections) {
+        Stats stats = hostStats(host);
+        stats.openConnections = openConnections;
+        stats.idleConnections = idleConnections;
+        stats.pendingRequests = pendingRequests;
+        stats.maxConnections = maxConnections;
+    }
+
+    /**
+     * 获得按主机汇总的指标
+     * @return 主机标识(协议://主机:端口)到指标的映射
+     */
+    public Map<String, Stats> getHosts() {
+        return Collections.unmodifiableMap(new TreeMap<>(hosts));
+    }
+
+    /**
+     * 获得主机的指标
+     * @param host 主机标识(协议://主机:端口)
+     * @return 指标，没有请求过该主机时返回 {@code null}
+     */
+    public Stats getHost(String host) {
+        return hosts.get(host);
+    }
+
+    /**
+     * 获得按路由汇总的指标(路由只统计已经结束的请求，进行中的请求数和连接池指标总是0)
+     * @return 路由标识(方法 协议://主机:端口/路径)到指标的映射
+     */
+    public Map<String, Stats> getRoutes() {
+        return Collections.unmodifiableMap(new TreeMap<>(routes));
+    }
+
+    /**
+     * 清空所有指标(进行中的请求数除外)
+     */
+    public void reset() {
+        hosts.clear();
+        routes.clear();
+    }
+
+    private Stats hostStats(String host) {
+        return hosts.computeIfAbsent(host, key -> new Stats(activeRequests.computeIfAbsent(key, k -> new AtomicInteger())));
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 一个主机(或者路由)的指标
+     */
+    public static class Stats {
+
+        private final AtomicInteger activeRequests;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        private final ConcurrentLatencyHistogram latency = new ConcurrentLatencyHistogram();
+        private final ConcurrentLatencyHistogram connectLatency = new ConcurrentLatencyHistogram();
+        private final ConcurrentLatencyHistogram timeToFirstByte = new ConcurrentLatencyHistogram();
+        private volatile int openConnections;
+        private volatile int idleConnections;
+        private volatile int pendingRequests;
+        private volatile int maxConnections;
+
+        private Stats() {
+            this(new AtomicInteger());
+        }
+
+        private Stats(AtomicInteger activeRequests) {
+            this.activeRequests = activeRequests;
+        }
+
+        private void record(HttpCallEvent event) {
+            requests.increment();
+            if (event.getError() != null) {
+                errors.increment();
+            }
+            if (event.getStatusCode() != -1) {
+                statusCounts.computeIfAbsent(event.getStatusCode(), key -> new LongAdder()).increment();
+            }
+            bytesSent.add(event.getBytesSent());
+            bytesReceived.add(event.getBytesReceived());
+            latency.record(event.getLatencyNanos());
+            // 复用连接时没有建立连接的耗时
+            if (event.getConnectNanos() != -1 && !event.isConnectionReused()) {
+                connectLatency.record(event.getConnectNanos());
+            }
+            if (event.getTimeToFirstByteNanos() != -1) {
+                timeToFirstByte.record(event.getTimeToFirstByteNanos());
+            }
+        }
+
+        /**
+         * 获得进行中的请求数
+         * @return 进行中的请求数
+         */
+        public int getActiveRequests() {
+            return activeRequests.get();
+        }
+
+        /**
+         * 获得已经结束的请求数
+         * @return 请求数
+         */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /**
+         * 获得失败(没有收到完整响应)的请求数
+         * @return 请求数
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        /**
+         * 获得各状态码的次数
+         * @return 状态码到次数的映射
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statusCounts.forEach((code, count) -> counts.put(code, count.sum()));
+            return counts;
+        }
+
+        /**
+         * 获得总耗时的直方图(快照)
+         * @return 直方图
+         */
+        public LatencyHistogram getLatency() {
+            return latency.snapshot();
+        }
+
+        /**
+         * 获得建立新连接耗时的直方图(快照)
+         * @return 直方图
+         */
+        public LatencyHistogram getConnectLatency() {
+            return connectLatency.snapshot();
+        }
+
+        /**
+         * 获得首字节时间的直方图(快照)
+         * @return 直方图
+         */
+        public LatencyHistogram getTimeToFirstByte() {
+            return timeToFirstByte.snapshot();
+        }
+
+        public int getOpenConnections() {
+            return openConnections;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public int getPendingRequests() {
+            return pendingRequests;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        /**
+         * 获得连接池的使用率（使用中的连接数 / 最大连接数）
+         * @return 使用率(0~1)，没有连接池信息时返回0
+         */
+        public double getPoolUtilization() {
+            int max = maxConnections;
+            return max <= 0 ? 0D : (double) (openConnections - idleConnections) / max;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats [activeRequests=" + getActiveRequests() + ", requests=" + getRequests() + ", errors=" + getErrors() + ", bytesSent="
+                    + getBytesSent() + ", bytesReceived=" + getBytesReceived() + ", statusCounts=" + getStatusCounts() + "]";
+        }
+    }
+}
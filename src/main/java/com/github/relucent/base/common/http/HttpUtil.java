@@ -5,18 +5,24 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import javax.net.ssl.HttpsURLConnection;
 
 import com.github.relucent.base.common.collection.CaseInsensitiveKeyMap;
+import com.github.relucent.base.common.io.GzipIoUtil;
+import com.github.relucent.base.common.io.IoRuntimeException;
 import com.github.relucent.base.common.lang.StringUtil;
 import com.github.relucent.base.common.net.SslUtil;
 
@@ -31,11 +37,17 @@ public class HttpUtil {
     public static final String HEADER_CONTENT_TYPE = "Content-Type";
     public static final String HEADER_CONTENT_LENGTH = "Content-Length";
     public static final String HEADER_USER_AGENT = "User-Agent";
+    public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
 
     public static final String CONTENT_TYPE_TEXT_PLAIN = "text/plain";
     public static final String CONTENT_TYPE_FORM_URL_ENCODED = "application/x-www-form-urlencoded";
     public static final String CONTENT_TYPE_JSON = "application/json";
 
+    public static final String ENCODING_GZIP = "gzip";
+    public static final String ENCODING_DEFLATE = "deflate";
+    public static final String ACCEPT_ENCODING_GZIP_DEFLATE = "gzip, deflate";
+
     public static final String USER_AGENT_FOR_MOZILLA = ""//
             + "Mozilla/5.0 (Windows NT 6.3; WOW64) "//
             + "AppleWebKit/537.36 (KHTML, like Gecko) "//
@@ -44,6 +56,7 @@ public class HttpUtil {
     private static final String UTF_8 = "UTF-8";
     private static final int CONNECT_TIMEOUT = 5 * 1000;// 连接超时(单位毫秒)
     private static final int READ_TIMEOUT = 30 * 1000;// 读取超时(单位毫秒)
+    private static volatile HttpEventListener eventListener;// 请求事件监听器
 
     // ==============================Constructors=====================================
     /**
@@ -161,7 +174,8 @@ public class HttpUtil {
     }
 
     /**
-     * 执行请求
+     * 执行请求<br>
+     * 默认发送 {@code Accept-Encoding: gzip, deflate}，压缩的响应自动解压；请求头中指定了 {@code Content-Encoding: gzip} 时，请求主体以 gzip 压缩后发送。
      * @param url     请求地址
      * @param method  请求方法
      * @param body    请求主体 (针对POST请求,GET请求应为NULL)
@@ -170,20 +184,53 @@ public class HttpUtil {
      */
     public static String execute(String url, HttpMethod method, String body, Map<String, String> headers) {
         HttpURLConnection conn = null;
+        HttpCallEvent event = null;
         try {
-            conn = getConnection(url, method, headers);
+            CaseInsensitiveKeyMap<String> headerMap = castHeaderMap(headers);
+            conn = getConnection(url, method, headerMap);
+            if (!headerMap.containsKey(HEADER_ACCEPT_ENCODING)) {
+                conn.setRequestProperty(HEADER_ACCEPT_ENCODING, ACCEPT_ENCODING_GZIP_DEFLATE);
+            }
+            boolean gzipBody = ENCODING_GZIP.equalsIgnoreCase(StringUtil.trim(headerMap.get(HEADER_CONTENT_ENCODING)));
+            event = HttpCallEvent.start(eventListener, method.name(), conn.getURL());
+            event.connectStarted();
             conn.connect();
+            event.connected(false);
             if (method.hasBody() && StringUtil.isNotEmpty(body)) {
-                writeAndClose(conn.getOutputStream(), body);
+                OutputStream output = event.countSent(conn.getOutputStream());
+                writeAndClose(gzipBody ? GzipIoUtil.toGZIPOutputStream(output) : output, body);
             }
-            return readAndClose(conn.getInputStream());
+            InputStream input = conn.getInputStream();
+            event.responseStarted();
+            String result = readAndClose(decodeContent(event.countReceived(input), conn.getContentEncoding()));
+            event.finish(conn.getResponseCode(), null);
+            return result;
         } catch (Exception e) {
+            if (event != null) {
+                event.finish(getResponseCodeQuietly(conn), e);
+            }
             throw new RuntimeException(e);
         } finally {
             closeQuietly(conn);
         }
     }
 
+    /**
+     * 设置请求事件监听器，{@link #execute(String, HttpMethod, String, Map)} 发送的请求产生连接耗时、首字节时间、流量等事件
+     * @param listener 请求事件监听器(如 {@link HttpMetrics})，{@code null} 表示不监听
+     */
+    public static void setEventListener(HttpEventListener listener) {
+        eventListener = listener;
+    }
+
+    /**
+     * 获得请求事件监听器
+     * @return 请求事件监听器，没有设置时返回 {@code null}
+     */
+    public static HttpEventListener getEventListener() {
+        return eventListener;
+    }
+
     /**
      * 获得一个HTTP连接
      * @param url     请求地址
@@ -329,6 +376,59 @@ public class HttpUtil {
         return StandardCharsets.UTF_8;
     }
 
+    /**
+     * 按照 Content-Encoding 解压响应内容(流式解压，不在内存中缓存)<br>
+     * 支持 gzip(x-gzip) 和 deflate(zlib 格式，以及部分服务端发送的原始 deflate 格式)，其它编码(包括 identity)原样返回。
+     * @param input           响应内容
+     * @param contentEncoding Content-Encoding 响应头
+     * @return 解压后的响应内容
+     * @throws IOException 压缩格式错误
+     */
+    public static InputStream decodeContent(InputStream input, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return input;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        boolean gzip = ENCODING_GZIP.equals(encoding) || "x-gzip".equals(encoding);
+        boolean deflate = ENCODING_DEFLATE.equals(encoding);
+        if (!gzip && !deflate) {
+            return input;
+        }
+        // 响应内容为空时(如 HEAD 请求、204)，不需要解压
+        PushbackInputStream pushback = new PushbackInputStream(input, 2);
+        int b0 = pushback.read();
+        if (b0 == -1) {
+            return pushback;
+        }
+        int b1 = pushback.read();
+        if (b1 != -1) {
+            pushback.unread(b1);
+        }
+        pushback.unread(b0);
+        if (gzip) {
+            try {
+                return GzipIoUtil.toGZIPInputStream(pushback);
+            } catch (IoRuntimeException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        // zlib 头：CM=8，且 (CMF*256+FLG) 是 31 的倍数
+        boolean zlib = b1 != -1 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+        return new InflaterInputStream(pushback, new Inflater(!zlib)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        };
+    }
+
     /**
      * 转换请求头MAP(请求头的名称应该是大小写不敏感的)
      * @param headers 请求头MAP
@@ -368,6 +468,17 @@ public class HttpUtil {
         }
     }
 
+    private static int getResponseCodeQuietly(HttpURLConnection conn) {
+        if (conn == null) {
+            return -1;
+        }
+        try {
+            return conn.getResponseCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
     private static void closeQuietly(Closeable closeable) {
         if (closeable != null) {
             try {
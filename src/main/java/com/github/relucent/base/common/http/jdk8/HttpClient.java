@@ -1,47 +1,72 @@
 package com.github.relucent.base.common.http.jdk8;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
 import java.net.Proxy;
-import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
-import javax.net.ssl.HttpsURLConnection;
-
-import com.github.relucent.base.common.http.jdk8.HttpRequest.BodyPublisher;
+import com.github.relucent.base.common.cache.CacheManager;
+import com.github.relucent.base.common.cron.JobScheduler;
+import com.github.relucent.base.common.http.HttpEventListener;
 import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
-import com.github.relucent.base.common.http.jdk8.HttpResponse.ResponseInfo;
-import com.github.relucent.base.common.http.jdk8.internal.HttpResponseImpl;
-import com.github.relucent.base.common.http.jdk8.internal.HttpResponseInfoImpl;
-import com.github.relucent.base.common.io.IoUtil;
-import com.github.relucent.base.common.lang.StringUtil;
-import com.github.relucent.base.common.net.SslUtil;
+import com.github.relucent.base.common.http.jdk8.internal.CacheTransport;
+import com.github.relucent.base.common.http.jdk8.internal.CircuitBreakerTransport;
+import com.github.relucent.base.common.http.jdk8.internal.CompressionTransport;
+import com.github.relucent.base.common.http.jdk8.internal.ConcurrencyLimitTransport;
+import com.github.relucent.base.common.http.jdk8.internal.HedgingTransport;
+import com.github.relucent.base.common.http.jdk8.internal.NioHttpTransport;
+import com.github.relucent.base.common.http.jdk8.internal.UrlConnectionTransport;
 
 /**
  * HTTP工具类<br>
  * 代码风格参考 JDK17 的 java.net.http.HttpClient，可在 JDK8 版本使用。<br>
+ * 默认使用 {@link java.net.HttpURLConnection} 发送请求；启用 {@link Builder#nonBlocking(boolean)} 后，http 请求使用非阻塞的 NIO 传输层和显式的主机连接池，进行中的请求不占用线程。<br>
+ * 默认接受 gzip/deflate 压缩的响应并自动解压，可以通过 {@link Builder#compressRequestBody(long)} 压缩较大的请求体。<br>
+ * 可选的按主机的流量控制：对冲请求 {@link Builder#hedging(double, long)}、自适应并发限制 {@link Builder#adaptiveConcurrencyLimit(int, int)} 和熔断
+ * {@link Builder#circuitBreaker(double, long, long)}，被限制或熔断的请求以 {@link HttpRejectedException} 立即失败。<br>
+ * 通过 {@link Builder#eventListener(HttpEventListener)} 获得每次网络请求的连接耗时、首字节时间、流量等事件，可以使用 {@link com.github.relucent.base.common.http.HttpMetrics} 按主机和路由汇总。<br>
+ * 可选的响应缓存 {@link Builder#responseCache(CacheManager)}：按 Cache-Control、Expires 缓存 GET 请求的响应，过期后使用 ETag、Last-Modified 重新验证。<br>
  */
 public class HttpClient implements AutoCloseable {
 
     private final ExecutorService executor;
-    private final Proxy proxy;
-    private final int connectTimeoutMillis;
-    private final int readTimeoutMillis;
-    private final boolean ignoreSslVerification;
+    private final HttpTransport transport;
 
     private HttpClient(Builder builder) {
         this.executor = builder.executor != null ? builder.executor : Executors.newCachedThreadPool();
-        this.proxy = builder.proxy;
-        this.connectTimeoutMillis = builder.connectTimeoutMillis;
-        this.readTimeoutMillis = builder.readTimeoutMillis;
-        this.ignoreSslVerification = builder.ignoreSslVerification;
+        HttpTransport transport;
+        if (builder.transport != null) {
+            transport = builder.transport;
+        } else {
+            HttpTransport blocking = new UrlConnectionTransport(executor, builder.proxy, builder.connectTimeoutMillis, builder.readTimeoutMillis,
+                    builder.ignoreSslVerification, builder.eventListener);
+            if (builder.nonBlocking && builder.proxy == null) {
+                transport = new NioHttpTransport(executor, blocking, builder.connectTimeoutMillis, builder.readTimeoutMillis,
+                        builder.maxConnectionsPerHost, builder.keepAliveMillis, builder.eventListener);
+            } else {
+                transport = blocking;
+            }
+        }
+        if (builder.acceptCompression || builder.requestCompressionThreshold >= 0) {
+            transport = new CompressionTransport(transport, builder.acceptCompression, builder.requestCompressionThreshold);
+        }
+        if (builder.maxConcurrencyLimit > 0) {
+            transport = new ConcurrencyLimitTransport(transport, builder.initialConcurrencyLimit, builder.maxConcurrencyLimit);
+        }
+        if (builder.failureRateThreshold > 0) {
+            transport = new CircuitBreakerTransport(transport, builder.failureRateThreshold, builder.slowCallMillis, builder.circuitOpenMillis);
+        }
+        // 对冲请求在最外层，对冲的请求同样受并发限制和熔断的约束
+        if (builder.hedgingPercentile > 0) {
+            transport = new HedgingTransport(transport, JobScheduler.getInstance(), builder.hedgingPercentile, builder.hedgingMinDelayMillis);
+        }
+        // 缓存在最外层，命中缓存的请求不计入并发限制和熔断
+        if (builder.cacheManager != null) {
+            transport = new CacheTransport(transport, builder.cacheManager, builder.maxCacheEntryBytes);
+        }
+        this.transport = transport;
     }
 
     public static Builder newBuilder() {
@@ -61,7 +86,7 @@ public class HttpClient implements AutoCloseable {
      * @throws IOException 网络异常，或者文件流读写异常
      */
     public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
-        return sendInternal(request, handler);
+        return transport.send(request, handler);
     }
 
     /**
@@ -72,17 +97,12 @@ public class HttpClient implements AutoCloseable {
      * @return 异步计算的结果
      */
     public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return sendInternal(request, handler);
-            } catch (IOException e) {
-                throw new CompletionException(e);
-            }
-        }, executor);
+        return transport.sendAsync(request, handler);
     }
 
     @Override
     public void close() {
+        transport.close();
         boolean terminated = executor.isTerminated();
         if (!terminated) {
             executor.shutdown();
@@ -105,86 +125,6 @@ public class HttpClient implements AutoCloseable {
         }
     }
 
-    /**
-     * 请求处理
-     * @param <T>     响应体类型
-     * @param request 请求对象
-     * @param handler 响应内容处理
-     * @return 响应对象
-     * @throws IOException 网络异常，或者文件流读写异常
-     */
-    private <T> HttpResponse<T> sendInternal(HttpRequest request, BodyHandler<T> handler) throws IOException {
-        HttpURLConnection conn = null;
-        try {
-            if (proxy != null) {
-                conn = (HttpURLConnection) request.uri().toURL().openConnection(proxy);
-            } else {
-                conn = (HttpURLConnection) request.uri().toURL().openConnection();
-            }
-            if (conn instanceof HttpsURLConnection && ignoreSslVerification) {
-                ((HttpsURLConnection) conn).setSSLSocketFactory(SslUtil.SKIP_SSL_SOCKET_FACTORY);
-                ((HttpsURLConnection) conn).setHostnameVerifier(SslUtil.SKIP_HOSTNAME_VERIFIER);
-            }
-
-            conn.setConnectTimeout(connectTimeoutMillis);
-            conn.setReadTimeout(readTimeoutMillis);
-            conn.setRequestMethod(request.method());
-            conn.setDoInput(true);
-
-            HttpHeaders requestHeaders = request.headers();
-            // 设置请求头
-            for (Map.Entry<String, List<String>> e : requestHeaders.map().entrySet()) {
-                String key = e.getKey();
-
-                // 跳过，Content-Length 由 HttpURLConnection 自动管理
-                if ("Content-Length".equalsIgnoreCase(key)) {
-                    continue;
-                }
-
-                for (String val : e.getValue()) {
-                    conn.addRequestProperty(key, val);
-                }
-            }
-
-            BodyPublisher bodyPublisher = request.bodyPublisher();
-            if (StringUtil.isEmpty(requestHeaders.firstValue("Content-Type"))
-                    && StringUtil.isNotBlank(bodyPublisher.contentType())) {
-                conn.setRequestProperty("Content-Type", bodyPublisher.contentType());
-            }
-
-            if (request.bodyPublisher() != null && request.bodyPublisher().contentLength() > 0) {
-                long contentLength = bodyPublisher.contentLength();
-                if (contentLength >= 0) {
-                    conn.setFixedLengthStreamingMode(contentLength);
-                } else {
-                    conn.setChunkedStreamingMode(8192);// (8KB)
-                }
-                conn.setDoOutput(true);
-                bodyPublisher.writeTo(conn.getOutputStream());
-            }
-
-            InputStream is = null;
-            int status = conn.getResponseCode();
-            if (status >= 400) {
-                is = conn.getErrorStream();
-                if (is == null) {
-                    is = new ByteArrayInputStream(new byte[0]);
-                }
-            } else {
-                is = conn.getInputStream();
-            }
-            ResponseInfo info = new HttpResponseInfoImpl(conn);
-            HttpResponse.BodySubscriber<T> subscriber = handler.apply(info);
-
-            try (InputStream input = is) {
-                T body = subscriber.getBody(is);
-                return new HttpResponseImpl<>(status, info.headers(), body);
-            }
-        } finally {
-            IoUtil.closeQuietly(conn);
-        }
-    }
-
     /**
      * 构造器
      */
@@ -195,6 +135,22 @@ public class HttpClient implements AutoCloseable {
         private int connectTimeoutMillis = 10 * 1000;
         private int readTimeoutMillis = 10 * 1000;
         private boolean ignoreSslVerification = false;
+        private HttpTransport transport;
+        private boolean nonBlocking = false;
+        private int maxConnectionsPerHost = 64;
+        private long keepAliveMillis = 30 * 1000L;
+        private boolean acceptCompression = true;
+        private long requestCompressionThreshold = -1;
+        private double hedgingPercentile = -1;
+        private long hedgingMinDelayMillis;
+        private int initialConcurrencyLimit;
+        private int maxConcurrencyLimit = -1;
+        private double failureRateThreshold = -1;
+        private long slowCallMillis;
+        private long circuitOpenMillis;
+        private CacheManager cacheManager;
+        private long maxCacheEntryBytes = 1024 * 1024L;
+        private HttpEventListener eventListener;
 
         public Builder executor(ExecutorService executor) {
             this.executor = executor;
@@ -221,6 +177,142 @@ public class HttpClient implements AutoCloseable {
             return this;
         }
 
+        /**
+         * 指定传输层，指定后忽略代理、超时等传输层相关的设置
+         * @param transport 传输层
+         * @return 构造器
+         */
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * 是否使用非阻塞的 NIO 传输层（只对 http 请求生效，https 请求和使用代理时仍使用 {@link java.net.HttpURLConnection}）
+         * @param nonBlocking 是否使用非阻塞传输层
+         * @return 构造器
+         */
+        public Builder nonBlocking(boolean nonBlocking) {
+            this.nonBlocking = nonBlocking;
+            return this;
+        }
+
+        /**
+         * 每个主机的最大连接数（非阻塞传输层），超出的请求排队等待空闲连接
+         * @param maxConnections 最大连接数
+         * @return 构造器
+         */
+        public Builder maxConnectionsPerHost(int maxConnections) {
+            this.maxConnectionsPerHost = maxConnections;
+            return this;
+        }
+
+        /**
+         * 空闲连接的保持时间（非阻塞传输层），服务端通过 Keep-Alive 响应头指定了更短的时间时以服务端为准
+         * @param keepAliveMillis 保持时间(毫秒)
+         * @return 构造器
+         */
+        public Builder keepAliveMillis(long keepAliveMillis) {
+            this.keepAliveMillis = keepAliveMillis;
+            return this;
+        }
+
+        /**
+         * 是否接受压缩的响应（默认接受）<br>
+         * 接受时发送 {@code Accept-Encoding: gzip, deflate}，压缩的响应体自动流式解压。请求中指定了 Accept-Encoding 时不自动解压。
+         * @param accept 是否接受压缩的响应
+         * @return 构造器
+         */
+        public Builder acceptCompression(boolean accept) {
+            this.acceptCompression = accept;
+            return this;
+        }
+
+        /**
+         * 请求体长度不小于阈值时，以 gzip 压缩请求体（默认不压缩，需要服务端支持 {@code Content-Encoding: gzip} 的请求）
+         * @param thresholdBytes 压缩请求体的最小长度(字节)，小于0表示不压缩
+         * @return 构造器
+         */
+        public Builder compressRequestBody(long thresholdBytes) {
+            this.requestCompressionThreshold = thresholdBytes;
+            return this;
+        }
+
+        /**
+         * 启用对冲请求（只对 GET、HEAD、OPTIONS 请求生效）<br>
+         * 请求在该主机最近响应时间的指定百分位数内没有响应时，再发送一个相同的请求，以先完成的响应为准。对冲请求数不超过请求总数的10%。
+         * @param percentile     对冲延迟使用的响应时间百分位数(0~100)，如 95
+         * @param minDelayMillis 最小对冲延迟(毫秒)
+         * @return 构造器
+         */
+        public Builder hedging(double percentile, long minDelayMillis) {
+            this.hedgingPercentile = percentile;
+            this.hedgingMinDelayMillis = minDelayMillis;
+            return this;
+        }
+
+        /**
+         * 启用按主机的自适应并发限制<br>
+         * 根据响应时间的变化自动调整每个主机的并发上限，达到上限的请求不排队，直接以 {@link HttpRejectedException} 失败。
+         * @param initialLimit 初始并发上限
+         * @param maxLimit     最大并发上限
+         * @return 构造器
+         */
+        public Builder adaptiveConcurrencyLimit(int initialLimit, int maxLimit) {
+            this.initialConcurrencyLimit = initialLimit;
+            this.maxConcurrencyLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * 启用按主机的熔断<br>
+         * 最近的请求中失败(网络异常、5xx)或者慢于阈值的比例达到阈值时熔断，熔断期间请求直接以 {@link HttpRejectedException} 失败，之后放行少量试探请求决定是否恢复。
+         * @param failureRateThreshold 失败和慢请求比例的阈值(0~1)
+         * @param slowCallMillis       慢请求的阈值(毫秒)，小于等于0表示不统计慢请求
+         * @param openMillis           熔断的持续时间(毫秒)
+         * @return 构造器
+         */
+        public Builder circuitBreaker(double failureRateThreshold, long slowCallMillis, long openMillis) {
+            this.failureRateThreshold = failureRateThreshold;
+            this.slowCallMillis = slowCallMillis;
+            this.circuitOpenMillis = openMillis;
+            return this;
+        }
+
+        /**
+         * 指定请求事件监听器（每次实际发送的请求，包括对冲请求，都会产生事件；命中缓存和被拒绝的请求没有事件）<br>
+         * 指定了传输层 {@link #transport(HttpTransport)} 时忽略此设置。
+         * @param listener 请求事件监听器，如 {@link com.github.relucent.base.common.http.HttpMetrics}
+         * @return 构造器
+         */
+        public Builder eventListener(HttpEventListener listener) {
+            this.eventListener = listener;
+            return this;
+        }
+
+        /**
+         * 启用响应缓存(RFC 7234 私有缓存)，响应体不超过 1MB 的响应才会被缓存
+         * @param cacheManager 缓存管理器，如 {@link com.github.relucent.base.common.cache.LocalCacheManager}
+         * @return 构造器
+         */
+        public Builder responseCache(CacheManager cacheManager) {
+            this.cacheManager = cacheManager;
+            return this;
+        }
+
+        /**
+         * 启用响应缓存(RFC 7234 私有缓存)<br>
+         * 缓存 GET 请求的响应，新鲜的缓存直接使用，过期的缓存通过 If-None-Match、If-Modified-Since 重新验证，服务端返回 304 时使用缓存的响应体。
+         * @param cacheManager  缓存管理器，如 {@link com.github.relucent.base.common.cache.LocalCacheManager}
+         * @param maxEntryBytes 可以缓存的响应体的最大长度(字节)
+         * @return 构造器
+         */
+        public Builder responseCache(CacheManager cacheManager, long maxEntryBytes) {
+            this.cacheManager = cacheManager;
+            this.maxCacheEntryBytes = maxEntryBytes;
+            return this;
+        }
+
         public HttpClient build() {
             return new HttpClient(this);
         }
@@ -0,0 +1,20 @@
+package com.github.relucent.base.common.http.jdk8;
+
+import java.io.IOException;
+
+/**
+ * 请求被客户端拒绝（没有发送）<br>
+ * 主机的并发请求数达到自适应上限，或者主机的熔断器处于打开状态时抛出，调用方可以立即降级处理，而不需要等待超时。
+ */
+public class HttpRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构造函数
+     * @param message 异常信息
+     */
+    public HttpRejectedException(String message) {
+        super(message);
+    }
+}
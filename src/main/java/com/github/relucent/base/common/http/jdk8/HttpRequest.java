@@ -1,11 +1,14 @@
 package com.github.relucent.base.common.http.jdk8;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import com.github.relucent.base.common.http.HttpMethod;
 import com.github.relucent.base.common.http.jdk8.internal.HttpRequestBuilderImpl;
@@ -110,6 +113,45 @@ public interface HttpRequest {
             return new HttpRequestPublishers.FormBodyPublisher(formData);
         }
 
+        /**
+         * 发布文件内容（固定长度模式流式发送，不在内存中缓存）
+         * @param file 文件路径
+         * @return 请求体内容发布器
+         */
+        public static BodyPublisher ofFile(Path file) {
+            return ofFile(file, "application/octet-stream");
+        }
+
+        /**
+         * 发布文件内容（固定长度模式流式发送，不在内存中缓存）
+         * @param file        文件路径
+         * @param contentType 内容类型
+         * @return 请求体内容发布器
+         */
+        public static BodyPublisher ofFile(Path file, String contentType) {
+            return new HttpRequestPublishers.FileBodyPublisher(file, contentType);
+        }
+
+        /**
+         * 发布输入流内容（长度未知，使用 chunked 模式流式发送）
+         * @param streamSupplier 输入流提供者，每次发送请求时调用一次，流由发布器关闭
+         * @return 请求体内容发布器
+         */
+        public static BodyPublisher ofInputStream(Supplier<? extends InputStream> streamSupplier) {
+            return ofInputStream(streamSupplier, -1, "application/octet-stream");
+        }
+
+        /**
+         * 发布输入流内容
+         * @param streamSupplier 输入流提供者，每次发送请求时调用一次，流由发布器关闭
+         * @param contentLength  内容长度，-1 表示未知（使用 chunked 模式）
+         * @param contentType    内容类型
+         * @return 请求体内容发布器
+         */
+        public static BodyPublisher ofInputStream(Supplier<? extends InputStream> streamSupplier, long contentLength, String contentType) {
+            return new HttpRequestPublishers.InputStreamBodyPublisher(streamSupplier, contentLength, contentType);
+        }
+
         public static BodyPublisher ofMultipart(Consumer<MultipartBodyPublisher> builder) {
             MultipartBodyPublisher multipart = new MultipartBodyPublisher();
             builder.accept(multipart);
@@ -2,6 +2,9 @@ package com.github.relucent.base.common.http.jdk8;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.stream.Stream;
 
 import com.github.relucent.base.common.http.jdk8.internal.HttpResponseHandlers;
 
@@ -26,6 +29,14 @@ public interface HttpResponse<T> {
 
     interface BodySubscriber<T> {
         T getBody(InputStream is) throws IOException;
+
+        /**
+         * 返回的响应体是否持有输入流（如 {@link InputStream}、{@link Stream}），为 {@code true} 时传输层不会在 {@link #getBody(InputStream)} 返回后关闭输入流，由调用方负责关闭
+         * @return 是否持有输入流
+         */
+        default boolean isStreaming() {
+            return false;
+        }
     }
 
     /**
@@ -51,5 +62,39 @@ public interface HttpResponse<T> {
         public static BodyHandler<byte[]> ofByteArray() {
             return new HttpResponseHandlers.ByteArrayBodyHandler();
         }
+
+        /**
+         * 响应体作为输入流返回，不在内存中缓存，调用方负责关闭输入流
+         * @return 响应体处理
+         */
+        public static BodyHandler<InputStream> ofInputStream() {
+            return new HttpResponseHandlers.InputStreamBodyHandler();
+        }
+
+        /**
+         * 响应体按行读取（字符集由 Content-Type 决定，默认 UTF-8），调用方负责关闭返回的流
+         * @return 响应体处理
+         */
+        public static BodyHandler<Stream<String>> ofLines() {
+            return new HttpResponseHandlers.LinesBodyHandler();
+        }
+
+        /**
+         * 响应体写入文件（通过 {@link java.nio.channels.FileChannel#transferFrom} 写入，不在内存中缓存）
+         * @param file    文件路径
+         * @param options 打开文件的选项，默认为 CREATE, WRITE, TRUNCATE_EXISTING
+         * @return 响应体处理，返回文件路径
+         */
+        public static BodyHandler<Path> ofFile(Path file, OpenOption... options) {
+            return new HttpResponseHandlers.FileBodyHandler(file, options);
+        }
+
+        /**
+         * 读取并丢弃响应体
+         * @return 响应体处理
+         */
+        public static BodyHandler<Void> discarding() {
+            return new HttpResponseHandlers.DiscardingBodyHandler();
+        }
     }
 }
@@ -0,0 +1,39 @@
+package com.github.relucent.base.common.http.jdk8;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+
+/**
+ * HTTP 传输层接口<br>
+ * {@link HttpClient} 通过传输层发送请求，默认实现基于 {@link java.net.HttpURLConnection}（阻塞），启用 {@link HttpClient.Builder#nonBlocking(boolean)} 时使用基于
+ * {@link java.nio.channels.Selector} 的非阻塞实现。也可以通过 {@link HttpClient.Builder#transport(HttpTransport)} 指定自定义实现。
+ */
+public interface HttpTransport extends AutoCloseable {
+
+    /**
+     * 同步请求
+     * @param <T>     响应体类型
+     * @param request 请求对象
+     * @param handler 响应内容处理
+     * @return 响应对象
+     * @throws IOException 网络异常，或者文件流读写异常
+     */
+    <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException;
+
+    /**
+     * 异步请求
+     * @param <T>     响应体类型
+     * @param request 请求对象
+     * @param handler 响应内容处理
+     * @return 异步计算的结果
+     */
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler);
+
+    /**
+     * 关闭传输层，释放连接等资源
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,421 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.github.relucent.base.common.cache.Cache;
+import com.github.relucent.base.common.cache.CacheDefinition;
+import com.github.relucent.base.common.cache.CacheManager;
+import com.github.relucent.base.common.http.jdk8.HttpHeaders;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+import com.github.relucent.base.common.http.jdk8.HttpResponse;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodySubscriber;
+import com.github.relucent.base.common.http.jdk8.HttpTransport;
+import com.github.relucent.base.common.io.IoUtil;
+import com.github.relucent.base.common.lang.StringUtil;
+
+/**
+ * 响应缓存传输层（装饰其它传输层，RFC 7234 私有缓存）<br>
+ * 缓存 GET 请求的响应，新鲜度由响应头 Cache-Control(max-age、no-cache、no-store)、Expires 决定，只有 Last-Modified 时按 (Date - Last-Modified) 的 10% 估算；<br>
+ * 缓存过期后带上 If-None-Match(ETag) 和 If-Modified-Since(Last-Modified) 重新验证，服务端返回 304(Not Modified) 时使用缓存的响应体，并更新缓存的响应头。<br>
+ * 支持请求头 Cache-Control 的 no-store、no-cache、max-age、min-fresh 和 Pragma: no-cache。请求自己指定了条件请求头或 Range 时不使用缓存。<br>
+ * 响应体超过指定长度时不缓存；POST、PUT、DELETE 等请求成功后删除相同地址的缓存。<br>
+ * 缓存保存在 {@link CacheManager} 提供的缓存中（缓存名称 {@value #CACHE_NAME}），可以使用本地缓存或者分布式缓存。
+ */
+public class CacheTransport implements HttpTransport {
+
+    // ==============================Constants========================================
+    /** 缓存名称 */
+    public static final String CACHE_NAME = "http-response-cache";
+    /** 默认可以缓存的状态码(RFC 7231 6.1) */
+    private static final Set<Integer> CACHEABLE_STATUS = new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501));
+    /** 估算的新鲜期的上限(毫秒) */
+    private static final long MAX_HEURISTIC_LIFETIME = TimeUnit.DAYS.toMillis(1);
+
+    // ==============================Fields===========================================
+    private final HttpTransport delegate;
+    private final Cache<CachedResponse> cache;
+    private final long maxEntryBytes;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param delegate      实际发送请求的传输层
+     * @param cacheManager  缓存管理器
+     * @param maxEntryBytes 可以缓存的响应体的最大长度(字节)
+     */
+    public CacheTransport(HttpTransport delegate, CacheManager cacheManager, long maxEntryBytes) {
+        this.delegate = delegate;
+        this.cache = cacheManager.getCache(CacheDefinition.of(CACHE_NAME, CachedResponse.class));
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    // ==============================Methods==========================================
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        if (!"GET".equalsIgnoreCase(request.method())) {
+            HttpResponse<T> response = delegate.send(request, handler);
+            invalidate(request, response);
+            return response;
+        }
+        Exchange exchange = new Exchange(request);
+        if (exchange.fresh != null) {
+            return exchange.hit(handler);
+        }
+        return exchange.finish(delegate.send(exchange.actual, exchange.handler(handler)));
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+        if (!"GET".equalsIgnoreCase(request.method())) {
+            return delegate.sendAsync(request, handler).whenComplete((response, error) -> {
+                if (response != null) {
+                    invalidate(request, response);
+                }
+            });
+        }
+        Exchange exchange = new Exchange(request);
+        if (exchange.fresh != null) {
+            CompletableFuture<HttpResponse<T>> future = new CompletableFuture<>();
+            try {
+                future.complete(exchange.hit(handler));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        return delegate.sendAsync(exchange.actual, exchange.handler(handler)).thenApply(exchange::finish);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 不安全的请求成功后，删除相同地址的缓存(RFC 7234 4.4)
+     */
+    private void invalidate(HttpRequest request, HttpResponse<?> response) {
+        String method = request.method();
+        if ("HEAD".equalsIgnoreCase(method) || "OPTIONS".equalsIgnoreCase(method) || "TRACE".equalsIgnoreCase(method)) {
+            return;
+        }
+        int statusCode = response.statusCode();
+        if (statusCode >= 200 && statusCode < 400) {
+            cache.remove(cacheKey(request));
+        }
+    }
+
+    private static String cacheKey(HttpRequest request) {
+        return request.uri().toString();
+    }
+
+    /**
+     * 响应是否可以缓存(RFC 7234 3)
+     */
+    private static boolean isCacheable(int statusCode, HttpHeaders headers) {
+        Map<String, String> cacheControl = parseCacheControl(headers.allValues("Cache-Control"));
+        if (cacheControl.containsKey("no-store") || headers.allValues("Vary").stream().anyMatch(vary -> vary.contains("*"))) {
+            return false;
+        }
+        boolean explicit = cacheControl.containsKey("max-age") || headers.firstValue("Expires") != null;
+        if (CACHEABLE_STATUS.contains(statusCode)) {
+            // 没有新鲜期也没有验证器的响应缓存了也不能使用
+            return explicit || headers.firstValue("ETag") != null || headers.firstValue("Last-Modified") != null;
+        }
+        return explicit && (statusCode == 302 || statusCode == 307 || statusCode == 308);
+    }
+
+    /**
+     * 计算新鲜期(RFC 7234 4.2.1)
+     * @return 新鲜期(毫秒)
+     */
+    private static long freshnessLifetime(CachedResponse stored) {
+        HttpHeaders headers = stored.getHeaders();
+        Map<String, String> cacheControl = parseCacheControl(headers.allValues("Cache-Control"));
+        if (cacheControl.containsKey("no-cache")) {
+            return 0;
+        }
+        long maxAge = parseSeconds(cacheControl.get("max-age"));
+        if (maxAge >= 0) {
+            return TimeUnit.SECONDS.toMillis(maxAge);
+        }
+        long date = parseDate(headers.firstValue("Date"));
+        if (date < 0) {
+            date = stored.getResponseTime();
+        }
+        String expires = headers.firstValue("Expires");
+        if (expires != null) {
+            // 无效的 Expires(如 0)表示已经过期
+            return Math.max(0, parseDate(expires) - date);
+        }
+        long lastModified = parseDate(headers.firstValue("Last-Modified"));
+        if (lastModified >= 0 && lastModified < date && CACHEABLE_STATUS.contains(stored.getStatusCode())) {
+            return Math.min((date - lastModified) / 10, MAX_HEURISTIC_LIFETIME);
+        }
+        return 0;
+    }
+
+    /**
+     * 计算当前的年龄(RFC 7234 4.2.3)
+     * @return 年龄(毫秒)
+     */
+    private static long currentAge(CachedResponse stored, long now) {
+        HttpHeaders headers = stored.getHeaders();
+        long date = parseDate(headers.firstValue("Date"));
+        long apparentAge = date < 0 ? 0 : Math.max(0, stored.getResponseTime() - date);
+        long ageValue = TimeUnit.SECONDS.toMillis(Math.max(0, parseSeconds(headers.firstValue("Age"))));
+        long correctedAge = Math.max(apparentAge, ageValue + (stored.getResponseTime() - stored.getRequestTime()));
+        return correctedAge + Math.max(0, now - stored.getResponseTime());
+    }
+
+    /**
+     * 获得响应头 Vary 指定的请求头的值
+     */
+    private static Map<String, String> varyValues(HttpHeaders responseHeaders, HttpHeaders requestHeaders) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String vary : responseHeaders.allValues("Vary")) {
+            for (String name : vary.split(",")) {
+                name = name.trim().toLowerCase(Locale.ROOT);
+                if (!name.isEmpty()) {
+                    values.put(name, String.join(",", requestHeaders.allValues(name)));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static Map<String, String> parseCacheControl(List<String> values) {
+        if (values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                String[] pair = directive.trim().split("=", 2);
+                String name = pair[0].trim().toLowerCase(Locale.ROOT);
+                if (!name.isEmpty()) {
+                    directives.put(name, pair.length == 2 ? StringUtil.trim(pair[1]).replace("\"", "") : "");
+                }
+            }
+        }
+        return directives;
+    }
+
+    /**
+     * 解析秒数
+     * @return 秒数，无效时返回 -1
+     */
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析 HTTP 日期(RFC 1123)
+     * @return UTC 毫秒，无效时返回 -1
+     */
+    private static long parseDate(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 一次 GET 请求的缓存处理
+     */
+    private class Exchange {
+
+        private final HttpRequest request;
+        private final String key;
+        /** 是否使用缓存 */
+        private final boolean enabled;
+        /** 发送请求的时间 */
+        private final long requestTime = System.currentTimeMillis();
+        /** 可以直接使用的缓存 */
+        private CachedResponse fresh;
+        /** 需要重新验证的缓存 */
+        private CachedResponse stale;
+        /** 实际发送的请求 */
+        private HttpRequest actual;
+        /** 重新验证后的缓存 */
+        private volatile CachedResponse revalidated;
+
+        private Exchange(HttpRequest request) {
+            this.request = request;
+            this.key = cacheKey(request);
+            this.actual = request;
+            HttpHeaders headers = request.headers();
+            Map<String, String> cacheControl = parseCacheControl(headers.allValues("Cache-Control"));
+            boolean conditional = headers.firstValue("If-None-Match") != null || headers.firstValue("If-Modified-Since") != null
+                    || headers.firstValue("If-Match") != null || headers.firstValue("If-Unmodified-Since") != null || headers.firstValue("Range") != null;
+            this.enabled = !cacheControl.containsKey("no-store") && !conditional;
+            if (!enabled) {
+                return;
+            }
+            CachedResponse stored = cache.get(key);
+            if (stored == null || !stored.getVaryValues().equals(varyValues(stored.getHeaders(), headers))) {
+                return;
+            }
+            boolean noCache = cacheControl.containsKey("no-cache") || headers.allValues("Pragma").stream().anyMatch(p -> p.contains("no-cache"));
+            long age = currentAge(stored, requestTime);
+            long lifetime = freshnessLifetime(stored);
+            long maxAge = parseSeconds(cacheControl.get("max-age"));
+            long minFresh = Math.max(0, parseSeconds(cacheControl.get("min-fresh")));
+            if (!noCache && age + TimeUnit.SECONDS.toMillis(minFresh) < lifetime && (maxAge < 0 || age <= TimeUnit.SECONDS.toMillis(maxAge))) {
+                this.fresh = stored;
+                return;
+            }
+            HttpHeaders storedHeaders = stored.getHeaders();
+            String etag = storedHeaders.firstValue("ETag");
+            String lastModified = storedHeaders.firstValue("Last-Modified");
+            if (etag == null && lastModified == null) {
+                return;
+            }
+            Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            map.putAll(headers.map());
+            if (etag != null) {
+                map.put("If-None-Match", Collections.singletonList(etag));
+            }
+            if (lastModified != null) {
+                map.put("If-Modified-Since", Collections.singletonList(lastModified));
+            }
+            this.stale = stored;
+            this.actual = new PreparedRequest(request, HttpHeaders.of(map), request.bodyPublisher());
+        }
+
+        /**
+         * 使用新鲜的缓存作为响应
+         */
+        private <T> HttpResponse<T> hit(BodyHandler<T> handler) throws IOException {
+            HttpHeaders headers = withAge(fresh, System.currentTimeMillis());
+            T body = handler.apply(new HttpResponseInfoImpl(fresh.getStatusCode(), headers)).getBody(new ByteArrayInputStream(fresh.getBody()));
+            return new HttpResponseImpl<>(fresh.getStatusCode(), headers, body);
+        }
+
+        /**
+         * 包装响应内容处理：304 响应使用缓存的响应体，可以缓存的响应在交给调用方之前保存
+         */
+        private <T> BodyHandler<T> handler(BodyHandler<T> handler) {
+            if (!enabled) {
+                return handler;
+            }
+            return responseInfo -> {
+                int statusCode = responseInfo.statusCode();
+                HttpHeaders headers = responseInfo.headers();
+                if (statusCode == 304 && stale != null) {
+                    CachedResponse updated = stale.revalidated(headers, requestTime, System.currentTimeMillis());
+                    BodySubscriber<T> subscriber = handler.apply(new HttpResponseInfoImpl(updated.getStatusCode(), updated.getHeaders()));
+                    return new BodySubscriber<T>() {
+                        @Override
+                        public T getBody(InputStream is) throws IOException {
+                            IoUtil.toByteArray(is);
+                            if (subscriber.isStreaming()) {
+                                IoUtil.closeQuietly(is);
+                            }
+                            cache.put(key, updated);
+                            revalidated = updated;
+                            return subscriber.getBody(new ByteArrayInputStream(updated.getBody()));
+                        }
+
+                        @Override
+                        public boolean isStreaming() {
+                            return subscriber.isStreaming();
+                        }
+                    };
+                }
+                BodySubscriber<T> subscriber = handler.apply(responseInfo);
+                if (!isCacheable(statusCode, headers)) {
+                    if (stale != null || parseCacheControl(headers.allValues("Cache-Control")).containsKey("no-store")) {
+                        cache.remove(key);
+                    }
+                    return subscriber;
+                }
+                Long contentLength = headers.firstValueAsLong("Content-Length");
+                if (contentLength != null && contentLength > maxEntryBytes) {
+                    return subscriber;
+                }
+                return new BodySubscriber<T>() {
+                    @Override
+                    public T getBody(InputStream is) throws IOException {
+                        ByteArrayOutputStream output = new ByteArrayOutputStream();
+                        long limit = maxEntryBytes + 1;
+                        byte[] buffer = new byte[8192];
+                        int n;
+                        while (output.size() < limit && (n = is.read(buffer, 0, (int) Math.min(buffer.length, limit - output.size()))) != -1) {
+                            output.write(buffer, 0, n);
+                        }
+                        byte[] bytes = output.toByteArray();
+                        if (bytes.length > maxEntryBytes) {
+                            // 响应体太大，不缓存，已经读取的部分和剩余的部分一起交给调用方
+                            return subscriber.getBody(new SequenceInputStream(new ByteArrayInputStream(bytes), is));
+                        }
+                        if (subscriber.isStreaming()) {
+                            IoUtil.closeQuietly(is);
+                        }
+                        cache.put(key, new CachedResponse(statusCode, headers, bytes, requestTime, System.currentTimeMillis(), varyValues(headers, request.headers())));
+                        return subscriber.getBody(new ByteArrayInputStream(bytes));
+                    }
+
+                    @Override
+                    public boolean isStreaming() {
+                        return subscriber.isStreaming();
+                    }
+                };
+            };
+        }
+
+        /**
+         * 304 响应替换为缓存的响应
+         */
+        private <T> HttpResponse<T> finish(HttpResponse<T> response) {
+            CachedResponse updated = revalidated;
+            if (updated == null || response.statusCode() != 304) {
+                return response;
+            }
+            return new HttpResponseImpl<>(updated.getStatusCode(), updated.getHeaders(), response.body());
+        }
+
+        /**
+         * 缓存的响应头，添加 Age 响应头
+         */
+        private HttpHeaders withAge(CachedResponse stored, long now) {
+            Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            map.putAll(stored.getHeaders().map());
+            map.put("Age", Collections.singletonList(Long.toString(TimeUnit.MILLISECONDS.toSeconds(currentAge(stored, now)))));
+            return HttpHeaders.of(map);
+        }
+    }
+}
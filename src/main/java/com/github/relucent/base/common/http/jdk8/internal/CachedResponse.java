@@ -0,0 +1,99 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.github.relucent.base.common.http.jdk8.HttpHeaders;
+
+/**
+ * 缓存的 HTTP 响应（保存在 {@link com.github.relucent.base.common.cache.CacheManager} 提供的缓存中，可以序列化）<br>
+ * 时间都是 UTC 毫秒，以便在多个进程之间共享缓存。
+ */
+public class CachedResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 状态码 */
+    private final int statusCode;
+    /** 响应头 */
+    private final LinkedHashMap<String, ArrayList<String>> headers;
+    /** 响应体 */
+    private final byte[] body;
+    /** 发送请求的时间 */
+    private final long requestTime;
+    /** 收到响应的时间 */
+    private final long responseTime;
+    /** 响应头 Vary 指定的请求头的值 */
+    private final LinkedHashMap<String, String> varyValues;
+
+    /**
+     * 构造函数
+     * @param statusCode   状态码
+     * @param headers      响应头
+     * @param body         响应体
+     * @param requestTime  发送请求的时间
+     * @param responseTime 收到响应的时间
+     * @param varyValues   响应头 Vary 指定的请求头的值
+     */
+    public CachedResponse(int statusCode, HttpHeaders headers, byte[] body, long requestTime, long responseTime, Map<String, String> varyValues) {
+        this.statusCode = statusCode;
+        this.headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : headers.map().entrySet()) {
+            this.headers.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        this.body = body;
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+        this.varyValues = new LinkedHashMap<>(varyValues);
+    }
+
+    /**
+     * 用 304(Not Modified) 响应的响应头更新缓存的响应
+     * @param notModified  304 响应的响应头
+     * @param requestTime  发送请求的时间
+     * @param responseTime 收到响应的时间
+     * @return 更新后的响应
+     */
+    public CachedResponse revalidated(HttpHeaders notModified, long requestTime, long responseTime) {
+        Map<String, List<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(headers);
+        for (Map.Entry<String, List<String>> entry : notModified.map().entrySet()) {
+            String name = entry.getKey();
+            // 304 响应没有响应体，不能用它的长度和编码覆盖缓存的响应体的描述
+            if (!"Content-Length".equalsIgnoreCase(name) && !"Content-Encoding".equalsIgnoreCase(name) && !"Transfer-Encoding".equalsIgnoreCase(name)) {
+                merged.put(name, entry.getValue());
+            }
+        }
+        return new CachedResponse(statusCode, HttpHeaders.of(merged), body, requestTime, responseTime, varyValues);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders getHeaders() {
+        Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(headers);
+        return HttpHeaders.of(map);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public long getRequestTime() {
+        return requestTime;
+    }
+
+    public long getResponseTime() {
+        return responseTime;
+    }
+
+    public Map<String, String> getVaryValues() {
+        return varyValues;
+    }
+}
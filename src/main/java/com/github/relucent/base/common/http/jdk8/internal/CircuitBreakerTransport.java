@@ -0,0 +1,123 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.relucent.base.common.concurrent.CircuitBreaker;
+import com.github.relucent.base.common.http.HttpCallEvent;
+import com.github.relucent.base.common.http.jdk8.HttpRejectedException;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+import com.github.relucent.base.common.http.jdk8.HttpResponse;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+import com.github.relucent.base.common.http.jdk8.HttpTransport;
+
+/**
+ * 熔断传输层（装饰其它传输层）<br>
+ * 每个主机一个 {@link CircuitBreaker}：网络异常、5xx 响应和慢于阈值的响应都算作坏调用，熔断器打开时请求直接以 {@link HttpRejectedException} 失败。
+ */
+public class CircuitBreakerTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final double failureRateThreshold;
+    private final long slowCallMillis;
+    private final long openMillis;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param delegate             实际发送请求的传输层
+     * @param failureRateThreshold 坏调用比例的阈值(0~1)
+     * @param slowCallMillis       慢调用的阈值(毫秒)，小于等于0表示不统计慢调用
+     * @param openMillis           熔断器打开的持续时间(毫秒)
+     */
+    public CircuitBreakerTransport(HttpTransport delegate, double failureRateThreshold, long slowCallMillis, long openMillis) {
+        this.delegate = delegate;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        CircuitBreaker breaker = acquire(request.uri());
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            HttpResponse<T> response = delegate.send(request, handler);
+            released = true;
+            release(breaker, response, null, start);
+            return response;
+        } catch (IOException e) {
+            released = true;
+            release(breaker, null, e, start);
+            throw e;
+        } finally {
+            if (!released) {
+                breaker.onIgnore();
+            }
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+        CircuitBreaker breaker;
+        try {
+            breaker = acquire(request.uri());
+        } catch (HttpRejectedException e) {
+            CompletableFuture<HttpResponse<T>> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = delegate.sendAsync(request, handler);
+        } catch (RuntimeException e) {
+            breaker.onIgnore();
+            throw e;
+        }
+        return future.whenComplete((response, error) -> release(breaker, response, Transports.unwrap(error), start));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * 获得主机的熔断器状态
+     * @param uri 请求地址
+     * @return 熔断器状态，还没有请求过该主机时返回 {@link CircuitBreaker.State#CLOSED}
+     */
+    public CircuitBreaker.State getState(URI uri) {
+        CircuitBreaker breaker = breakers.get(HttpCallEvent.hostOf(uri));
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    private CircuitBreaker acquire(URI uri) throws HttpRejectedException {
+        String hostKey = HttpCallEvent.hostOf(uri);
+        CircuitBreaker breaker = breakers.computeIfAbsent(hostKey, key -> new CircuitBreaker(failureRateThreshold, slowCallMillis, openMillis));
+        if (!breaker.tryAcquire()) {
+            throw new HttpRejectedException("Circuit breaker is open: " + hostKey);
+        }
+        return breaker;
+    }
+
+    private static void release(CircuitBreaker breaker, HttpResponse<?> response, Throwable error, long start) {
+        long duration = System.nanoTime() - start;
+        if (error == null) {
+            if (response.statusCode() >= 500) {
+                breaker.onError(duration);
+            } else {
+                breaker.onSuccess(duration);
+            }
+        } else if (error instanceof IOException && !(error instanceof HttpRejectedException)) {
+            breaker.onError(duration);
+        } else {
+            breaker.onIgnore();
+        }
+    }
+}
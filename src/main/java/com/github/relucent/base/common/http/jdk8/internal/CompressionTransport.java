@@ -0,0 +1,165 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import com.github.relucent.base.common.http.HttpUtil;
+import com.github.relucent.base.common.http.jdk8.HttpHeaders;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+import com.github.relucent.base.common.http.jdk8.HttpRequest.BodyPublisher;
+import com.github.relucent.base.common.http.jdk8.HttpResponse;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodySubscriber;
+import com.github.relucent.base.common.http.jdk8.HttpTransport;
+import com.github.relucent.base.common.lang.StringUtil;
+
+/**
+ * 压缩传输层（装饰其它传输层）<br>
+ * 响应压缩：请求没有指定 Accept-Encoding 时发送 {@code Accept-Encoding: gzip, deflate}，压缩的响应体在交给 {@link BodySubscriber} 之前流式解压，响应头中的 Content-Encoding 和
+ * Content-Length 被移除（请求指定了 Accept-Encoding 时，由调用方自己处理压缩的响应体）。<br>
+ * 请求压缩：请求体长度不小于阈值、且请求没有指定 Content-Encoding 时，请求体以 gzip 压缩后发送（服务端需要支持 {@code Content-Encoding: gzip} 的请求）。
+ */
+public class CompressionTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final boolean acceptCompression;
+    private final long requestCompressionThreshold;
+
+    /**
+     * 构造函数
+     * @param delegate                    实际发送请求的传输层
+     * @param acceptCompression           是否接受压缩的响应
+     * @param requestCompressionThreshold 压缩请求体的最小长度(字节)，小于0表示不压缩请求体
+     */
+    public CompressionTransport(HttpTransport delegate, boolean acceptCompression, long requestCompressionThreshold) {
+        this.delegate = delegate;
+        this.acceptCompression = acceptCompression;
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        HttpHeaders headers = request.headers();
+        boolean decode = acceptCompression && StringUtil.isEmpty(headers.firstValue(HttpUtil.HEADER_ACCEPT_ENCODING));
+        HttpRequest actual = prepare(request, decode);
+        if (!decode) {
+            return delegate.send(actual, handler);
+        }
+        return decoded(delegate.send(actual, decoding(handler)));
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+        HttpHeaders headers = request.headers();
+        boolean decode = acceptCompression && StringUtil.isEmpty(headers.firstValue(HttpUtil.HEADER_ACCEPT_ENCODING));
+        HttpRequest actual = prepare(request, decode);
+        if (!decode) {
+            return delegate.sendAsync(actual, handler);
+        }
+        return delegate.sendAsync(actual, decoding(handler)).thenApply(CompressionTransport::decoded);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * 添加 Accept-Encoding 请求头，压缩请求体
+     * @param request 请求对象
+     * @param decode 是否接受压缩的响应
+     * @return 实际发送的请求
+     */
+    private HttpRequest prepare(HttpRequest request, boolean decode) {
+        HttpHeaders headers = request.headers();
+        BodyPublisher bodyPublisher = request.bodyPublisher();
+        boolean compress = requestCompressionThreshold >= 0 && bodyPublisher != null
+                && bodyPublisher.contentLength() >= Math.max(requestCompressionThreshold, 1)
+                && StringUtil.isEmpty(headers.firstValue(HttpUtil.HEADER_CONTENT_ENCODING));
+        if (!decode && !compress) {
+            return request;
+        }
+        Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(headers.map());
+        if (decode) {
+            map.put(HttpUtil.HEADER_ACCEPT_ENCODING, Collections.singletonList(HttpUtil.ACCEPT_ENCODING_GZIP_DEFLATE));
+        }
+        if (compress) {
+            map.put(HttpUtil.HEADER_CONTENT_ENCODING, Collections.singletonList(HttpUtil.ENCODING_GZIP));
+            bodyPublisher = new HttpRequestPublishers.GzipBodyPublisher(bodyPublisher);
+        }
+        return new PreparedRequest(request, HttpHeaders.of(map), bodyPublisher);
+    }
+
+    /**
+     * 包装响应内容处理，解压响应体
+     * @param <T> 响应体类型
+     * @param handler 响应内容处理
+     * @return 解压响应体的响应内容处理
+     */
+    private static <T> BodyHandler<T> decoding(BodyHandler<T> handler) {
+        return responseInfo -> {
+            String contentEncoding = responseInfo.headers().firstValue(HttpUtil.HEADER_CONTENT_ENCODING);
+            if (!isSupported(contentEncoding)) {
+                return handler.apply(responseInfo);
+            }
+            BodySubscriber<T> subscriber = handler.apply(new HttpResponseInfoImpl(responseInfo.statusCode(), stripEncoding(responseInfo.headers())));
+            return new BodySubscriber<T>() {
+                @Override
+                public T getBody(InputStream is) throws IOException {
+                    InputStream decoded = HttpUtil.decodeContent(is, contentEncoding);
+                    if (subscriber.isStreaming()) {
+                        return subscriber.getBody(decoded);
+                    }
+                    // 关闭解压流，释放 Inflater
+                    try (InputStream input = decoded) {
+                        return subscriber.getBody(input);
+                    }
+                }
+
+                @Override
+                public boolean isStreaming() {
+                    return subscriber.isStreaming();
+                }
+            };
+        };
+    }
+
+    /**
+     * 移除已经解压的响应的 Content-Encoding 和 Content-Length 响应头
+     * @param <T> 响应体类型
+     * @param response 响应对象
+     * @return 响应对象
+     */
+    private static <T> HttpResponse<T> decoded(HttpResponse<T> response) {
+        if (!isSupported(response.headers().firstValue(HttpUtil.HEADER_CONTENT_ENCODING))) {
+            return response;
+        }
+        return new HttpResponseImpl<>(response.statusCode(), stripEncoding(response.headers()), response.body());
+    }
+
+    private static boolean isSupported(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        String encoding = contentEncoding.trim();
+        return HttpUtil.ENCODING_GZIP.equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding) || HttpUtil.ENCODING_DEFLATE.equalsIgnoreCase(encoding);
+    }
+
+    private static HttpHeaders stripEncoding(HttpHeaders headers) {
+        Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> entry : headers.map().entrySet()) {
+            String name = entry.getKey();
+            if (!HttpUtil.HEADER_CONTENT_ENCODING.equalsIgnoreCase(name) && !HttpUtil.HEADER_CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                map.put(name, new ArrayList<>(entry.getValue()));
+            }
+        }
+        return HttpHeaders.of(map);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.relucent.base.common.concurrent.AdaptiveLimiter;
+import com.github.relucent.base.common.http.HttpCallEvent;
+import com.github.relucent.base.common.http.jdk8.HttpRejectedException;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+import com.github.relucent.base.common.http.jdk8.HttpResponse;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+import com.github.relucent.base.common.http.jdk8.HttpTransport;
+
+/**
+ * 自适应并发限制传输层（装饰其它传输层）<br>
+ * 每个主机一个 {@link AdaptiveLimiter}，并发请求数达到上限时直接以 {@link HttpRejectedException} 失败，不排队等待。<br>
+ * 成功的响应按响应时间调整上限；网络异常和 503(Service Unavailable)、429(Too Many Requests) 响应降低上限。
+ */
+public class ConcurrencyLimitTransport implements HttpTransport {
+
+    private final HttpTransport delegate;
+    private final int initialLimit;
+    private final int maxLimit;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param delegate     实际发送请求的传输层
+     * @param initialLimit 每个主机的初始并发上限
+     * @param maxLimit     每个主机的最大并发上限
+     */
+    public ConcurrencyLimitTransport(HttpTransport delegate, int initialLimit, int maxLimit) {
+        this.delegate = delegate;
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        AdaptiveLimiter limiter = acquire(request.uri());
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            HttpResponse<T> response = delegate.send(request, handler);
+            released = true;
+            release(limiter, response, null, start);
+            return response;
+        } catch (IOException e) {
+            released = true;
+            release(limiter, null, e, start);
+            throw e;
+        } finally {
+            if (!released) {
+                limiter.onIgnore();
+            }
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+        AdaptiveLimiter limiter;
+        try {
+            limiter = acquire(request.uri());
+        } catch (HttpRejectedException e) {
+            CompletableFuture<HttpResponse<T>> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = delegate.sendAsync(request, handler);
+        } catch (RuntimeException e) {
+            limiter.onIgnore();
+            throw e;
+        }
+        return future.whenComplete((response, error) -> release(limiter, response, Transports.unwrap(error), start));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * 获得主机当前的并发上限
+     * @param uri 请求地址
+     * @return 并发上限，还没有请求过该主机时返回初始上限
+     */
+    public int getLimit(URI uri) {
+        AdaptiveLimiter limiter = limiters.get(HttpCallEvent.hostOf(uri));
+        return limiter == null ? Math.min(initialLimit, maxLimit) : limiter.getLimit();
+    }
+
+    private AdaptiveLimiter acquire(URI uri) throws HttpRejectedException {
+        String hostKey = HttpCallEvent.hostOf(uri);
+        AdaptiveLimiter limiter = limiters.computeIfAbsent(hostKey, key -> new AdaptiveLimiter(initialLimit, 1, maxLimit));
+        if (!limiter.tryAcquire()) {
+            throw new HttpRejectedException("Concurrency limit exceeded: " + hostKey + " (limit=" + limiter.getLimit() + ")");
+        }
+        return limiter;
+    }
+
+    private static void release(AdaptiveLimiter limiter, HttpResponse<?> response, Throwable error, long start) {
+        if (error == null) {
+            int statusCode = response.statusCode();
+            if (statusCode == 503 || statusCode == 429) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+        } else if (error instanceof IOException && !(error instanceof HttpRejectedException)) {
+            limiter.onDropped();
+        } else {
+            limiter.onIgnore();
+        }
+    }
+}
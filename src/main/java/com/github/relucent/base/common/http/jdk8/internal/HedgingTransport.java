@@ -0,0 +1,202 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.relucent.base.common.cron.JobScheduler;
+import com.github.relucent.base.common.cron.ScheduledJob;
+import com.github.relucent.base.common.exception.ExceptionUtil;
+import com.github.relucent.base.common.http.HttpCallEvent;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+import com.github.relucent.base.common.http.jdk8.HttpResponse;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+import com.github.relucent.base.common.http.jdk8.HttpTransport;
+import com.github.relucent.base.common.io.IoUtil;
+import com.github.relucent.base.common.time.ConcurrentLatencyHistogram;
+
+/**
+ * 对冲请求传输层（装饰其它传输层）<br>
+ * 安全的请求(GET、HEAD、OPTIONS)在指定时间内没有响应时，再发送一个相同的请求，以先完成的响应为准，用于降低长尾延迟。<br>
+ * 对冲延迟取该主机最近响应时间的百分位数（如 P95），所以只有最慢的一小部分请求会被对冲；为了避免下游过载时放大负载，对冲请求数不超过请求总数的10%。<br>
+ * 较晚完成的响应会被丢弃，流式的响应体（如 {@link java.io.InputStream}）会被关闭。
+ */
+public class HedgingTransport implements HttpTransport {
+
+    // ==============================Constants========================================
+    /** 计算对冲延迟需要的最少样本数 */
+    private static final int MIN_SAMPLES = 20;
+    /** 刷新对冲延迟的间隔(纳秒) */
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** 对冲请求数占请求总数的最大比例 */
+    private static final double MAX_HEDGE_RATIO = 0.1D;
+
+    // ==============================Fields===========================================
+    private final HttpTransport delegate;
+    private final JobScheduler scheduler;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final Map<String, HostStats> stats = new ConcurrentHashMap<>();
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param delegate      实际发送请求的传输层
+     * @param scheduler     发送对冲请求的调度器
+     * @param percentile    对冲延迟使用的响应时间百分位数(0~100)
+     * @param minDelayMillis 最小对冲延迟(毫秒)
+     */
+    public HedgingTransport(HttpTransport delegate, JobScheduler scheduler, double percentile, long minDelayMillis) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in range (0, 100]: " + percentile);
+        }
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(minDelayMillis, 0));
+    }
+
+    // ==============================Methods==========================================
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        if (!isSafe(request)) {
+            return delegate.send(request, handler);
+        }
+        try {
+            return sendAsync(request, handler).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = Transports.unwrap(e);
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw ExceptionUtil.propagate(cause);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+        if (!isSafe(request)) {
+            return delegate.sendAsync(request, handler);
+        }
+        HostStats host = stats.computeIfAbsent(HttpCallEvent.hostOf(request.uri()), key -> new HostStats());
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        // 还没有结果的请求数（包括等待发送的对冲请求）
+        AtomicInteger outstanding = new AtomicInteger(1);
+        long delayNanos = host.acquireHedge();
+        if (delayNanos >= 0) {
+            outstanding.incrementAndGet();
+            ScheduledJob job = scheduler.schedule(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                host.hedges.incrementAndGet();
+                attempt(request, handler, host, result, outstanding);
+            }, delayNanos, TimeUnit.NANOSECONDS);
+            result.whenComplete((response, error) -> job.cancel());
+        }
+        attempt(request, handler, host, result, outstanding);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 发送一次请求，先成功的响应作为结果，所有请求都失败时以最后的异常作为结果
+     */
+    private <T> void attempt(HttpRequest request, BodyHandler<T> handler, HostStats host, CompletableFuture<HttpResponse<T>> result,
+            AtomicInteger outstanding) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = delegate.sendAsync(request, handler);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                host.latency.record(System.nanoTime() - start);
+                if (!result.complete(response)) {
+                    discard(response);
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(Transports.unwrap(error));
+            }
+        });
+    }
+
+    /**
+     * 丢弃较晚完成的响应，关闭流式的响应体
+     * @param response 响应对象
+     */
+    private static void discard(HttpResponse<?> response) {
+        Object body = response.body();
+        if (body instanceof AutoCloseable) {
+            IoUtil.closeQuietly((AutoCloseable) body);
+        }
+    }
+
+    private static boolean isSafe(HttpRequest request) {
+        String method = request.method();
+        return "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method) || "OPTIONS".equalsIgnoreCase(method);
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 主机的响应时间统计
+     */
+    private class HostStats {
+
+        /** 尚未用于计算对冲延迟的样本(紧凑的共享直方图，内存占用与回调线程数无关) */
+        private final ConcurrentLatencyHistogram latency = new ConcurrentLatencyHistogram();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+        /** 对冲延迟(纳秒)，-1 表示样本不足 */
+        private volatile long delayNanos = -1;
+        private volatile long refreshedAt = System.nanoTime();
+
+        /**
+         * 计数一次请求，返回这次请求的对冲延迟
+         * @return 对冲延迟(纳秒)，不对冲返回 -1
+         */
+        long acquireHedge() {
+            long count = requests.incrementAndGet();
+            if (System.nanoTime() - refreshedAt >= REFRESH_INTERVAL_NANOS) {
+                refresh();
+            }
+            long delay = delayNanos;
+            if (delay < 0 || hedges.get() >= count * MAX_HEDGE_RATIO) {
+                return -1;
+            }
+            return delay;
+        }
+
+        /**
+         * 用新的样本刷新对冲延迟，新样本不足时保留原来的对冲延迟
+         */
+        private synchronized void refresh() {
+            long now = System.nanoTime();
+            if (now - refreshedAt < REFRESH_INTERVAL_NANOS) {
+                return;
+            }
+            refreshedAt = now;
+            if (latency.getTotalCount() >= MIN_SAMPLES) {
+                delayNanos = Math.max(minDelayNanos, latency.getValueAtPercentile(percentile));
+                latency.reset();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.relucent.base.common.http.jdk8.internal;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -10,16 +11,20 @@ import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 import com.github.relucent.base.common.codec.CodecUtil;
 import com.github.relucent.base.common.http.HttpUtil;
 import com.github.relucent.base.common.http.jdk8.HttpRequest.BodyPublisher;
+import com.github.relucent.base.common.io.GzipIoUtil;
 
 public class HttpRequestPublishers {
 
@@ -147,18 +152,157 @@ public class HttpRequestPublishers {
         }
     }
 
+    /**
+     * 发布文件内容，不在内存中缓存
+     */
+    public static class FileBodyPublisher implements BodyPublisher {
+
+        private final Path file;
+        private final String contentType;
+
+        public FileBodyPublisher(Path file, String contentType) {
+            if (!Files.isRegularFile(file)) {
+                throw new UncheckedIOException(new FileNotFoundException(file.toString()));
+            }
+            if (contentType == null || contentType.isEmpty()) {
+                contentType = "application/octet-stream";
+            }
+            this.file = file;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            try {
+                return Files.size(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String contentType() {
+            return contentType;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            Files.copy(file, out);
+        }
+    }
+
+    /**
+     * 发布输入流内容，不在内存中缓存（长度未知时使用 chunked 模式）
+     */
+    public static class InputStreamBodyPublisher implements BodyPublisher {
+
+        private final Supplier<? extends InputStream> streamSupplier;
+        private final long contentLength;
+        private final String contentType;
+
+        public InputStreamBodyPublisher(Supplier<? extends InputStream> streamSupplier, long contentLength, String contentType) {
+            if (streamSupplier == null) {
+                throw new IllegalArgumentException("streamSupplier cannot be null");
+            }
+            if (contentType == null || contentType.isEmpty()) {
+                contentType = "application/octet-stream";
+            }
+            this.streamSupplier = streamSupplier;
+            this.contentLength = contentLength < 0 ? -1 : contentLength;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public String contentType() {
+            return contentType;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (InputStream input = streamSupplier.get()) {
+                copy(input, out);
+            }
+        }
+    }
+
+    /**
+     * 以 gzip 压缩发布另一个发布器的内容<br>
+     * 原始内容不超过 1MB 时预先压缩到内存中(长度已知)，否则在发送时流式压缩(长度未知，使用 chunked 模式)。
+     */
+    public static class GzipBodyPublisher implements BodyPublisher {
+
+        /** 预先压缩的最大原始长度 */
+        private static final long BUFFER_LIMIT = 1024 * 1024;
+
+        private final BodyPublisher delegate;
+        private final byte[] compressed;
+
+        public GzipBodyPublisher(BodyPublisher delegate) {
+            this.delegate = delegate;
+            long contentLength = delegate.contentLength();
+            if (contentLength >= 0 && contentLength <= BUFFER_LIMIT) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream((int) Math.max(contentLength / 4, 32));
+                try {
+                    gzip(delegate, output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                this.compressed = output.toByteArray();
+            } else {
+                this.compressed = null;
+            }
+        }
+
+        @Override
+        public long contentLength() {
+            return compressed != null ? compressed.length : -1;
+        }
+
+        @Override
+        public String contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (compressed != null) {
+                out.write(compressed);
+            } else {
+                gzip(delegate, out);
+            }
+        }
+
+        private static void gzip(BodyPublisher delegate, OutputStream out) throws IOException {
+            GZIPOutputStream gzip = GzipIoUtil.toGZIPOutputStream(out);
+            delegate.writeTo(gzip);
+            // 只结束压缩，输出流由调用方关闭
+            gzip.finish();
+        }
+    }
+
     public static class MultipartBodyPublisher implements BodyPublisher {
 
         public static class Part {
             private final String name;
             private final String filename;
             private final String contentType;
+            private final long contentLength;
             private final Supplier<InputStream> contentSupplier;
 
             public Part(String name, String filename, String contentType, Supplier<InputStream> contentSupplier) {
+                this(name, filename, contentType, -1, contentSupplier);
+            }
+
+            public Part(String name, String filename, String contentType, long contentLength, Supplier<InputStream> contentSupplier) {
                 this.name = name;
                 this.filename = filename;
-                this.contentType = contentType;
+                this.contentType = contentType == null || contentType.isEmpty() ? "application/octet-stream" : contentType;
+                this.contentLength = contentLength < 0 ? -1 : contentLength;
                 this.contentSupplier = contentSupplier;
             }
 
@@ -174,11 +318,21 @@ public class HttpRequestPublishers {
                 return contentType;
             }
 
+            /**
+             * 获得内容长度
+             * @return 内容长度，-1 表示未知
+             */
+            public long getContentLength() {
+                return contentLength;
+            }
+
             public Supplier<InputStream> getContentSupplier() {
                 return contentSupplier;
             }
         }
 
+        private static final byte[] LINE_FEED = "\r\n".getBytes(StandardCharsets.UTF_8);
+
         private final String boundary;
         private final List<Part> parts = new ArrayList<>();
         private final Map<String, String> formFields = new LinkedHashMap<>();
@@ -193,7 +347,7 @@ public class HttpRequestPublishers {
         }
 
         public MultipartBodyPublisher addFile(String fieldName, File file, String contentType) {
-            return addPart(fieldName, file.getName(), contentType, () -> {
+            return addPart(fieldName, file.getName(), contentType, file.length(), () -> {
                 try {
                     return new FileInputStream(file);
                 } catch (FileNotFoundException e) {
@@ -202,8 +356,24 @@ public class HttpRequestPublishers {
             });
         }
 
+        public MultipartBodyPublisher addFile(String fieldName, Path file, String contentType) {
+            long size;
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return addPart(fieldName, String.valueOf(file.getFileName()), contentType, size, () -> {
+                try {
+                    return Files.newInputStream(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
         public MultipartBodyPublisher addBytes(String fieldName, String filename, byte[] data, String contentType) {
-            return addPart(fieldName, filename, contentType, () -> new ByteArrayInputStream(data));
+            return addPart(fieldName, filename, contentType, data.length, () -> new ByteArrayInputStream(data));
         }
 
         public MultipartBodyPublisher addStream(String fieldName, String filename, InputStream stream,
@@ -213,13 +383,32 @@ public class HttpRequestPublishers {
 
         public MultipartBodyPublisher addPart(String name, String filename, String contentType,
                 Supplier<InputStream> contentSupplier) {
-            parts.add(new Part(name, filename, contentType, contentSupplier));
+            return addPart(name, filename, contentType, -1, contentSupplier);
+        }
+
+        public MultipartBodyPublisher addPart(String name, String filename, String contentType, long contentLength,
+                Supplier<InputStream> contentSupplier) {
+            parts.add(new Part(name, filename, contentType, contentLength, contentSupplier));
             return this;
         }
 
+        /**
+         * 获得请求体的内容长度，所有部分的长度都已知时可以计算出总长度（使用固定长度模式流式发送），否则返回 -1（使用 chunked 模式流式发送）
+         * @return 内容长度
+         */
         @Override
         public long contentLength() {
-            return -1;
+            long length = 0;
+            for (Map.Entry<String, String> entry : formFields.entrySet()) {
+                length += fieldHeader(entry.getKey()).length + entry.getValue().getBytes(StandardCharsets.UTF_8).length + LINE_FEED.length;
+            }
+            for (Part part : parts) {
+                if (part.getContentLength() < 0) {
+                    return -1;
+                }
+                length += partHeader(part).length + part.getContentLength() + LINE_FEED.length;
+            }
+            return length + endBoundary().length;
         }
 
         @Override
@@ -229,43 +418,55 @@ public class HttpRequestPublishers {
 
         @Override
         public void writeTo(OutputStream out) throws IOException {
-            final byte[] LINE_FEED = "\r\n".getBytes(StandardCharsets.UTF_8);
-
             // Write form fields
             for (Map.Entry<String, String> entry : formFields.entrySet()) {
-                out.write(("--" + boundary).getBytes(StandardCharsets.UTF_8));
-                out.write(LINE_FEED);
-                out.write(("Content-Disposition: form-data; name=\"" + entry.getKey() + "\"")
-                        .getBytes(StandardCharsets.UTF_8));
-                out.write(LINE_FEED);
-                out.write(LINE_FEED);
+                out.write(fieldHeader(entry.getKey()));
                 out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
                 out.write(LINE_FEED);
             }
 
             // Write file parts
             for (Part part : parts) {
-                out.write(("--" + boundary).getBytes(StandardCharsets.UTF_8));
-                out.write(LINE_FEED);
-                out.write(("Content-Disposition: form-data; name=\"" + part.getName() + "\"; filename=\""
-                        + part.getFilename() + "\"").getBytes(StandardCharsets.UTF_8));
-                out.write(LINE_FEED);
-                out.write(("Content-Type: " + part.getContentType()).getBytes(StandardCharsets.UTF_8));
-                out.write(LINE_FEED);
-                out.write(LINE_FEED);
+                out.write(partHeader(part));
                 try (InputStream inputStream = part.getContentSupplier().get()) {
-                    byte[] buffer = new byte[8192];
-                    int len;
-                    while ((len = inputStream.read(buffer)) != -1) {
-                        out.write(buffer, 0, len);
-                    }
+                    copy(inputStream, out);
                 }
                 out.write(LINE_FEED);
             }
 
             // End boundary
-            out.write(("--" + boundary + "--").getBytes(StandardCharsets.UTF_8));
-            out.write(LINE_FEED);
+            out.write(endBoundary());
+        }
+
+        private byte[] fieldHeader(String name) {
+            return ("--" + boundary + "\r\n" //
+                    + "Content-Disposition: form-data; name=\"" + name + "\"\r\n" //
+                    + "\r\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        private byte[] partHeader(Part part) {
+            return ("--" + boundary + "\r\n" //
+                    + "Content-Disposition: form-data; name=\"" + part.getName() + "\"; filename=\"" + part.getFilename() + "\"\r\n" //
+                    + "Content-Type: " + part.getContentType() + "\r\n" //
+                    + "\r\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        private byte[] endBoundary() {
+            return ("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 复制输入流到输出流
+     * @param input 输入流
+     * @param output 输出流
+     * @throws IOException 读写异常
+     */
+    private static void copy(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[8192];
+        int len;
+        while ((len = input.read(buffer)) != -1) {
+            output.write(buffer, 0, len);
         }
     }
 }
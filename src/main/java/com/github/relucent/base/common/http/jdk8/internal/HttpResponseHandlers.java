@@ -2,9 +2,19 @@ package com.github.relucent.base.common.http.jdk8.internal;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.github.relucent.base.common.http.HttpUtil;
 import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
@@ -44,4 +54,104 @@ public class HttpResponseHandlers {
             };
         }
     }
+
+    /**
+     * 响应体作为输入流返回
+     */
+    public static class InputStreamBodyHandler implements BodyHandler<InputStream> {
+        @Override
+        public BodySubscriber<InputStream> apply(ResponseInfo responseInfo) {
+            return new BodySubscriber<InputStream>() {
+                @Override
+                public InputStream getBody(InputStream inputStream) {
+                    return inputStream;
+                }
+
+                @Override
+                public boolean isStreaming() {
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * 响应体按行读取
+     */
+    public static class LinesBodyHandler implements BodyHandler<Stream<String>> {
+        @Override
+        public BodySubscriber<Stream<String>> apply(ResponseInfo responseInfo) {
+            String contentType = responseInfo.headers().firstValue("Content-Type");
+            Charset charset = HttpUtil.parseCharset(contentType);
+            return new BodySubscriber<Stream<String>>() {
+                @Override
+                public Stream<String> getBody(InputStream inputStream) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset));
+                    return reader.lines().onClose(() -> {
+                        try {
+                            reader.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+
+                @Override
+                public boolean isStreaming() {
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * 响应体写入文件
+     */
+    public static class FileBodyHandler implements BodyHandler<Path> {
+
+        /** 每次传输的最大字节数 */
+        private static final long TRANSFER_SIZE = 1024 * 1024;
+
+        private final Path file;
+        private final OpenOption[] options;
+
+        public FileBodyHandler(Path file, OpenOption... options) {
+            this.file = file;
+            this.options = options == null || options.length == 0
+                    ? new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING }
+                    : options;
+        }
+
+        @Override
+        public BodySubscriber<Path> apply(ResponseInfo responseInfo) {
+            return inputStream -> {
+                ReadableByteChannel source = Channels.newChannel(inputStream);
+                try (FileChannel channel = FileChannel.open(file, options)) {
+                    long position = channel.position();
+                    long n;
+                    // 来源不是文件通道时，transferFrom 读到流末尾(或者读满指定的字节数)就返回
+                    while ((n = channel.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+                        position += n;
+                    }
+                }
+                return file;
+            };
+        }
+    }
+
+    /**
+     * 读取并丢弃响应体
+     */
+    public static class DiscardingBodyHandler implements BodyHandler<Void> {
+        @Override
+        public BodySubscriber<Void> apply(ResponseInfo responseInfo) {
+            return inputStream -> {
+                byte[] buffer = new byte[8192];
+                while (inputStream.read(buffer) != -1) {
+                    // discard
+                }
+                return null;
+            };
+        }
+    }
 }
@@ -14,6 +14,11 @@ public class HttpResponseInfoImpl implements ResponseInfo {
     private final int statusCode;
     private final HttpHeaders headers;
 
+    public HttpResponseInfoImpl(int statusCode, HttpHeaders headers) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+    }
+
     public HttpResponseInfoImpl(HttpURLConnection conn) throws IOException {
         this.statusCode = conn.getResponseCode();
         // HttpURLConnection.getHeaderFields() 返回 Map<String, List<String>>，但 key 可能为 null（表示状态行）
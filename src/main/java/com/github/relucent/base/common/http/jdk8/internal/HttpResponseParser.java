@@ -0,0 +1,340 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.github.relucent.base.common.http.jdk8.HttpHeaders;
+
+/**
+ * HTTP/1.1 响应解析器（增量解析）<br>
+ * 每次读到数据时调用 {@link #feed(ByteBuffer)}，支持 Content-Length、chunked 和读到连接关闭为止三种响应体格式。此类不是线程安全的。
+ */
+class HttpResponseParser {
+
+    // ==============================Constants========================================
+    /** 状态行和响应头单行的最大长度 */
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private static final int STATUS_LINE = 0;
+    private static final int HEADERS = 1;
+    private static final int BODY_FIXED = 2;
+    private static final int CHUNK_SIZE = 3;
+    private static final int CHUNK_DATA = 4;
+    private static final int CHUNK_END = 5;
+    private static final int TRAILERS = 6;
+    private static final int BODY_EOF = 7;
+    private static final int DONE = 8;
+
+    // ==============================Fields===========================================
+    /** 是否是 HEAD 请求的响应(没有响应体) */
+    private final boolean head;
+    /** 当前行 */
+    private final StringBuilder line = new StringBuilder();
+    /** 响应头 */
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    /** 响应体 */
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    /** 解析状态 */
+    private int state = STATUS_LINE;
+    /** 是否是 HTTP/1.0 响应 */
+    private boolean http10;
+    /** 状态码 */
+    private int statusCode;
+    /** 响应体(或者当前块)剩余的字节数 */
+    private long remaining;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param head 是否是 HEAD 请求的响应
+     */
+    HttpResponseParser(boolean head) {
+        this.head = head;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 解析读到的数据
+     * @param buffer 数据(读模式)，解析完成时剩余的数据不会被消费
+     * @return 响应解析完成返回 {@code true}
+     * @throws IOException 响应格式错误
+     */
+    boolean feed(ByteBuffer buffer) throws IOException {
+        while (state != DONE && buffer.hasRemaining()) {
+            switch (state) {
+            case STATUS_LINE:
+                if (readLine(buffer)) {
+                    parseStatusLine(line.toString());
+                }
+                break;
+            case HEADERS:
+                if (readLine(buffer)) {
+                    if (line.length() == 0) {
+                        endHeaders();
+                    } else {
+                        parseHeader(line.toString());
+                    }
+                }
+                break;
+            case BODY_FIXED:
+            case CHUNK_DATA:
+                int n = (int) Math.min(remaining, buffer.remaining());
+                body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), n);
+                buffer.position(buffer.position() + n);
+                remaining -= n;
+                if (remaining == 0) {
+                    state = state == BODY_FIXED ? DONE : CHUNK_END;
+                }
+                break;
+            case CHUNK_SIZE:
+                if (readLine(buffer)) {
+                    parseChunkSize(line.toString());
+                }
+                break;
+            case CHUNK_END:
+                if (readLine(buffer)) {
+                    if (line.length() != 0) {
+                        throw new IOException("Invalid chunk terminator");
+                    }
+                    state = CHUNK_SIZE;
+                }
+                break;
+            case TRAILERS:
+                if (readLine(buffer)) {
+                    if (line.length() == 0) {
+                        state = DONE;
+                    }
+                    line.setLength(0);
+                }
+                break;
+            case BODY_EOF:
+                body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                buffer.position(buffer.limit());
+                break;
+            default:
+                break;
+            }
+        }
+        return state == DONE;
+    }
+
+    /**
+     * 连接已关闭(读到流末尾)
+     * @return 响应解析完成返回 {@code true}（响应体以连接关闭为结束）
+     * @throws IOException 响应不完整
+     */
+    boolean eof() throws IOException {
+        if (state == BODY_EOF) {
+            state = DONE;
+            return true;
+        }
+        if (state == DONE) {
+            return true;
+        }
+        throw new IOException("Connection closed before response was complete");
+    }
+
+    /**
+     * 是否已经开始接收响应
+     * @return 已经收到响应数据返回 {@code true}
+     */
+    boolean isStarted() {
+        return state != STATUS_LINE || line.length() > 0;
+    }
+
+    /**
+     * 响应结束后连接是否可以复用
+     * @return 可以复用返回 {@code true}
+     */
+    boolean isKeepAlive() {
+        if (state != DONE || remaining < 0) {
+            return false;
+        }
+        String connection = firstHeader("Connection");
+        if (connection != null && connection.toLowerCase(Locale.ROOT).contains("close")) {
+            return false;
+        }
+        if (http10) {
+            return connection != null && connection.toLowerCase(Locale.ROOT).contains("keep-alive");
+        }
+        return true;
+    }
+
+    /**
+     * 服务端建议的空闲连接保持时间（响应头 {@code Keep-Alive: timeout=N}）
+     * @return 保持时间(毫秒)，没有指定返回 -1
+     */
+    long getKeepAliveTimeoutMillis() {
+        String keepAlive = firstHeader("Keep-Alive");
+        if (keepAlive == null) {
+            return -1;
+        }
+        for (String param : keepAlive.split(",")) {
+            String[] pair = param.trim().split("=", 2);
+            if (pair.length == 2 && "timeout".equalsIgnoreCase(pair[0].trim())) {
+                try {
+                    return Long.parseLong(pair[1].trim()) * 1000L;
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 响应头是否已经解析完成
+     * @return 解析完成返回 {@code true}
+     */
+    boolean isHeadersComplete() {
+        return state > HEADERS;
+    }
+
+    /**
+     * 获得已经缓存的响应体字节数
+     * @return 字节数
+     */
+    int getBufferedBodySize() {
+        return body.size();
+    }
+
+    /**
+     * 取出已经缓存的响应体数据（用于流式处理响应体）
+     * @return 缓存的数据
+     */
+    byte[] drainBody() {
+        byte[] bytes = body.toByteArray();
+        body.reset();
+        return bytes;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    HttpHeaders getHeaders() {
+        return HttpHeaders.of(headers);
+    }
+
+    byte[] getBody() {
+        return body.toByteArray();
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 读取一行(ISO-8859-1)，行尾的 CRLF 或者 LF 不包含在内
+     * @param buffer 数据
+     * @return 读到完整的一行返回 {@code true}
+     * @throws IOException 行太长
+     */
+    private boolean readLine(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            char c = (char) (buffer.get() & 0xFF);
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return true;
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new IOException("Response line too long");
+            }
+            line.append(c);
+        }
+        return false;
+    }
+
+    private void parseStatusLine(String statusLine) throws IOException {
+        line.setLength(0);
+        // HTTP/1.1 200 OK
+        if (!statusLine.startsWith("HTTP/")) {
+            throw new IOException("Invalid status line: " + statusLine);
+        }
+        int start = statusLine.indexOf(' ');
+        if (start < 0) {
+            throw new IOException("Invalid status line: " + statusLine);
+        }
+        int end = statusLine.indexOf(' ', start + 1);
+        String code = end < 0 ? statusLine.substring(start + 1) : statusLine.substring(start + 1, end);
+        try {
+            statusCode = Integer.parseInt(code.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid status line: " + statusLine);
+        }
+        http10 = statusLine.startsWith("HTTP/1.0");
+        state = HEADERS;
+    }
+
+    private void parseHeader(String header) throws IOException {
+        line.setLength(0);
+        int colon = header.indexOf(':');
+        if (colon <= 0) {
+            throw new IOException("Invalid header: " + header);
+        }
+        String name = header.substring(0, colon).trim();
+        String value = header.substring(colon + 1).trim();
+        headers.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+    }
+
+    private void endHeaders() throws IOException {
+        line.setLength(0);
+        // 1xx 为临时响应，忽略之后继续读取最终响应
+        if (statusCode >= 100 && statusCode < 200) {
+            headers.clear();
+            state = STATUS_LINE;
+            return;
+        }
+        if (head || statusCode == 204 || statusCode == 304) {
+            state = DONE;
+            return;
+        }
+        String transferEncoding = firstHeader("Transfer-Encoding");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            state = CHUNK_SIZE;
+            return;
+        }
+        String contentLength = firstHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                remaining = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Content-Length: " + contentLength);
+            }
+            if (remaining < 0) {
+                throw new IOException("Invalid Content-Length: " + contentLength);
+            }
+            state = remaining == 0 ? DONE : BODY_FIXED;
+            return;
+        }
+        // 没有长度信息，读到连接关闭为止(连接不可复用)
+        remaining = -1;
+        state = BODY_EOF;
+    }
+
+    private void parseChunkSize(String chunkLine) throws IOException {
+        line.setLength(0);
+        int semicolon = chunkLine.indexOf(';');
+        String size = (semicolon < 0 ? chunkLine : chunkLine.substring(0, semicolon)).trim();
+        try {
+            remaining = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid chunk size: " + chunkLine);
+        }
+        if (remaining < 0) {
+            throw new IOException("Invalid chunk size: " + chunkLine);
+        }
+        state = remaining == 0 ? TRAILERS : CHUNK_DATA;
+    }
+
+    private String firstHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -0,0 +1,1115 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.relucent.base.common.concurrent.NamedThreadFactory;
+import com.github.relucent.base.common.exception.ExceptionUtil;
+import com.github.relucent.base.common.http.HttpCallEvent;
+import com.github.relucent.base.common.http.HttpEventListener;
+import com.github.relucent.base.common.http.jdk8.HttpHeaders;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+import com.github.relucent.base.common.http.jdk8.HttpRequest.BodyPublisher;
+import com.github.relucent.base.common.http.jdk8.HttpResponse;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodySubscriber;
+import com.github.relucent.base.common.http.jdk8.HttpTransport;
+import com.github.relucent.base.common.io.IoUtil;
+import com.github.relucent.base.common.lang.StringUtil;
+import com.github.relucent.base.common.logging.Logger;
+
+/**
+ * 基于 {@link Selector} 的非阻塞 HTTP/1.1 传输层<br>
+ * 所有连接由一个 I/O 线程管理，进行中的请求不占用线程，少量线程即可支撑数千个并发请求。<br>
+ * 每个主机(host:port)维护独立的连接池：连接数达到上限时请求排队等待空闲连接；响应结束后连接保持(keep-alive)并复用，空闲超过保持时间的连接被关闭。<br>
+ * 复用的空闲连接可能已经被服务端关闭，此时幂等请求(GET/HEAD/PUT/DELETE/OPTIONS/TRACE)会在新连接上重试一次。<br>
+ * 较小的响应体完整读取后在执行器中交给 {@link BodySubscriber} 处理；较大的响应体(超过 64KB)以流的方式交给 {@link BodySubscriber}，缓存的数据超过 256KB 时暂停读取，直到处理方读取了一半。<br>
+ * 请求体在发送前缓存在内存中，只支持 http 协议和长度已知且不超过 1MB 的请求体，其它请求(如 https、大文件上传)交给后备的传输层流式处理。
+ */
+public class NioHttpTransport implements HttpTransport {
+
+    // ==============================Constants========================================
+    /** 选择器的最长等待时间，也是超时检查的间隔(毫秒) */
+    private static final long SELECT_TIMEOUT = 100L;
+    /** 读缓冲区大小 */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    /** 缓存的响应体超过该大小时改为流式处理 */
+    private static final int STREAM_THRESHOLD = 64 * 1024;
+    /** 流式处理时缓存的最大字节数，超过时暂停读取 */
+    private static final int PIPE_CAPACITY = 256 * 1024;
+    /** 缓存在内存中发送的最大请求体 */
+    private static final long MAX_BUFFERED_REQUEST_BODY = 1024 * 1024;
+
+    // ==============================Fields===========================================
+    private final Logger logger = Logger.getLogger(getClass());
+    /** 执行响应体处理的执行器 */
+    private final Executor executor;
+    /** 后备的传输层 */
+    private final HttpTransport fallback;
+    /** 连接超时(纳秒)，0 表示不超时 */
+    private final long connectTimeoutNanos;
+    /** 读取超时(纳秒)，0 表示不超时 */
+    private final long readTimeoutNanos;
+    /** 每个主机的最大连接数 */
+    private final int maxConnectionsPerHost;
+    /** 空闲连接的保持时间(毫秒) */
+    private final long keepAliveMillis;
+    /** 选择器 */
+    private final Selector selector;
+    /** I/O 线程 */
+    private final Thread ioThread;
+    /** 等待 I/O 线程处理的请求 */
+    private final Queue<Exchange<?>> pending = new ConcurrentLinkedQueue<>();
+    /** 等待 I/O 线程执行的任务 */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /** 是否已经唤醒选择器 */
+    private final AtomicBoolean wakeup = new AtomicBoolean();
+    /** 打开的连接数 */
+    private final AtomicInteger openConnections = new AtomicInteger();
+    /** 空闲的连接数 */
+    private final AtomicInteger idleConnections = new AtomicInteger();
+    /** 主机的连接池(只在 I/O 线程访问) */
+    private final Map<String, HostPool> pools = new HashMap<>();
+    /** 所有连接(只在 I/O 线程访问) */
+    private final Set<Connection> connections = new LinkedHashSet<>();
+    /** 读缓冲区(只在 I/O 线程访问) */
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    /** 请求事件监听器 */
+    private final HttpEventListener listener;
+    /** 是否已经关闭 */
+    private volatile boolean closed;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param executor              执行响应体处理的执行器
+     * @param fallback              后备的传输层，处理不支持的请求(如 https)
+     * @param connectTimeoutMillis  连接超时(毫秒)，0 表示不超时
+     * @param readTimeoutMillis     读取超时(毫秒)，两次收到数据的最长间隔，0 表示不超时
+     * @param maxConnectionsPerHost 每个主机的最大连接数
+     * @param keepAliveMillis       空闲连接的保持时间(毫秒)
+     */
+    public NioHttpTransport(Executor executor, HttpTransport fallback, int connectTimeoutMillis, int readTimeoutMillis, int maxConnectionsPerHost,
+            long keepAliveMillis) {
+        this(executor, fallback, connectTimeoutMillis, readTimeoutMillis, maxConnectionsPerHost, keepAliveMillis, null);
+    }
+
+    /**
+     * 构造函数
+     * @param executor              执行响应体处理的执行器
+     * @param fallback              后备的传输层，处理不支持的请求(如 https)
+     * @param connectTimeoutMillis  连接超时(毫秒)，0 表示不超时
+     * @param readTimeoutMillis     读取超时(毫秒)，两次收到数据的最长间隔，0 表示不超时
+     * @param maxConnectionsPerHost 每个主机的最大连接数
+     * @param keepAliveMillis       空闲连接的保持时间(毫秒)
+     * @param listener              请求事件监听器，可以为 {@code null}
+     */
+    public NioHttpTransport(Executor executor, HttpTransport fallback, int connectTimeoutMillis, int readTimeoutMillis, int maxConnectionsPerHost,
+            long keepAliveMillis, HttpEventListener listener) {
+        if (maxConnectionsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be positive: " + maxConnectionsPerHost);
+        }
+        this.executor = executor;
+        this.fallback = fallback;
+        this.connectTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(connectTimeoutMillis, 0));
+        this.readTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(readTimeoutMillis, 0));
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.keepAliveMillis = keepAliveMillis;
+        this.listener = listener;
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw ExceptionUtil.propagate(e);
+        }
+        this.ioThread = new NamedThreadFactory("http-nio", true).newThread(this::run);
+        this.ioThread.start();
+    }
+
+    // ==============================Methods==========================================
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        if (!supports(request)) {
+            return fallback.send(request, handler);
+        }
+        try {
+            return sendAsync(request, handler).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw ExceptionUtil.propagate(cause);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+        if (!supports(request)) {
+            return fallback.sendAsync(request, handler);
+        }
+        CompletableFuture<HttpResponse<T>> future = new CompletableFuture<>();
+        HttpCallEvent event = HttpCallEvent.start(listener, request.method(), request.uri());
+        Exchange<T> exchange;
+        try {
+            exchange = new Exchange<>(request, handler, future, event);
+        } catch (IOException e) {
+            event.finish(-1, e);
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (closed) {
+            exchange.fail(new IOException("Transport closed"));
+            return future;
+        }
+        pending.add(exchange);
+        if (closed && pending.remove(exchange)) {
+            exchange.fail(new IOException("Transport closed"));
+            return future;
+        }
+        wakeup();
+        return future;
+    }
+
+    /**
+     * 获得打开的连接数(包括空闲连接)
+     * @return 打开的连接数
+     */
+    public int getOpenConnectionCount() {
+        return openConnections.get();
+    }
+
+    /**
+     * 获得空闲的连接数
+     * @return 空闲的连接数
+     */
+    public int getIdleConnectionCount() {
+        return idleConnections.get();
+    }
+
+    /**
+     * 关闭传输层，关闭所有连接，未完成的请求以异常结束
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        selector.wakeup();
+        if (Thread.currentThread() != ioThread) {
+            try {
+                ioThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        fallback.close();
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 是否支持该请求
+     * @param request 请求对象
+     * @return 支持返回 {@code true}
+     */
+    private boolean supports(HttpRequest request) {
+        if (!"http".equalsIgnoreCase(request.uri().getScheme())) {
+            return false;
+        }
+        BodyPublisher bodyPublisher = request.bodyPublisher();
+        if (bodyPublisher == null) {
+            return true;
+        }
+        long contentLength = bodyPublisher.contentLength();
+        return contentLength >= 0 && contentLength <= MAX_BUFFERED_REQUEST_BODY;
+    }
+
+    /**
+     * 唤醒选择器
+     */
+    private void wakeup() {
+        if (wakeup.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * 在 I/O 线程中执行任务
+     * @param task 任务
+     */
+    private void executeInIoThread(Runnable task) {
+        tasks.add(task);
+        wakeup();
+    }
+
+    /**
+     * I/O 线程
+     */
+    private void run() {
+        long lastSweep = System.nanoTime();
+        while (!closed) {
+            try {
+                selector.select(SELECT_TIMEOUT);
+                wakeup.set(false);
+                Exchange<?> exchange;
+                while ((exchange = pending.poll()) != null) {
+                    dispatch(exchange);
+                }
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Set<SelectionKey> keys = selector.selectedKeys();
+                for (SelectionKey key : keys) {
+                    process((Connection) key.attachment(), key);
+                }
+                keys.clear();
+                long now = System.nanoTime();
+                if (now - lastSweep >= TimeUnit.MILLISECONDS.toNanos(SELECT_TIMEOUT)) {
+                    sweep(now);
+                    lastSweep = now;
+                }
+            } catch (Throwable e) {
+                logger.error("!", e);
+            }
+        }
+        shutdown();
+    }
+
+    /**
+     * 处理连接上的 I/O 事件
+     * @param connection 连接
+     * @param key 选择键
+     */
+    private void process(Connection connection, SelectionKey key) {
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isConnectable()) {
+                if (connection.channel.finishConnect()) {
+                    connection.connected = true;
+                    connection.exchange.event.connected(false);
+                    begin(connection);
+                }
+                return;
+            }
+            if (key.isWritable()) {
+                write(connection);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(connection);
+            }
+        } catch (IOException e) {
+            fail(connection, e);
+        }
+    }
+
+    /**
+     * 为请求分配连接：优先使用空闲连接，连接数未达到上限时新建连接，否则排队等待
+     * @param exchange 请求
+     */
+    private void dispatch(Exchange<?> exchange) {
+        HostPool pool = pools.computeIfAbsent(exchange.hostKey, HostPool::new);
+        Connection connection;
+        while ((connection = pool.idle.pollFirst()) != null) {
+            idleConnections.decrementAndGet();
+            if (connection.channel.isOpen() && System.nanoTime() - connection.idleExpiry < 0) {
+                assign(connection, exchange);
+                return;
+            }
+            closeConnection(connection);
+        }
+        if (pool.total < maxConnectionsPerHost) {
+            open(pool, exchange);
+        } else {
+            pool.waiters.add(exchange);
+        }
+        poolChanged(pool);
+    }
+
+    /**
+     * 新建连接
+     * @param pool 连接池
+     * @param exchange 请求
+     */
+    private void open(HostPool pool, Exchange<?> exchange) {
+        Connection connection = null;
+        try {
+            SocketChannel channel = SocketChannel.open();
+            connection = new Connection(pool, channel);
+            connections.add(connection);
+            pool.total++;
+            openConnections.incrementAndGet();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+            connection.exchange = exchange;
+            connection.deadline = deadline(connectTimeoutNanos);
+            connection.key = channel.register(selector, 0, connection);
+            exchange.event.connectStarted();
+            if (exchange.address.isUnresolved()) {
+                resolve(connection, exchange);
+            } else {
+                connect(connection, exchange.address);
+            }
+        } catch (IOException e) {
+            if (connection != null) {
+                fail(connection, e);
+            } else {
+                exchange.fail(e);
+            }
+        }
+    }
+
+    /**
+     * 在执行器中解析主机地址(DNS 查询可能阻塞，不能在调用线程和 I/O 线程中执行)，解析完成后回到 I/O 线程建立连接<br>
+     * 解析的时间计入连接超时。
+     * @param connection 连接
+     * @param exchange 请求
+     */
+    private void resolve(Connection connection, Exchange<?> exchange) {
+        InetSocketAddress unresolved = exchange.address;
+        try {
+            executor.execute(() -> {
+                InetSocketAddress resolved = new InetSocketAddress(unresolved.getHostString(), unresolved.getPort());
+                executeInIoThread(() -> resolved(connection, exchange, resolved));
+            });
+        } catch (RejectedExecutionException e) {
+            fail(connection, new IOException("Unable to resolve host: " + unresolved.getHostString(), e));
+        }
+    }
+
+    /**
+     * 主机地址解析完成(在 I/O 线程中调用)
+     * @param connection 连接
+     * @param exchange 请求
+     * @param address 解析后的地址
+     */
+    private void resolved(Connection connection, Exchange<?> exchange, InetSocketAddress address) {
+        // 解析期间连接可能已经超时或者关闭
+        if (connection.exchange != exchange || !connections.contains(connection)) {
+            return;
+        }
+        try {
+            if (address.isUnresolved()) {
+                throw new UnknownHostException(address.getHostString());
+            }
+            exchange.address = address;
+            connect(connection, address);
+        } catch (IOException e) {
+            fail(connection, e);
+        }
+    }
+
+    /**
+     * 连接到已经解析的地址
+     * @param connection 连接
+     * @param address 主机地址
+     * @throws IOException 连接异常
+     */
+    private void connect(Connection connection, InetSocketAddress address) throws IOException {
+        if (connection.channel.connect(address)) {
+            connection.connected = true;
+            connection.exchange.event.connected(false);
+            begin(connection);
+        } else {
+            connection.key.interestOps(SelectionKey.OP_CONNECT);
+        }
+    }
+
+    /**
+     * 在已经建立的连接上执行请求
+     * @param connection 连接
+     * @param exchange 请求
+     */
+    private void assign(Connection connection, Exchange<?> exchange) {
+        connection.exchange = exchange;
+        exchange.event.connected(true);
+        try {
+            begin(connection);
+        } catch (IOException e) {
+            fail(connection, e);
+        }
+    }
+
+    /**
+     * 开始发送请求
+     * @param connection 连接
+     * @throws IOException 写入异常
+     */
+    private void begin(Connection connection) throws IOException {
+        Exchange<?> exchange = connection.exchange;
+        connection.parser = new HttpResponseParser(exchange.head);
+        connection.output = ByteBuffer.wrap(exchange.requestBytes);
+        write(connection);
+    }
+
+    /**
+     * 写入请求数据，写完之后等待响应
+     * @param connection 连接
+     * @throws IOException 写入异常
+     */
+    private void write(Connection connection) throws IOException {
+        int n = connection.channel.write(connection.output);
+        connection.exchange.event.addBytesSent(n);
+        connection.deadline = deadline(readTimeoutNanos);
+        if (connection.output.hasRemaining()) {
+            connection.key.interestOps(SelectionKey.OP_WRITE);
+        } else {
+            connection.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * 读取响应数据
+     * @param connection 连接
+     * @throws IOException 读取异常或者响应格式错误
+     */
+    private void read(Connection connection) throws IOException {
+        readBuffer.clear();
+        int n = connection.channel.read(readBuffer);
+        if (connection.exchange == null) {
+            // 空闲连接可读，说明服务端关闭了连接(或者发送了多余的数据)，连接不能再使用
+            closeConnection(connection);
+            return;
+        }
+        HttpResponseParser parser = connection.parser;
+        if (n < 0) {
+            if (parser.eof()) {
+                complete(connection, false);
+            }
+            return;
+        }
+        if (n == 0) {
+            return;
+        }
+        connection.exchange.event.responseStarted();
+        connection.exchange.event.addBytesReceived(n);
+        connection.deadline = deadline(readTimeoutNanos);
+        readBuffer.flip();
+        boolean done = parser.feed(readBuffer);
+        // 响应体较大时改为流式处理
+        if (connection.pipe == null && !done && parser.isHeadersComplete() && parser.getBufferedBodySize() >= STREAM_THRESHOLD) {
+            connection.pipe = new BodyPipe(connection);
+            connection.exchange.stream(parser.getStatusCode(), parser.getHeaders(), connection.pipe);
+        }
+        if (connection.pipe != null) {
+            if (!connection.pipe.offer(parser.drainBody())) {
+                // 处理方已经关闭输入流
+                abort(connection, connection.pipe);
+                return;
+            }
+            if (!done && connection.pipe.isFull()) {
+                // 暂停读取，处理方读取了一半数据后恢复
+                connection.key.interestOps(0);
+                connection.deadline = 0;
+            }
+        }
+        if (done) {
+            complete(connection, connection.exchange.keepAlive && parser.isKeepAlive() && !readBuffer.hasRemaining());
+        }
+    }
+
+    /**
+     * 处理方读取了数据，恢复读取
+     * @param connection 连接
+     * @param pipe 响应体的流
+     */
+    private void resume(Connection connection, BodyPipe pipe) {
+        if (connection.pipe == pipe && connection.key.isValid()) {
+            connection.key.interestOps(SelectionKey.OP_READ);
+            connection.deadline = deadline(readTimeoutNanos);
+        }
+    }
+
+    /**
+     * 处理方在响应体读取完之前关闭了输入流，关闭连接(连接上剩余的数据不能再使用)
+     * @param connection 连接
+     * @param pipe 响应体的流
+     */
+    private void abort(Connection connection, BodyPipe pipe) {
+        if (connection.pipe == pipe) {
+            connection.exchange.event.finish(connection.parser.getStatusCode(), null);
+            connection.exchange = null;
+            connection.pipe = null;
+            closeConnection(connection);
+        }
+    }
+
+    /**
+     * 响应接收完成，释放连接并处理响应
+     * @param connection 连接
+     * @param reusable 连接是否可以复用
+     */
+    private void complete(Connection connection, boolean reusable) {
+        Exchange<?> exchange = connection.exchange;
+        HttpResponseParser parser = connection.parser;
+        BodyPipe pipe = connection.pipe;
+        connection.exchange = null;
+        connection.parser = null;
+        connection.output = null;
+        connection.pipe = null;
+        if (reusable) {
+            release(connection, parser.getKeepAliveTimeoutMillis());
+        } else {
+            closeConnection(connection);
+        }
+        exchange.event.finish(parser.getStatusCode(), null);
+        if (pipe != null) {
+            pipe.finish();
+        } else {
+            exchange.complete(parser.getStatusCode(), parser.getHeaders(), parser.getBody());
+        }
+    }
+
+    /**
+     * 连接归还连接池：有排队的请求时直接使用，否则成为空闲连接
+     * @param connection 连接
+     * @param serverKeepAliveMillis 服务端建议的保持时间(毫秒)，-1 表示没有建议
+     */
+    private void release(Connection connection, long serverKeepAliveMillis) {
+        HostPool pool = connection.pool;
+        connection.reused = true;
+        Exchange<?> next = pool.waiters.poll();
+        if (next != null) {
+            assign(connection, next);
+            return;
+        }
+        long keepAlive = serverKeepAliveMillis > 0 ? Math.min(serverKeepAliveMillis, keepAliveMillis) : keepAliveMillis;
+        connection.idleExpiry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(keepAlive);
+        connection.key.interestOps(SelectionKey.OP_READ);
+        pool.idle.addFirst(connection);
+        idleConnections.incrementAndGet();
+        poolChanged(pool);
+    }
+
+    /**
+     * 连接上发生异常：关闭连接，请求以异常结束(复用的连接在收到响应前失败时，幂等请求重试一次)
+     * @param connection 连接
+     * @param e 异常
+     */
+    private void fail(Connection connection, IOException e) {
+        Exchange<?> exchange = connection.exchange;
+        BodyPipe pipe = connection.pipe;
+        boolean retry = exchange != null && connection.reused && exchange.idempotent && !exchange.retried
+                && (connection.parser == null || !connection.parser.isStarted());
+        connection.exchange = null;
+        connection.pipe = null;
+        closeConnection(connection);
+        if (pipe != null) {
+            // 响应已经交给处理方，异常通过输入流抛出
+            exchange.event.finish(connection.parser.getStatusCode(), e);
+            pipe.fail(e);
+            return;
+        }
+        if (exchange == null) {
+            return;
+        }
+        if (retry) {
+            exchange.retried = true;
+            dispatch(exchange);
+        } else {
+            exchange.fail(e);
+        }
+    }
+
+    /**
+     * 关闭连接，有排队的请求时为其新建连接
+     * @param connection 连接
+     */
+    private void closeConnection(Connection connection) {
+        if (!connections.remove(connection)) {
+            return;
+        }
+        HostPool pool = connection.pool;
+        if (pool.idle.remove(connection)) {
+            idleConnections.decrementAndGet();
+        }
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        IoUtil.closeQuietly(connection.channel);
+        pool.total--;
+        openConnections.decrementAndGet();
+        Exchange<?> next = pool.waiters.poll();
+        if (next != null) {
+            dispatch(next);
+            return;
+        }
+        if (pool.total == 0) {
+            pools.remove(pool.key);
+        }
+        poolChanged(pool);
+    }
+
+    /**
+     * 检查超时的请求和过期的空闲连接
+     * @param now 当前时间(纳秒)
+     */
+    private void sweep(long now) {
+        for (Connection connection : new ArrayList<>(connections)) {
+            if (connection.exchange != null) {
+                if (connection.deadline != 0 && now - connection.deadline > 0) {
+                    // 超时不重试
+                    connection.exchange.retried = true;
+                    fail(connection, new SocketTimeoutException(connection.connected ? "Read timed out" : "Connect timed out"));
+                }
+            } else if (now - connection.idleExpiry > 0) {
+                closeConnection(connection);
+            }
+        }
+    }
+
+    /**
+     * 关闭所有连接，未完成的请求以异常结束
+     */
+    private void shutdown() {
+        IOException e = new IOException("Transport closed");
+        List<Exchange<?>> exchanges = new ArrayList<>();
+        for (Connection connection : connections) {
+            if (connection.pipe != null) {
+                connection.exchange.event.finish(connection.parser.getStatusCode(), e);
+                connection.pipe.fail(e);
+            } else if (connection.exchange != null) {
+                exchanges.add(connection.exchange);
+            }
+            IoUtil.closeQuietly(connection.channel);
+        }
+        for (HostPool pool : pools.values()) {
+            exchanges.addAll(pool.waiters);
+        }
+        Exchange<?> exchange;
+        while ((exchange = pending.poll()) != null) {
+            exchanges.add(exchange);
+        }
+        connections.clear();
+        pools.clear();
+        openConnections.set(0);
+        idleConnections.set(0);
+        IoUtil.closeQuietly(selector);
+        for (Exchange<?> ex : exchanges) {
+            ex.fail(e);
+        }
+    }
+
+    /**
+     * 通知监听器连接池发生变化
+     * @param pool 连接池
+     */
+    private void poolChanged(HostPool pool) {
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.connectionPoolChanged(pool.key, pool.total, pool.idle.size(), pool.waiters.size(), maxConnectionsPerHost);
+        } catch (Throwable e) {
+            logger.warn("#", e);
+        }
+    }
+
+    /**
+     * 计算超时时间
+     * @param timeoutNanos 超时(纳秒)
+     * @return 超时时间，0 表示不超时
+     */
+    private static long deadline(long timeoutNanos) {
+        return timeoutNanos == 0 ? 0 : System.nanoTime() + timeoutNanos;
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 一次请求
+     * @param <T> 响应体类型
+     */
+    private class Exchange<T> {
+        /** 主机标识(协议://主机:端口) */
+        private final String hostKey;
+        /** 主机地址(创建时未解析，由 I/O 线程在建立连接前解析) */
+        private InetSocketAddress address;
+        /** 请求数据(请求头 + 请求体) */
+        private final byte[] requestBytes;
+        /** 是否是 HEAD 请求 */
+        private final boolean head;
+        /** 是否是幂等请求 */
+        private final boolean idempotent;
+        /** 请求结束后是否保持连接 */
+        private final boolean keepAlive;
+        /** 响应内容处理 */
+        private final BodyHandler<T> handler;
+        /** 异步结果 */
+        private final CompletableFuture<HttpResponse<T>> future;
+        /** 请求事件 */
+        private final HttpCallEvent event;
+        /** 是否已经重试 */
+        private boolean retried;
+
+        private Exchange(HttpRequest request, BodyHandler<T> handler, CompletableFuture<HttpResponse<T>> future, HttpCallEvent event)
+                throws IOException {
+            URI uri = request.uri();
+            String host = uri.getHost();
+            if (host == null) {
+                throw new IOException("Invalid URI: " + uri);
+            }
+            int port = uri.getPort() == -1 ? 80 : uri.getPort();
+            String method = request.method();
+            this.hostKey = event.getHost();
+            // 不在调用线程中解析主机名，避免 DNS 查询阻塞 sendAsync 的调用方
+            this.address = InetSocketAddress.createUnresolved(host, port);
+            this.head = "HEAD".equalsIgnoreCase(method);
+            this.idempotent = head || "GET".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method) || "DELETE".equalsIgnoreCase(method)
+                    || "OPTIONS".equalsIgnoreCase(method) || "TRACE".equalsIgnoreCase(method);
+            this.keepAlive = !"close".equalsIgnoreCase(request.headers().firstValue("Connection"));
+            this.requestBytes = encode(request, host, uri.getPort());
+            this.handler = handler;
+            this.future = future;
+            this.event = event;
+        }
+
+        /**
+         * 在执行器中处理响应体，完成异步结果
+         * @param statusCode 状态码
+         * @param headers 响应头
+         * @param body 响应体
+         */
+        private void complete(int statusCode, HttpHeaders headers, byte[] body) {
+            execute(() -> {
+                try {
+                    BodySubscriber<T> subscriber = handler.apply(new HttpResponseInfoImpl(statusCode, headers));
+                    try (InputStream input = new ByteArrayInputStream(body)) {
+                        T value = subscriber.getBody(input);
+                        future.complete(new HttpResponseImpl<>(statusCode, headers, value));
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+
+        /**
+         * 在执行器中以流的方式处理响应体(响应体还没有接收完)，完成异步结果
+         * @param statusCode 状态码
+         * @param headers 响应头
+         * @param pipe 响应体的流
+         */
+        private void stream(int statusCode, HttpHeaders headers, BodyPipe pipe) {
+            Runnable task = () -> {
+                boolean streaming = false;
+                try {
+                    BodySubscriber<T> subscriber = handler.apply(new HttpResponseInfoImpl(statusCode, headers));
+                    T value = subscriber.getBody(pipe);
+                    streaming = subscriber.isStreaming();
+                    future.complete(new HttpResponseImpl<>(statusCode, headers, value));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    if (!streaming) {
+                        IoUtil.closeQuietly(pipe);
+                    }
+                }
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // 不能在 I/O 线程中读取响应体
+                IoUtil.closeQuietly(pipe);
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * 在执行器中以异常完成异步结果(避免回调在 I/O 线程中执行)
+         * @param e 异常
+         */
+        private void fail(Throwable e) {
+            event.finish(-1, e);
+            execute(() -> future.completeExceptionally(e));
+        }
+
+        private void execute(Runnable task) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // 不能在 I/O 线程中执行响应处理等用户代码(可能阻塞 I/O 线程)，以异常结束请求
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 编码请求(请求行、请求头和请求体)
+     * @param request 请求对象
+     * @param host 主机名
+     * @param port 端口，-1 表示默认端口
+     * @return 请求数据
+     * @throws IOException 请求体写入异常
+     */
+    private static byte[] encode(HttpRequest request, String host, int port) throws IOException {
+        URI uri = request.uri();
+        String method = request.method();
+        String path = uri.getRawPath();
+        if (StringUtil.isEmpty(path)) {
+            path = "/";
+        }
+        if (uri.getRawQuery() != null) {
+            path = path + "?" + uri.getRawQuery();
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        BodyPublisher bodyPublisher = request.bodyPublisher();
+        if (bodyPublisher != null) {
+            bodyPublisher.writeTo(body);
+        }
+
+        HttpHeaders headers = request.headers();
+        StringBuilder head = new StringBuilder(256);
+        head.append(method).append(' ').append(path).append(" HTTP/1.1\r\n");
+        if (StringUtil.isEmpty(headers.firstValue("Host"))) {
+            head.append("Host: ").append(host.indexOf(':') >= 0 ? "[" + host + "]" : host);
+            if (port != -1 && port != 80) {
+                head.append(':').append(port);
+            }
+            head.append("\r\n");
+        }
+        for (Map.Entry<String, List<String>> e : headers.map().entrySet()) {
+            String key = e.getKey();
+            // 跳过，Content-Length 根据请求体计算
+            if ("Content-Length".equalsIgnoreCase(key) || "Transfer-Encoding".equalsIgnoreCase(key)) {
+                continue;
+            }
+            for (String val : e.getValue()) {
+                head.append(key).append(": ").append(val).append("\r\n");
+            }
+        }
+        if (bodyPublisher != null && StringUtil.isEmpty(headers.firstValue("Content-Type")) && StringUtil.isNotBlank(bodyPublisher.contentType())) {
+            head.append("Content-Type: ").append(bodyPublisher.contentType()).append("\r\n");
+        }
+        if (body.size() > 0 || "POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method) || "PATCH".equalsIgnoreCase(method)) {
+            head.append("Content-Length: ").append(body.size()).append("\r\n");
+        }
+        head.append("\r\n");
+
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        byte[] bytes = new byte[headBytes.length + body.size()];
+        System.arraycopy(headBytes, 0, bytes, 0, headBytes.length);
+        System.arraycopy(body.toByteArray(), 0, bytes, headBytes.length, body.size());
+        return bytes;
+    }
+
+    /**
+     * 连接
+     */
+    private class Connection {
+        /** 所属连接池 */
+        private final HostPool pool;
+        /** 通道 */
+        private final SocketChannel channel;
+        /** 选择键 */
+        private SelectionKey key;
+        /** 是否已经建立连接 */
+        private boolean connected;
+        /** 是否是复用的连接 */
+        private boolean reused;
+        /** 当前请求 */
+        private Exchange<?> exchange;
+        /** 当前响应的解析器 */
+        private HttpResponseParser parser;
+        /** 流式处理的响应体 */
+        private BodyPipe pipe;
+        /** 待写入的请求数据 */
+        private ByteBuffer output;
+        /** 当前请求的超时时间(纳秒)，0 表示不超时 */
+        private long deadline;
+        /** 空闲连接的过期时间(纳秒) */
+        private long idleExpiry;
+
+        private Connection(HostPool pool, SocketChannel channel) {
+            this.pool = pool;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * 主机的连接池
+     */
+    private class HostPool {
+        /** 主机标识(协议://主机:端口) */
+        private final String key;
+        /** 空闲连接(最近使用的在前) */
+        private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+        /** 等待连接的请求 */
+        private final ArrayDeque<Exchange<?>> waiters = new ArrayDeque<>();
+        /** 连接总数 */
+        private int total;
+
+        private HostPool(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * 流式处理的响应体(I/O 线程写入，处理方读取)
+     */
+    private class BodyPipe extends InputStream {
+        /** 连接 */
+        private final Connection connection;
+        /** 缓存的数据块 */
+        private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+        /** 当前读取的数据块 */
+        private byte[] current;
+        /** 当前数据块的读取位置 */
+        private int position;
+        /** 缓存的字节数 */
+        private int buffered;
+        /** I/O 线程是否暂停读取 */
+        private boolean paused;
+        /** 响应体是否已经接收完 */
+        private boolean finished;
+        /** 接收过程中的异常 */
+        private IOException failure;
+        /** 处理方是否已经关闭 */
+        private boolean closed;
+
+        private BodyPipe(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * 写入数据(I/O 线程)
+         * @param data 数据
+         * @return 处理方已经关闭返回 {@code false}
+         */
+        private synchronized boolean offer(byte[] data) {
+            if (closed) {
+                return false;
+            }
+            if (data.length > 0) {
+                chunks.add(data);
+                buffered += data.length;
+                notifyAll();
+            }
+            return true;
+        }
+
+        /**
+         * 缓存是否已满，已满时 I/O 线程暂停读取
+         * @return 已满返回 {@code true}
+         */
+        private synchronized boolean isFull() {
+            if (buffered >= PIPE_CAPACITY) {
+                paused = true;
+            }
+            return paused;
+        }
+
+        private synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        private synchronized void fail(IOException e) {
+            failure = e;
+            notifyAll();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (current == null || position >= current.length) {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                current = chunks.poll();
+                position = 0;
+                if (current != null) {
+                    continue;
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                if (finished) {
+                    return -1;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            buffered -= n;
+            if (paused && buffered <= PIPE_CAPACITY / 2) {
+                paused = false;
+                executeInIoThread(() -> resume(connection, this));
+            }
+            return n;
+        }
+
+        @Override
+        public synchronized int available() {
+            return buffered;
+        }
+
+        @Override
+        public void close() {
+            boolean incomplete;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                chunks.clear();
+                current = null;
+                buffered = 0;
+                incomplete = !finished && failure == null;
+                notifyAll();
+            }
+            if (incomplete) {
+                executeInIoThread(() -> abort(connection, this));
+            }
+        }
+    }
+}
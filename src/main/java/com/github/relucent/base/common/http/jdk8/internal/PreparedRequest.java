@@ -0,0 +1,42 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.net.URI;
+
+import com.github.relucent.base.common.http.jdk8.HttpHeaders;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+
+/**
+ * 修改了请求头和请求体的请求（传输层装饰器使用）
+ */
+class PreparedRequest implements HttpRequest {
+
+    private final HttpRequest request;
+    private final HttpHeaders headers;
+    private final BodyPublisher bodyPublisher;
+
+    PreparedRequest(HttpRequest request, HttpHeaders headers, BodyPublisher bodyPublisher) {
+        this.request = request;
+        this.headers = headers;
+        this.bodyPublisher = bodyPublisher;
+    }
+
+    @Override
+    public URI uri() {
+        return request.uri();
+    }
+
+    @Override
+    public String method() {
+        return request.method();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    @Override
+    public BodyPublisher bodyPublisher() {
+        return bodyPublisher;
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 传输层装饰器共用的工具方法
+ */
+class Transports {
+
+    /**
+     * 工具类私有构造
+     */
+    private Transports() {
+    }
+
+    /**
+     * 去掉异步计算包装的异常
+     * @param error 异常
+     * @return 实际的异常
+     */
+    static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,216 @@
+package com.github.relucent.base.common.http.jdk8.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import com.github.relucent.base.common.http.HttpCallEvent;
+import com.github.relucent.base.common.http.HttpEventListener;
+import com.github.relucent.base.common.http.jdk8.HttpHeaders;
+import com.github.relucent.base.common.http.jdk8.HttpRequest;
+import com.github.relucent.base.common.http.jdk8.HttpRequest.BodyPublisher;
+import com.github.relucent.base.common.http.jdk8.HttpResponse;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandler;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.ResponseInfo;
+import com.github.relucent.base.common.http.jdk8.HttpTransport;
+import com.github.relucent.base.common.io.IoUtil;
+import com.github.relucent.base.common.lang.StringUtil;
+import com.github.relucent.base.common.net.SslUtil;
+
+/**
+ * 基于 {@link HttpURLConnection} 的传输层（阻塞）<br>
+ * 连接复用依赖 JDK 内部的 keep-alive 缓存，异步请求在执行器中执行，每个进行中的请求占用一个线程。
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private final Executor executor;
+    private final Proxy proxy;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final boolean ignoreSslVerification;
+    private final HttpEventListener listener;
+
+    /**
+     * 构造函数
+     * @param executor              执行异步请求的执行器
+     * @param proxy                 代理，可以为 {@code null}
+     * @param connectTimeoutMillis  连接超时(毫秒)
+     * @param readTimeoutMillis     读取超时(毫秒)
+     * @param ignoreSslVerification 是否忽略SSL证书验证
+     */
+    public UrlConnectionTransport(Executor executor, Proxy proxy, int connectTimeoutMillis, int readTimeoutMillis, boolean ignoreSslVerification) {
+        this(executor, proxy, connectTimeoutMillis, readTimeoutMillis, ignoreSslVerification, null);
+    }
+
+    /**
+     * 构造函数
+     * @param executor              执行异步请求的执行器
+     * @param proxy                 代理，可以为 {@code null}
+     * @param connectTimeoutMillis  连接超时(毫秒)
+     * @param readTimeoutMillis     读取超时(毫秒)
+     * @param ignoreSslVerification 是否忽略SSL证书验证
+     * @param listener              请求事件监听器，可以为 {@code null}
+     */
+    public UrlConnectionTransport(Executor executor, Proxy proxy, int connectTimeoutMillis, int readTimeoutMillis, boolean ignoreSslVerification,
+            HttpEventListener listener) {
+        this.executor = executor;
+        this.proxy = proxy;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.ignoreSslVerification = ignoreSslVerification;
+        this.listener = listener;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> handler) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return send(request, handler);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler) throws IOException {
+        HttpURLConnection conn = null;
+        HttpCallEvent event = HttpCallEvent.start(listener, request.method(), request.uri());
+        int status = -1;
+        try {
+            if (proxy != null) {
+                conn = (HttpURLConnection) request.uri().toURL().openConnection(proxy);
+            } else {
+                conn = (HttpURLConnection) request.uri().toURL().openConnection();
+            }
+            if (conn instanceof HttpsURLConnection && ignoreSslVerification) {
+                ((HttpsURLConnection) conn).setSSLSocketFactory(SslUtil.SKIP_SSL_SOCKET_FACTORY);
+                ((HttpsURLConnection) conn).setHostnameVerifier(SslUtil.SKIP_HOSTNAME_VERIFIER);
+            }
+
+            conn.setConnectTimeout(connectTimeoutMillis);
+            conn.setReadTimeout(readTimeoutMillis);
+            conn.setRequestMethod(request.method());
+            conn.setDoInput(true);
+
+            HttpHeaders requestHeaders = request.headers();
+            // 设置请求头
+            for (Map.Entry<String, List<String>> e : requestHeaders.map().entrySet()) {
+                String key = e.getKey();
+
+                // 跳过，Content-Length 由 HttpURLConnection 自动管理
+                if ("Content-Length".equalsIgnoreCase(key)) {
+                    continue;
+                }
+
+                for (String val : e.getValue()) {
+                    conn.addRequestProperty(key, val);
+                }
+            }
+
+            BodyPublisher bodyPublisher = request.bodyPublisher();
+            if (bodyPublisher != null && StringUtil.isEmpty(requestHeaders.firstValue("Content-Type"))
+                    && StringUtil.isNotBlank(bodyPublisher.contentType())) {
+                conn.setRequestProperty("Content-Type", bodyPublisher.contentType());
+            }
+
+            // 请求体流式写入：长度已知时使用固定长度模式，未知时使用 chunked 模式，都不在内存中缓存
+            boolean hasBody = bodyPublisher != null && bodyPublisher.contentLength() != 0;
+            if (hasBody) {
+                long contentLength = bodyPublisher.contentLength();
+                if (contentLength > 0) {
+                    conn.setFixedLengthStreamingMode(contentLength);
+                } else {
+                    conn.setChunkedStreamingMode(8192);// (8KB)
+                }
+                conn.setDoOutput(true);
+            }
+            // HttpURLConnection 复用 keep-alive 连接时，连接的耗时接近 0
+            event.connectStarted();
+            conn.connect();
+            event.connected(false);
+            if (hasBody) {
+                try (OutputStream output = event.countSent(conn.getOutputStream())) {
+                    bodyPublisher.writeTo(output);
+                }
+            }
+
+            InputStream is = null;
+            status = conn.getResponseCode();
+            event.responseStarted();
+            if (status >= 400) {
+                is = conn.getErrorStream();
+                if (is == null) {
+                    is = new ByteArrayInputStream(new byte[0]);
+                }
+            } else {
+                is = conn.getInputStream();
+            }
+            ResponseInfo info = new HttpResponseInfoImpl(conn);
+            HttpResponse.BodySubscriber<T> subscriber = handler.apply(info);
+
+            InputStream input = new ConnectionInputStream(event.countReceived(is), conn, event, status);
+            boolean streaming = false;
+            try {
+                T body = subscriber.getBody(input);
+                streaming = subscriber.isStreaming();
+                return new HttpResponseImpl<>(status, info.headers(), body);
+            } catch (IOException | RuntimeException e) {
+                event.finish(status, e);
+                throw e;
+            } finally {
+                // 响应体持有输入流时，由调用方关闭输入流(同时断开连接，结束请求事件)
+                if (!streaming) {
+                    IoUtil.closeQuietly(input);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            IoUtil.closeQuietly(conn);
+            event.finish(status, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        // 执行器由 HttpClient 管理，连接由 JDK 管理
+    }
+
+    /**
+     * 响应体输入流，关闭时断开连接并结束请求事件
+     */
+    private static class ConnectionInputStream extends FilterInputStream {
+
+        private final HttpURLConnection conn;
+        private final HttpCallEvent event;
+        private final int status;
+
+        private ConnectionInputStream(InputStream in, HttpURLConnection conn, HttpCallEvent event, int status) {
+            super(in);
+            this.conn = conn;
+            this.event = event;
+            this.status = status;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                IoUtil.closeQuietly(conn);
+                event.finish(status, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.relucent.base.common.identifier;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.github.relucent.base.common.exception.ExceptionUtil;
+
+/**
+ * 基于JDBC的号段存储<br>
+ * 每个业务标识在号段表中占一行，预留号段时在一个事务中执行：
+ *
+ * <pre>
+ * UPDATE id_segment SET max_id = max_id + ? WHERE biz_tag = ?
+ * SELECT max_id FROM id_segment WHERE biz_tag = ?
+ * </pre>
+ *
+ * UPDATE 会锁定该行直到事务提交，所以多个进程同时预留得到的区间不会重叠。业务标识不存在时自动插入一行（并发插入主键冲突时重新执行 UPDATE）。<br>
+ * 号段表结构（列名可以通过构造函数指定）：
+ *
+ * <pre>
+ * CREATE TABLE id_segment (
+ *     biz_tag VARCHAR(128) NOT NULL PRIMARY KEY,
+ *     max_id  BIGINT NOT NULL
+ * )
+ * </pre>
+ */
+public class JdbcSegmentStore implements SegmentStore {
+
+    // ==============================Constants========================================
+    /** 默认表名 */
+    public static final String DEFAULT_TABLE = "id_segment";
+
+    // ==============================Fields===========================================
+    /** 数据源 */
+    private final DataSource dataSource;
+    /** 更新最大ID的SQL */
+    private final String updateSql;
+    /** 查询最大ID的SQL */
+    private final String selectSql;
+    /** 插入业务标识的SQL */
+    private final String insertSql;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param dataSource 数据源
+     */
+    public JdbcSegmentStore(DataSource dataSource) {
+        this(dataSource, DEFAULT_TABLE, "biz_tag", "max_id");
+    }
+
+    /**
+     * 构造函数
+     * @param dataSource 数据源
+     * @param table 号段表名
+     * @param tagColumn 业务标识列名
+     * @param maxIdColumn 最大ID列名
+     */
+    public JdbcSegmentStore(DataSource dataSource, String table, String tagColumn, String maxIdColumn) {
+        this.dataSource = dataSource;
+        this.updateSql = "UPDATE " + table + " SET " + maxIdColumn + " = " + maxIdColumn + " + ? WHERE " + tagColumn + " = ?";
+        this.selectSql = "SELECT " + maxIdColumn + " FROM " + table + " WHERE " + tagColumn + " = ?";
+        this.insertSql = "INSERT INTO " + table + " (" + tagColumn + ", " + maxIdColumn + ") VALUES (?, ?)";
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 为业务标识预留一段ID
+     * @param tag 业务标识
+     * @param step 号段长度
+     * @return 预留之后的最大ID，预留的区间为 (maxId - step, maxId]
+     */
+    @Override
+    public long reserve(String tag, int step) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                long maxId = reserve(conn, tag, step);
+                conn.commit();
+                return maxId;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw ExceptionUtil.propagate("Failed to reserve id segment: " + tag, e);
+        }
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 在当前事务中预留一段ID
+     * @param conn 数据库连接
+     * @param tag 业务标识
+     * @param step 号段长度
+     * @return 预留之后的最大ID
+     * @throws SQLException SQL异常
+     */
+    private long reserve(Connection conn, String tag, int step) throws SQLException {
+        if (update(conn, tag, step) == 0) {
+            try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+                ps.setString(1, tag);
+                ps.setLong(2, step);
+                ps.executeUpdate();
+                return step;
+            } catch (SQLException e) {
+                // 其它进程已经插入了该业务标识
+                conn.rollback();
+                if (update(conn, tag, step) == 0) {
+                    throw e;
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+            ps.setString(1, tag);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Id segment not found: " + tag);
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * 更新最大ID
+     * @param conn 数据库连接
+     * @param tag 业务标识
+     * @param step 号段长度
+     * @return 更新的行数
+     * @throws SQLException SQL异常
+     */
+    private int update(Connection conn, String tag, int step) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+            ps.setLong(1, step);
+            ps.setString(2, tag);
+            return ps.executeUpdate();
+        }
+    }
+}
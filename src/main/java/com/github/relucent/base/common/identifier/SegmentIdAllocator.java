@@ -0,0 +1,279 @@
+package com.github.relucent.base.common.identifier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.relucent.base.common.concurrent.GlobalThreadPool;
+import com.github.relucent.base.common.exception.ExceptionUtil;
+import com.github.relucent.base.common.logging.Logger;
+
+/**
+ * 号段模式的ID分配器（双缓冲）<br>
+ * 每个业务标识从 {@link SegmentStore} 一次预留一段ID（号段），之后在内存中通过原子计数分配，不需要访问数据库，也不需要协调机器ID。<br>
+ * 当前号段消耗到一定比例（默认20%）时，在后台线程中预取下一个号段，当前号段用完时直接切换，正常情况下分配ID不会等待数据库。<br>
+ * 号段长度根据消耗速度自动调整：一个号段在目标时长内就用完时长度加倍，超过两倍目标时长才用完时长度减半。<br>
+ * 同一业务标识分配的ID在单个进程内递增，在多个进程之间唯一但不保证全局递增；进程重启时未用完的号段会被丢弃。
+ */
+public class SegmentIdAllocator {
+
+    // ==============================Constants========================================
+    /** 默认最小号段长度 */
+    private static final int DEFAULT_MIN_STEP = 10000;
+    /** 默认最大号段长度 */
+    private static final int DEFAULT_MAX_STEP = 1000000;
+    /** 默认预取比例 */
+    private static final double DEFAULT_PREFETCH_RATIO = 0.2D;
+    /** 默认一个号段的目标使用时长(毫秒) */
+    private static final long DEFAULT_SEGMENT_DURATION = TimeUnit.MINUTES.toMillis(15);
+    /** 等待预取完成的最长时间(毫秒) */
+    private static final long LOAD_WAIT_TIMEOUT = 1000L;
+    /** 预取失败后第一次重试的间隔(毫秒)，之后每次失败加倍 */
+    private static final long PREFETCH_RETRY_DELAY = 100L;
+    /** 预取失败后重试的最大间隔(毫秒) */
+    private static final long MAX_PREFETCH_RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
+
+    // ==============================Fields===========================================
+    private final Logger logger = Logger.getLogger(getClass());
+    /** 号段存储 */
+    private final SegmentStore store;
+    /** 执行预取的执行器 */
+    private final Executor executor;
+    /** 最小号段长度 */
+    private final int minStep;
+    /** 最大号段长度 */
+    private final int maxStep;
+    /** 预取比例 */
+    private final double prefetchRatio;
+    /** 一个号段的目标使用时长(毫秒) */
+    private final long segmentDuration;
+    /** 业务标识对应的号段缓冲 */
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数，号段长度在 10000 ~ 1000000 之间调整，消耗20%时预取，在 {@link GlobalThreadPool} 中执行预取
+     * @param store 号段存储
+     */
+    public SegmentIdAllocator(SegmentStore store) {
+        this(store, DEFAULT_MIN_STEP, DEFAULT_MAX_STEP, DEFAULT_PREFETCH_RATIO, DEFAULT_SEGMENT_DURATION, task -> GlobalThreadPool.getInstance().execute(task));
+    }
+
+    /**
+     * 构造函数
+     * @param store 号段存储
+     * @param minStep 最小号段长度(初始长度)
+     * @param maxStep 最大号段长度
+     * @param prefetchRatio 当前号段消耗到该比例时预取下一个号段(0~1)
+     * @param segmentDuration 一个号段的目标使用时长(毫秒)，用于调整号段长度
+     * @param executor 执行预取的执行器
+     */
+    public SegmentIdAllocator(SegmentStore store, int minStep, int maxStep, double prefetchRatio, long segmentDuration, Executor executor) {
+        if (minStep <= 0 || maxStep < minStep) {
+            throw new IllegalArgumentException("Invalid step range: [" + minStep + ", " + maxStep + "]");
+        }
+        if (prefetchRatio < 0 || prefetchRatio >= 1) {
+            throw new IllegalArgumentException("prefetchRatio must be in range [0, 1): " + prefetchRatio);
+        }
+        this.store = store;
+        this.minStep = minStep;
+        this.maxStep = maxStep;
+        this.prefetchRatio = prefetchRatio;
+        this.segmentDuration = segmentDuration;
+        this.executor = executor;
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 获得业务标识的下一个ID (该方法是线程安全的)
+     * @param tag 业务标识
+     * @return ID
+     */
+    public long nextId(String tag) {
+        SegmentBuffer buffer = buffers.computeIfAbsent(tag, SegmentBuffer::new);
+        for (;;) {
+            Segment segment = buffer.current;
+            if (segment == null) {
+                buffer.switchSegment(null);
+                continue;
+            }
+            long value = segment.value.getAndIncrement();
+            if (value <= segment.max) {
+                if (value >= segment.prefetchValue && buffer.next == null && buffer.isPrefetchAllowed() && buffer.loading.compareAndSet(false, true)) {
+                    buffer.submitPrefetch();
+                }
+                return value;
+            }
+            buffer.switchSegment(segment);
+        }
+    }
+
+    /**
+     * 获得业务标识当前的号段长度
+     * @param tag 业务标识
+     * @return 号段长度，业务标识还没有使用过返回 0
+     */
+    public int getStep(String tag) {
+        SegmentBuffer buffer = buffers.get(tag);
+        return buffer == null ? 0 : buffer.step;
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 号段
+     */
+    private static class Segment {
+        /** 下一个ID */
+        private final AtomicLong value;
+        /** 最大ID(包含) */
+        private final long max;
+        /** 达到该值时预取下一个号段 */
+        private final long prefetchValue;
+
+        private Segment(long min, long max, long prefetchValue) {
+            this.value = new AtomicLong(min);
+            this.max = max;
+            this.prefetchValue = prefetchValue;
+        }
+    }
+
+    /**
+     * 业务标识的号段缓冲(当前号段 + 预取的下一个号段)
+     */
+    private class SegmentBuffer {
+        /** 业务标识 */
+        private final String tag;
+        /** 正在预取 */
+        private final AtomicBoolean loading = new AtomicBoolean();
+        /** 当前号段 */
+        private volatile Segment current;
+        /** 预取的下一个号段 */
+        private volatile Segment next;
+        /** 号段长度 */
+        private volatile int step = minStep;
+        /** 上一次预留号段的时间 */
+        private long lastReserveTime;
+        /** 预取失败后，允许下一次预取的时间，0 表示不限制 */
+        private volatile long prefetchRetryTime;
+        /** 预取失败后的重试间隔(毫秒) */
+        private long prefetchRetryDelay;
+
+        private SegmentBuffer(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * 当前号段用完时切换到下一个号段，下一个号段正在预取时等待预取完成，否则直接预留
+         * @param exhausted 已经用完的号段
+         */
+        private synchronized void switchSegment(Segment exhausted) {
+            if (current != exhausted) {
+                return;
+            }
+            if (loading.get()) {
+                long deadline = System.currentTimeMillis() + LOAD_WAIT_TIMEOUT;
+                long wait;
+                while (loading.get() && (wait = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        wait(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw ExceptionUtil.propagate(e);
+                    }
+                }
+            }
+            if (next != null) {
+                current = next;
+                next = null;
+                return;
+            }
+            current = reserve();
+        }
+
+        /**
+         * 判断是否允许预取：预取失败后按指数退避的间隔重试，避免每次分配ID都重新提交失败的预取
+         * @return 是否允许预取
+         */
+        private boolean isPrefetchAllowed() {
+            long retryTime = prefetchRetryTime;
+            return retryTime == 0 || System.currentTimeMillis() >= retryTime;
+        }
+
+        /**
+         * 提交预取任务，执行器拒绝时按预取失败处理
+         */
+        private void submitPrefetch() {
+            try {
+                executor.execute(this::prefetch);
+            } catch (RuntimeException e) {
+                logger.warn("#", e);
+                synchronized (this) {
+                    prefetchFailed();
+                    loading.set(false);
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * 预取下一个号段(在执行器中执行)
+         */
+        private void prefetch() {
+            try {
+                Segment segment = reserve();
+                synchronized (this) {
+                    next = segment;
+                    prefetchRetryDelay = 0;
+                    prefetchRetryTime = 0;
+                }
+            } catch (Throwable e) {
+                logger.warn("#", e);
+                synchronized (this) {
+                    prefetchFailed();
+                }
+            } finally {
+                synchronized (this) {
+                    loading.set(false);
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * 预取失败，加倍重试间隔(需要持有锁)
+         */
+        private void prefetchFailed() {
+            prefetchRetryDelay = prefetchRetryDelay == 0 ? PREFETCH_RETRY_DELAY : Math.min(prefetchRetryDelay * 2, MAX_PREFETCH_RETRY_DELAY);
+            prefetchRetryTime = System.currentTimeMillis() + prefetchRetryDelay;
+        }
+
+        /**
+         * 从存储中预留号段，并根据消耗速度调整下一次的号段长度
+         * @return 号段
+         */
+        private Segment reserve() {
+            int size;
+            synchronized (this) {
+                size = step;
+            }
+            long max = store.reserve(tag, size);
+            long min = max - size + 1;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                if (lastReserveTime != 0) {
+                    long duration = now - lastReserveTime;
+                    if (duration < segmentDuration) {
+                        step = (int) Math.min((long) step * 2, maxStep);
+                    } else if (duration > segmentDuration * 2) {
+                        step = Math.max(step / 2, minStep);
+                    }
+                }
+                lastReserveTime = now;
+            }
+            return new Segment(min, max, min + (long) (size * prefetchRatio));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.relucent.base.common.identifier;
+
+/**
+ * 号段存储<br>
+ * 为 {@link SegmentIdAllocator} 持久化每个业务标识已经分配的最大ID，实现必须保证多个进程同时预留时得到的区间不重叠。
+ * @see JdbcSegmentStore
+ */
+public interface SegmentStore {
+
+    /**
+     * 为业务标识预留一段ID
+     * @param tag 业务标识
+     * @param step 号段长度
+     * @return 预留之后的最大ID，预留的区间为 (maxId - step, maxId]
+     */
+    long reserve(String tag, int step);
+}
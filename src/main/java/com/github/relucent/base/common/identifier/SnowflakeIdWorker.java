@@ -1,5 +1,9 @@
 package com.github.relucent.base.common.identifier;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 import com.github.relucent.base.common.jvm.JvmUtil;
 import com.github.relucent.base.common.net.NetworkUtil;
 
@@ -12,7 +16,9 @@ import com.github.relucent.base.common.net.NetworkUtil;
  * 10位的数据机器位，可以部署在1024个节点，包括5位datacenterId和5位workerId<br>
  * 12位序列，毫秒内的计数，12位的计数顺序号支持每个节点每毫秒(同一机器，同一时间戳)产生4096个ID序号<br>
  * 加起来刚好64位，为一个Long型。<br>
- * SnowFlake的优点是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞(由数据中心ID和机器ID作区分)，并且效率较高，经测试，SnowFlake每秒能够产生26万ID左右。
+ * SnowFlake的优点是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞(由数据中心ID和机器ID作区分)，并且效率较高，经测试，SnowFlake每秒能够产生26万ID左右。<br>
+ * 实现是无锁的：时间戳和毫秒内序列合并保存在一个 long 中，通过 CAS 一次更新，批量获取ID ({@link #nextIds(int)}、{@link #reserveRange(int)}) 也只需要一次 CAS。<br>
+ * 可以开启借用未来时间的模式：毫秒内序列用尽或者时钟小幅回拨时，直接使用之后的时间戳继续生成（最多领先系统时钟指定的毫秒数），不需要等待时钟追上。
  */
 public class SnowflakeIdWorker {
     // ==============================Fields===========================================
@@ -58,11 +64,11 @@ public class SnowflakeIdWorker {
     /** 数据中心ID(0~31) */
     private long datacenterId;
 
-    /** 毫秒内序列(0~4095) */
-    private long sequence = 0L;
+    /** 上次生成ID的状态：(时间戳 - 开始时间戳) << 12 | 毫秒内序列 */
+    private final AtomicLong state = new AtomicLong();
 
-    /** 上次生成ID的时间戳 */
-    private long lastTimestamp = -1L;
+    /** 允许借用未来时间的最大毫秒数，0表示不借用 */
+    private final long maxBorrowMillis;
 
     // ==============================Constructors=====================================
     /**
@@ -71,6 +77,7 @@ public class SnowflakeIdWorker {
     public SnowflakeIdWorker() {
         this.datacenterId = getDatacenterId(maxDatacenterId);
         this.workerId = getMaxWorkerId(datacenterId, maxWorkerId);
+        this.maxBorrowMillis = 0L;
     }
 
     /**
@@ -79,6 +86,19 @@ public class SnowflakeIdWorker {
      * @param datacenterId 数据中心ID (0~31)
      */
     public SnowflakeIdWorker(long workerId, long datacenterId) {
+        this(workerId, datacenterId, 0L);
+    }
+
+    /**
+     * 构造函数
+     * @param workerId 工作ID (0~31)
+     * @param datacenterId 数据中心ID (0~31)
+     * @param maxBorrowMillis 允许借用未来时间的最大毫秒数，0表示不借用
+     */
+    public SnowflakeIdWorker(long workerId, long datacenterId, long maxBorrowMillis) {
+        if (maxBorrowMillis < 0) {
+            throw new IllegalArgumentException("max borrow millis can't be less than 0");
+        }
         if (workerId > maxWorkerId || workerId < 0) {
             throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
         }
@@ -87,6 +107,7 @@ public class SnowflakeIdWorker {
         }
         this.workerId = workerId;
         this.datacenterId = datacenterId;
+        this.maxBorrowMillis = maxBorrowMillis;
     }
 
     // ==============================Methods==========================================
@@ -94,44 +115,51 @@ public class SnowflakeIdWorker {
      * 获得下一个ID (该方法是线程安全的)
      * @return SnowflakeId
      */
-    public synchronized long nextId() {
-        long timestamp = timeGen();
+    public long nextId() {
+        return compose(reserve(1, null));
+    }
 
-        // 当前时间戳小于上一次ID生成的时间戳
-        if (timestamp < lastTimestamp) {
-            long offset = lastTimestamp - timestamp;
-            // 系统时钟回退在容忍范围内，例如出现过闰秒
-            if (offset < timeOffset) {
-                timestamp = lastTimestamp;
-            }
-            // 系统时钟回退超出容忍范围，过这个时候应当抛出异常
-            else {
-                throw new RuntimeException(String.format("Clock moved backwards. Refusing to generate id for %d milliseconds", offset));
-            }
+    /**
+     * 批量获得ID (该方法是线程安全的)，返回的ID按从小到大排列
+     * @param n ID数量
+     * @return SnowflakeId数组
+     */
+    public long[] nextIds(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n can't be less than 0");
         }
-
-        // 如果是同一时间生成的，则进行毫秒内序列
-        if (lastTimestamp == timestamp) {
-            sequence = (sequence + 1) & sequenceMask;
-            // 毫秒内序列溢出
-            if (sequence == 0) {
-                // 阻塞到下一个毫秒,获得新的时间戳
-                timestamp = tilNextMillis(lastTimestamp);
+        long[] ids = new long[n];
+        int[] granted = new int[1];
+        for (int offset = 0; offset < n; offset += granted[0]) {
+            long start = reserve(n - offset, granted);
+            for (int i = 0; i < granted[0]; i++) {
+                ids[offset + i] = compose(start + i);
             }
         }
-        // 时间戳改变，毫秒内序列重置
-        else {
-            sequence = 0L;
-        }
+        return ids;
+    }
 
-        // 上次生成ID的时间戳
-        lastTimestamp = timestamp;
+    /**
+     * 预留一段连续的ID (该方法是线程安全的)，只需要一次 CAS<br>
+     * 不借用未来时间时，一段ID不会跨越当前毫秒，所以返回的数量可能小于请求的数量。
+     * @param n 请求的ID数量
+     * @return 预留的ID区间，数量在 1 ~ n 之间
+     */
+    public Range reserveRange(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be greater than 0");
+        }
+        int[] granted = new int[1];
+        long start = reserve(n, granted);
+        return new Range(start, granted[0]);
+    }
 
-        // 移位并通过或运算拼到一起组成64位的ID
-        return ((timestamp - twepoch) << timestampLeftShift) //
-                | (datacenterId << datacenterIdShift) //
-                | (workerId << workerIdShift) //
-                | sequence;
+    /**
+     * 获得允许借用未来时间的最大毫秒数
+     * @return 允许借用未来时间的最大毫秒数，0表示不借用
+     */
+    public long getMaxBorrowMillis() {
+        return maxBorrowMillis;
     }
 
     /**
@@ -142,6 +170,12 @@ public class SnowflakeIdWorker {
     protected long tilNextMillis(long lastTimestamp) {
         long timestamp = timeGen();
         while (timestamp <= lastTimestamp) {
+            long wait = lastTimestamp - timestamp;
+            if (wait > 1) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(wait - 1));
+            } else {
+                Thread.yield();
+            }
             timestamp = timeGen();
         }
         return timestamp;
@@ -185,4 +219,130 @@ public class SnowflakeIdWorker {
         StringBuilder mpid = new StringBuilder().append(datacenterId).append(JvmUtil.getPid());
         return (mpid.toString().hashCode() & 0xffff) % (maxWorkerId + 1);
     }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 预留一段连续的状态值(时间戳和毫秒内序列)
+     * @param n 请求的数量
+     * @param granted 用于返回实际预留的数量，可以为{@code null}
+     * @return 预留的第一个状态值
+     */
+    private long reserve(int n, int[] granted) {
+        for (;;) {
+            long current = state.get();
+            long lastTimestamp = current >>> sequenceBits;
+            long timestamp = timeGen() - twepoch;
+            long start;
+            // 时间戳改变，毫秒内序列重置
+            if (timestamp > lastTimestamp) {
+                start = timestamp << sequenceBits;
+            }
+            // 同一时间生成的，或者系统时钟回退，继续使用上次的时间戳进行毫秒内序列
+            else {
+                long offset = lastTimestamp - timestamp;
+                // 系统时钟回退超出容忍范围，过这个时候应当抛出异常
+                if (offset >= timeOffset + maxBorrowMillis) {
+                    throw new RuntimeException(String.format("Clock moved backwards. Refusing to generate id for %d milliseconds", offset));
+                }
+                start = current + 1;
+            }
+            // 可以使用的最大时间戳：当前时间戳加上允许借用的时间，时钟回退在容忍范围内时可以继续使用上次的时间戳
+            long limit = Math.max(timestamp + maxBorrowMillis, lastTimestamp);
+            long maxState = ((limit + 1) << sequenceBits) - 1;
+            // 毫秒内序列溢出，并且不能再借用未来时间，等待时钟前进
+            if (start > maxState) {
+                tilNextMillis(twepoch + lastTimestamp - maxBorrowMillis);
+                continue;
+            }
+            long end = Math.min(start + n - 1, maxState);
+            if (state.compareAndSet(current, end)) {
+                if (granted != null) {
+                    granted[0] = (int) (end - start + 1);
+                }
+                return start;
+            }
+        }
+    }
+
+    /**
+     * 将状态值(时间戳和毫秒内序列)移位并通过或运算拼到一起组成64位的ID
+     * @param value 状态值
+     * @return SnowflakeId
+     */
+    private long compose(long value) {
+        return ((value >>> sequenceBits) << timestampLeftShift) //
+                | (datacenterId << datacenterIdShift) //
+                | (workerId << workerIdShift) //
+                | (value & sequenceMask);
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 预留的一段连续ID
+     */
+    public class Range {
+
+        /** 第一个状态值 */
+        private final long start;
+        /** ID数量 */
+        private final int size;
+
+        /**
+         * 构造函数
+         * @param start 第一个状态值
+         * @param size ID数量
+         */
+        private Range(long start, int size) {
+            this.start = start;
+            this.size = size;
+        }
+
+        /**
+         * 获得ID数量
+         * @return ID数量
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 获得指定位置的ID
+         * @param index 位置(0 ~ size-1)
+         * @return SnowflakeId
+         */
+        public long get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return compose(start + index);
+        }
+
+        /**
+         * 获得第一个ID
+         * @return SnowflakeId
+         */
+        public long getFirst() {
+            return compose(start);
+        }
+
+        /**
+         * 获得最后一个ID
+         * @return SnowflakeId
+         */
+        public long getLast() {
+            return compose(start + size - 1);
+        }
+
+        /**
+         * 获得区间内的全部ID
+         * @return SnowflakeId数组
+         */
+        public long[] toArray() {
+            long[] ids = new long[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = compose(start + i);
+            }
+            return ids;
+        }
+    }
 }
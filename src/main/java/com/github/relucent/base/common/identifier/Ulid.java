@@ -1,6 +1,8 @@
 package com.github.relucent.base.common.identifier;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.Arrays;
@@ -8,8 +10,6 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * ULID（Universally Unique Lexicographically Sortable Identifier）唯一标识符实现。<br>
@@ -25,14 +25,12 @@ import java.util.concurrent.locks.ReentrantLock;
 public final class Ulid implements Serializable, Comparable<Ulid> {
 
     /** 时钟漂移容限 */
-    private static final int CLOCK_DRIFT_TOLERANCE = 10_000;
+    static final int CLOCK_DRIFT_TOLERANCE = 10_000;
 
     /** 单调递增控制器 */
     private static class MonotonicHolder {
         /** 随机数生成器 */
         static final Random ENTROPY = new SecureRandom();
-        /** 同步锁 */
-        static final Lock LOCK = new ReentrantLock();
         /** 上一次的ULID（用来控制单调递） */
         static final AtomicReference<Ulid> LAST_ULID = new AtomicReference<>(Ulid.MIN);
     }
@@ -90,7 +88,7 @@ public final class Ulid implements Serializable, Comparable<Ulid> {
     public static final Ulid MAX = new Ulid(0xffffffffffffffffL, 0xffffffffffffffffL);
 
     private static final byte[] ALPHABET_VALUES = new byte[256];
-    private static final char[] ALPHABET_UPPERCASE = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    static final char[] ALPHABET_UPPERCASE = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
     private static final char[] ALPHABET_LOWERCASE = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
 
     static {
@@ -204,28 +202,54 @@ public final class Ulid implements Serializable, Comparable<Ulid> {
      * 生成一个ULID。<br>
      * 在生成多个 ULIDs 时，它可以确保即便在同一毫秒内生成多个 ULIDs，它们依然有序。<br>
      * 内部维护一个“上次生成时间 + 随机种子”组合，当同一毫秒内生成多个 ULID 时，它保证第二个比第一个大（通过递增随机部分）<br>
+     * 所有线程共享同一个单调序列（通过 CAS 更新，不加锁），如果只需要同一线程内有序，使用 {@link UlidGenerator} 可以避免线程之间的竞争。
      * @return ULID对象
      */
     public static Ulid create() {
         final long time = System.currentTimeMillis();
-        MonotonicHolder.LOCK.lock();
-        try {
-            Ulid lastUlid = MonotonicHolder.LAST_ULID.get();
-            final long lastTime = lastUlid.getTime();
-            if ((time > lastTime - CLOCK_DRIFT_TOLERANCE) && (time <= lastTime)) {
-                lastUlid = lastUlid.increment();
-            } else {
-                final byte[] random = new byte[Ulid.RANDOM_BYTES];
-                MonotonicHolder.ENTROPY.nextBytes(random);
-                lastUlid = new Ulid(time, random);
+        for (;;) {
+            final Ulid lastUlid = MonotonicHolder.LAST_ULID.get();
+            final Ulid ulid = nextMonotonic(lastUlid, time);
+            if (MonotonicHolder.LAST_ULID.compareAndSet(lastUlid, ulid)) {
+                return ulid;
             }
-            MonotonicHolder.LAST_ULID.set(lastUlid);
-            return new Ulid(lastUlid);
-        } finally {
-            MonotonicHolder.LOCK.unlock();
         }
     }
 
+    /**
+     * 批量生成ULID。<br>
+     * 与 {@link #create()} 共享同一个单调序列，一次 CAS 预留连续的 n 个ULID，返回的ULID按从小到大排列。
+     * @param n ULID数量
+     * @return ULID数组
+     */
+    public static Ulid[] create(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n can't be less than 0");
+        }
+        final Ulid[] ulids = new Ulid[n];
+        if (n == 0) {
+            return ulids;
+        }
+        final long time = System.currentTimeMillis();
+        Ulid first;
+        for (;;) {
+            final Ulid lastUlid = MonotonicHolder.LAST_ULID.get();
+            first = nextMonotonic(lastUlid, time);
+            if (MonotonicHolder.LAST_ULID.compareAndSet(lastUlid, first.plus(n - 1))) {
+                break;
+            }
+        }
+        long msb = first.msb;
+        long lsb = first.lsb;
+        for (int i = 0; i < n; i++) {
+            ulids[i] = new Ulid(msb, lsb);
+            if (++lsb == INCREMENT_OVERFLOW) {
+                msb++;
+            }
+        }
+        return ulids;
+    }
+
     /**
      * 回指定时间的最小ULID。<br>
      * 时间部分48位填充指定时间，随机部分80位全为0。<br>
@@ -360,27 +384,8 @@ public final class Ulid implements Serializable, Comparable<Ulid> {
      * @return 包含 16 字节的数组
      */
     public byte[] toBytes() {
-
         final byte[] bytes = new byte[ULID_BYTES];
-
-        bytes[0x0] = (byte) (msb >>> 56);
-        bytes[0x1] = (byte) (msb >>> 48);
-        bytes[0x2] = (byte) (msb >>> 40);
-        bytes[0x3] = (byte) (msb >>> 32);
-        bytes[0x4] = (byte) (msb >>> 24);
-        bytes[0x5] = (byte) (msb >>> 16);
-        bytes[0x6] = (byte) (msb >>> 8);
-        bytes[0x7] = (byte) (msb);
-
-        bytes[0x8] = (byte) (lsb >>> 56);
-        bytes[0x9] = (byte) (lsb >>> 48);
-        bytes[0xa] = (byte) (lsb >>> 40);
-        bytes[0xb] = (byte) (lsb >>> 32);
-        bytes[0xc] = (byte) (lsb >>> 24);
-        bytes[0xd] = (byte) (lsb >>> 16);
-        bytes[0xe] = (byte) (lsb >>> 8);
-        bytes[0xf] = (byte) (lsb);
-
+        encode(msb, lsb, bytes, 0);
         return bytes;
     }
 
@@ -407,6 +412,37 @@ public final class Ulid implements Serializable, Comparable<Ulid> {
         return toString(ALPHABET_LOWERCASE);
     }
 
+    /**
+     * 将 ULID 的大写规范字符串直接写入字符数组，不创建中间字符串。
+     * @param dest 目标字符数组
+     * @param offset 写入的开始位置，需要 {@link #ULID_CHARS} 个字符的空间
+     * @return 写入后的位置
+     */
+    public int writeTo(char[] dest, int offset) {
+        encode(msb, lsb, ALPHABET_UPPERCASE, dest, offset);
+        return offset + ULID_CHARS;
+    }
+
+    /**
+     * 将 ULID 的 16 字节二进制形式（与 {@link #toBytes()} 相同）直接写入字节数组。
+     * @param dest 目标字节数组
+     * @param offset 写入的开始位置，需要 {@link #ULID_BYTES} 个字节的空间
+     * @return 写入后的位置
+     */
+    public int writeTo(byte[] dest, int offset) {
+        encode(msb, lsb, dest, offset);
+        return offset + ULID_BYTES;
+    }
+
+    /**
+     * 将 ULID 的 16 字节二进制形式（与 {@link #toBytes()} 相同，不受缓冲区字节序影响）写入缓冲区的当前位置。
+     * @param dest 目标缓冲区，需要 {@link #ULID_BYTES} 个字节的剩余空间
+     * @return 目标缓冲区
+     */
+    public ByteBuffer writeTo(ByteBuffer dest) {
+        return encode(msb, lsb, dest);
+    }
+
     /**
      * 将 ULID 转换为与 UUIDv4 兼容的另一 ULID。<br>
      * 返回的 ULID 字节符合 RFC-4122 第 4 版规范。<br>
@@ -590,6 +626,17 @@ public final class Ulid implements Serializable, Comparable<Ulid> {
         return new Ulid(newMsb, newLsb);
     }
 
+    /**
+     * 将随机部分加上指定的数值生成一个新 ULID，溢出时进位到时间部分（与连续调用 {@link #increment()} 的结果相同）。
+     * @param delta 增加的数值(非负数)
+     * @return 一个新的 ULID
+     */
+    Ulid plus(long delta) {
+        final long newLsb = this.lsb + delta;
+        final long newMsb = Long.compareUnsigned(newLsb, this.lsb) < 0 ? this.msb + 1 : this.msb;
+        return new Ulid(newMsb, newLsb);
+    }
+
     /**
      * 检查输入字符串是否为有效 ULID。<br>
      * 输入字符串必须为 26 个字符，并且只能包含 Crockford Base32 字母表中的字符。<br>
@@ -666,43 +713,118 @@ public final class Ulid implements Serializable, Comparable<Ulid> {
     }
 
     String toString(char[] alphabet) {
-
         final char[] chars = new char[ULID_CHARS];
+        encode(msb, lsb, alphabet, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * 将 ULID 编码为 Crockford Base32 字符写入字符数组
+     * @param msb 最高有效位
+     * @param lsb 最低有效位
+     * @param alphabet 字母表
+     * @param dest 目标字符数组
+     * @param offset 写入的开始位置
+     */
+    static void encode(long msb, long lsb, char[] alphabet, char[] dest, int offset) {
+
+        if (offset < 0 || offset > dest.length - ULID_CHARS) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + dest.length);
+        }
 
-        long time = this.msb >>> 16;
-        long random0 = ((this.msb & 0xffffL) << 24) | (this.lsb >>> 40);
-        long random1 = (this.lsb & 0xffffffffffL);
-
-        chars[0x00] = alphabet[(int) (time >>> 45 & 0b11111)];
-        chars[0x01] = alphabet[(int) (time >>> 40 & 0b11111)];
-        chars[0x02] = alphabet[(int) (time >>> 35 & 0b11111)];
-        chars[0x03] = alphabet[(int) (time >>> 30 & 0b11111)];
-        chars[0x04] = alphabet[(int) (time >>> 25 & 0b11111)];
-        chars[0x05] = alphabet[(int) (time >>> 20 & 0b11111)];
-        chars[0x06] = alphabet[(int) (time >>> 15 & 0b11111)];
-        chars[0x07] = alphabet[(int) (time >>> 10 & 0b11111)];
-        chars[0x08] = alphabet[(int) (time >>> 5 & 0b11111)];
-        chars[0x09] = alphabet[(int) (time & 0b11111)];
-
-        chars[0x0a] = alphabet[(int) (random0 >>> 35 & 0b11111)];
-        chars[0x0b] = alphabet[(int) (random0 >>> 30 & 0b11111)];
-        chars[0x0c] = alphabet[(int) (random0 >>> 25 & 0b11111)];
-        chars[0x0d] = alphabet[(int) (random0 >>> 20 & 0b11111)];
-        chars[0x0e] = alphabet[(int) (random0 >>> 15 & 0b11111)];
-        chars[0x0f] = alphabet[(int) (random0 >>> 10 & 0b11111)];
-        chars[0x10] = alphabet[(int) (random0 >>> 5 & 0b11111)];
-        chars[0x11] = alphabet[(int) (random0 & 0b11111)];
-
-        chars[0x12] = alphabet[(int) (random1 >>> 35 & 0b11111)];
-        chars[0x13] = alphabet[(int) (random1 >>> 30 & 0b11111)];
-        chars[0x14] = alphabet[(int) (random1 >>> 25 & 0b11111)];
-        chars[0x15] = alphabet[(int) (random1 >>> 20 & 0b11111)];
-        chars[0x16] = alphabet[(int) (random1 >>> 15 & 0b11111)];
-        chars[0x17] = alphabet[(int) (random1 >>> 10 & 0b11111)];
-        chars[0x18] = alphabet[(int) (random1 >>> 5 & 0b11111)];
-        chars[0x19] = alphabet[(int) (random1 & 0b11111)];
+        long time = msb >>> 16;
+        long random0 = ((msb & 0xffffL) << 24) | (lsb >>> 40);
+        long random1 = (lsb & 0xffffffffffL);
+
+        dest[offset + 0x00] = alphabet[(int) (time >>> 45 & 0b11111)];
+        dest[offset + 0x01] = alphabet[(int) (time >>> 40 & 0b11111)];
+        dest[offset + 0x02] = alphabet[(int) (time >>> 35 & 0b11111)];
+        dest[offset + 0x03] = alphabet[(int) (time >>> 30 & 0b11111)];
+        dest[offset + 0x04] = alphabet[(int) (time >>> 25 & 0b11111)];
+        dest[offset + 0x05] = alphabet[(int) (time >>> 20 & 0b11111)];
+        dest[offset + 0x06] = alphabet[(int) (time >>> 15 & 0b11111)];
+        dest[offset + 0x07] = alphabet[(int) (time >>> 10 & 0b11111)];
+        dest[offset + 0x08] = alphabet[(int) (time >>> 5 & 0b11111)];
+        dest[offset + 0x09] = alphabet[(int) (time & 0b11111)];
+
+        dest[offset + 0x0a] = alphabet[(int) (random0 >>> 35 & 0b11111)];
+        dest[offset + 0x0b] = alphabet[(int) (random0 >>> 30 & 0b11111)];
+        dest[offset + 0x0c] = alphabet[(int) (random0 >>> 25 & 0b11111)];
+        dest[offset + 0x0d] = alphabet[(int) (random0 >>> 20 & 0b11111)];
+        dest[offset + 0x0e] = alphabet[(int) (random0 >>> 15 & 0b11111)];
+        dest[offset + 0x0f] = alphabet[(int) (random0 >>> 10 & 0b11111)];
+        dest[offset + 0x10] = alphabet[(int) (random0 >>> 5 & 0b11111)];
+        dest[offset + 0x11] = alphabet[(int) (random0 & 0b11111)];
+
+        dest[offset + 0x12] = alphabet[(int) (random1 >>> 35 & 0b11111)];
+        dest[offset + 0x13] = alphabet[(int) (random1 >>> 30 & 0b11111)];
+        dest[offset + 0x14] = alphabet[(int) (random1 >>> 25 & 0b11111)];
+        dest[offset + 0x15] = alphabet[(int) (random1 >>> 20 & 0b11111)];
+        dest[offset + 0x16] = alphabet[(int) (random1 >>> 15 & 0b11111)];
+        dest[offset + 0x17] = alphabet[(int) (random1 >>> 10 & 0b11111)];
+        dest[offset + 0x18] = alphabet[(int) (random1 >>> 5 & 0b11111)];
+        dest[offset + 0x19] = alphabet[(int) (random1 & 0b11111)];
+    }
+
+    /**
+     * 将 ULID 的二进制形式写入字节数组
+     * @param msb 最高有效位
+     * @param lsb 最低有效位
+     * @param dest 目标字节数组
+     * @param offset 写入的开始位置
+     */
+    static void encode(long msb, long lsb, byte[] dest, int offset) {
+
+        if (offset < 0 || offset > dest.length - ULID_BYTES) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + dest.length);
+        }
 
-        return new String(chars);
+        dest[offset + 0x0] = (byte) (msb >>> 56);
+        dest[offset + 0x1] = (byte) (msb >>> 48);
+        dest[offset + 0x2] = (byte) (msb >>> 40);
+        dest[offset + 0x3] = (byte) (msb >>> 32);
+        dest[offset + 0x4] = (byte) (msb >>> 24);
+        dest[offset + 0x5] = (byte) (msb >>> 16);
+        dest[offset + 0x6] = (byte) (msb >>> 8);
+        dest[offset + 0x7] = (byte) (msb);
+
+        dest[offset + 0x8] = (byte) (lsb >>> 56);
+        dest[offset + 0x9] = (byte) (lsb >>> 48);
+        dest[offset + 0xa] = (byte) (lsb >>> 40);
+        dest[offset + 0xb] = (byte) (lsb >>> 32);
+        dest[offset + 0xc] = (byte) (lsb >>> 24);
+        dest[offset + 0xd] = (byte) (lsb >>> 16);
+        dest[offset + 0xe] = (byte) (lsb >>> 8);
+        dest[offset + 0xf] = (byte) (lsb);
+    }
+
+    /**
+     * 将 ULID 的二进制形式(大端序)写入缓冲区
+     * @param msb 最高有效位
+     * @param lsb 最低有效位
+     * @param dest 目标缓冲区
+     * @return 目标缓冲区
+     */
+    static ByteBuffer encode(long msb, long lsb, ByteBuffer dest) {
+        if (dest.order() == ByteOrder.BIG_ENDIAN) {
+            return dest.putLong(msb).putLong(lsb);
+        }
+        return dest.putLong(Long.reverseBytes(msb)).putLong(Long.reverseBytes(lsb));
+    }
+
+    /**
+     * 计算单调递增的下一个ULID
+     * @param lastUlid 上一次的ULID
+     * @param time 当前时间
+     * @return 下一个ULID
+     */
+    private static Ulid nextMonotonic(Ulid lastUlid, long time) {
+        final long lastTime = lastUlid.getTime();
+        if ((time > lastTime - CLOCK_DRIFT_TOLERANCE) && (time <= lastTime)) {
+            return lastUlid.increment();
+        }
+        final Random entropy = MonotonicHolder.ENTROPY;
+        return new Ulid((time << 16) | (entropy.nextInt() & 0xffffL), entropy.nextLong());
     }
 
     static char[] toCharArray(String string) {
@@ -0,0 +1,178 @@
+package com.github.relucent.base.common.identifier;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 单调递增的 ULID 生成器<br>
+ * 每个线程维护独立的单调状态（上次的时间和随机部分），线程之间没有任何竞争；同一线程生成的 ULID 严格递增，不同线程之间只按毫秒有序。<br>
+ * 同一毫秒内只递增随机部分，只有毫秒改变时才读取一次随机数，并且直接生成两个 long，不创建随机字节数组。<br>
+ * 除了返回 {@link Ulid} 对象之外，还可以把生成的 ULID 直接写入调用方提供的 {@code char[]}、{@code byte[]}、{@link ByteBuffer}，不创建任何中间对象。<br>
+ * 如果需要所有线程共享一个严格递增的序列，使用 {@link Ulid#create()}。
+ */
+public class UlidGenerator {
+
+    // ==============================Fields===========================================
+    /** 每个线程的单调状态 */
+    private final ThreadLocal<State> states;
+
+    // ==============================Construction=====================================
+    /**
+     * 获得默认的生成器，每个线程使用独立的 {@link SecureRandom}
+     * @return 默认的生成器
+     */
+    public static UlidGenerator getInstance() {
+        return SecureHolder.INSTANCE;
+    }
+
+    /**
+     * 获得快速的生成器，使用 {@link ThreadLocalRandom}，性能很好，但不具备密码学强度，适用于日志记录等场景。
+     * @return 快速的生成器
+     */
+    public static UlidGenerator fast() {
+        return FastHolder.INSTANCE;
+    }
+
+    /** 单例模式用于延迟初始化 */
+    private static class SecureHolder {
+        static final UlidGenerator INSTANCE = new UlidGenerator(SecureRandom::new);
+    }
+
+    /** 单例模式用于延迟初始化 */
+    private static class FastHolder {
+        static final UlidGenerator INSTANCE = new UlidGenerator(ThreadLocalRandom::current);
+    }
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param randomSupplier 随机数生成器的提供者，每个线程第一次生成时调用一次
+     */
+    public UlidGenerator(Supplier<? extends Random> randomSupplier) {
+        this.states = ThreadLocal.withInitial(() -> new State(randomSupplier.get()));
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 生成一个ULID
+     * @return ULID对象
+     */
+    public Ulid create() {
+        State state = states.get();
+        state.next(System.currentTimeMillis());
+        return new Ulid(state.msb, state.lsb);
+    }
+
+    /**
+     * 批量生成ULID，只读取一次时间，返回的ULID按从小到大排列
+     * @param n ULID数量
+     * @return ULID数组
+     */
+    public Ulid[] create(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n can't be less than 0");
+        }
+        Ulid[] ulids = new Ulid[n];
+        State state = states.get();
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            state.next(time);
+            ulids[i] = new Ulid(state.msb, state.lsb);
+        }
+        return ulids;
+    }
+
+    /**
+     * 生成 n 个ULID，将大写规范字符串依次写入字符数组
+     * @param dest 目标字符数组
+     * @param offset 写入的开始位置，需要 n * {@link Ulid#ULID_CHARS} 个字符的空间
+     * @param n ULID数量
+     * @return 写入后的位置
+     */
+    public int create(char[] dest, int offset, int n) {
+        State state = states.get();
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            state.next(time);
+            Ulid.encode(state.msb, state.lsb, Ulid.ALPHABET_UPPERCASE, dest, offset);
+            offset += Ulid.ULID_CHARS;
+        }
+        return offset;
+    }
+
+    /**
+     * 生成 n 个ULID，将 16 字节的二进制形式依次写入字节数组
+     * @param dest 目标字节数组
+     * @param offset 写入的开始位置，需要 n * {@link Ulid#ULID_BYTES} 个字节的空间
+     * @param n ULID数量
+     * @return 写入后的位置
+     */
+    public int create(byte[] dest, int offset, int n) {
+        State state = states.get();
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            state.next(time);
+            Ulid.encode(state.msb, state.lsb, dest, offset);
+            offset += Ulid.ULID_BYTES;
+        }
+        return offset;
+    }
+
+    /**
+     * 生成 n 个ULID，将 16 字节的二进制形式(大端序)依次写入缓冲区的当前位置
+     * @param dest 目标缓冲区，需要 n * {@link Ulid#ULID_BYTES} 个字节的剩余空间
+     * @param n ULID数量
+     * @return 目标缓冲区
+     */
+    public ByteBuffer create(ByteBuffer dest, int n) {
+        State state = states.get();
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            state.next(time);
+            Ulid.encode(state.msb, state.lsb, dest);
+        }
+        return dest;
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 线程的单调状态
+     */
+    private static class State {
+
+        /** 随机数生成器 */
+        private final Random random;
+        /** 上一次的最高有效位 */
+        private long msb;
+        /** 上一次的最低有效位 */
+        private long lsb;
+
+        /**
+         * 构造函数
+         * @param random 随机数生成器
+         */
+        private State(Random random) {
+            this.random = random;
+        }
+
+        /**
+         * 计算下一个ULID，同一毫秒内（或者时钟回拨在容限内）递增随机部分，否则重新生成随机部分
+         * @param time 当前时间
+         */
+        private void next(long time) {
+            long lastTime = msb >>> 16;
+            if ((time > lastTime - Ulid.CLOCK_DRIFT_TOLERANCE) && (time <= lastTime)) {
+                // 随机部分溢出时进位到时间部分，保持单调
+                if (++lsb == 0L) {
+                    msb++;
+                }
+            } else {
+                msb = (time << 16) | (random.nextInt() & 0xffffL);
+                lsb = random.nextLong();
+            }
+        }
+    }
+}
@@ -36,6 +36,11 @@ public class DelegatingDialect implements Dialect {
         return dialectHolder.get().getLimitSql(sql, start, limit);
     }
 
+    @Override
+    public LimitSqlTemplate getLimitSqlTemplate(String sql) {
+        return dialectHolder.get().getLimitSqlTemplate(sql);
+    }
+
     @Override
     public String getCountSql(String sql) {
         return dialectHolder.get().getCountSql(sql);
@@ -15,6 +15,16 @@ public interface Dialect {
      */
     String getLimitSql(String sql, long start, long limit);
 
+    /**
+     * 获得参数化的分页SQL模板（偏移量和数量使用 ? 占位符，占位符都位于原始SQL之后）<br>
+     * 不同页的分页SQL相同，可以利用语句缓存和执行计划缓存。
+     * @param sql 原始SQL
+     * @return 分页SQL模板，方言不支持参数化分页时返回 {@code null}(使用 {@link #getLimitSql(String, long, long)})
+     */
+    default LimitSqlTemplate getLimitSqlTemplate(String sql) {
+        return null;
+    }
+
     /**
      * 将SQL转换为总记录数SQL
      * @param sql SQL语句
@@ -0,0 +1,17 @@
+package com.github.relucent.base.common.jdbc;
+
+/**
+ * 数据库方言提供者(SPI)，用于注册自定义的数据库方言<br>
+ * 在 {@code META-INF/services/com.github.relucent.base.common.jdbc.DialectProvider} 文件中声明实现类，或者通过
+ * {@link DialectRouteUtil#registerProvider(DialectProvider)} 注册。提供者先于内置的方言匹配。
+ */
+@FunctionalInterface
+public interface DialectProvider {
+
+    /**
+     * 根据JDBC连接地址获得数据库方言
+     * @param jdbcUrl JDBC连接地址
+     * @return 数据库方言，不支持该数据库时返回 {@code null}
+     */
+    Dialect getDialect(String jdbcUrl);
+}
@@ -2,24 +2,48 @@ package com.github.relucent.base.common.jdbc;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import javax.sql.DataSource;
+
+import com.github.relucent.base.common.collection.WeakConcurrentMap;
 import com.github.relucent.base.common.jdbc.impl.Db2Dialect;
 import com.github.relucent.base.common.jdbc.impl.HsqldbDialect;
 import com.github.relucent.base.common.jdbc.impl.InformixDialect;
 import com.github.relucent.base.common.jdbc.impl.MySqlDialect;
 import com.github.relucent.base.common.jdbc.impl.OracleDialect;
 import com.github.relucent.base.common.jdbc.impl.PostgreSqlDialect;
+import com.github.relucent.base.common.lang.ServiceLoaderUtil;
+import com.github.relucent.base.common.logging.Logger;
 
 /**
- * 数据库方言路由工具类
+ * 数据库方言路由工具类<br>
+ * 根据JDBC连接地址匹配数据库方言：先匹配注册的 {@link DialectProvider}，再按连接地址中的子协议(如 jdbc:mysql: 中的 mysql)匹配方言别名。<br>
+ * 匹配的结果按连接地址和数据源缓存，使用 {@link #getDialect(DataSource, Connection)} 时同一个数据源只读取一次连接的元数据。<br>
+ * 路由数据源(例如 Spring 的 AbstractRoutingDataSource、多租户的动态数据源)的不同连接可能指向不同的数据库，类名以 RoutingDataSource 结尾的数据源不按数据源缓存，每次读取连接地址；
+ * 其它名称的自定义路由数据源需要通过 {@link #setCacheByDataSource(boolean)} 关闭按数据源缓存，或者通过 {@link #setDialect(DataSource, Dialect)} 指定方言。
  * @author YYL
  */
 public class DialectRouteUtil {
 
     private static final Map<String, Class<? extends Dialect>> DIALECT_ALIAS_MAP = new ConcurrentHashMap<>();
     private static final Map<String, Dialect> URL_DIALECT_MAP = new ConcurrentHashMap<>();
+    private static final Map<Class<? extends Dialect>, Dialect> DIALECT_INSTANCE_MAP = new ConcurrentHashMap<>();
+    /** 数据源显式指定的方言 */
+    private static final Map<DataSource, Dialect> DATA_SOURCE_DIALECT_MAP = new WeakConcurrentMap<>();
+    /** 数据源匹配到的方言 */
+    private static final Map<DataSource, Dialect> DATA_SOURCE_DIALECT_CACHE = new WeakConcurrentMap<>();
+    private static final List<DialectProvider> PROVIDERS = new CopyOnWriteArrayList<>();
+    /** 路由数据源的类名后缀 */
+    private static final String ROUTING_DATA_SOURCE_SUFFIX = "RoutingDataSource";
+    /** 是否按数据源缓存匹配到的方言 */
+    private static volatile boolean cacheByDataSource = true;
+    private static final Logger LOGGER = Logger.getLogger(DialectRouteUtil.class);
 
     private DialectRouteUtil() {
     }
@@ -51,6 +75,16 @@ public class DialectRouteUtil {
         // INFORMIX
         DIALECT_ALIAS_MAP.put("informix", InformixDialect.class);
         DIALECT_ALIAS_MAP.put("informix-sqli", InformixDialect.class);
+
+        // SPI
+        Iterator<DialectProvider> iterator = ServiceLoaderUtil.load(DialectProvider.class).iterator();
+        while (iterator.hasNext()) {
+            try {
+                PROVIDERS.add(iterator.next());
+            } catch (ServiceConfigurationError e) {
+                LOGGER.warn("#", e);
+            }
+        }
     }
 
     /**
@@ -70,27 +104,159 @@ public class DialectRouteUtil {
         return dialect;
     }
 
+    /**
+     * 获取数据源的数据库方言：优先使用数据源显式指定的方言，其次根据连接地址匹配(开启按数据源缓存时，同一个数据源只在第一次调用时读取连接的元数据)
+     * @param dataSource 数据源
+     * @param conn 该数据源的数据库连接
+     * @return 数据库方言
+     * @throws SQLException SQL异常
+     */
+    public static Dialect getDialect(DataSource dataSource, Connection conn) throws SQLException {
+        Dialect dialect = DATA_SOURCE_DIALECT_MAP.get(dataSource);
+        if (dialect != null) {
+            return dialect;
+        }
+        if (!cacheByDataSource || isRoutingDataSource(dataSource)) {
+            return getDialect(conn);
+        }
+        dialect = DATA_SOURCE_DIALECT_CACHE.get(dataSource);
+        if (dialect == null) {
+            dialect = getDialect(conn);
+            DATA_SOURCE_DIALECT_CACHE.put(dataSource, dialect);
+        }
+        return dialect;
+    }
+
+    /**
+     * 设置是否按数据源缓存匹配到的方言(默认为 {@code true}，同一个数据源只读取一次连接的元数据)<br>
+     * 使用类名不以 RoutingDataSource 结尾的自定义路由数据源时需要关闭，关闭后每次根据连接地址匹配；也可以使用 {@link #setDialect(DataSource, Dialect)} 指定方言。
+     * @param cacheByDataSource 是否按数据源缓存
+     */
+    public static void setCacheByDataSource(boolean cacheByDataSource) {
+        DialectRouteUtil.cacheByDataSource = cacheByDataSource;
+        DATA_SOURCE_DIALECT_CACHE.clear();
+    }
+
+    /**
+     * 指定数据源的数据库方言(不再根据连接地址匹配)
+     * @param dataSource 数据源
+     * @param dialect 数据库方言，为 {@code null} 时取消指定
+     */
+    public static void setDialect(DataSource dataSource, Dialect dialect) {
+        if (dialect == null) {
+            DATA_SOURCE_DIALECT_MAP.remove(dataSource);
+        } else {
+            DATA_SOURCE_DIALECT_MAP.put(dataSource, dialect);
+        }
+    }
+
+    /**
+     * 根据名称获得数据库方言
+     * @param name 方言别名(如 mysql)或者方言类的全限定名
+     * @return 数据库方言
+     * @throws SQLException 找不到方言时抛出
+     */
+    public static Dialect getDialectByName(String name) throws SQLException {
+        Class<? extends Dialect> dialectClass = DIALECT_ALIAS_MAP.get(name.toLowerCase());
+        if (dialectClass == null) {
+            try {
+                dialectClass = Class.forName(name).asSubclass(Dialect.class);
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new SQLException("Can't find jdbc-dialect of " + name, e);
+            }
+        }
+        return getInstance(dialectClass);
+    }
+
+    /**
+     * 注册数据库方言别名（连接地址的子协议）
+     * @param alias 方言别名(如 mysql)
+     * @param dialectClass 方言类
+     */
+    public static void registerDialect(String alias, Class<? extends Dialect> dialectClass) {
+        DIALECT_ALIAS_MAP.put(alias.toLowerCase(), dialectClass);
+        clearCache();
+    }
+
+    /**
+     * 注册数据库方言提供者，提供者先于方言别名匹配
+     * @param provider 数据库方言提供者
+     */
+    public static void registerProvider(DialectProvider provider) {
+        PROVIDERS.add(provider);
+        clearCache();
+    }
+
+    /**
+     * 取消注册的数据库方言提供者
+     * @param provider 数据库方言提供者
+     */
+    public static void unregisterProvider(DialectProvider provider) {
+        if (PROVIDERS.remove(provider)) {
+            clearCache();
+        }
+    }
+
+    /**
+     * 判断是否是路由数据源(类或者父类的名称以 RoutingDataSource 结尾，例如 Spring 和 dynamic-datasource 的 AbstractRoutingDataSource)
+     * @param dataSource 数据源
+     * @return 是否是路由数据源
+     */
+    private static boolean isRoutingDataSource(DataSource dataSource) {
+        for (Class<?> type = dataSource.getClass(); type != null; type = type.getSuperclass()) {
+            if (type.getSimpleName().endsWith(ROUTING_DATA_SOURCE_SUFFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清除匹配结果的缓存(不包括数据源显式指定的方言)
+     */
+    private static void clearCache() {
+        URL_DIALECT_MAP.clear();
+        DATA_SOURCE_DIALECT_CACHE.clear();
+    }
+
     /**
      * 根据数据库连接获得数据库方言
      * @param jdbcUrl 数据库连接
      * @return 数据库方言
      */
     private static Dialect getDialectByJdbcUrl(String jdbcUrl) throws SQLException {
-        Class<? extends Dialect> dialectClass = null;
-        for (Map.Entry<String, Class<? extends Dialect>> entry : DIALECT_ALIAS_MAP.entrySet()) {
-            String alias = entry.getKey();
-            if (jdbcUrl.indexOf(":" + alias + ":") != -1) {
-                dialectClass = entry.getValue();
-                break;
+        for (DialectProvider provider : PROVIDERS) {
+            Dialect dialect = provider.getDialect(jdbcUrl);
+            if (dialect != null) {
+                return dialect;
             }
         }
-        if (dialectClass == null) {
-            throw new SQLException("Can't find jdbc-dialect of " + jdbcUrl);
+        // 按两个冒号之间的子协议匹配，例如 jdbc:oracle:thin:@localhost 中的 oracle、thin
+        String[] tokens = jdbcUrl.split(":");
+        for (int i = 1; i < tokens.length - 1; i++) {
+            Class<? extends Dialect> dialectClass = DIALECT_ALIAS_MAP.get(tokens[i].toLowerCase());
+            if (dialectClass != null) {
+                return getInstance(dialectClass);
+            }
         }
-        try {
-            return dialectClass.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new SQLException(e);
+        throw new SQLException("Can't find jdbc-dialect of " + jdbcUrl);
+    }
+
+    /**
+     * 获得方言类的实例（方言是无状态的，同一个方言类共用一个实例）
+     * @param dialectClass 方言类
+     * @return 方言实例
+     */
+    private static Dialect getInstance(Class<? extends Dialect> dialectClass) throws SQLException {
+        Dialect dialect = DIALECT_INSTANCE_MAP.get(dialectClass);
+        if (dialect == null) {
+            try {
+                dialect = dialectClass.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new SQLException(e);
+            }
+            DIALECT_INSTANCE_MAP.putIfAbsent(dialectClass, dialect);
         }
+        return dialect;
     }
 }
@@ -0,0 +1,98 @@
+package com.github.relucent.base.common.jdbc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 参数化的分页SQL模板<br>
+ * 分页的偏移量和数量使用 {@code ?} 占位符，占位符都位于原始SQL之后，按 {@link #getParameters()} 的顺序绑定参数。<br>
+ * 不同页的分页SQL相同，可以利用 JDBC 驱动的语句缓存和数据库的执行计划缓存。
+ */
+public class LimitSqlTemplate {
+
+    // ==============================Fields===========================================
+    private final String sql;
+    private final List<Parameter> parameters;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param sql        分页SQL(含有占位符)
+     * @param parameters 占位符对应的参数(按占位符的顺序)
+     */
+    public LimitSqlTemplate(String sql, Parameter... parameters) {
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(Arrays.asList(parameters.clone()));
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 获得分页SQL
+     * @return 分页SQL(含有占位符)
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 获得占位符对应的参数
+     * @return 占位符对应的参数(按占位符的顺序)
+     */
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 获得占位符的参数值
+     * @param offset 第一个记录的偏移量
+     * @param limit  每页查询的最大数量
+     * @return 参数值(按占位符的顺序)
+     */
+    public long[] getParameterValues(long offset, long limit) {
+        long[] values = new long[parameters.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = parameters.get(i).getValue(offset, limit);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "LimitSqlTemplate [sql=" + sql + ", parameters=" + parameters + "]";
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 分页SQL的参数
+     */
+    public static enum Parameter {
+        /** 偏移量(跳过的记录数) */
+        OFFSET,
+        /** 每页的最大数量 */
+        LIMIT,
+        /** 第一个记录的行号(从1开始，偏移量 + 1) */
+        FIRST_ROW,
+        /** 最后一个记录的行号(从1开始，偏移量 + 数量) */
+        LAST_ROW;
+
+        /**
+         * 计算参数值
+         * @param offset 第一个记录的偏移量
+         * @param limit  每页查询的最大数量
+         * @return 参数值
+         */
+        public long getValue(long offset, long limit) {
+            switch (this) {
+                case OFFSET:
+                    return offset;
+                case LIMIT:
+                    return limit;
+                case FIRST_ROW:
+                    return offset + 1;
+                default:
+                    return offset + limit;
+            }
+        }
+    }
+}
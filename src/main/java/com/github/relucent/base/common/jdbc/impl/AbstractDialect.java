@@ -1,9 +1,42 @@
 package com.github.relucent.base.common.jdbc.impl;
 
+import java.util.Collections;
+import java.util.Map;
+
+import com.github.relucent.base.common.collection.LruMap;
 import com.github.relucent.base.common.jdbc.Dialect;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate;
 import com.github.relucent.base.common.jdbc.parser.CountSqlHelper;
 
 public abstract class AbstractDialect implements Dialect {
+
+    /** 缓存的分页SQL模板数 */
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+
+    /** 原始SQL到分页SQL模板的缓存 */
+    private final Map<String, LimitSqlTemplate> templateCache = Collections.synchronizedMap(new LruMap<>(MAX_CACHED_TEMPLATES));
+
+    @Override
+    public LimitSqlTemplate getLimitSqlTemplate(String sql) {
+        LimitSqlTemplate template = templateCache.get(sql);
+        if (template == null) {
+            template = createLimitSqlTemplate(sql);
+            if (template != null) {
+                templateCache.put(sql, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * 创建参数化的分页SQL模板(结果会被缓存)
+     * @param sql 原始SQL
+     * @return 分页SQL模板，不支持参数化分页时返回 {@code null}
+     */
+    protected LimitSqlTemplate createLimitSqlTemplate(String sql) {
+        return null;
+    }
+
     @Override
     public String getCountSql(String sql) {
         return CountSqlHelper.getCountSql(sql);
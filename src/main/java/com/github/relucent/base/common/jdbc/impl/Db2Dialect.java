@@ -1,6 +1,8 @@
 package com.github.relucent.base.common.jdbc.impl;
 
 import com.github.relucent.base.common.jdbc.Dialect;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate.Parameter;
 
 /**
  * JDBC查询方言DB2实现，主要用于提供分页查询<br>
@@ -11,6 +13,27 @@ public class Db2Dialect extends AbstractDialect implements Dialect {
 
     @Override
     public String getLimitSql(String sql, long offset, long limit) {
+        StringBuilder pagingSelect = getRowNumberSelect(sql);
+        // add the restriction to the outer select
+        if (offset > 0) {
+            pagingSelect.append("between " + (offset + 1) + " and " + (offset + limit));
+        } else {
+            pagingSelect.append("<= " + limit);
+        }
+        return pagingSelect.toString();
+    }
+
+    @Override
+    protected LimitSqlTemplate createLimitSqlTemplate(String sql) {
+        // 排序语句会复制到 rownumber() over() 中，其中的占位符会出现在分页参数之后
+        if (getRowNumber(sql).indexOf('?') != -1) {
+            return null;
+        }
+        StringBuilder pagingSelect = getRowNumberSelect(sql).append("between ? and ?");
+        return new LimitSqlTemplate(pagingSelect.toString(), Parameter.FIRST_ROW, Parameter.LAST_ROW);
+    }
+
+    private static StringBuilder getRowNumberSelect(String sql) {
         int startOfSelect = sql.toLowerCase().indexOf("select");
         StringBuilder pagingSelect = new StringBuilder(sql.length() + 100)//
                 .append(sql.substring(0, startOfSelect))// add the comment
@@ -23,14 +46,7 @@ public class Db2Dialect extends AbstractDialect implements Dialect {
         } else {
             pagingSelect.append(sql.substring(startOfSelect + 6)); // add the main query
         }
-        pagingSelect.append(" ) as temp_ where rownumber_ ");
-        // add the restriction to the outer select
-        if (offset > 0) {
-            pagingSelect.append("between " + (offset + 1) + " and " + (offset + limit));
-        } else {
-            pagingSelect.append("<= " + limit);
-        }
-        return pagingSelect.toString();
+        return pagingSelect.append(" ) as temp_ where rownumber_ ");
     }
 
     private static String getRowNumber(String sql) {
@@ -1,6 +1,8 @@
 package com.github.relucent.base.common.jdbc.impl;
 
 import com.github.relucent.base.common.jdbc.Dialect;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate.Parameter;
 
 /**
  * JDBC查询方言HSQLDB实现，主要用于提供分页查询<br>
@@ -14,6 +16,11 @@ public class HsqldbDialect extends AbstractDialect implements Dialect {
         return sql + " LIMIT " + limit + " OFFSET " + offset;
     }
 
+    @Override
+    protected LimitSqlTemplate createLimitSqlTemplate(String sql) {
+        return new LimitSqlTemplate(sql + " LIMIT ? OFFSET ?", Parameter.LIMIT, Parameter.OFFSET);
+    }
+
     @Override
     public String testQuery() {
         return "SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS";
@@ -1,6 +1,8 @@
 package com.github.relucent.base.common.jdbc.impl;
 
 import com.github.relucent.base.common.jdbc.Dialect;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate.Parameter;
 
 /**
  * JDBC查询方言mysql实现，主要用于提供分页查询<br>
@@ -14,6 +16,11 @@ public class MySqlDialect extends AbstractDialect implements Dialect {
         return sql + " limit " + start + "," + limit;
     }
 
+    @Override
+    protected LimitSqlTemplate createLimitSqlTemplate(String sql) {
+        return new LimitSqlTemplate(sql + " limit ?,?", Parameter.OFFSET, Parameter.LIMIT);
+    }
+
     @Override
     public String testQuery() {
         return "select 1";
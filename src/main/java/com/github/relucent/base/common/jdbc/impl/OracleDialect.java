@@ -1,6 +1,8 @@
 package com.github.relucent.base.common.jdbc.impl;
 
 import com.github.relucent.base.common.jdbc.Dialect;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate.Parameter;
 
 /**
  * JDBC查询方言Oracle实现，主要用于提供分页查询<br>
@@ -18,6 +20,16 @@ public class OracleDialect extends AbstractDialect implements Dialect {
                 + "WHERE T__X.ROWNO__L > " + offset + " ";
     }
 
+    @Override
+    protected LimitSqlTemplate createLimitSqlTemplate(String sql) {
+        String limitSql = " " //
+                + "SELECT T__X.* FROM  ( " //
+                + " SELECT ROWNUM as ROWNO__L, T__Y.* FROM (" + sql + ") T__Y  WHERE ROWNUM <= ?" //
+                + ") T__X " //
+                + "WHERE T__X.ROWNO__L > ? ";
+        return new LimitSqlTemplate(limitSql, Parameter.LAST_ROW, Parameter.OFFSET);
+    }
+
     @Override
     public String testQuery() {
         return "select 1 from dual";
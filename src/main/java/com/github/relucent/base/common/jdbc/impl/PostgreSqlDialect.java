@@ -1,6 +1,8 @@
 package com.github.relucent.base.common.jdbc.impl;
 
 import com.github.relucent.base.common.jdbc.Dialect;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate.Parameter;
 
 /**
  * JDBC查询方言实现，主要用于提供分页查询<br>
@@ -15,6 +17,11 @@ public class PostgreSqlDialect extends AbstractDialect implements Dialect {
         return sql + " limit " + limit + " offset " + offset;
     }
 
+    @Override
+    protected LimitSqlTemplate createLimitSqlTemplate(String sql) {
+        return new LimitSqlTemplate(sql + " limit ? offset ?", Parameter.LIMIT, Parameter.OFFSET);
+    }
+
     @Override
     public String testQuery() {
         return "select version()";
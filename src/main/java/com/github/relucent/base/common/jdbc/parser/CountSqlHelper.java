@@ -1,21 +1,40 @@
 package com.github.relucent.base.common.jdbc.parser;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.github.relucent.base.common.collection.LruMap;
+
 public class CountSqlHelper {
 
+    /** 缓存的 COUNT SQL 数 */
+    private static final int MAX_CACHED_SQLS = 1024;
+
     private static final AtomicReference<CountSqlParser> COUNT_SQL_PARSER = new AtomicReference<>();
 
+    /** 原始SQL到 COUNT SQL 的缓存(避免重复的正则匹配和SQL解析) */
+    private static final Map<String, String> COUNT_SQL_CACHE = Collections.synchronizedMap(new LruMap<>(MAX_CACHED_SQLS));
+
     public static String getCountSql(String sql) {
-        return getCountSqlParser().getCountSql(sql);
+        String countSql = COUNT_SQL_CACHE.get(sql);
+        if (countSql == null) {
+            CountSqlParser parser = COUNT_SQL_PARSER.get();
+            countSql = (parser == null ? CountSqlSimpleParser.INSTANCE : parser).getCountSql(sql);
+            // 与切换解析器使用同一个锁(同步集合的锁)，解析期间切换了解析器时不缓存旧解析器的结果
+            synchronized (COUNT_SQL_CACHE) {
+                if (COUNT_SQL_PARSER.get() == parser) {
+                    COUNT_SQL_CACHE.put(sql, countSql);
+                }
+            }
+        }
+        return countSql;
     }
 
     public static void setCountSqlParser(CountSqlParser parser) {
-        COUNT_SQL_PARSER.set(parser);
-    }
-
-    private static CountSqlParser getCountSqlParser() {
-        CountSqlParser parser = COUNT_SQL_PARSER.get();
-        return parser == null ? CountSqlSimpleParser.INSTANCE : parser;
+        synchronized (COUNT_SQL_CACHE) {
+            COUNT_SQL_PARSER.set(parser);
+            COUNT_SQL_CACHE.clear();
+        }
     }
 }
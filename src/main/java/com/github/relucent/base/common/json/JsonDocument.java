@@ -0,0 +1,731 @@
+package com.github.relucent.base.common.json;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.github.relucent.base.common.collection.Listx;
+import com.github.relucent.base.common.collection.Mapx;
+import com.github.relucent.base.common.convert.ConvertUtil;
+
+/**
+ * 惰性索引的JSON文档。<br>
+ * 解析时只对JSON字符串做一次结构扫描，将每个值的类型和位置记录在紧凑的索引（tape）中，不创建任何值对象；<br>
+ * 只有通过路径（例如 {@code $.data.items[3].id}）访问或者迭代到的值才会被实例化。<br>
+ * 适用于从大的JSON中读取少量字段的场景。<br>
+ * 路径语法：{@code $} 表示根节点（可省略），{@code .name} 或 {@code ['name']} 表示对象属性，{@code [n]} 表示数组下标。<br>
+ * 该类是不可变的，可以在多线程中共享。
+ */
+public class JsonDocument implements Iterable<JsonDocument> {
+
+    // ==============================Fields===========================================
+    /** 索引 */
+    private final Tape tape;
+    /** 当前节点在索引中的位置 */
+    private final int entry;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     * @param tape 索引
+     * @param entry 节点位置
+     */
+    private JsonDocument(Tape tape, int entry) {
+        this.tape = tape;
+        this.entry = entry;
+    }
+
+    /**
+     * 解析JSON字符串，创建惰性索引的JSON文档
+     * @param json JSON字符串
+     * @return JSON文档
+     * @throws IllegalArgumentException JSON格式错误时抛出
+     */
+    public static JsonDocument parse(String json) {
+        Tape tape = new Tape(json);
+        tape.index();
+        return new JsonDocument(tape, 0);
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 选择路径对应的节点(不会实例化节点的值)
+     * @param path 路径，相对于当前节点
+     * @return 路径对应的节点，如果路径不存在返回{@code null}
+     */
+    public JsonDocument select(String path) {
+        int found = tape.locate(entry, path);
+        return found < 0 ? null : new JsonDocument(tape, found);
+    }
+
+    /**
+     * 判断路径是否存在
+     * @param path 路径，相对于当前节点
+     * @return 如果路径存在返回{@code true}
+     */
+    public boolean has(String path) {
+        return tape.locate(entry, path) >= 0;
+    }
+
+    /**
+     * 获得路径对应的值
+     * @param path 路径，相对于当前节点
+     * @return 路径对应的值(String,Number,Boolean,Mapx,Listx)，如果路径不存在或者值为null返回{@code null}
+     */
+    public Object get(String path) {
+        int found = tape.locate(entry, path);
+        return found < 0 ? null : tape.materialize(found);
+    }
+
+    /**
+     * 获得路径对应的值，并转换为指定类型
+     * @param <T> 值类型泛型
+     * @param path 路径，相对于当前节点
+     * @param type 值类型
+     * @return 路径对应的值，如果路径不存在或者无法转换返回{@code null}
+     */
+    public <T> T get(String path, Class<T> type) {
+        return ConvertUtil.convert(get(path), type);
+    }
+
+    public Boolean getBoolean(String path) {
+        return ConvertUtil.toBoolean(get(path));
+    }
+
+    public Integer getInteger(String path) {
+        return ConvertUtil.toInteger(get(path));
+    }
+
+    public Long getLong(String path) {
+        return ConvertUtil.toLong(get(path));
+    }
+
+    public Double getDouble(String path) {
+        return ConvertUtil.toDouble(get(path));
+    }
+
+    public BigDecimal getBigDecimal(String path) {
+        return ConvertUtil.toBigDecimal(get(path));
+    }
+
+    public String getString(String path) {
+        return ConvertUtil.toString(get(path));
+    }
+
+    public Date getDate(String path) {
+        return ConvertUtil.toDate(get(path));
+    }
+
+    public Mapx getMap(String path) {
+        return ConvertUtil.toMap(get(path));
+    }
+
+    public Listx getList(String path) {
+        return ConvertUtil.toList(get(path));
+    }
+
+    /**
+     * 获得当前节点的值(会实例化整个节点)
+     * @return 当前节点的值(String,Number,Boolean,Mapx,Listx或null)
+     */
+    public Object getValue() {
+        return tape.materialize(entry);
+    }
+
+    /**
+     * 判断当前节点是否是对象
+     * @return 如果是对象返回{@code true}
+     */
+    public boolean isObject() {
+        return tape.types[entry] == Tape.OBJECT;
+    }
+
+    /**
+     * 判断当前节点是否是数组
+     * @return 如果是数组返回{@code true}
+     */
+    public boolean isArray() {
+        return tape.types[entry] == Tape.ARRAY;
+    }
+
+    /**
+     * 判断当前节点是否是null
+     * @return 如果是null返回{@code true}
+     */
+    public boolean isNull() {
+        return tape.types[entry] == Tape.NULL;
+    }
+
+    /**
+     * 获得当前节点的元素数量(对象返回属性数量，数组返回元素数量，其他类型返回0)
+     * @return 元素数量
+     */
+    public int size() {
+        if (!tape.isContainer(entry)) {
+            return 0;
+        }
+        int count = 0;
+        for (int e = tape.firstChild(entry); e < tape.links[entry]; e = tape.nextSibling(e)) {
+            count++;
+        }
+        return tape.types[entry] == Tape.OBJECT ? count / 2 : count;
+    }
+
+    /**
+     * 获得当前节点的属性名称列表(当前节点不是对象返回空列表)
+     * @return 属性名称列表
+     */
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        if (tape.types[entry] == Tape.OBJECT) {
+            for (int e = tape.firstChild(entry); e < tape.links[entry]; e = tape.nextSibling(e + 1)) {
+                keys.add(tape.string(e));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 迭代当前节点的元素(数组迭代元素，对象迭代属性值，其他类型没有元素)，迭代过程中不会实例化元素的值
+     * @return 元素迭代器
+     */
+    @Override
+    public Iterator<JsonDocument> iterator() {
+        final boolean object = tape.types[entry] == Tape.OBJECT;
+        final int end = tape.isContainer(entry) ? tape.links[entry] : entry;
+        return new Iterator<JsonDocument>() {
+            private int cursor = tape.isContainer(entry) ? tape.firstChild(entry) : entry;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < end;
+            }
+
+            @Override
+            public JsonDocument next() {
+                if (cursor >= end) {
+                    throw new NoSuchElementException();
+                }
+                int value = object ? cursor + 1 : cursor;
+                cursor = tape.nextSibling(value);
+                return new JsonDocument(tape, value);
+            }
+        };
+    }
+
+    /**
+     * 返回当前节点的JSON字符串
+     * @return JSON字符串
+     */
+    @Override
+    public String toString() {
+        return tape.json.substring(tape.offsets[entry], tape.endOffset(entry));
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * JSON结构索引。<br>
+     * 每个值在索引中占一个条目，条目按照值在文本中出现的顺序排列（对象的属性名也占一个条目，紧接着是属性值）。<br>
+     * {@code offsets} 记录值在文本中的起始位置；{@code links} 对于标量记录值在文本中的结束位置，对于对象和数组记录其后第一个不属于它的条目位置（用于跳过整个子树）。
+     */
+    private static class Tape {
+
+        static final byte OBJECT = 1;
+        static final byte ARRAY = 2;
+        static final byte STRING = 3;
+        static final byte STRING_ESCAPED = 4;
+        static final byte NUMBER = 5;
+        static final byte TRUE = 6;
+        static final byte FALSE = 7;
+        static final byte NULL = 8;
+        /** 条目数组的最大容量 */
+        static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+        final String json;
+        final int length;
+        byte[] types;
+        int[] offsets;
+        int[] links;
+        int size;
+        /** 仅在索引时使用的扫描位置 */
+        private int pos;
+
+        Tape(String json) {
+            this.json = json;
+            this.length = json.length();
+            int capacity = Math.max(16, length / 8);
+            this.types = new byte[capacity];
+            this.offsets = new int[capacity];
+            this.links = new int[capacity];
+        }
+
+        // ------------------------------Indexing-------------------------------------
+        void index() {
+            pos = 0;
+            skipWhitespace();
+            indexValue();
+            skipWhitespace();
+            if (pos != length) {
+                throw syntaxError("Unexpected character after JSON value");
+            }
+        }
+
+        private void indexValue() {
+            if (pos >= length) {
+                throw syntaxError("Missing value");
+            }
+            char c = json.charAt(pos);
+            switch (c) {
+            case '{':
+                indexObject();
+                break;
+            case '[':
+                indexArray();
+                break;
+            case '"':
+                indexString();
+                break;
+            case 't':
+                indexLiteral("true", TRUE);
+                break;
+            case 'f':
+                indexLiteral("false", FALSE);
+                break;
+            case 'n':
+                indexLiteral("null", NULL);
+                break;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    indexNumber();
+                } else {
+                    throw syntaxError("Unexpected character '" + c + "'");
+                }
+            }
+        }
+
+        private void indexObject() {
+            int e = add(OBJECT, pos);
+            pos++;
+            skipWhitespace();
+            if (pos < length && json.charAt(pos) == '}') {
+                pos++;
+                links[e] = size;
+                return;
+            }
+            for (;;) {
+                if (pos >= length || json.charAt(pos) != '"') {
+                    throw syntaxError("Expected a string key");
+                }
+                indexString();
+                skipWhitespace();
+                if (pos >= length || json.charAt(pos) != ':') {
+                    throw syntaxError("Expected a ':' after a key");
+                }
+                pos++;
+                skipWhitespace();
+                indexValue();
+                skipWhitespace();
+                char c = pos < length ? json.charAt(pos) : 0;
+                pos++;
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected a ',' or '}'");
+                }
+                skipWhitespace();
+            }
+            links[e] = size;
+        }
+
+        private void indexArray() {
+            int e = add(ARRAY, pos);
+            pos++;
+            skipWhitespace();
+            if (pos < length && json.charAt(pos) == ']') {
+                pos++;
+                links[e] = size;
+                return;
+            }
+            for (;;) {
+                indexValue();
+                skipWhitespace();
+                char c = pos < length ? json.charAt(pos) : 0;
+                pos++;
+                if (c == ']') {
+                    break;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected a ',' or ']'");
+                }
+                skipWhitespace();
+            }
+            links[e] = size;
+        }
+
+        private void indexString() {
+            int e = add(STRING, pos);
+            for (int i = pos + 1; i < length; i++) {
+                char c = json.charAt(i);
+                if (c == '"') {
+                    pos = i + 1;
+                    links[e] = pos;
+                    return;
+                }
+                if (c == '\\') {
+                    types[e] = STRING_ESCAPED;
+                    i = checkEscape(i + 1);
+                }
+            }
+            throw syntaxError("Unterminated string");
+        }
+
+        /**
+         * 检查转义字符
+         * @param i 反斜杠之后的位置
+         * @return 转义序列最后一个字符的位置
+         */
+        private int checkEscape(int i) {
+            char c = i < length ? json.charAt(i) : 0;
+            switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return i;
+            case 'u':
+                if (i + 4 >= length) {
+                    throw syntaxError("Unterminated unicode escape", i);
+                }
+                for (int j = i + 1; j <= i + 4; j++) {
+                    if (!isHexDigit(json.charAt(j))) {
+                        throw syntaxError("Illegal unicode escape", j);
+                    }
+                }
+                return i + 4;
+            default:
+                throw syntaxError("Illegal escape", i);
+            }
+        }
+
+        private void indexLiteral(String literal, byte type) {
+            if (!json.startsWith(literal, pos)) {
+                throw syntaxError("Unexpected literal");
+            }
+            int e = add(type, pos);
+            pos += literal.length();
+            links[e] = pos;
+        }
+
+        /**
+         * 按 JSON 的数字语法扫描数字：-?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+         */
+        private void indexNumber() {
+            int e = add(NUMBER, pos);
+            int i = pos;
+            if (json.charAt(i) == '-') {
+                i++;
+            }
+            char c = i < length ? json.charAt(i) : 0;
+            if (c == '0') {
+                i++;
+                if (i < length && isDigit(json.charAt(i))) {
+                    throw syntaxError("Leading zeros are not allowed", i);
+                }
+            } else if (c >= '1' && c <= '9') {
+                i = skipDigits(i + 1);
+            } else {
+                throw syntaxError("Expected a digit", i);
+            }
+            if (i < length && json.charAt(i) == '.') {
+                int start = ++i;
+                i = skipDigits(i);
+                if (i == start) {
+                    throw syntaxError("Expected a digit after the decimal point", i);
+                }
+            }
+            if (i < length && (json.charAt(i) == 'e' || json.charAt(i) == 'E')) {
+                i++;
+                if (i < length && (json.charAt(i) == '+' || json.charAt(i) == '-')) {
+                    i++;
+                }
+                int start = i;
+                i = skipDigits(i);
+                if (i == start) {
+                    throw syntaxError("Expected a digit in the exponent", i);
+                }
+            }
+            pos = i;
+            links[e] = pos;
+        }
+
+        private int skipDigits(int i) {
+            while (i < length && isDigit(json.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isHexDigit(char c) {
+            return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+
+        private void skipWhitespace() {
+            while (pos < length) {
+                char c = json.charAt(pos);
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private int add(byte type, int offset) {
+            if (size == types.length) {
+                if (size >= MAX_CAPACITY) {
+                    throw new IllegalStateException("JSON document has too many values: " + size);
+                }
+                // 使用 long 计算扩容后的容量，避免接近上限时溢出
+                int capacity = (int) Math.min((long) size << 1, MAX_CAPACITY);
+                types = Arrays.copyOf(types, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                links = Arrays.copyOf(links, capacity);
+            }
+            types[size] = type;
+            offsets[size] = offset;
+            return size++;
+        }
+
+        private IllegalArgumentException syntaxError(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+
+        private IllegalArgumentException syntaxError(String message, int position) {
+            return new IllegalArgumentException(message + " at position " + position);
+        }
+
+        // ------------------------------Navigation-----------------------------------
+        boolean isContainer(int e) {
+            return types[e] == OBJECT || types[e] == ARRAY;
+        }
+
+        int firstChild(int e) {
+            return e + 1;
+        }
+
+        int nextSibling(int e) {
+            return isContainer(e) ? links[e] : e + 1;
+        }
+
+        int endOffset(int e) {
+            if (!isContainer(e)) {
+                return links[e];
+            }
+            // 容器的结束位置：最后一个子节点之后的第一个结束括号
+            char close = types[e] == OBJECT ? '}' : ']';
+            int from = links[e] - 1 > e ? endOffset(lastChild(e)) : offsets[e] + 1;
+            return json.indexOf(close, from) + 1;
+        }
+
+        private int lastChild(int e) {
+            int last = -1;
+            for (int c = firstChild(e); c < links[e]; c = nextSibling(c)) {
+                last = c;
+            }
+            return last;
+        }
+
+        /**
+         * 查找路径对应的条目
+         * @param root 起始条目
+         * @param path 路径
+         * @return 条目位置，不存在返回-1
+         */
+        int locate(int root, String path) {
+            int e = root;
+            int i = 0;
+            int n = path.length();
+            if (n > 0 && path.charAt(0) == '$') {
+                i++;
+            }
+            while (i < n && e >= 0) {
+                char c = path.charAt(i);
+                if (c == '.') {
+                    int start = ++i;
+                    while (i < n && path.charAt(i) != '.' && path.charAt(i) != '[') {
+                        i++;
+                    }
+                    e = member(e, path, start, i);
+                } else if (c == '[') {
+                    i++;
+                    if (i < n && (path.charAt(i) == '\'' || path.charAt(i) == '"')) {
+                        char quote = path.charAt(i);
+                        int start = ++i;
+                        while (i < n && path.charAt(i) != quote) {
+                            i++;
+                        }
+                        e = member(e, path, start, i);
+                        i++;
+                    } else {
+                        long index = 0;
+                        int start = i;
+                        while (i < n && path.charAt(i) >= '0' && path.charAt(i) <= '9') {
+                            // 下标超过条目数时一定不存在，截断以避免 long 溢出
+                            index = Math.min(index * 10 + (path.charAt(i) - '0'), size);
+                            i++;
+                        }
+                        if (i == start) {
+                            throw new IllegalArgumentException("Invalid path: " + path);
+                        }
+                        e = index < size ? element(e, (int) index) : -1;
+                    }
+                    if (i >= n || path.charAt(i) != ']') {
+                        throw new IllegalArgumentException("Invalid path: " + path);
+                    }
+                    i++;
+                } else {
+                    // 省略根节点和点号的路径，例如 data.items[3]
+                    int start = i;
+                    while (i < n && path.charAt(i) != '.' && path.charAt(i) != '[') {
+                        i++;
+                    }
+                    e = member(e, path, start, i);
+                }
+            }
+            return e;
+        }
+
+        private int member(int e, String path, int start, int end) {
+            if (types[e] != OBJECT) {
+                return -1;
+            }
+            for (int key = firstChild(e); key < links[e]; key = nextSibling(key + 1)) {
+                if (keyEquals(key, path, start, end)) {
+                    return key + 1;
+                }
+            }
+            return -1;
+        }
+
+        private int element(int e, int index) {
+            if (types[e] != ARRAY) {
+                return -1;
+            }
+            int child = firstChild(e);
+            for (int i = 0; i < index && child < links[e]; i++) {
+                child = nextSibling(child);
+            }
+            return child < links[e] ? child : -1;
+        }
+
+        private boolean keyEquals(int key, String path, int start, int end) {
+            if (types[key] == STRING_ESCAPED) {
+                return string(key).equals(path.substring(start, end));
+            }
+            int len = end - start;
+            return links[key] - offsets[key] - 2 == len && json.regionMatches(offsets[key] + 1, path, start, len);
+        }
+
+        // ------------------------------Materialization------------------------------
+        Object materialize(int e) {
+            switch (types[e]) {
+            case OBJECT:
+                Mapx map = new Mapx();
+                for (int key = firstChild(e); key < links[e]; key = nextSibling(key + 1)) {
+                    map.put(string(key), materialize(key + 1));
+                }
+                return map;
+            case ARRAY:
+                Listx list = new Listx();
+                for (int child = firstChild(e); child < links[e]; child = nextSibling(child)) {
+                    list.add(materialize(child));
+                }
+                return list;
+            case STRING:
+            case STRING_ESCAPED:
+                return string(e);
+            case NUMBER:
+                return number(e);
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+            }
+        }
+
+        String string(int e) {
+            int start = offsets[e] + 1;
+            int end = links[e] - 1;
+            if (types[e] == STRING) {
+                return json.substring(start, end);
+            }
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                char c = json.charAt(i);
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                c = json.charAt(++i);
+                switch (c) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'u':
+                    // 转义序列在索引时已经检查过
+                    if (i + 5 > end) {
+                        throw syntaxError("Unterminated unicode escape", i);
+                    }
+                    sb.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        private Number number(int e) {
+            String s = json.substring(offsets[e], links[e]);
+            try {
+                if (s.indexOf('.') > -1 || s.indexOf('e') > -1 || s.indexOf('E') > -1 || "-0".equals(s)) {
+                    return Double.valueOf(s);
+                }
+                long value = Long.parseLong(s);
+                if (value == (int) value) {
+                    return Integer.valueOf((int) value);
+                }
+                return Long.valueOf(value);
+            } catch (NumberFormatException ex) {
+                return new BigDecimal(s);
+            }
+        }
+    }
+}
@@ -1,7 +1,24 @@
 package com.github.relucent.base.common.json;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 import com.github.relucent.base.common.collection.Listx;
 import com.github.relucent.base.common.collection.Mapx;
+import com.github.relucent.base.common.io.IoRuntimeException;
 import com.github.relucent.base.common.reflect.TypeReference;
 
 /**
@@ -10,6 +27,9 @@ import com.github.relucent.base.common.reflect.TypeReference;
  */
 public interface JsonHandler {
 
+    /** JSON Lines 写入时，刷新输出流的记录间隔 */
+    int LINES_FLUSH_INTERVAL = 1024;
+
     /**
      * 将Java对象转化为JSON字符串
      * @param object java对象
@@ -48,4 +68,92 @@ public interface JsonHandler {
      * @return LIST对象,如果解析失败返回null
      */
     Listx decodeList(String json);
+
+    /**
+     * 将 JSON Lines (NDJSON) 输入流解码为JAVA对象迭代器，每一行JSON对应一个对象。<br>
+     * 迭代器是惰性读取的，每次迭代只解析一条记录。输入流由调用方负责关闭（读取时使用UTF-8编码）。
+     * 默认实现逐行读取并调用 {@link #decode(String, Class)} 解码（跳过空行），实现类可以覆盖为流式解析。
+     * @param <T> JAVA对象泛型
+     * @param input JSON Lines 输入流
+     * @param type JAVA对象类型
+     * @return JAVA对象迭代器
+     */
+    default <T> Iterator<T> decodeLines(InputStream input, Class<T> type) {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return new Iterator<T>() {
+            private String line;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    // 跳过空行
+                    while (line == null || line.trim().isEmpty()) {
+                        line = reader.readLine();
+                        if (line == null) {
+                            return false;
+                        }
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw IoRuntimeException.wrap(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String json = line;
+                line = null;
+                return decode(json, type);
+            }
+        };
+    }
+
+    /**
+     * 将 JSON Lines (NDJSON) 输入流解码为JAVA对象流，每一行JSON对应一个对象。<br>
+     * 流是惰性读取的，输入流由调用方负责关闭（读取时使用UTF-8编码）。
+     * @param <T> JAVA对象泛型
+     * @param input JSON Lines 输入流
+     * @param type JAVA对象类型
+     * @return JAVA对象流
+     */
+    default <T> Stream<T> decodeLinesAsStream(InputStream input, Class<T> type) {
+        Iterator<T> iterator = decodeLines(input, type);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * 将JAVA对象逐个编码为 JSON Lines (NDJSON) 写入输出流，每个对象占一行。<br>
+     * 写入过程中会定期刷新输出流（每 {@link #LINES_FLUSH_INTERVAL} 条记录），写入结束后刷新但不关闭输出流（使用UTF-8编码）。
+     * 默认实现对每个对象调用 {@link #encode(Object)}，实现类可以覆盖为流式写入。
+     * @param values JAVA对象迭代器
+     * @param output 输出流
+     */
+    default void encodeLines(Iterator<?> values, OutputStream output) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try {
+            for (int count = 1; values.hasNext(); count++) {
+                writer.write(encode(values.next()));
+                writer.write('\n');
+                if (count % LINES_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw IoRuntimeException.wrap(e);
+        }
+    }
+
+    /**
+     * 将JAVA对象流逐个编码为 JSON Lines (NDJSON) 写入输出流，每个对象占一行。
+     * @param values JAVA对象流
+     * @param output 输出流
+     * @see #encodeLines(Iterator, OutputStream)
+     */
+    default void encodeLines(Stream<?> values, OutputStream output) {
+        encodeLines(values.iterator(), output);
+    }
 }
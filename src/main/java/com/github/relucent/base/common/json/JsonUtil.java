@@ -1,6 +1,10 @@
 package com.github.relucent.base.common.json;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import com.github.relucent.base.common.collection.Listx;
 import com.github.relucent.base.common.collection.Mapx;
@@ -100,6 +104,46 @@ public class JsonUtil {
 		return getHandler().decodeList(json);
 	}
 
+	/**
+	 * 将 JSON Lines (NDJSON) 输入流解码为JAVA对象迭代器(惰性读取)
+	 * @param <T>   JAVA对象泛型
+	 * @param input JSON Lines 输入流
+	 * @param type  JAVA对象类型
+	 * @return JAVA对象迭代器
+	 */
+	public static <T> Iterator<T> decodeLines(InputStream input, Class<T> type) {
+		return getHandler().decodeLines(input, type);
+	}
+
+	/**
+	 * 将 JSON Lines (NDJSON) 输入流解码为JAVA对象流(惰性读取)
+	 * @param <T>   JAVA对象泛型
+	 * @param input JSON Lines 输入流
+	 * @param type  JAVA对象类型
+	 * @return JAVA对象流
+	 */
+	public static <T> Stream<T> decodeLinesAsStream(InputStream input, Class<T> type) {
+		return getHandler().decodeLinesAsStream(input, type);
+	}
+
+	/**
+	 * 将JAVA对象逐个编码为 JSON Lines (NDJSON) 写入输出流
+	 * @param values JAVA对象迭代器
+	 * @param output 输出流
+	 */
+	public static void encodeLines(Iterator<?> values, OutputStream output) {
+		getHandler().encodeLines(values, output);
+	}
+
+	/**
+	 * 将JAVA对象流逐个编码为 JSON Lines (NDJSON) 写入输出流
+	 * @param values JAVA对象流
+	 * @param output 输出流
+	 */
+	public static void encodeLines(Stream<?> values, OutputStream output) {
+		getHandler().encodeLines(values, output);
+	}
+
 	/**
 	 * 设置JSON处理类
 	 * @param handler JSON处理类
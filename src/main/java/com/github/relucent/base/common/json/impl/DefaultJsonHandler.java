@@ -1,12 +1,23 @@
 package com.github.relucent.base.common.json.impl;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import com.github.relucent.base.common.collection.Listx;
 import com.github.relucent.base.common.collection.Mapx;
 import com.github.relucent.base.common.convert.ConvertUtil;
+import com.github.relucent.base.common.io.IoRuntimeException;
 import com.github.relucent.base.common.json.JsonConfig;
 import com.github.relucent.base.common.json.JsonHandler;
 import com.github.relucent.base.common.logging.Logger;
@@ -109,4 +120,53 @@ public class DefaultJsonHandler implements JsonHandler {
 			return null;
 		}
 	}
+
+	/**
+	 * 将 JSON Lines 输入流解码为JAVA对象迭代器(惰性读取)
+	 * @param <T>   JAVA对象泛型
+	 * @param input JSON Lines 输入流
+	 * @param type  JAVA对象类型
+	 * @return JAVA对象迭代器
+	 */
+	@Override
+	public <T> Iterator<T> decodeLines(InputStream input, Class<T> type) {
+		final JsonTokener tokener = new JsonTokener(new InputStreamReader(input, StandardCharsets.UTF_8));
+		return new Iterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return tokener.more();
+			}
+
+			@Override
+			public T next() {
+				if (!tokener.more()) {
+					throw new NoSuchElementException();
+				}
+				return ConvertUtil.convert(tokener.nextValue(), type, null);
+			}
+		};
+	}
+
+	/**
+	 * 将JAVA对象逐个编码为 JSON Lines 写入输出流
+	 * @param values JAVA对象迭代器
+	 * @param output 输出流
+	 */
+	@Override
+	public void encodeLines(Iterator<?> values, OutputStream output) {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		JsonWriter jsonWriter = new JsonWriter(writer, config);
+		try {
+			for (int count = 1; values.hasNext(); count++) {
+				jsonWriter.writeObject(values.next());
+				writer.write('\n');
+				if (count % LINES_FLUSH_INTERVAL == 0) {
+					writer.flush();
+				}
+			}
+			writer.flush();
+		} catch (IOException e) {
+			throw IoRuntimeException.wrap(e);
+		}
+	}
 }
@@ -150,6 +150,18 @@ class JsonTokener {
         }
     }
 
+    /**
+     * 判断是否还有下一个值(跳过空白字符和注释)，用于读取多个连续的JSON值(例如 JSON Lines)
+     * @return 如果还有下一个值返回true
+     */
+    protected boolean more() {
+        if (nextClean() == 0) {
+            return false;
+        }
+        back();
+        return true;
+    }
+
     /**
      * 将字符返回到下一个关闭引号字符
      * @param 引号字符(双引号",或者单引号')
@@ -0,0 +1,148 @@
+package com.github.relucent.base.common.reflect.access;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.github.relucent.base.common.exception.ExceptionUtil;
+
+/**
+ * 基于 {@link LambdaMetafactory} 和 {@link MethodHandle} 的方法访问器生成工具<br>
+ * 用于将 Getter和Setter 方法转换为函数对象，函数对象生成一次之后可以重复调用，避免每次通过 {@link Method#invoke(Object, Object...)} 反射调用的开销。<br>
+ * 生成策略：
+ *
+ * <pre>
+ * 1. 方法和类都是 public 的，并且类对当前类加载器可见，使用 LambdaMetafactory 生成函数（性能接近直接调用）
+ * 2. 否则使用 MethodHandle 包装为函数
+ * 3. 都无法生成时返回 null，由调用方回退为反射调用
+ * </pre>
+ */
+public class LambdaAccess {
+
+    // ==============================Constructors=====================================
+    /**
+     * 工具类私有构造
+     */
+    protected LambdaAccess() {
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 为Getter方法(无参数的实例方法)生成访问函数
+     * @param getter Getter方法
+     * @return 访问函数，参数为对象实例，返回值为方法返回值；如果无法生成返回{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> getter(Method getter) {
+        if (getter == null || Modifier.isStatic(getter.getModifiers()) || getter.getParameterCount() != 0 || getter.getReturnType() == void.class) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(getter);
+            if (isLambdaSupported(getter, getter.getReturnType())) {
+                try {
+                    CallSite site = LambdaMetafactory.metafactory(//
+                            lookup, //
+                            "apply", //
+                            MethodType.methodType(Function.class), //
+                            MethodType.methodType(Object.class, Object.class), //
+                            handle, //
+                            handle.type().wrap());
+                    return (Function<Object, Object>) site.getTarget().invokeExact();
+                } catch (Throwable e) {
+                    // 回退为 MethodHandle
+                }
+            }
+            final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return generic.invokeExact(bean);
+                } catch (Throwable e) {
+                    throw ExceptionUtil.propagate(e);
+                }
+            };
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 为Setter方法(一个参数的实例方法)生成访问函数
+     * @param setter Setter方法
+     * @return 访问函数，第一个参数为对象实例，第二个参数为属性值；如果无法生成返回{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static BiConsumer<Object, Object> setter(Method setter) {
+        if (setter == null || Modifier.isStatic(setter.getModifiers()) || setter.getParameterCount() != 1) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(setter);
+            if (isLambdaSupported(setter, setter.getParameterTypes()[0])) {
+                try {
+                    CallSite site = LambdaMetafactory.metafactory(//
+                            lookup, //
+                            "accept", //
+                            MethodType.methodType(BiConsumer.class), //
+                            MethodType.methodType(void.class, Object.class, Object.class), //
+                            handle, //
+                            handle.type().wrap().changeReturnType(void.class));
+                    return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+                } catch (Throwable e) {
+                    // 回退为 MethodHandle
+                }
+            }
+            final MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    generic.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw ExceptionUtil.propagate(e);
+                }
+            };
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 判断方法是否可以使用 {@link LambdaMetafactory} 生成函数<br>
+     * 生成的函数类由当前类加载器定义，所以方法所属类和值类型必须是公开的，并且对当前类加载器可见
+     * @param method 方法
+     * @param valueType 值类型(Getter返回值类型或者Setter参数类型)
+     * @return 如果可以使用返回{@code true}
+     */
+    private static boolean isLambdaSupported(Method method, Class<?> valueType) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        return Modifier.isPublic(method.getModifiers()) //
+                && Modifier.isPublic(declaringClass.getModifiers()) //
+                && isVisible(declaringClass) //
+                && (valueType.isPrimitive() || (Modifier.isPublic(valueType.getModifiers()) && isVisible(valueType)));
+    }
+
+    /**
+     * 判断类对当前类加载器是否可见
+     * @param type 类
+     * @return 如果可见返回{@code true}
+     */
+    private static boolean isVisible(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, LambdaAccess.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.relucent.base.common.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的紧凑延迟直方图<br>
+ * 与 {@link LatencyRecorder} 不同，所有线程共享同一组计数（原子累加），内存占用与线程数无关；每个2的幂区间只分为 16 个子桶（640个桶，约5KB），相对误差小于 1/32（约3%）。<br>
+ * 适合需要大量直方图的场景（例如按路由统计的延迟），单个热点直方图的记录开销高于 {@link LatencyRecorder}。<br>
+ * 快照转换为 {@link LatencyHistogram}，每个桶的记录按桶的中间值计入，总和、最小值和最大值是精确的。
+ */
+public class ConcurrentLatencyHistogram {
+
+    // ==============================Constants========================================
+    /** 子桶数量的位数 */
+    private static final int SUB_BUCKET_BITS = 4;
+    /** 每个2的幂区间的子桶数量 */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** 可以区分的最大值的位数 */
+    private static final int MAX_EXPONENT = 43;
+    /** 桶的数量 */
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    // ==============================Fields===========================================
+    /** 每个桶的计数 */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    /** 记录的值的总和 */
+    private final LongAdder sum = new LongAdder();
+    /** 最小值 */
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    /** 最大值 */
+    private final AtomicLong max = new AtomicLong();
+
+    // ==============================Methods==========================================
+    /**
+     * 记录一个值
+     * @param value 值(纳秒)，负数按0记录
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        sum.add(value);
+        if (value < min.get()) {
+            min.accumulateAndGet(value, Math::min);
+        }
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+        // 最后累加计数：快照先读取计数，读到的记录的最值一定已经更新
+        counts.incrementAndGet(bucketIndex(value));
+    }
+
+    /**
+     * 获得当前记录的快照(记录同时进行时，快照中的计数、总和与最值可能不是同一时刻的)
+     * @return 直方图快照
+     */
+    public LatencyHistogram snapshot() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+        }
+        long lowest = min.get();
+        long highest = max.get();
+        long[] values = new long[LatencyHistogram.BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = bucketCounts[i];
+            if (count != 0) {
+                long middle = lowestValue(i) + (highestValue(i) - lowestValue(i)) / 2;
+                middle = Math.max(Math.min(middle, highest), lowest);
+                values[LatencyHistogram.bucketIndex(middle)] += count;
+            }
+        }
+        return new LatencyHistogram(values, sum.sum(), lowest, highest);
+    }
+
+    /**
+     * 获得记录的总次数
+     * @return 记录的总次数
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 获得百分位数的值(直接在紧凑的桶上计算，不创建快照)
+     * @param percentile 百分位(0~100)
+     * @return 百分位数的值(纳秒，所在桶的上限)，相对误差小于 1/16，没有记录时返回0
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+            total += bucketCounts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long lowest = min.get();
+        long highest = max.get();
+        if (percentile <= 0) {
+            return lowest;
+        }
+        long target = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100D) / 100D * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += bucketCounts[i];
+            if (cumulative >= target) {
+                return Math.max(Math.min(highestValue(i), highest), lowest);
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * 清空所有记录(与记录同时进行时，同时记录的值可能部分丢失)
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(0L);
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 计算值所在的桶(与 {@link LatencyHistogram} 的分桶方式相同，子桶数量较少)
+     * @param value 值(非负数)
+     * @return 桶的下标
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * 获得桶的最小值
+     * @param index 桶的下标
+     * @return 桶的最小值
+     */
+    private static long lowestValue(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        if (group == 0) {
+            return index;
+        }
+        return ((long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1)))) << (group - 1);
+    }
+
+    /**
+     * 获得桶的最大值
+     * @param index 桶的下标
+     * @return 桶的最大值
+     */
+    private static long highestValue(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        if (group == 0) {
+            return index;
+        }
+        return lowestValue(index) + (1L << (group - 1)) - 1;
+    }
+}
@@ -0,0 +1,300 @@
+package com.github.relucent.base.common.time;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟直方图（对数分桶，固定内存）<br>
+ * 与 HdrHistogram 的分桶方式相同：小于 128 的值每个值一个桶，之后每个2的幂区间平均分为 128 个子桶，所以任何值的相对误差都小于 1/128（约0.8%）。<br>
+ * 值的单位是纳秒，可以区分的最大值约为 2.4 小时（2^43 纳秒），更大的值计入最后一个桶（最大值仍然精确记录）。<br>
+ * 桶的数量是固定的（4736个），内存占用与记录的次数无关。<br>
+ * 此类不是线程安全的，多线程记录使用 {@link LatencyRecorder}。
+ */
+public class LatencyHistogram {
+
+    // ==============================Constants========================================
+    /** 子桶数量的位数 */
+    private static final int SUB_BUCKET_BITS = 7;
+    /** 每个2的幂区间的子桶数量 */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** 可以区分的最大值的位数 */
+    private static final int MAX_EXPONENT = 43;
+    /** 桶的数量 */
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    // ==============================Fields===========================================
+    /** 每个桶的计数 */
+    private final long[] counts;
+    /** 记录的总次数 */
+    private long totalCount;
+    /** 记录的值的总和 */
+    private long sum;
+    /** 最小值 */
+    private long min = Long.MAX_VALUE;
+    /** 最大值 */
+    private long max;
+
+    // ==============================Constructors=====================================
+    /**
+     * 构造函数
+     */
+    public LatencyHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+    }
+
+    /**
+     * 构造函数
+     * @param counts 每个桶的计数
+     * @param sum 值的总和
+     * @param min 最小值
+     * @param max 最大值
+     */
+    LatencyHistogram(long[] counts, long sum, long min, long max) {
+        this.counts = counts;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        for (long count : counts) {
+            this.totalCount += count;
+        }
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 记录一个值
+     * @param value 值(纳秒)，负数按0记录
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * 合并另一个直方图的记录到当前直方图
+     * @param other 另一个直方图
+     * @return 当前直方图
+     */
+    public LatencyHistogram add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * 合并多个直方图，返回新的直方图
+     * @param histograms 直方图
+     * @return 合并后的直方图
+     */
+    public static LatencyHistogram merge(LatencyHistogram... histograms) {
+        LatencyHistogram result = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            result.add(histogram);
+        }
+        return result;
+    }
+
+    /**
+     * 复制当前直方图
+     * @return 新的直方图
+     */
+    public LatencyHistogram copy() {
+        return new LatencyHistogram().add(this);
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * 获得记录的总次数
+     * @return 记录的总次数
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 获得记录的值的总和
+     * @return 值的总和(纳秒)
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * 获得最小值
+     * @return 最小值(纳秒)，没有记录时返回0
+     */
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * 获得最大值
+     * @return 最大值(纳秒)，没有记录时返回0
+     */
+    public long getMax() {
+        return totalCount == 0 ? 0 : max;
+    }
+
+    /**
+     * 获得平均值
+     * @return 平均值(纳秒)，没有记录时返回0
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0D : (double) sum / totalCount;
+    }
+
+    /**
+     * 获得百分位数的值，例如 {@code getValueAtPercentile(99.9)} 返回 99.9% 的记录都不超过的值
+     * @param percentile 百分位(0~100)
+     * @return 百分位数的值(纳秒)，相对误差小于1%，没有记录时返回0
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        if (percentile <= 0) {
+            return getMin();
+        }
+        long target = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100D) / 100D * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.max(Math.min(highestValue(i), max), min);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 获得百分位数的值
+     * @param percentile 百分位(0~100)
+     * @param unit 时间单位
+     * @return 百分位数的值
+     */
+    public long getValueAtPercentile(double percentile, TimeUnit unit) {
+        return unit.convert(getValueAtPercentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 获得指定值所在桶的计数
+     * @param value 值(纳秒)
+     * @return 计数
+     */
+    public long getCountAtValue(long value) {
+        return counts[bucketIndex(Math.max(value, 0))];
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + totalCount //
+                + ", min=" + getMin() + "ns" //
+                + ", mean=" + (long) getMean() + "ns" //
+                + ", p50=" + getValueAtPercentile(50) + "ns" //
+                + ", p90=" + getValueAtPercentile(90) + "ns" //
+                + ", p99=" + getValueAtPercentile(99) + "ns" //
+                + ", p99.9=" + getValueAtPercentile(99.9) + "ns" //
+                + ", max=" + getMax() + "ns";
+    }
+
+    // ==============================PackageMethods===================================
+    /**
+     * 从当前直方图中减去另一个直方图（另一个直方图必须是当前直方图较早的状态），用于计算区间内的记录<br>
+     * 区间内的最小值和最大值按照桶的边界估算。
+     * @param earlier 较早的直方图
+     * @return 当前直方图
+     */
+    LatencyHistogram subtract(LatencyHistogram earlier) {
+        if (earlier.totalCount == 0) {
+            return this;
+        }
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] -= earlier.counts[i];
+            if (counts[i] != 0) {
+                if (first == -1) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        totalCount -= earlier.totalCount;
+        sum -= earlier.sum;
+        if (first == -1) {
+            min = Long.MAX_VALUE;
+            max = 0;
+        } else {
+            min = Math.max(lowestValue(first), min);
+            max = Math.min(highestValue(last), max);
+        }
+        return this;
+    }
+
+    /**
+     * 计算值所在的桶
+     * @param value 值(非负数)
+     * @return 桶的下标
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * 获得桶的最小值
+     * @param index 桶的下标
+     * @return 桶的最小值
+     */
+    static long lowestValue(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        if (group == 0) {
+            return index;
+        }
+        return ((long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1)))) << (group - 1);
+    }
+
+    /**
+     * 获得桶的最大值
+     * @param index 桶的下标
+     * @return 桶的最大值
+     */
+    static long highestValue(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        if (group == 0) {
+            return index;
+        }
+        return lowestValue(index) + (1L << (group - 1)) - 1;
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.relucent.base.common.time;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟记录器<br>
+ * 与 {@link StopWatch} 不同，此类用于在生产环境中统计热点代码的延迟分布（百分位数），可以记录任意多次，内存占用固定。<br>
+ * 每个记录线程拥有独立的直方图（{@link LatencyHistogram} 的分桶方式），记录时只有当前线程写入，不需要加锁和 CAS，开销只有几纳秒；读取快照时再合并所有线程的直方图。<br>
+ * 线程结束后，它的记录合并到记录器中，不会丢失（在读取快照或者有新的线程注册时合并，线程频繁创建和结束时直方图的数量不会持续增长）。
+ *
+ * <pre>
+ * LatencyRecorder recorder = new LatencyRecorder();
+ *
+ * try (LatencyRecorder.Timer timer = recorder.start()) {
+ *     // 需要统计的代码
+ * }
+ *
+ * // 定期输出上一个区间的统计
+ * LatencyHistogram interval = recorder.intervalSnapshot();
+ * long p99 = interval.getValueAtPercentile(99);
+ * </pre>
+ */
+public class LatencyRecorder {
+
+    // ==============================Fields===========================================
+    /** 当前线程的直方图 */
+    private final ThreadLocal<Stripe> stripes = ThreadLocal.withInitial(this::register);
+    /** 所有线程的直方图 */
+    private final Queue<Stripe> allStripes = new ConcurrentLinkedQueue<>();
+    /** 已经结束的线程的记录 */
+    private final LatencyHistogram retired = new LatencyHistogram();
+    /** 重置时的记录(所有快照都减去该记录) */
+    private LatencyHistogram baseline = new LatencyHistogram();
+    /** 上一次区间快照时的记录 */
+    private LatencyHistogram lastInterval = new LatencyHistogram();
+
+    // ==============================Methods==========================================
+    /**
+     * 记录一次延迟
+     * @param nanos 延迟(纳秒)
+     */
+    public void record(long nanos) {
+        stripes.get().record(nanos);
+    }
+
+    /**
+     * 记录从指定时间开始到现在的延迟
+     * @param startNanos 开始时间，由 {@link System#nanoTime()} 获得
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 开始计时，关闭返回的计时器时记录延迟，用于 {@code try-with-resources} 语句
+     * @return 计时器
+     */
+    public Timer start() {
+        return new Timer(this, System.nanoTime());
+    }
+
+    /**
+     * 获得从创建(或者上一次重置)到现在的全部记录
+     * @return 直方图快照
+     */
+    public synchronized LatencyHistogram snapshot() {
+        return total().subtract(baseline);
+    }
+
+    /**
+     * 获得从上一次区间快照(或者重置)到现在的记录，用于定期输出统计
+     * @return 直方图快照
+     */
+    public synchronized LatencyHistogram intervalSnapshot() {
+        LatencyHistogram total = total();
+        LatencyHistogram interval = total.copy().subtract(lastInterval);
+        lastInterval = total;
+        return interval;
+    }
+
+    /**
+     * 重置记录器，之后的快照不再包含之前的记录
+     */
+    public synchronized void reset() {
+        LatencyHistogram total = total();
+        baseline = total;
+        lastInterval = total;
+    }
+
+    // ==============================PackageMethods===================================
+    /**
+     * 获得当前注册的直方图数量
+     * @return 直方图数量
+     */
+    int stripeCount() {
+        return allStripes.size();
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 为当前线程注册直方图，同时合并已经结束的线程的记录(每个线程只注册一次)
+     * @return 当前线程的直方图
+     */
+    private synchronized Stripe register() {
+        retireDeadStripes();
+        Stripe stripe = new Stripe(Thread.currentThread());
+        allStripes.add(stripe);
+        return stripe;
+    }
+
+    /**
+     * 将已经结束的线程的记录合并到 {@link #retired} 中，并移除它们的直方图(调用时需要持有锁)
+     */
+    private void retireDeadStripes() {
+        for (Iterator<Stripe> iterator = allStripes.iterator(); iterator.hasNext();) {
+            Stripe stripe = iterator.next();
+            Thread owner = stripe.owner.get();
+            if (owner == null || !owner.isAlive()) {
+                retired.add(stripe.toHistogram());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 合并所有线程的记录(调用时需要持有锁)
+     * @return 全部记录
+     */
+    private LatencyHistogram total() {
+        retireDeadStripes();
+        LatencyHistogram total = retired.copy();
+        for (Stripe stripe : allStripes) {
+            total.add(stripe.toHistogram());
+        }
+        return total;
+    }
+
+    // ==============================InnerClass=======================================
+    /**
+     * 计时器
+     */
+    public static class Timer implements AutoCloseable {
+
+        /** 记录器 */
+        private final LatencyRecorder recorder;
+        /** 开始时间 */
+        private final long startNanos;
+
+        /**
+         * 构造函数
+         * @param recorder 记录器
+         * @param startNanos 开始时间
+         */
+        private Timer(LatencyRecorder recorder, long startNanos) {
+            this.recorder = recorder;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 获得已经经过的时间
+         * @return 经过的时间(纳秒)
+         */
+        public long getElapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+
+        /**
+         * 结束计时并记录延迟
+         */
+        @Override
+        public void close() {
+            recorder.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 单个线程的直方图，只有所属线程写入，使用 {@code lazySet} 发布，其它线程读取时可能看到稍微过时的值
+     */
+    private static class Stripe {
+
+        /** 总和的位置 */
+        private static final int SUM = LatencyHistogram.BUCKET_COUNT;
+        /** 最小值的位置 */
+        private static final int MIN = SUM + 1;
+        /** 最大值的位置 */
+        private static final int MAX = SUM + 2;
+
+        /** 所属线程 */
+        private final WeakReference<Thread> owner;
+        /** 每个桶的计数，以及总和、最小值、最大值 */
+        private final AtomicLongArray data = new AtomicLongArray(LatencyHistogram.BUCKET_COUNT + 3);
+
+        private Stripe(Thread owner) {
+            this.owner = new WeakReference<>(owner);
+            this.data.set(MIN, Long.MAX_VALUE);
+        }
+
+        /**
+         * 记录一个值(只由所属线程调用)
+         * @param value 值(纳秒)
+         */
+        private void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            int index = LatencyHistogram.bucketIndex(value);
+            data.lazySet(index, data.get(index) + 1);
+            data.lazySet(SUM, data.get(SUM) + value);
+            if (value < data.get(MIN)) {
+                data.lazySet(MIN, value);
+            }
+            if (value > data.get(MAX)) {
+                data.lazySet(MAX, value);
+            }
+        }
+
+        /**
+         * 转换为直方图
+         * @return 直方图
+         */
+        private LatencyHistogram toHistogram() {
+            long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = data.get(i);
+            }
+            return new LatencyHistogram(counts, data.get(SUM), data.get(MIN), data.get(MAX));
+        }
+    }
+}
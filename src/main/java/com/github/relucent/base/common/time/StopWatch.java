@@ -13,6 +13,7 @@ import com.github.relucent.base.common.constant.StringConstant;
  * 注：<br>
  * 1. 此对象不是为线程安全而设计的。 <br>
  * 2. 此类通常用于在概念验证工作和开发过程中验证性能，而不是作为生产应用程序的一部分。<br>
+ * 3. 在生产环境中统计热点代码的延迟分布(百分位数)，使用 {@link LatencyRecorder}。<br>
  * 
  * <pre>
  * StopWatch stopWatch = new StopWatch("任务名称");
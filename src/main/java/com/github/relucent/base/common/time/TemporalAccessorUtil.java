@@ -331,7 +331,7 @@ public class TemporalAccessorUtil {
 
     /**
      * 解析日期格式字符串<br>
-     * 会通过尝试各种不同时间格式的解析器来解析时间字符串，如果最终依旧无法解析则返回{@code null}
+     * 先扫描一次文本识别常用格式并直接解析，无法识别时再通过尝试各种不同时间格式的解析器来解析时间字符串，如果最终依旧无法解析则返回{@code null}
      * @param text 时间文本
      * @return 时间对象{@code TemporalAccessor}
      */
@@ -339,6 +339,10 @@ public class TemporalAccessorUtil {
         if (StringUtil.isBlank(text)) {
             return null;
         }
+        TemporalAccessor temporal = TemporalTextParser.parse(text);
+        if (temporal != null) {
+            return temporal;
+        }
         for (DateTimeFormatter formatter : DATE_TIME_FORMATTERS) {
             try {
                 return formatter.parse(text);
@@ -0,0 +1,256 @@
+package com.github.relucent.base.common.time;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * 日期时间文本识别器<br>
+ * 只扫描一次字符就能确定文本的格式，常用的纯数字格式直接按位解析，其它可识别的格式直接交给对应的 {@link DateTimeFormatter}，避免逐个尝试解析器时抛出的大量异常。<br>
+ * 直接解析的格式：
+ *
+ * <pre>
+ * yyyyMMdd
+ * yyyyMMddHHmmss
+ * yyyy-MM-dd, yyyy/MM/dd
+ * yyyy-MM-dd HH:mm, yyyy/MM/dd HH:mm, yyyy-MM-ddTHH:mm
+ * yyyy-MM-dd HH:mm:ss, yyyy/MM/dd HH:mm:ss, yyyy-MM-ddTHH:mm:ss
+ * yyyy-MM-dd HH:mm:ss.SSS, yyyy-MM-ddTHH:mm:ss.SSSSSSSSS(1~9位小数)
+ * </pre>
+ *
+ * 识别结果与 {@link TemporalAccessorUtil#parse(String)} 按顺序尝试解析器的结果一致，无法识别或者数值不合法时返回{@code null}，由调用方按原有方式解析。
+ */
+class TemporalTextParser {
+
+    // ==============================Constructors=====================================
+    /**
+     * 工具类私有构造
+     */
+    private TemporalTextParser() {
+    }
+
+    // ==============================Methods==========================================
+    /**
+     * 识别并解析日期时间文本
+     * @param text 日期时间文本(不能为空)
+     * @return 时间对象，如果无法识别返回{@code null}
+     */
+    static TemporalAccessor parse(String text) {
+        final int length = text.length();
+        // 扫描一次：统计数字个数，并记录第一个非数字字符的位置
+        int digits = 0;
+        int firstNonDigit = -1;
+        for (int i = 0; i < length; i++) {
+            if (isDigit(text.charAt(i))) {
+                digits++;
+            } else if (firstNonDigit == -1) {
+                firstNonDigit = i;
+            }
+        }
+
+        // 纯数字：yyyyMMdd / yyyyMMddHHmmss
+        if (digits == length) {
+            if (length == 8) {
+                return ofDate(text, 0, 4, 6);
+            }
+            if (length == 14) {
+                return ofDateTime(number(text, 0, 4), number(text, 4, 2), number(text, 6, 2), number(text, 8, 2), number(text, 10, 2), number(text, 12, 2), 0);
+            }
+            return null;
+        }
+
+        final char first = text.charAt(0);
+
+        // Fri, 14 Nov 2025 17:00:00 GMT
+        if (!isDigit(first)) {
+            return tryParse(DateTimeFormatter.RFC_1123_DATE_TIME, text);
+        }
+
+        // 17:00:00 / 17:00:00+08:00
+        if (firstNonDigit == 2 && text.charAt(2) == ':') {
+            return tryParse(isLocalTime(text) ? DateTimeFormatter.ISO_LOCAL_TIME : DateTimeFormatter.ISO_OFFSET_TIME, text);
+        }
+
+        if (firstNonDigit != 4) {
+            return null;
+        }
+
+        final char separator = text.charAt(4);
+        if (separator != '-' && separator != '/') {
+            return null;
+        }
+
+        // 2025-318
+        if (length == 8 && separator == '-' && digits == 7) {
+            return tryParse(DateTimeFormatter.ISO_ORDINAL_DATE, text);
+        }
+
+        if (length < 10 || !isDigits(text, 5, 7) || text.charAt(7) != separator || !isDigits(text, 8, 10)) {
+            return null;
+        }
+
+        // yyyy-MM-dd / yyyy/MM/dd
+        if (length == 10) {
+            return ofDate(text, 0, 5, 8);
+        }
+
+        final char delimiter = text.charAt(10);
+
+        // 2025-11-14+08:00
+        if (separator == '-' && (delimiter == '+' || delimiter == '-' || delimiter == 'Z')) {
+            return tryParse(DateTimeFormatter.ISO_OFFSET_DATE, text);
+        }
+
+        final boolean iso = delimiter == 'T';
+        if (!(delimiter == ' ' || (iso && separator == '-'))) {
+            return null;
+        }
+        if (length < 16 || !isDigits(text, 11, 13) || text.charAt(13) != ':' || !isDigits(text, 14, 16)) {
+            return null;
+        }
+
+        final int year = number(text, 0, 4);
+        final int month = number(text, 5, 2);
+        final int day = number(text, 8, 2);
+        final int hour = number(text, 11, 2);
+        final int minute = number(text, 14, 2);
+
+        // HH:mm
+        if (length == 16) {
+            return ofDateTime(year, month, day, hour, minute, 0, 0);
+        }
+        if (length < 19 || text.charAt(16) != ':' || !isDigits(text, 17, 19)) {
+            return iso ? tryParse(DateTimeFormatter.ISO_ZONED_DATE_TIME, text) : null;
+        }
+
+        final int second = number(text, 17, 2);
+
+        // HH:mm:ss
+        if (length == 19) {
+            return ofDateTime(year, month, day, hour, minute, second, 0);
+        }
+
+        // HH:mm:ss.SSS
+        if (text.charAt(19) == '.' && isDigits(text, 20, length)) {
+            final int fraction = length - 20;
+            if (iso ? (fraction >= 1 && fraction <= 9) : (fraction == 3 && separator == '-')) {
+                int nano = number(text, 20, fraction);
+                for (int i = fraction; i < 9; i++) {
+                    nano *= 10;
+                }
+                return ofDateTime(year, month, day, hour, minute, second, nano);
+            }
+            return null;
+        }
+
+        // 2025-11-14T17:00:00+08:00[Asia/Shanghai] / 2025-11-14T09:00:00Z
+        return iso ? tryParse(DateTimeFormatter.ISO_ZONED_DATE_TIME, text) : null;
+    }
+
+    // ==============================PrivateMethods===================================
+    /**
+     * 使用指定的解析器解析文本
+     * @param formatter 解析器
+     * @param text 日期时间文本
+     * @return 时间对象，解析失败返回{@code null}
+     */
+    private static TemporalAccessor tryParse(DateTimeFormatter formatter, String text) {
+        try {
+            return formatter.parse(text);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 创建日期对象
+     * @param text 日期时间文本
+     * @param yearIndex 年的位置(4位)
+     * @param monthIndex 月的位置(2位)
+     * @param dayIndex 日的位置(2位)
+     * @return 日期对象，数值不合法返回{@code null}
+     */
+    private static LocalDate ofDate(String text, int yearIndex, int monthIndex, int dayIndex) {
+        try {
+            return LocalDate.of(number(text, yearIndex, 4), number(text, monthIndex, 2), number(text, dayIndex, 2));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 创建日期时间对象
+     * @param year 年
+     * @param month 月
+     * @param day 日
+     * @param hour 时
+     * @param minute 分
+     * @param second 秒
+     * @param nano 纳秒
+     * @return 日期时间对象，数值不合法返回{@code null}
+     */
+    private static LocalDateTime ofDateTime(int year, int month, int day, int hour, int minute, int second, int nano) {
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 判断时间文本是否不包含时区偏移(只包含数字、冒号和小数点)
+     * @param text 时间文本
+     * @return 不包含时区偏移返回{@code true}
+     */
+    private static boolean isLocalTime(String text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c) && c != ':' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取十进制数字
+     * @param text 文本
+     * @param offset 开始位置
+     * @param count 数字位数
+     * @return 数值
+     */
+    private static int number(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 判断指定范围内的字符是否都是数字
+     * @param text 文本
+     * @param begin 开始位置(包含)
+     * @param end 结束位置(不包含)
+     * @return 都是数字返回{@code true}
+     */
+    private static boolean isDigits(String text, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断字符是否是数字
+     * @param c 字符
+     * @return 是数字返回{@code true}
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
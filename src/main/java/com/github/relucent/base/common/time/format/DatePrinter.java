@@ -42,6 +42,21 @@ public interface DatePrinter {
      */
     <B extends Appendable> B format(long millis, B buf);
 
+    /**
+     * 格式化日期表示的毫秒数{@code long}，并将格式化结果写入到字符数组中<br>
+     * 默认实现格式化为字符串后复制到字符数组中。
+     * @param millis 要格式化的毫秒值
+     * @param dest 目标字符数组
+     * @param offset 写入的开始位置
+     * @return 写入的字符数
+     * @throws IndexOutOfBoundsException 如果字符数组剩余的空间不足
+     */
+    default int format(long millis, char[] dest, int offset) {
+        String text = format(millis);
+        text.getChars(0, text.length(), dest, offset);
+        return text.length();
+    }
+
     /**
      * * 格式化日期{@code Date}，并将格式化结果添加到{@code Appendable}
      * @param <B> 字符串缓冲区类型，通常是StringBuilder或StringBuffer
@@ -52,6 +52,14 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
         }
     };
 
+    /** 格式化当前时间的FastDateFormat缓存 */
+    private static final FormatCache<FastDateFormat> CLOCK_CACHE = new FormatCache<FastDateFormat>() {
+        @Override
+        protected FastDateFormat createInstance(final String pattern, final TimeZone timeZone, final Locale locale) {
+            return new FastDateFormat(pattern, timeZone, locale, null, true);
+        }
+    };
+
     // =================================Instances==============================================
     /**
      * 获得默认的格式化程序实例。
@@ -105,6 +113,29 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
         return CACHE.getInstance(pattern, timeZone, locale);
     }
 
+    /**
+     * 获得一个用于格式化当前时间(例如日志时间戳)的日期格式化器<br>
+     * 格式化器缓存最近一秒的格式化结果，同一秒内的时间只需要替换毫秒部分。只适合时间基本递增的场景，格式化任意的时间请使用{@link #getInstance(String)}。
+     * @param pattern 日期格式（与{@link java.text.SimpleDateFormat}兼容）
+     * @return 指定格式的日期格式化器
+     * @throws IllegalArgumentException 如果日期格式{@code pattern}无效
+     */
+    public static FastDateFormat getClockInstance(final String pattern) {
+        return CLOCK_CACHE.getInstance(pattern, null, null);
+    }
+
+    /**
+     * 获得一个用于格式化当前时间(例如日志时间戳)的日期格式化器，参考{@link #getClockInstance(String)}
+     * @param pattern 日期格式（与{@link java.text.SimpleDateFormat}兼容）
+     * @param timeZone {@link TimeZone} 时区
+     * @param locale 地区（可选），覆盖系统区域设置
+     * @return 指定格式的日期格式化器
+     * @throws IllegalArgumentException 如果日期格式{@code pattern}无效或者为{@code null}
+     */
+    public static FastDateFormat getClockInstance(final String pattern, final TimeZone timeZone, final Locale locale) {
+        return CLOCK_CACHE.getInstance(pattern, timeZone, locale);
+    }
+
     // -----------------------------------------------------------------------
     /**
      * 获得一个指定日期样式、默认时区和默认地区的日期格式化器
@@ -271,7 +302,20 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
      * @throws NullPointerException 如果 pattern、timeZone、locale 为{@code null}
      */
     protected FastDateFormat(final String pattern, final TimeZone timeZone, final Locale locale, final Date centuryStart) {
-        printer = new FastDatePrinter(pattern, timeZone, locale);
+        this(pattern, timeZone, locale, centuryStart, false);
+    }
+
+    /**
+     * 构造函数
+     * @param pattern 与{@link java.text.SimpleDateFormat}兼容的日期格式
+     * @param timeZone {@link TimeZone} 时区
+     * @param locale {@link Locale} 地区
+     * @param centuryStart 世纪开始时间， 100年期间的开始用作2位数年份解析的“默认世纪”。如果centuryStart为null，则默认为now-80年
+     * @param clock 是否缓存最近一秒的格式化结果(用于格式化当前时间)
+     * @throws NullPointerException 如果 pattern、timeZone、locale 为{@code null}
+     */
+    protected FastDateFormat(final String pattern, final TimeZone timeZone, final Locale locale, final Date centuryStart, final boolean clock) {
+        printer = new FastDatePrinter(pattern, timeZone, locale, clock);
         parser = new FastDateParser(pattern, timeZone, locale, centuryStart);
     }
 
@@ -332,6 +376,19 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
         return printer.format(millis, buf);
     }
 
+    /**
+     * 格式化毫秒{@code long}，并将结果写入到字符数组中<br>
+     * 通过{@link #getClockInstance(String)}获得的格式化器，在格式中没有毫秒字段或者毫秒字段是固定宽度的{@code SSS}时，格式化最近一秒内的时间不会创建任何对象。
+     * @param millis 要格式化的毫秒值
+     * @param dest 目标字符数组，剩余空间可以参考{@link #getMaxLengthEstimate()}
+     * @param offset 写入的开始位置
+     * @return 写入的字符数
+     */
+    @Override
+    public int format(final long millis, final char[] dest, final int offset) {
+        return printer.format(millis, dest, offset);
+    }
+
     /**
      * 格式化日期对象{@code Date}，并将结果追加到字符缓冲器 {@code StringBuffer}中
      * @param <B> 字符缓冲器{@code Appendable}的类型，通常是StringBuilder或StringBuffer
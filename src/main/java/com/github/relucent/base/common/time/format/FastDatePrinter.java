@@ -69,6 +69,18 @@ class FastDatePrinter implements DatePrinter, Serializable {
     /** 估计的最大长度 */
     private transient int maxLengthEstimate;
 
+    /** 毫秒字段的规则，为{@code null}时表示格式中没有毫秒字段 */
+    private transient PaddedNumberField millisRule;
+
+    /** 是否缓存最近一秒的格式化结果(用于格式化当前时间) */
+    private final boolean clock;
+
+    /** 格式化结果是否可以按秒缓存（开启了缓存，并且格式中最多只有一个固定宽度的毫秒字段） */
+    private transient boolean secondCacheable;
+
+    /** 最近一秒的格式化结果 */
+    private transient volatile SecondCache secondCache;
+
     // =================================Constructors===========================================
     /**
      * 构造函数<br>
@@ -78,9 +90,22 @@ class FastDatePrinter implements DatePrinter, Serializable {
      * @throws NullPointerException 如果 pattern、timeZone、locale 为{@code null}
      */
     protected FastDatePrinter(final String pattern, final TimeZone timeZone, final Locale locale) {
+        this(pattern, timeZone, locale, false);
+    }
+
+    /**
+     * 构造函数<br>
+     * @param pattern 日期格式（与{@link java.text.SimpleDateFormat}兼容）
+     * @param timeZone {@link TimeZone} 时区
+     * @param locale {@link Locale} 地区
+     * @param clock 是否缓存最近一秒的格式化结果(用于格式化基本递增的当前时间)
+     * @throws NullPointerException 如果 pattern、timeZone、locale 为{@code null}
+     */
+    protected FastDatePrinter(final String pattern, final TimeZone timeZone, final Locale locale, final boolean clock) {
         this.pattern = pattern;
         this.timeZone = timeZone;
         this.locale = LocaleUtil.defaultLocale(locale);
+        this.clock = clock;
         init();
     }
 
@@ -95,6 +120,31 @@ class FastDatePrinter implements DatePrinter, Serializable {
             length += rules[i].estimateLength();
         }
         maxLengthEstimate = length;
+        initSecondCache();
+    }
+
+    /**
+     * 判断格式化结果是否可以按秒缓存<br>
+     * 除毫秒之外的字段在一秒之内都不会变化，所以只要毫秒字段的输出宽度固定（{@code SSS}），就可以缓存一秒的格式化结果，每次只需要替换毫秒部分。
+     */
+    private void initSecondCache() {
+        PaddedNumberField found = null;
+        boolean cacheable = true;
+        for (Rule rule : rules) {
+            if (rule instanceof PaddedNumberField && ((PaddedNumberField) rule).field == Calendar.MILLISECOND) {
+                if (found != null) {
+                    cacheable = false;
+                }
+                found = (PaddedNumberField) rule;
+            } else if (rule instanceof UnpaddedNumberField && ((UnpaddedNumberField) rule).field == Calendar.MILLISECOND) {
+                cacheable = false;
+            } else if (rule instanceof TwoDigitNumberField && ((TwoDigitNumberField) rule).field == Calendar.MILLISECOND) {
+                cacheable = false;
+            }
+        }
+        millisRule = cacheable ? found : null;
+        secondCacheable = clock && cacheable;
+        secondCache = null;
     }
 
     // =================================ParseMethods===========================================
@@ -337,6 +387,12 @@ class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public String format(final long millis) {
+        final SecondCache cache = getSecondCache(millis);
+        if (cache != null) {
+            final char[] chars = new char[cache.chars.length];
+            cache.writeTo(chars, 0, millis);
+            return new String(chars);
+        }
         final Calendar c = newCalendar();
         c.setTimeInMillis(millis);
         return applyRulesToString(c);
@@ -349,9 +405,7 @@ class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public String format(final Date date) {
-        final Calendar c = newCalendar();
-        c.setTime(date);
-        return applyRulesToString(c);
+        return format(date.getTime());
     }
 
     /**
@@ -373,11 +427,43 @@ class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public <B extends Appendable> B format(final long millis, final B buf) {
+        final SecondCache cache = getSecondCache(millis);
+        if (cache != null) {
+            try {
+                cache.appendTo(buf, millis);
+            } catch (final IOException ioe) {
+                throw ExceptionUtil.propagate(ioe);
+            }
+            return buf;
+        }
         final Calendar c = newCalendar();
         c.setTimeInMillis(millis);
         return applyRules(c, buf);
     }
 
+    /**
+     * 格式化毫秒{@code long}，并将结果写入到字符数组中<br>
+     * 格式化结果可以按秒缓存(开启了缓存，格式中没有毫秒字段或者毫秒字段是固定宽度的{@code SSS})并且命中最近一秒的缓存时，不会创建任何对象。
+     * @param millis 要格式化的毫秒值
+     * @param dest 目标字符数组，剩余空间可以参考{@link #getMaxLengthEstimate()}
+     * @param offset 写入的开始位置
+     * @return 写入的字符数
+     * @throws IndexOutOfBoundsException 如果字符数组剩余的空间不足
+     */
+    @Override
+    public int format(final long millis, final char[] dest, final int offset) {
+        final SecondCache cache = getSecondCache(millis);
+        if (cache != null) {
+            cache.writeTo(dest, offset, millis);
+            return cache.chars.length;
+        }
+        final Calendar c = newCalendar();
+        c.setTimeInMillis(millis);
+        final String text = applyRulesToString(c);
+        text.getChars(0, text.length(), dest, offset);
+        return text.length();
+    }
+
     /**
      * 格式化日期对象{@code Date}，并将结果追加到字符缓冲器 {@code StringBuffer}中。
      * @param <B> 字符缓冲器{@code Appendable}的类型，通常是StringBuilder或StringBuffer
@@ -387,9 +473,7 @@ class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public <B extends Appendable> B format(final Date date, final B buf) {
-        final Calendar c = newCalendar();
-        c.setTime(date);
-        return applyRules(c, buf);
+        return format(date.getTime(), buf);
     }
 
     /**
@@ -436,6 +520,54 @@ class FastDatePrinter implements DatePrinter, Serializable {
         return applyRules(calendar, new StringBuilder(maxLengthEstimate)).toString();
     }
 
+    /**
+     * 获得毫秒值所在秒的格式化结果缓存<br>
+     * 只有时间向前推进时才替换缓存，早于缓存的时间不使用缓存(避免多个线程交替格式化不同的秒时反复替换缓存)。
+     * @param millis 毫秒值
+     * @return 格式化结果缓存，如果没有开启缓存、格式不支持按秒缓存或者时间早于缓存返回{@code null}
+     */
+    private SecondCache getSecondCache(final long millis) {
+        if (!secondCacheable) {
+            return null;
+        }
+        final long second = Math.floorDiv(millis, 1000L);
+        SecondCache cache = secondCache;
+        if (cache != null && cache.second == second) {
+            return cache;
+        }
+        if (cache != null && cache.second > second) {
+            return null;
+        }
+        cache = createSecondCache(second);
+        secondCache = cache;
+        return cache;
+    }
+
+    /**
+     * 创建一秒的格式化结果缓存(毫秒部分为0)
+     * @param second 秒数(从1970-01-01T00:00:00Z开始)
+     * @return 格式化结果缓存
+     */
+    private SecondCache createSecondCache(final long second) {
+        final Calendar c = newCalendar();
+        c.setTimeInMillis(second * 1000L);
+        final StringBuilder buf = new StringBuilder(maxLengthEstimate);
+        int millisOffset = -1;
+        try {
+            for (final Rule rule : rules) {
+                if (rule == millisRule) {
+                    millisOffset = buf.length();
+                }
+                rule.appendTo(buf, c);
+            }
+        } catch (final IOException ioe) {
+            throw ExceptionUtil.propagate(ioe);
+        }
+        final char[] chars = new char[buf.length()];
+        buf.getChars(0, chars.length, chars, 0);
+        return new SecondCache(second, chars, millisOffset, millisRule == null ? 0 : millisRule.size);
+    }
+
     /**
      * 创建方法 {@code Calendar}对象，使用 FastDatePrinter 的时区和地区
      * @return {@code Calendar}对象实例
@@ -624,6 +756,70 @@ class FastDatePrinter implements DatePrinter, Serializable {
         }
     }
 
+    /**
+     * 一秒的格式化结果缓存(不可变对象，可以在多线程之间共享)
+     */
+    private static class SecondCache {
+        /** 秒数 */
+        final long second;
+        /** 格式化结果(毫秒部分为0) */
+        final char[] chars;
+        /** 毫秒部分的位置，-1 表示没有毫秒部分 */
+        final int millisOffset;
+        /** 毫秒部分的宽度 */
+        final int millisWidth;
+
+        SecondCache(final long second, final char[] chars, final int millisOffset, final int millisWidth) {
+            this.second = second;
+            this.chars = chars;
+            this.millisOffset = millisOffset;
+            this.millisWidth = millisWidth;
+        }
+
+        /**
+         * 将格式化结果写入到字符数组中
+         * @param dest 目标字符数组
+         * @param offset 写入的开始位置
+         * @param millis 毫秒值(与缓存在同一秒内)
+         */
+        void writeTo(final char[] dest, final int offset, final long millis) {
+            System.arraycopy(chars, 0, dest, offset, chars.length);
+            if (millisOffset >= 0) {
+                int value = (int) Math.floorMod(millis, 1000L);
+                for (int i = offset + millisOffset + millisWidth - 1; value != 0; i--) {
+                    dest[i] = (char) (value % 10 + '0');
+                    value /= 10;
+                }
+            }
+        }
+
+        /**
+         * 将格式化结果追加到字符缓冲器中
+         * @param buffer 字符缓冲器
+         * @param millis 毫秒值(与缓存在同一秒内)
+         * @throws IOException 如果发生IO异常
+         */
+        void appendTo(final Appendable buffer, final long millis) throws IOException {
+            if (millisOffset < 0) {
+                append(buffer, 0, chars.length);
+                return;
+            }
+            append(buffer, 0, millisOffset);
+            Helper.appendFullDigits(buffer, (int) Math.floorMod(millis, 1000L), millisWidth);
+            append(buffer, millisOffset + millisWidth, chars.length);
+        }
+
+        private void append(final Appendable buffer, final int begin, final int end) throws IOException {
+            if (buffer instanceof StringBuilder) {
+                ((StringBuilder) buffer).append(chars, begin, end - begin);
+            } else {
+                for (int i = begin; i < end; i++) {
+                    buffer.append(chars[i]);
+                }
+            }
+        }
+    }
+
     // =================================Rules==================================================
     /**
      * 规则
@@ -1,9 +1,20 @@
 package com.github.relucent.base.plugin.gson;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import com.github.relucent.base.common.collection.Listx;
 import com.github.relucent.base.common.collection.Mapx;
+import com.github.relucent.base.common.io.IoRuntimeException;
 import com.github.relucent.base.common.json.JsonHandler;
 import com.github.relucent.base.common.logging.Logger;
 import com.github.relucent.base.common.reflect.TypeReference;
@@ -11,6 +22,8 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 public class GsonHandler implements JsonHandler {
 
@@ -125,4 +138,57 @@ public class GsonHandler implements JsonHandler {
 			return null;
 		}
 	}
+
+	/**
+	 * 将 JSON Lines 输入流解码为JAVA对象迭代器(惰性读取)
+	 * @param <T> JAVA对象泛型
+	 * @param input JSON Lines 输入流
+	 * @param type JAVA对象类型
+	 * @return JAVA对象迭代器
+	 */
+	@Override
+	public <T> Iterator<T> decodeLines(InputStream input, Class<T> type) {
+		final JsonReader reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		reader.setLenient(true);// 允许多个顶层值
+		return new Iterator<T>() {
+			@Override
+			public boolean hasNext() {
+				try {
+					return reader.peek() != JsonToken.END_DOCUMENT;
+				} catch (IOException e) {
+					throw IoRuntimeException.wrap(e);
+				}
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return gson.fromJson(reader, type);
+			}
+		};
+	}
+
+	/**
+	 * 将JAVA对象逐个编码为 JSON Lines 写入输出流
+	 * @param values JAVA对象迭代器
+	 * @param output 输出流
+	 */
+	@Override
+	public void encodeLines(Iterator<?> values, OutputStream output) {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		try {
+			for (int count = 1; values.hasNext(); count++) {
+				gson.toJson(values.next(), writer);
+				writer.write('\n');
+				if (count % LINES_FLUSH_INTERVAL == 0) {
+					writer.flush();
+				}
+			}
+			writer.flush();
+		} catch (IOException e) {
+			throw IoRuntimeException.wrap(e);
+		}
+	}
 }
@@ -1,10 +1,16 @@
 package com.github.relucent.base.plugin.jackson;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.util.Iterator;
 import java.util.TimeZone;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -19,6 +25,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.github.relucent.base.common.collection.Listx;
 import com.github.relucent.base.common.collection.Mapx;
+import com.github.relucent.base.common.io.IoRuntimeException;
 import com.github.relucent.base.common.json.JsonHandler;
 import com.github.relucent.base.common.logging.Logger;
 import com.github.relucent.base.common.reflect.TypeReference;
@@ -178,6 +185,46 @@ public class JacksonHandler implements JsonHandler {
 		}
 	}
 
+	/**
+	 * 将 JSON Lines 输入流解码为JAVA对象迭代器(惰性读取)
+	 * @param <T>   JAVA对象泛型
+	 * @param input JSON Lines 输入流
+	 * @param type  JAVA对象类型
+	 * @return JAVA对象迭代器
+	 */
+	@Override
+	public <T> Iterator<T> decodeLines(InputStream input, Class<T> type) {
+		try {
+			return objectMapper.readerFor(type).readValues(input);
+		} catch (IOException e) {
+			throw IoRuntimeException.wrap(e);
+		}
+	}
+
+	/**
+	 * 将JAVA对象逐个编码为 JSON Lines 写入输出流
+	 * @param values JAVA对象迭代器
+	 * @param output 输出流
+	 */
+	@Override
+	public void encodeLines(Iterator<?> values, OutputStream output) {
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setRootValueSeparator(null);
+			for (int count = 1; values.hasNext(); count++) {
+				writer.writeValue(generator, values.next());
+				generator.writeRaw('\n');
+				if (count % LINES_FLUSH_INTERVAL == 0) {
+					generator.flush();
+				}
+			}
+			generator.flush();
+		} catch (IOException e) {
+			throw IoRuntimeException.wrap(e);
+		}
+	}
+
 	// ===================================Methods=============================================
 	/**
 	 * 将JSON对象转化为指定类型的JAVA对象
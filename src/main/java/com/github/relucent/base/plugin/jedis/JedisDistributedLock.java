@@ -3,14 +3,13 @@ package com.github.relucent.base.plugin.jedis;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.function.Consumer;
 
+import com.github.relucent.base.common.cron.JobScheduler;
 import com.github.relucent.base.common.identifier.IdUtil;
 import com.github.relucent.base.common.logging.Logger;
 
@@ -25,7 +24,6 @@ public class JedisDistributedLock implements Lock {
     private static final String LOCK_KEY_PREFIX = "_yyl__lock:";
     private static final String UNLOCK_MESSAGE = "~unlock";
     private static final String PREFIX_ENTRY = IdUtil.uuid32();
-    private static final Timer TIMER = new Timer(true);
 
     private final Logger log = Logger.getLogger(getClass());
 
@@ -231,15 +229,12 @@ public class JedisDistributedLock implements Lock {
      * @param threadId 线程ID
      */
     protected void renewExpiration(long threadId) {
-        TIMER.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                boolean status = renewExpirationCommand(threadId);
-                if (status) {
-                    renewExpiration(threadId);// 重新安排自己
-                }
+        JobScheduler.getInstance().schedule(() -> {
+            boolean status = renewExpirationCommand(threadId);
+            if (status) {
+                renewExpiration(threadId);// 重新安排自己
             }
-        }, internalLockLeaseTime / 3);
+        }, internalLockLeaseTime / 3, TimeUnit.MILLISECONDS);
     }
 
     /**
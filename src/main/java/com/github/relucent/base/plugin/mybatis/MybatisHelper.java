@@ -12,19 +12,35 @@ import com.github.relucent.base.common.page.SimplePage;
 public class MybatisHelper {
 
     /**
-     * 分页查询
+     * 分页查询<br>
+     * 需要指定总数查询的执行方式时，在调用前设置 {@code MybatisPageContextHolder.getContext().setCountMode(...)}
      * @param <T> 查询的实体类型
      * @param pagination 分页条件
      * @param select 查询方法
      * @return 分页查询结果
      */
     public static <T> SimplePage<T> selectPage(Pagination pagination, Select<T> select) {
+        return selectPage(pagination, null, select);
+    }
+
+    /**
+     * 键集分页(Keyset/Seek)查询<br>
+     * 按排序键查询排在上一页最后一条记录之后的数据，查询深度的页时不需要扫描并跳过前面的记录。分页条件的偏移量只用于计算结果的页码。
+     * @param <T> 查询的实体类型
+     * @param pagination 分页条件
+     * @param sortKeys 排序键(值为上一页最后一条记录的值，查询第一页时值为 {@code null})，为空时使用偏移量分页
+     * @param select 查询方法
+     * @return 分页查询结果
+     * @see MybatisPageContext#setSortKeys(List)
+     */
+    public static <T> SimplePage<T> selectPage(Pagination pagination, List<MybatisPageContext.SortKey> sortKeys, Select<T> select) {
         try {
             MybatisPageContext context = MybatisPageContextHolder.getContext();
             context.setOffset(pagination.getOffset());
             context.setLimit(pagination.getLimit());
             context.setTotal(-1);
             context.setCount(true);
+            context.setSortKeys(sortKeys);
             List<T> records = select.get();
             long offset = pagination.getOffset();
             long limit = pagination.getLimit();
@@ -1,6 +1,7 @@
 package com.github.relucent.base.plugin.mybatis;
 
 import java.io.Serializable;
+import java.util.List;
 
 @SuppressWarnings("serial")
 public class MybatisPageContext implements Serializable {
@@ -9,6 +10,8 @@ public class MybatisPageContext implements Serializable {
     private long limit = 1L;
     private long total = -1L;
     private boolean count = false;
+    private CountMode countMode = null;
+    private List<SortKey> sortKeys = null;
 
     public long getOffset() {
         return offset;
@@ -41,4 +44,104 @@ public class MybatisPageContext implements Serializable {
     public void setCount(boolean count) {
         this.count = count;
     }
+
+    /**
+     * 获得总数查询的执行方式
+     * @return 总数查询的执行方式，为 {@code null} 时使用分页插件的默认方式
+     */
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    /**
+     * 设置总数查询的执行方式
+     * @param countMode 总数查询的执行方式，为 {@code null} 时使用分页插件的默认方式
+     */
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    /**
+     * 获得键集分页(Keyset/Seek)的排序键
+     * @return 排序键，为空时使用偏移量分页
+     */
+    public List<SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    /**
+     * 设置键集分页(Keyset/Seek)的排序键<br>
+     * 设置排序键后，分页查询不再跳过前 offset 条记录，而是按排序键排序，查询排在上一页最后一条记录之后的 limit 条记录。<br>
+     * 排序键的值为上一页最后一条记录的值，查询第一页时值都为 {@code null}。排序键的组合需要能唯一确定一条记录（一般最后一个排序键为主键），否则翻页时可能遗漏记录。
+     * @param sortKeys 排序键，为空时使用偏移量分页
+     */
+    public void setSortKeys(List<SortKey> sortKeys) {
+        this.sortKeys = sortKeys;
+    }
+
+    /**
+     * 总数查询的执行方式
+     */
+    public static enum CountMode {
+        /** 先查询总数，再查询分页数据（总数为0时不查询分页数据） */
+        SERIAL,
+        /** 先查询分页数据，当前页不满一页时可以直接得到总数，否则再查询总数 */
+        DEFERRED,
+        /** 使用另外的数据库连接与分页数据并行查询总数，当前页不满一页时不等待总数查询（总数查询看不到当前事务未提交的数据） */
+        PARALLEL
+    }
+
+    /**
+     * 键集分页的排序键
+     */
+    public static class SortKey implements Serializable {
+
+        private final String column;
+        private final Object value;
+        private final boolean descending;
+
+        /**
+         * 构造函数
+         * @param column     列名（原始查询结果中的列名或者别名）
+         * @param value      上一页最后一条记录的值，查询第一页时为 {@code null}
+         * @param descending 是否降序
+         */
+        public SortKey(String column, Object value, boolean descending) {
+            this.column = column;
+            this.value = value;
+            this.descending = descending;
+        }
+
+        /**
+         * 创建升序的排序键
+         * @param column 列名（原始查询结果中的列名或者别名）
+         * @param value  上一页最后一条记录的值，查询第一页时为 {@code null}
+         * @return 排序键
+         */
+        public static SortKey asc(String column, Object value) {
+            return new SortKey(column, value, false);
+        }
+
+        /**
+         * 创建降序的排序键
+         * @param column 列名（原始查询结果中的列名或者别名）
+         * @param value  上一页最后一条记录的值，查询第一页时为 {@code null}
+         * @return 排序键
+         */
+        public static SortKey desc(String column, Object value) {
+            return new SortKey(column, value, true);
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+    }
 }
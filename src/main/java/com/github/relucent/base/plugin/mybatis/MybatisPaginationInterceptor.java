@@ -1,17 +1,27 @@
 package com.github.relucent.base.plugin.mybatis;
 
+import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.plugin.Interceptor;
@@ -20,16 +30,31 @@ import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.plugin.Plugin;
 import org.apache.ibatis.plugin.Signature;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
-
-import com.github.relucent.base.common.jdbc.DelegatingDialect;
+import org.apache.ibatis.transaction.Transaction;
+
+import com.github.relucent.base.common.cache.Cache;
+import com.github.relucent.base.common.cache.CacheDefinition;
+import com.github.relucent.base.common.cache.CacheManager;
+import com.github.relucent.base.common.concurrent.GlobalThreadPool;
+import com.github.relucent.base.common.crypto.digest.DigestUtil;
+import com.github.relucent.base.common.exception.ExceptionUtil;
 import com.github.relucent.base.common.jdbc.Dialect;
+import com.github.relucent.base.common.jdbc.DialectRouteUtil;
+import com.github.relucent.base.common.jdbc.LimitSqlTemplate;
 import com.github.relucent.base.common.logging.Logger;
+import com.github.relucent.base.plugin.mybatis.MybatisPageContext.CountMode;
+import com.github.relucent.base.plugin.mybatis.MybatisPageContext.SortKey;
 
 /**
  * 用于MyBatis的分页查询插件.<br>
  * 用于提供数据库的物理分页查询功能.<br>
+ * 支持两种分页方式：偏移量分页(LIMIT/ROWNUM)和键集分页(按 {@link MybatisPageContext#getSortKeys()} 查询上一页之后的记录，查询深度的页时不需要扫描并跳过前面的记录)。<br>
+ * 总数查询的执行方式见 {@link CountMode}，默认为 {@link CountMode#SERIAL}，可以通过插件属性 {@code countMode} 修改。<br>
+ * 可以通过 {@link #setCountCache(CacheManager, Duration)} 缓存总数，避免翻页时重复执行代价较高的 COUNT 查询。<br>
+ * 数据库方言按数据源缓存，也可以通过插件属性 {@code dialect}(方言别名或者方言类名) 指定。<br>
  * @see org.apache.ibatis.plugin.Interceptor
  * @author _yyl
  */
@@ -45,6 +70,11 @@ public class MybatisPaginationInterceptor implements Interceptor {
 
     // ==============================Fields===========================================
     private static final String COUNT_SUFFIX = "_COUNT";
+    /** 总数缓存的名称 */
+    public static final String COUNT_CACHE_NAME = "mybatis-count-cache";
+    private static final String KEYSET_PARAMETER_PREFIX = "__keyset_";
+    private static final String LIMIT_PARAMETER_PREFIX = "__limit_";
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("^[`\"]?[A-Za-z_][A-Za-z0-9_$]*[`\"]?$");
     private static final List<ResultMapping> EMPTY_RESULTMAPPING = new ArrayList<ResultMapping>(0);
     private static final Field ADDITIONAL_PARAMETERS_FIELD;
     static {
@@ -57,7 +87,13 @@ public class MybatisPaginationInterceptor implements Interceptor {
     }
     protected final Logger logger = Logger.getLogger(getClass());
     private final Map<String, MappedStatement> countMsCache = new ConcurrentHashMap<>();
-    private final DelegatingDialect dialect = new DelegatingDialect();
+    private Dialect configuredDialect;
+    private CountMode countMode = CountMode.SERIAL;
+    private boolean parameterizedLimit = true;
+    private Cache<CachedCount> countCache;
+    private long countCacheTtlMillis;
+    private boolean countCacheApproximate;
+    private final Set<String> refreshingCounts = ConcurrentHashMap.newKeySet();
 
     // ==============================Methods==========================================
     /**
@@ -67,76 +103,51 @@ public class MybatisPaginationInterceptor implements Interceptor {
      */
     @Override
     public Object intercept(Invocation ivk) throws Throwable {
-        try {
-            Executor executor = (Executor) ivk.getTarget();
-            Object[] args = ivk.getArgs();
-
-            MappedStatement ms = (MappedStatement) args[0];
-            Object parameter = args[1];
-            RowBounds rowBounds = (RowBounds) args[2];
-            ResultHandler<?> resultHandler = (ResultHandler<?>) args[3];
-
-            CacheKey cacheKey;
-            BoundSql boundSql;
-
-            if (args.length == 4) {
-                boundSql = ms.getBoundSql(parameter);
-                cacheKey = executor.createCacheKey(ms, parameter, rowBounds, boundSql);
-            }
-            // args.length == 6
-            else {
-                cacheKey = (CacheKey) args[4];
-                boundSql = (BoundSql) args[5];
-            }
+        Executor executor = (Executor) ivk.getTarget();
+        Object[] args = ivk.getArgs();
 
-            // 数据库方言切换
-            dialect.route(executor.getTransaction().getConnection());
+        MappedStatement ms = (MappedStatement) args[0];
+        Object parameter = args[1];
+        RowBounds rowBounds = (RowBounds) args[2];
+        ResultHandler<?> resultHandler = (ResultHandler<?>) args[3];
 
-            // 获得分页当前条件
-            MybatisPageContext pageContext = MybatisPageContextHolder.getContext();
+        CacheKey cacheKey;
+        BoundSql boundSql;
 
-            // 判断是否需要进行分页(是否插件分页)
-            if (pageContext != null && pageContext.isCount()) {
-                // 查询总数
-                long total = obtainTotalCount(dialect, executor, ms, parameter, resultHandler, boundSql);
-
-                // 暂存总数
-                pageContext.setTotal(total);
-
-                // 当查询总数为 0 时，直接返回空的结果
-                if (total == 0) {
-                    return new ArrayList<>();
-                }
-
-                int offset = (int) pageContext.getOffset();
-                int limit = (int) pageContext.getLimit();
-
-                // 根据分页条件对象创建分页对象
-                rowBounds = new RowBounds(offset, limit);
-            }
+        if (args.length == 4) {
+            boundSql = ms.getBoundSql(parameter);
+            cacheKey = executor.createCacheKey(ms, parameter, rowBounds, boundSql);
+        }
+        // args.length == 6
+        else {
+            cacheKey = (CacheKey) args[4];
+            boundSql = (BoundSql) args[5];
+        }
 
-            // 判断是否需要进行分页查询
-            int offset = rowBounds.getOffset();
-            int limit = rowBounds.getLimit();
-            if (offset != RowBounds.NO_ROW_OFFSET || limit != RowBounds.NO_ROW_LIMIT) {
-                // 根据方言获得分页SQL
-                String pagedSql = dialect.getLimitSql(boundSql.getSql(), offset, limit);
-                BoundSql pageBoundSql = new BoundSql(ms.getConfiguration(), pagedSql, boundSql.getParameterMappings(), parameter);
-
-                // 添加动态SQL，可能会产生的临时参数
-                for (Map.Entry<String, Object> entry : getAdditionalParameter(boundSql).entrySet()) {
-                    pageBoundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
-                }
+        // 获得分页当前条件
+        MybatisPageContext pageContext = MybatisPageContextHolder.getContext();
 
-                // 执行分页查询
-                return executor.query(ms, parameter, RowBounds.DEFAULT, resultHandler, cacheKey, pageBoundSql);
-            }
+        // 判断是否需要进行分页(是否插件分页)
+        if (pageContext != null && pageContext.isCount()) {
+            Dialect dialect = getDialect(ms, executor);
+            return queryPage(dialect, executor, ms, parameter, resultHandler, boundSql, pageContext);
+        }
 
-            // 无分页的情况
-            return ivk.proceed();
-        } finally {
-            dialect.release();
+        // 判断是否需要进行分页查询
+        int offset = rowBounds.getOffset();
+        int limit = rowBounds.getLimit();
+        if (offset != RowBounds.NO_ROW_OFFSET || limit != RowBounds.NO_ROW_LIMIT) {
+            // 根据方言获得分页SQL
+            Dialect dialect = getDialect(ms, executor);
+            BoundSql pageBoundSql = createLimitBoundSql(dialect, ms.getConfiguration(), parameter, boundSql, boundSql.getSql(),
+                    boundSql.getParameterMappings(), new LinkedHashMap<>(), offset, limit);
+
+            // 执行分页查询
+            return executor.query(ms, parameter, RowBounds.DEFAULT, resultHandler, cacheKey, pageBoundSql);
         }
+
+        // 无分页的情况
+        return ivk.proceed();
     }
 
     /**
@@ -155,28 +166,333 @@ public class MybatisPaginationInterceptor implements Interceptor {
      */
     @Override
     public void setProperties(Properties properties) {
-        // _ignore_
+        String value = properties.getProperty("countMode");
+        if (value != null && !value.trim().isEmpty()) {
+            setCountMode(CountMode.valueOf(value.trim().toUpperCase()));
+        }
+        value = properties.getProperty("dialect");
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                setDialect(DialectRouteUtil.getDialectByName(value.trim()));
+            } catch (SQLException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+        value = properties.getProperty("parameterizedLimit");
+        if (value != null && !value.trim().isEmpty()) {
+            setParameterizedLimit(Boolean.parseBoolean(value.trim()));
+        }
+    }
+
+    /**
+     * 指定数据库方言，所有查询都使用该方言(不再根据数据源匹配)
+     * @param dialect 数据库方言，为 {@code null} 时根据数据源匹配
+     */
+    public void setDialect(Dialect dialect) {
+        this.configuredDialect = dialect;
+    }
+
+    /**
+     * 设置是否使用参数化的分页SQL(默认为 {@code true})<br>
+     * 参数化时偏移量和数量使用 ? 占位符，不同页的分页SQL相同；方言不支持参数化分页时仍然直接拼接偏移量和数量。
+     * @param parameterizedLimit 是否使用参数化的分页SQL
+     */
+    public void setParameterizedLimit(boolean parameterizedLimit) {
+        this.parameterizedLimit = parameterizedLimit;
+    }
+
+    /**
+     * 设置默认的总数查询执行方式
+     * @param countMode 总数查询的执行方式
+     */
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode == null ? CountMode.SERIAL : countMode;
+    }
+
+    /**
+     * 开启总数缓存：相同查询条件的总数在有效期内直接使用缓存的值，不再执行 COUNT 查询<br>
+     * 当前页不满一页时仍然使用实际的总数，并更新缓存。
+     * @param cacheManager 缓存管理器，为 {@code null} 时关闭总数缓存
+     * @param ttl 总数的有效期
+     */
+    public void setCountCache(CacheManager cacheManager, Duration ttl) {
+        setCountCache(cacheManager, ttl, null);
+    }
+
+    /**
+     * 开启近似总数缓存：总数超过有效期但没有超过最长过期时间时，仍然返回缓存的总数，同时使用另外的数据库连接在后台重新查询总数并更新缓存
+     * @param cacheManager 缓存管理器，为 {@code null} 时关闭总数缓存
+     * @param ttl 总数的有效期
+     * @param maxStale 过期总数的最长使用时间(从有效期结束开始计算)，为 {@code null} 时不使用过期的总数
+     */
+    public void setCountCache(CacheManager cacheManager, Duration ttl, Duration maxStale) {
+        if (cacheManager == null) {
+            this.countCache = null;
+            return;
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        boolean approximate = maxStale != null && !maxStale.isNegative() && !maxStale.isZero();
+        Duration expiry = approximate ? ttl.plus(maxStale) : ttl;
+        this.countCacheTtlMillis = ttl.toMillis();
+        this.countCacheApproximate = approximate;
+        this.countCache = cacheManager.getCache(CacheDefinition.of(COUNT_CACHE_NAME, CachedCount.class, expiry));
     }
 
     // ==============================ProcessMethods===================================
     /**
-     * 进行 COUNT 查询
+     * 进行插件分页查询(查询分页数据和总数)
      * @param dialect 数据库方言
      * @param executor 执行器
      * @param ms 映射语句处理对象
      * @param parameter 参数对象
      * @param resultHandler 结果处理对象
      * @param boundSql 绑定SQL对象
-     * @return 总记录数
+     * @param pageContext 分页上下文
+     * @return 当前页的数据
+     */
+    private List<Object> queryPage(Dialect dialect, Executor executor, MappedStatement ms, Object parameter, ResultHandler<?> resultHandler,
+            BoundSql boundSql, MybatisPageContext pageContext) throws SQLException, IllegalAccessException {
+        CountMode mode = pageContext.getCountMode() == null ? countMode : pageContext.getCountMode();
+        Environment environment = ms.getConfiguration().getEnvironment();
+        if (mode == CountMode.PARALLEL && environment == null) {
+            mode = CountMode.DEFERRED;
+        }
+
+        CountQuery countQuery = createCountQuery(dialect, ms, parameter, boundSql);
+
+        // 使用缓存的总数时只查询分页数据
+        String countCacheKey = countCache == null ? null : countQuery.getCacheKey(executor);
+        Long cachedTotal = countCacheKey == null ? null : getCachedCount(countCacheKey, ms.getConfiguration(), environment, countQuery);
+        if (cachedTotal != null) {
+            List<Object> records = queryRecords(dialect, executor, ms, parameter, resultHandler, boundSql, pageContext);
+            // 使用结果处理对象时返回的记录为空，不能推断总数
+            long total = resultHandler == null ? deduceTotal(pageContext, records.size()) : cachedTotal;
+            if (total == -1 && !records.isEmpty()) {
+                // 缓存的总数过时，至少包含已经查询到的记录
+                total = Math.max(cachedTotal, pageContext.getOffset() + records.size());
+            } else if (total == -1) {
+                // 越过最后一页的空页：缓存的总数大于偏移量时一定过时(实际总数不超过偏移量)，重新查询总数
+                total = cachedTotal;
+                if (cachedTotal > pageContext.getOffset()) {
+                    total = countQuery.execute(executor);
+                    putCachedCount(countCacheKey, total);
+                }
+            } else if (total != cachedTotal) {
+                putCachedCount(countCacheKey, total);
+            }
+            pageContext.setTotal(total);
+            return records;
+        }
+
+        if (mode == CountMode.SERIAL) {
+            long total = countQuery.execute(executor);
+            pageContext.setTotal(total);
+            putCachedCount(countCacheKey, total);
+            // 当查询总数为 0 时，直接返回空的结果
+            if (total == 0) {
+                return new ArrayList<>();
+            }
+            return queryRecords(dialect, executor, ms, parameter, resultHandler, boundSql, pageContext);
+        }
+
+        Future<Long> countFuture = null;
+        if (mode == CountMode.PARALLEL) {
+            countFuture = GlobalThreadPool.getInstance().submit(() -> countOnNewConnection(ms.getConfiguration(), environment, countQuery));
+        }
+        List<Object> records;
+        try {
+            records = queryRecords(dialect, executor, ms, parameter, resultHandler, boundSql, pageContext);
+        } catch (SQLException | RuntimeException e) {
+            cancelCount(countFuture);
+            throw e;
+        }
+        // 使用结果处理对象时返回的记录为空，不能推断总数，需要执行 COUNT 查询
+        long total = resultHandler == null ? deduceTotal(pageContext, records.size()) : -1;
+        if (total != -1) {
+            cancelCount(countFuture);
+        } else if (countFuture != null) {
+            total = awaitCount(countFuture);
+        } else {
+            total = countQuery.execute(executor);
+        }
+        pageContext.setTotal(total);
+        putCachedCount(countCacheKey, total);
+        return records;
+    }
+
+    /**
+     * 查询当前页的数据
+     * @param dialect 数据库方言
+     * @param executor 执行器
+     * @param ms 映射语句处理对象
+     * @param parameter 参数对象
+     * @param resultHandler 结果处理对象
+     * @param boundSql 绑定SQL对象
+     * @param pageContext 分页上下文
+     * @return 当前页的数据
+     */
+    private List<Object> queryRecords(Dialect dialect, Executor executor, MappedStatement ms, Object parameter, ResultHandler<?> resultHandler,
+            BoundSql boundSql, MybatisPageContext pageContext) throws SQLException, IllegalAccessException {
+        Configuration configuration = ms.getConfiguration();
+        String sql = boundSql.getSql();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        Map<String, Object> extraParameters = new LinkedHashMap<>();
+        long offset = pageContext.getOffset();
+        long limit = pageContext.getLimit();
+
+        // 键集分页：用排序键的条件代替偏移量
+        List<SortKey> sortKeys = pageContext.getSortKeys();
+        if (sortKeys != null && !sortKeys.isEmpty()) {
+            parameterMappings = new ArrayList<>(parameterMappings);
+            sql = getKeysetSql(configuration, sql, sortKeys, parameterMappings, extraParameters);
+            offset = 0;
+        }
+
+        // 根据方言获得分页SQL
+        BoundSql pageBoundSql = createLimitBoundSql(dialect, configuration, parameter, boundSql, sql, parameterMappings, extraParameters,
+                offset, limit);
+
+        // 缓存 key 需要包含分页SQL和排序键的值，否则同一会话中不同页的查询会命中同一个一级缓存
+        CacheKey pageKey = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, pageBoundSql);
+
+        // 执行分页查询
+        return executor.query(ms, parameter, RowBounds.DEFAULT, resultHandler, pageKey, pageBoundSql);
+    }
+
+    /**
+     * 创建分页查询的绑定SQL对象<br>
+     * 方言支持参数化分页时，偏移量和数量作为参数绑定，不同页使用相同的SQL(可以利用语句缓存和执行计划缓存)；否则偏移量和数量直接拼接到SQL中。
+     * @param dialect 数据库方言
+     * @param configuration 配置对象
+     * @param parameter 参数对象
+     * @param boundSql 原始的绑定SQL对象
+     * @param sql 需要分页的SQL
+     * @param parameterMappings 需要分页的SQL的参数映射
+     * @param extraParameters 需要分页的SQL的附加参数值
+     * @param offset 第一个记录的偏移量
+     * @param limit 每页查询的最大数量
+     * @return 分页查询的绑定SQL对象
+     */
+    private BoundSql createLimitBoundSql(Dialect dialect, Configuration configuration, Object parameter, BoundSql boundSql, String sql,
+            List<ParameterMapping> parameterMappings, Map<String, Object> extraParameters, long offset, long limit) throws IllegalAccessException {
+        String pagedSql;
+        LimitSqlTemplate template = parameterizedLimit ? dialect.getLimitSqlTemplate(sql) : null;
+        if (template != null) {
+            pagedSql = template.getSql();
+            parameterMappings = new ArrayList<>(parameterMappings);
+            long[] values = template.getParameterValues(offset, limit);
+            for (int i = 0; i < values.length; i++) {
+                String property = LIMIT_PARAMETER_PREFIX + i;
+                parameterMappings.add(new ParameterMapping.Builder(configuration, property, Long.class).build());
+                extraParameters.put(property, values[i]);
+            }
+        } else {
+            pagedSql = dialect.getLimitSql(sql, offset, limit);
+        }
+        BoundSql pageBoundSql = new BoundSql(configuration, pagedSql, parameterMappings, parameter);
+
+        // 添加动态SQL，可能会产生的临时参数
+        for (Map.Entry<String, Object> entry : getAdditionalParameter(boundSql).entrySet()) {
+            pageBoundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Object> entry : extraParameters.entrySet()) {
+            pageBoundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
+        }
+        return pageBoundSql;
+    }
+
+    /**
+     * 生成键集分页的SQL：<br>
+     * {@code SELECT * FROM (sql) T__K WHERE (a > ?) OR (a = ? AND b > ?) ORDER BY a ASC, b ASC}
+     * @param configuration 配置对象
+     * @param sql 原始SQL
+     * @param sortKeys 排序键
+     * @param parameterMappings 参数映射(追加排序键的参数)
+     * @param keysetParameters 排序键的参数值(输出)
+     * @return 键集分页的SQL
+     */
+    static String getKeysetSql(Configuration configuration, String sql, List<SortKey> sortKeys, List<ParameterMapping> parameterMappings,
+            Map<String, Object> keysetParameters) {
+        int nulls = 0;
+        for (SortKey sortKey : sortKeys) {
+            if (!COLUMN_PATTERN.matcher(sortKey.getColumn()).matches()) {
+                throw new IllegalArgumentException("Illegal sort key column: " + sortKey.getColumn());
+            }
+            if (sortKey.getValue() == null) {
+                nulls++;
+            }
+        }
+        if (nulls != 0 && nulls != sortKeys.size()) {
+            throw new IllegalArgumentException("Sort key values must be all null (first page) or all non-null");
+        }
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("SELECT * FROM (").append(sql).append(") T__K");
+        // 第一页没有排序键的值，只需要排序
+        if (nulls == 0) {
+            builder.append(" WHERE ");
+            for (int i = 0; i < sortKeys.size(); i++) {
+                if (i > 0) {
+                    builder.append(" OR ");
+                }
+                builder.append('(');
+                for (int j = 0; j <= i; j++) {
+                    SortKey sortKey = sortKeys.get(j);
+                    if (j > 0) {
+                        builder.append(" AND ");
+                    }
+                    String operator = j < i ? " = " : sortKey.isDescending() ? " < " : " > ";
+                    builder.append(sortKey.getColumn()).append(operator).append('?');
+                    String property = KEYSET_PARAMETER_PREFIX + j;
+                    // 参数类型由 UnknownTypeHandler 根据值的类型确定
+                    parameterMappings.add(new ParameterMapping.Builder(configuration, property, Object.class).build());
+                    keysetParameters.put(property, sortKey.getValue());
+                }
+                builder.append(')');
+            }
+        }
+        builder.append(" ORDER BY ");
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey sortKey = sortKeys.get(i);
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(sortKey.getColumn()).append(sortKey.isDescending() ? " DESC" : " ASC");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 根据当前页的记录数推断总数：当前页不满一页(且不是越过最后一页的空页)时，总数为偏移量加当前页的记录数
+     * @param pageContext 分页上下文
+     * @param size 当前页的记录数
+     * @return 总数，不能推断时返回 -1
+     */
+    static long deduceTotal(MybatisPageContext pageContext, int size) {
+        long offset = pageContext.getOffset();
+        if (size < pageContext.getLimit() && (size > 0 || offset == 0)) {
+            return offset + size;
+        }
+        return -1;
+    }
+
+    /**
+     * 创建 COUNT 查询
+     * @param dialect 数据库方言
+     * @param ms 映射语句处理对象
+     * @param parameter 参数对象
+     * @param boundSql 绑定SQL对象
+     * @return COUNT 查询
      */
-    private Long obtainTotalCount(Dialect dialect, Executor executor, MappedStatement ms, Object parameter, ResultHandler<?> resultHandler,
-            BoundSql boundSql) throws SQLException, IllegalArgumentException, IllegalAccessException {
+    private CountQuery createCountQuery(Dialect dialect, MappedStatement ms, Object parameter, BoundSql boundSql) throws IllegalAccessException {
         String countMsId = ms.getId() + COUNT_SUFFIX;
 
         // 判断是否存在手写的 count 查询
         MappedStatement countMs = getMappedStatement(ms.getConfiguration(), countMsId);
         if (countMs != null) {
-            return executeManualCount(executor, countMs, parameter, boundSql, resultHandler);
+            return new CountQuery(countMs, parameter, countMs.getBoundSql(parameter));
         }
 
         countMs = countMsCache.get(countMsId);
@@ -188,53 +504,153 @@ public class MybatisPaginationInterceptor implements Interceptor {
             countMsCache.put(countMsId, countMs);
         }
 
-        return executeAutoCount(dialect, executor, countMs, parameter, boundSql, resultHandler);
+        // 调用方言获取 COUNT SQL
+        String countSql = dialect.getCountSql(boundSql.getSql());
+
+        // 创建 Count BoundSql
+        BoundSql countBoundSql = new BoundSql(countMs.getConfiguration(), countSql, boundSql.getParameterMappings(), parameter);
+
+        // 添加动态SQL，可能会产生的临时参数
+        for (Map.Entry<String, Object> entry : getAdditionalParameter(boundSql).entrySet()) {
+            countBoundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
+        }
+        return new CountQuery(countMs, parameter, countBoundSql);
     }
 
     /**
-     * 尝试获取已经存在的在映射语句处理对象
+     * 使用另外的数据库连接执行 COUNT 查询
      * @param configuration 配置对象
-     * @param msId 映射语句ID
-     * @return 映射语句处理对象
+     * @param environment 数据源环境
+     * @param countQuery COUNT 查询
+     * @return 总记录数
      */
-    private static MappedStatement getMappedStatement(Configuration configuration, String msId) {
-        MappedStatement ms = null;
+    private static long countOnNewConnection(Configuration configuration, Environment environment, CountQuery countQuery) throws SQLException {
+        Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, true);
+        Executor countExecutor = configuration.newExecutor(transaction, ExecutorType.SIMPLE);
         try {
-            ms = configuration.getMappedStatement(msId, false);
-        } catch (Throwable t) {
-            // ignore
+            return countQuery.execute(countExecutor);
+        } finally {
+            countExecutor.close(false);
         }
-        return ms;
     }
 
-    /** 执行手动设置的 count 查询 */
-    private static Long executeManualCount(Executor executor, MappedStatement countMs, Object parameter, BoundSql boundSql,
-            ResultHandler<?> resultHandler) throws SQLException {
-        CacheKey countKey = executor.createCacheKey(countMs, parameter, RowBounds.DEFAULT, boundSql);
-        BoundSql countBoundSql = countMs.getBoundSql(parameter);
-        return ((Number) executor.query(countMs, parameter, RowBounds.DEFAULT, resultHandler, countKey, countBoundSql).get(0)).longValue();
+    /**
+     * 获得缓存的总数，近似模式下总数过期时在后台刷新缓存，并返回过期的总数
+     * @param key 缓存键
+     * @param configuration 配置对象
+     * @param environment 数据源环境
+     * @param countQuery COUNT 查询
+     * @return 总记录数，没有可用的缓存时返回 {@code null}
+     */
+    private Long getCachedCount(String key, Configuration configuration, Environment environment, CountQuery countQuery) {
+        CachedCount cached = countCache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - cached.getCountedAt() < countCacheTtlMillis) {
+            return cached.getTotal();
+        }
+        if (!countCacheApproximate || environment == null) {
+            return null;
+        }
+        // 同一个查询只有一个刷新任务
+        if (refreshingCounts.add(key)) {
+            try {
+                GlobalThreadPool.getInstance().execute(() -> {
+                    try {
+                        putCachedCount(key, countOnNewConnection(configuration, environment, countQuery));
+                    } catch (Throwable e) {
+                        logger.warn("#", e);
+                    } finally {
+                        refreshingCounts.remove(key);
+                    }
+                });
+            } catch (RuntimeException e) {
+                refreshingCounts.remove(key);
+                logger.warn("#", e);
+            }
+        }
+        return cached.getTotal();
     }
 
-    /** 执行自动生成的 count 查询 */
-    private static Long executeAutoCount(Dialect dialect, Executor executor, MappedStatement countMs, Object parameter, BoundSql boundSql,
-            ResultHandler<?> resultHandler) throws SQLException, IllegalArgumentException, IllegalAccessException {
-
-        // 创建 count 查询的缓存 key
-        CacheKey countKey = executor.createCacheKey(countMs, parameter, RowBounds.DEFAULT, boundSql);
+    /**
+     * 缓存总数
+     * @param key 缓存键，为 {@code null} 时(没有开启总数缓存)忽略
+     * @param total 总记录数
+     */
+    private void putCachedCount(String key, long total) {
+        if (key != null) {
+            countCache.put(key, new CachedCount(total, System.currentTimeMillis()));
+        }
+    }
 
-        // 调用方言获取 COUNT SQL
-        String countSql = dialect.getCountSql(boundSql.getSql());
+    /**
+     * 等待异步的 COUNT 查询
+     * @param countFuture 异步的 COUNT 查询
+     * @return 总记录数
+     */
+    private static long awaitCount(Future<Long> countFuture) throws SQLException {
+        try {
+            return countFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            countFuture.cancel(false);
+            throw new SQLException("Interrupted while waiting for the count query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw ExceptionUtil.propagate(cause);
+        }
+    }
 
-        // 创建 Count BoundSql
-        BoundSql countBoundSql = new BoundSql(countMs.getConfiguration(), countSql, boundSql.getParameterMappings(), parameter);
+    /**
+     * 取消不再需要的异步 COUNT 查询<br>
+     * 不中断正在执行的查询（中断可能导致驱动把连接标记为损坏），查询结束后连接会正常关闭。
+     * @param countFuture 异步的 COUNT 查询
+     */
+    private static void cancelCount(Future<Long> countFuture) {
+        if (countFuture != null) {
+            countFuture.cancel(false);
+        }
+    }
 
-        // 添加动态SQL，可能会产生的临时参数
-        for (Map.Entry<String, Object> entry : getAdditionalParameter(boundSql).entrySet()) {
-            countBoundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
+    /**
+     * 获得数据库方言：优先使用指定的方言，其次由 {@link DialectRouteUtil#getDialect(javax.sql.DataSource, Connection)} 根据数据源和连接匹配
+     * @param ms 映射语句处理对象
+     * @param executor 执行器
+     * @return 数据库方言
+     */
+    private Dialect getDialect(MappedStatement ms, Executor executor) throws SQLException {
+        if (configuredDialect != null) {
+            return configuredDialect;
+        }
+        Connection connection = executor.getTransaction().getConnection();
+        Environment environment = ms.getConfiguration().getEnvironment();
+        if (environment == null || environment.getDataSource() == null) {
+            return DialectRouteUtil.getDialect(connection);
         }
+        return DialectRouteUtil.getDialect(environment.getDataSource(), connection);
+    }
 
-        // 执行 count 查询
-        return ((Number) executor.query(countMs, parameter, RowBounds.DEFAULT, resultHandler, countKey, countBoundSql).get(0)).longValue();
+    /**
+     * 尝试获取已经存在的在映射语句处理对象
+     * @param configuration 配置对象
+     * @param msId 映射语句ID
+     * @return 映射语句处理对象
+     */
+    private static MappedStatement getMappedStatement(Configuration configuration, String msId) {
+        MappedStatement ms = null;
+        try {
+            ms = configuration.getMappedStatement(msId, false);
+        } catch (Throwable t) {
+            // ignore
+        }
+        return ms;
     }
 
     /**
@@ -278,4 +694,81 @@ public class MybatisPaginationInterceptor implements Interceptor {
     private static Map<String, Object> getAdditionalParameter(BoundSql boundSql) throws IllegalAccessException {
         return (Map<String, Object>) ADDITIONAL_PARAMETERS_FIELD.get(boundSql);
     }
+
+    // ==============================InnerClass=======================================
+    /**
+     * COUNT 查询(映射语句和绑定SQL)
+     */
+    private static class CountQuery {
+
+        private final MappedStatement ms;
+        private final Object parameter;
+        private final BoundSql boundSql;
+
+        CountQuery(MappedStatement ms, Object parameter, BoundSql boundSql) {
+            this.ms = ms;
+            this.parameter = parameter;
+            this.boundSql = boundSql;
+        }
+
+        /**
+         * 获得总数缓存的键(COUNT 映射语句ID + 查询缓存键的摘要)
+         * @param executor 执行器
+         * @return 缓存键
+         */
+        String getCacheKey(Executor executor) {
+            CacheKey cacheKey = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql);
+            return ms.getId() + ":" + DigestUtil.sha256Hex(cacheKey.toString());
+        }
+
+        /**
+         * 执行 COUNT 查询
+         * @param executor 执行器
+         * @return 总记录数
+         */
+        long execute(Executor executor) throws SQLException {
+            CacheKey countKey = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql);
+            List<Object> result = executor.query(ms, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, countKey, boundSql);
+            return ((Number) result.get(0)).longValue();
+        }
+    }
+
+    /**
+     * 缓存的总数
+     */
+    @SuppressWarnings("serial")
+    public static class CachedCount implements Serializable {
+
+        private long total;
+        private long countedAt;
+
+        public CachedCount() {
+        }
+
+        /**
+         * 构造函数
+         * @param total 总记录数
+         * @param countedAt 查询总数的时间(毫秒)
+         */
+        public CachedCount(long total, long countedAt) {
+            this.total = total;
+            this.countedAt = countedAt;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public long getCountedAt() {
+            return countedAt;
+        }
+
+        public void setCountedAt(long countedAt) {
+            this.countedAt = countedAt;
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.github.relucent.base.common.bean.copier;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.relucent.base.common.convert.ConverterManager;
+
+public class BeanCopierTest {
+
+	@Test
+	public void testBeanToBean() {
+		Source source = new Source();
+		source.id = "1";
+		source.name = "hello";
+		source.created = new Date(0);
+		Target target = new Target();
+		new BeanCopier(source, target).copy();
+		Assert.assertEquals(Long.valueOf(1L), target.id);
+		Assert.assertEquals("hello", target.name);
+		Assert.assertSame(source.created, target.created);
+
+		// 再次拷贝（使用缓存的拷贝计划）
+		source.id = "2";
+		source.name = null;
+		new BeanCopier(source, target).copy(new CopyOptions().setIgnoreNull(true));
+		Assert.assertEquals(Long.valueOf(2L), target.id);
+		Assert.assertEquals("hello", target.name);
+	}
+
+	@Test
+	public void testMapToBean() {
+		Map<String, Object> source = new HashMap<>();
+		source.put("id", 3);
+		source.put("name", "world");
+		source.put("unknown", "ignore");
+		Target target = new Target();
+		target.name = "keep";
+		new BeanCopier(source, target).copy(new CopyOptions().setOverride(false));
+		Assert.assertEquals(Long.valueOf(3L), target.id);
+		Assert.assertEquals("keep", target.name);
+	}
+
+	@Test
+	public void testConverterRegistration() {
+		Map<String, Object> source = new HashMap<>();
+		source.put("name", "world");
+		Target target = new Target();
+		new BeanCopier(source, target).copy();
+		Assert.assertEquals("world", target.name);
+		ConverterManager.getInstance().register(String.class, (value, toType) -> "#" + value);
+		try {
+			new BeanCopier(source, target).copy();
+			Assert.assertEquals("#world", target.name);
+		} finally {
+			ConverterManager.getInstance().unregister(String.class);
+		}
+	}
+
+	public static class Source {
+		private String id;
+		private String name;
+		private Date created;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Date getCreated() {
+			return created;
+		}
+
+		public void setCreated(Date created) {
+			this.created = created;
+		}
+	}
+
+	public static class Target {
+		private Long id;
+		private String name;
+		private Date created;
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Date getCreated() {
+			return created;
+		}
+
+		public void setCreated(Date created) {
+			this.created = created;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.github.relucent.base.common.bean.introspector;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.relucent.base.common.exception.GeneralException;
+
+public class PropDescTest {
+
+    @Test
+    public void testGetSetValue() throws Exception {
+        PropDesc prop = new PropDesc(Sample.class.getDeclaredField("name"), Sample.class.getMethod("getName"),
+                Sample.class.getMethod("setName", String.class));
+        Sample sample = new Sample();
+        prop.setValue(sample, "A");
+        Assert.assertEquals("A", prop.getValue(sample));
+    }
+
+    @Test
+    public void testCheckedException() throws Exception {
+        PropDesc prop = new PropDesc(Sample.class.getDeclaredField("failing"), Sample.class.getMethod("getFailing"),
+                Sample.class.getMethod("setFailing", String.class));
+        // 方法抛出的受检异常与反射调用一样包装为 GeneralException
+        try {
+            prop.getValue(new Sample());
+            Assert.fail();
+        } catch (GeneralException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+        try {
+            prop.setValue(new Sample(), "A");
+            Assert.fail();
+        } catch (GeneralException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    public static class Sample {
+
+        private String name;
+        private String failing;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getFailing() throws IOException {
+            throw new IOException("get");
+        }
+
+        public void setFailing(String failing) throws IOException {
+            throw new IOException("set");
+        }
+    }
+}
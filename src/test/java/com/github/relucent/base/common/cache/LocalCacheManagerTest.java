@@ -0,0 +1,79 @@
+package com.github.relucent.base.common.cache;
+
+import java.time.Duration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LocalCacheManagerTest {
+
+    @Test
+    public void testGetCache() {
+        LocalCacheManager manager = new LocalCacheManager();
+        Cache<String> cache = manager.getCache(CacheDefinition.of("test", String.class));
+        Assert.assertSame(cache, manager.getCache(CacheDefinition.of("test", String.class)));
+        cache.put("a", "1");
+        Assert.assertEquals("1", cache.get("a"));
+        cache.put("a", null);
+        Assert.assertNull(cache.get("a"));
+        cache.put("b", "2");
+        cache.clear();
+        Assert.assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testLruEviction() {
+        Cache<Integer> cache = new LocalCacheManager(3).getCache(CacheDefinition.of("lru", Integer.class));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        // 访问 a 后，最久没有访问的是 b
+        Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("d", 4);
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+        Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+        Assert.assertEquals(Integer.valueOf(4), cache.get("d"));
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        LocalCacheManager manager = new LocalCacheManager();
+        Cache<String> ttl = manager.getCache(CacheDefinition.of("ttl", String.class, Duration.ofMillis(50)));
+        Cache<String> idle = manager.getCache(CacheDefinition.of("idle", String.class, null, Duration.ofMillis(50)));
+        ttl.put("a", "1");
+        idle.put("a", "1");
+        Thread.sleep(30);
+        Assert.assertEquals("1", ttl.get("a"));
+        Assert.assertEquals("1", idle.get("a"));
+        Thread.sleep(30);
+        // 超过存活时间，最近访问过的对象也过期；空闲时间从上一次访问开始计算
+        Assert.assertNull(ttl.get("a"));
+        Assert.assertEquals("1", idle.get("a"));
+        Thread.sleep(60);
+        Assert.assertNull(idle.get("a"));
+    }
+
+    @Test
+    public void testWeightBound() {
+        LocalCacheManager manager = new LocalCacheManager(100, 10, (key, value) -> ((String) value).length());
+        Cache<String> cache = manager.getCache(CacheDefinition.of("weight", String.class));
+        cache.put("a", "1234");
+        cache.put("b", "1234");
+        Assert.assertEquals("1234", cache.get("a"));
+        // 总权重超过 10，淘汰最久没有访问的 b
+        cache.put("c", "1234");
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("1234", cache.get("a"));
+        // 替换对象时更新权重
+        cache.put("c", "1");
+        cache.put("d", "12345");
+        Assert.assertEquals("1234", cache.get("a"));
+        Assert.assertEquals("1", cache.get("c"));
+        Assert.assertEquals("12345", cache.get("d"));
+        // 单个对象超过上限时不缓存，其它对象不受影响
+        cache.put("e", "12345678901");
+        Assert.assertNull(cache.get("e"));
+        Assert.assertEquals("1234", cache.get("a"));
+    }
+}
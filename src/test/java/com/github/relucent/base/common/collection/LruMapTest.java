@@ -0,0 +1,28 @@
+package com.github.relucent.base.common.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LruMapTest {
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        LruMap<String, Integer> map = new LruMap<>(3);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+        // 访问 a 之后，最久没有访问的是 b
+        Assert.assertEquals(Integer.valueOf(1), map.get("a"));
+        map.put("d", 4);
+        Assert.assertEquals(3, map.size());
+        Assert.assertTrue(map.containsKey("a"));
+        Assert.assertFalse(map.containsKey("b"));
+        Assert.assertTrue(map.containsKey("c"));
+        Assert.assertTrue(map.containsKey("d"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaximumSize() {
+        new LruMap<String, String>(0);
+    }
+}
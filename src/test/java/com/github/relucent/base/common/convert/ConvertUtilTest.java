@@ -3,6 +3,7 @@ package com.github.relucent.base.common.convert;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -13,6 +14,7 @@ import org.junit.Test;
 
 import com.github.relucent.base.common.collection.Listx;
 import com.github.relucent.base.common.collection.Mapx;
+import com.github.relucent.base.common.reflect.TypeReference;
 import com.github.relucent.base.common.time.DateUtil;
 
 public class ConvertUtilTest {
@@ -109,6 +111,7 @@ public class ConvertUtilTest {
             Assert.assertEquals(date, ConvertUtil.toDate(string));
             Assert.assertEquals(date, ConvertUtil.toDate(null, date));
         }
+        Assert.assertEquals(new Date(1234567890L), ConvertUtil.toDate("new Date(1234567890)"));
     }
 
     @Test
@@ -180,4 +183,49 @@ public class ConvertUtilTest {
         sample.remove(null);
         Assert.assertArrayEquals(origin.keySet().toArray(), sample.keySet().toArray());
     }
+
+    @Test
+    public void testResolveConverter() {
+        ConverterManager manager = ConverterManager.getInstance();
+        TypeReference<List<Integer>> token = new TypeReference<List<Integer>>() {
+        };
+        Assert.assertSame(manager.resolve(Integer.class), manager.resolve(Integer.class));
+        Assert.assertSame(manager.resolve(token.getType()), manager.resolve(token.getType()));
+
+        List<Integer> list = ConvertUtil.convert(new String[] { "1", "2" }, token.getType(), null);
+        Assert.assertEquals(Integer.valueOf(2), list.get(1));
+        Assert.assertSame(list, ConvertUtil.convert(list, Object.class));
+
+        manager.register(Integer.class, (source, toType) -> 42);
+        try {
+            Assert.assertEquals(Integer.valueOf(42), ConvertUtil.toInteger("1"));
+        } finally {
+            manager.unregister(Integer.class);
+        }
+        Assert.assertEquals(Integer.valueOf(1), ConvertUtil.toInteger("1"));
+    }
+
+    @Test
+    public void testConvertAll() {
+        List<Object> values = Arrays.asList("1", 2L, null, "x");
+        List<Integer> result = ConvertUtil.convertAll(values, Integer.class);
+        Assert.assertEquals(Arrays.asList(1, 2, null, null), result);
+
+        TypeReference<List<Long>> token = new TypeReference<List<Long>>() {
+        };
+        List<List<Long>> lists = ConvertUtil.convertAll(Arrays.asList(new String[] { "1" }, new String[] { "2", "3" }), token);
+        Assert.assertEquals(Arrays.asList(1L), lists.get(0));
+        Assert.assertEquals(Arrays.asList(2L, 3L), lists.get(1));
+    }
+
+    @Test
+    public void testToPrimitiveArray() {
+        List<Object> values = Arrays.asList("1", "-2", 3L, 4.5D, null, "x", " 7 ", "12345678901");
+        Assert.assertArrayEquals(new int[] { 1, -2, 3, 4, -1, -1, 7, (int) 12345678901L }, ConvertUtil.toIntArray(values, -1));
+        Assert.assertArrayEquals(new long[] { 1, -2, 3, 4, 0, 0, 7, 12345678901L }, ConvertUtil.toLongArray(values));
+        Assert.assertArrayEquals(new double[] { 1, -2, 3, 4.5, 0, 0, 7, 12345678901D }, ConvertUtil.toDoubleArray(values), 0D);
+        Assert.assertArrayEquals(new double[] { 4.5, -0.25, 1.5E3, 0 },
+                ConvertUtil.toDoubleArray(Arrays.asList("4.5", "-.25", "1.5e3", "-"), 0D), 0D);
+        Assert.assertEquals(0, ConvertUtil.toIntArray(null).length);
+    }
 }
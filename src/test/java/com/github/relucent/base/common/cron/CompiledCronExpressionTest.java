@@ -0,0 +1,104 @@
+package com.github.relucent.base.common.cron;
+
+import java.text.ParseException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledCronExpressionTest {
+
+    private static final String[] EXPRESSIONS = { //
+            "0/15 * * * * ?", //
+            "0 0/5 14,18 * * ?", //
+            "0 30 10-13 ? * WED,FRI", //
+            "0 15 10 L * ?", //
+            "0 15 10 L-2 * ?", //
+            "0 15 10 15W * ?", //
+            "0 15 10 1W * ?", //
+            "0 15 10 LW * ?", //
+            "0 15 10 ? * 6L", //
+            "0 15 10 ? * 6#3", //
+            "0 0 12 1/5 * ?", //
+            "0 11 11 11 11 ?", //
+            "0 0 22-2 * * ?", //
+            "0 0 0 29 2 ?", //
+            "0 0 0 ? * MON-FRI 2030-2032", //
+            "0 10,44 14 ? 3 WED", //
+    };
+
+    @Test
+    public void testNextFireTimeMatchesCronExpression() throws ParseException {
+        for (String zone : new String[] { "UTC", "Asia/Shanghai" }) {
+            for (String text : EXPRESSIONS) {
+                CronExpression cron = new CronExpression(text);
+                cron.setTimeZone(TimeZone.getTimeZone(zone));
+                CompiledCronExpression compiled = cron.compile();
+                Date expected = new Date(1700000000123L);
+                Date actual = expected;
+                for (int i = 0; i < 50 && expected != null; i++) {
+                    expected = cron.getTimeAfter(expected);
+                    actual = compiled.getTimeAfter(actual);
+                    Assert.assertEquals(zone + " " + text + " #" + i, expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDayOfMonthRulesMatchCronExpression() throws ParseException {
+        // W、L、LW 规则，包括超过短月份最后一天的 nW(例如 30 天的月份中的 31W)
+        String[] days = { "1W", "15W", "28W", "29W", "30W", "31W", "L", "L-1", "L-3", "LW", "L-2W", "L-3W" };
+        for (String zone : new String[] { "UTC", "Asia/Shanghai" }) {
+            for (String day : days) {
+                String text = "0 15 10 " + day + " * ?";
+                CronExpression cron = new CronExpression(text);
+                cron.setTimeZone(TimeZone.getTimeZone(zone));
+                CompiledCronExpression compiled = cron.compile();
+                Date expected = new Date(1700000000123L);
+                Date actual = expected;
+                // 覆盖4年，包括闰年的2月
+                for (int i = 0; i < 48; i++) {
+                    expected = cron.getTimeAfter(expected);
+                    actual = compiled.getTimeAfter(actual);
+                    Assert.assertEquals(zone + " " + text + " #" + i, expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPreviousFireTime() throws ParseException {
+        ZoneId zoneId = ZoneId.of("Asia/Shanghai");
+        for (String text : EXPRESSIONS) {
+            CompiledCronExpression compiled = CompiledCronExpression.compile(text, zoneId);
+            List<ZonedDateTime> times = compiled.nextFireTimes(ZonedDateTime.of(2023, 11, 14, 12, 0, 0, 0, zoneId), 20);
+            for (int i = 1; i < times.size(); i++) {
+                Assert.assertEquals(text, times.get(i - 1), compiled.previousFireTime(times.get(i)));
+                Assert.assertTrue(text, compiled.isSatisfiedBy(times.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testDaylightSavingTime() throws ParseException {
+        ZoneId zoneId = ZoneId.of("America/New_York");
+        CompiledCronExpression compiled = CompiledCronExpression.compile("0 30 * * * ?", zoneId);
+        // 2024-03-10 02:00 开始夏令时，2024-11-03 02:00 结束夏令时
+        List<ZonedDateTime> spring = compiled.nextFireTimes(ZonedDateTime.of(2024, 3, 10, 0, 0, 0, 0, zoneId), 3);
+        Assert.assertEquals(3600, spring.get(1).toEpochSecond() - spring.get(0).toEpochSecond());
+        List<ZonedDateTime> fall = compiled.nextFireTimes(ZonedDateTime.of(2024, 11, 3, 0, 0, 0, 0, zoneId), 3);
+        Assert.assertEquals(3600, fall.get(1).toEpochSecond() - fall.get(0).toEpochSecond());
+        // 重复的 01:30 只触发一次
+        Assert.assertEquals(7200, fall.get(2).toEpochSecond() - fall.get(1).toEpochSecond());
+        Assert.assertEquals(2, fall.get(2).getHour());
+
+        long[] dest = new long[4];
+        Assert.assertEquals(4, CompiledCronExpression.compile("0 0 0 29 2 ?", zoneId).nextFireTimes(0L, dest));
+        Assert.assertEquals(0, CompiledCronExpression.compile("0 0 0 1 1 ? 2000", zoneId).nextFireTimes(System.currentTimeMillis(), new long[1]));
+    }
+}
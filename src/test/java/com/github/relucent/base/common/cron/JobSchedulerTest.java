@@ -0,0 +1,206 @@
+package com.github.relucent.base.common.cron;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobSchedulerTest {
+
+    private ExecutorService executor;
+    private JobScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        scheduler = new JobScheduler("test-scheduler", 1, TimeUnit.MILLISECONDS, 64, executor);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSchedule() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        ScheduledJob job = scheduler.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertTrue(job.isDone());
+        Assert.assertFalse(job.cancel());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledJob[] jobs = new ScheduledJob[10000];
+        for (int i = 0; i < jobs.length; i++) {
+            // 超过一圈时间轮的任务
+            jobs[i] = scheduler.schedule(counter::incrementAndGet, 100 + i % 50, TimeUnit.MILLISECONDS);
+        }
+        Assert.assertEquals(jobs.length, scheduler.size());
+        for (int i = 0; i < jobs.length; i += 2) {
+            Assert.assertTrue(jobs[i].cancel());
+            Assert.assertTrue(jobs[i].isCancelled());
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (counter.get() < jobs.length / 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        Assert.assertEquals(jobs.length / 2, counter.get());
+        Assert.assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void testFarFutureJobs() throws InterruptedException {
+        // 时间轮一圈为 64 毫秒，远期任务放入上层时间轮
+        ScheduledJob[] farJobs = new ScheduledJob[5000];
+        for (int i = 0; i < farJobs.length; i++) {
+            farJobs[i] = scheduler.schedule(() -> {}, 60 + i % 600, TimeUnit.SECONDS);
+        }
+        long[] fired = new long[3];
+        CountDownLatch latch = new CountDownLatch(fired.length);
+        long start = System.nanoTime();
+        for (int i = 0; i < fired.length; i++) {
+            int index = i;
+            scheduler.schedule(() -> {
+                fired[index] = System.nanoTime() - start;
+                latch.countDown();
+            }, 100 + i * 100, TimeUnit.MILLISECONDS);
+        }
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < fired.length; i++) {
+            Assert.assertTrue(fired[i] >= TimeUnit.MILLISECONDS.toNanos(100 + i * 100));
+        }
+        for (ScheduledJob job : farJobs) {
+            Assert.assertTrue(job.cancel());
+        }
+        Assert.assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void testCancelUpperWheelJobs() throws InterruptedException {
+        // 延迟跨越多层时间轮的任务，取消一半后其余的任务逐级下放并按时触发
+        AtomicInteger counter = new AtomicInteger();
+        AtomicInteger early = new AtomicInteger();
+        ScheduledJob[] jobs = new ScheduledJob[2000];
+        long start = System.nanoTime();
+        for (int i = 0; i < jobs.length; i++) {
+            long delay = 70 + i % 1500;
+            jobs[i] = scheduler.schedule(() -> {
+                if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                    early.incrementAndGet();
+                }
+                counter.incrementAndGet();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        for (int i = 1; i < jobs.length; i += 2) {
+            Assert.assertTrue(jobs[i].cancel());
+        }
+        Assert.assertEquals(jobs.length / 2, scheduler.size());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        Assert.assertEquals(0, scheduler.size());
+        Assert.assertEquals(jobs.length / 2, counter.get());
+        Assert.assertEquals(0, early.get());
+        for (int i = 0; i < jobs.length; i += 2) {
+            Assert.assertTrue(jobs[i].isDone());
+        }
+    }
+
+    @Test
+    public void testFixedRate() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(5);
+        ScheduledJob job = scheduler.scheduleAtFixedRate(latch::countDown, 0, 20, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        job.cancel();
+        long count = job.getFireCount();
+        Thread.sleep(100);
+        Assert.assertEquals(count, job.getFireCount());
+        Assert.assertEquals(-1L, job.getNextFireTime());
+    }
+
+    @Test
+    public void testFixedDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlapped = new AtomicInteger();
+        ScheduledJob job = scheduler.scheduleWithFixedDelay(() -> {
+            if (running.incrementAndGet() > 1) {
+                overlapped.incrementAndGet();
+            }
+            sleep(30);
+            running.decrementAndGet();
+            latch.countDown();
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        job.cancel();
+        Assert.assertEquals(0, overlapped.get());
+    }
+
+    @Test
+    public void testOverlapPrevention() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlapped = new AtomicInteger();
+        ScheduledJob job = scheduler.scheduleAtFixedRate(() -> {
+            if (running.incrementAndGet() > 1) {
+                overlapped.incrementAndGet();
+            }
+            sleep(50);
+            running.decrementAndGet();
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        Thread.sleep(300);
+        job.cancel();
+        Assert.assertEquals(0, overlapped.get());
+        Assert.assertTrue(job.getFireCount() >= 2);
+        Assert.assertTrue(job.getFireCount() < 20);
+    }
+
+    @Test
+    public void testCron() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        ScheduledJob job = scheduler.scheduleCron(latch::countDown, "* * * * * ?");
+        Assert.assertTrue(job.getNextFireTime() % 1000 == 0);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        job.cancel();
+
+        ScheduledJob expired = scheduler.scheduleCron(() -> {
+        }, "0 0 0 1 1 ? 2000");
+        Assert.assertTrue(expired.isDone());
+    }
+
+    @Test
+    public void testShutdown() {
+        scheduler.shutdown();
+        Assert.assertTrue(scheduler.isShutdown());
+        try {
+            scheduler.schedule(() -> {
+            }, 1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
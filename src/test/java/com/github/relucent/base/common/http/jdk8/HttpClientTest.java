@@ -0,0 +1,620 @@
+package com.github.relucent.base.common.http.jdk8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.relucent.base.common.cache.LocalCacheManager;
+import com.github.relucent.base.common.http.HttpCallEvent;
+import com.github.relucent.base.common.http.HttpMetrics;
+import com.github.relucent.base.common.http.HttpUtil;
+import com.github.relucent.base.common.http.jdk8.HttpRequest.BodyPublishers;
+import com.github.relucent.base.common.http.jdk8.HttpResponse.BodyHandlers;
+import com.github.relucent.base.common.http.jdk8.internal.NioHttpTransport;
+import com.github.relucent.base.common.http.jdk8.internal.UrlConnectionTransport;
+import com.github.relucent.base.common.io.IoUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+@SuppressWarnings("restriction")
+public class HttpClientTest {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final Set<String> tailIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> cacheRequests = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = IoUtil.toByteArray(exchange.getRequestBody());
+            String text = exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawQuery() + " " + new String(body, StandardCharsets.UTF_8);
+            respond(exchange, 200, text.getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/slow", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            sleep(20);
+            respond(exchange, 200, "slow".getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/chunked", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream output = exchange.getResponseBody()) {
+                for (int i = 0; i < 1000; i++) {
+                    output.write(("line" + i + "\n").getBytes(StandardCharsets.UTF_8));
+                    output.flush();
+                }
+            }
+        });
+        server.createContext("/download", exchange -> {
+            int size = Integer.parseInt(exchange.getRequestURI().getRawQuery());
+            exchange.sendResponseHeaders(200, size);
+            try (OutputStream output = exchange.getResponseBody()) {
+                byte[] buffer = new byte[8192];
+                for (int i = 0; i < size; i += buffer.length) {
+                    int n = Math.min(buffer.length, size - i);
+                    for (int j = 0; j < n; j++) {
+                        buffer[j] = (byte) ((i + j) % 251);
+                    }
+                    output.write(buffer, 0, n);
+                }
+            }
+        });
+        server.createContext("/upload", exchange -> {
+            long count = 0;
+            long checksum = 0;
+            InputStream input = exchange.getRequestBody();
+            int b;
+            while ((b = input.read()) != -1) {
+                checksum += b * (count % 7 + 1);
+                count++;
+            }
+            String text = count + " " + checksum + " " + exchange.getRequestHeaders().getFirst("Content-Length") + " "
+                    + exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+            respond(exchange, 200, text.getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/json", exchange -> {
+            IoUtil.toByteArray(exchange.getRequestBody());
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < 20000; i++) {
+                json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"item\"}");
+            }
+            byte[] body = json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.createContext("/gunzip", exchange -> {
+            String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            byte[] raw = IoUtil.toByteArray(exchange.getRequestBody());
+            byte[] body = "gzip".equals(contentEncoding) ? IoUtil.toByteArray(new GZIPInputStream(new ByteArrayInputStream(raw))) : raw;
+            respond(exchange, 200, (contentEncoding + " " + raw.length + " " + new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "not found".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/hang", exchange -> sleep(3000));
+        server.createContext("/cached", exchange -> {
+            String query = exchange.getRequestURI().getRawQuery();
+            int count = cacheRequests.computeIfAbsent(query, k -> new AtomicInteger()).incrementAndGet();
+            IoUtil.toByteArray(exchange.getRequestBody());
+            if ("POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 200, "posted".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if ("fresh".equals(query)) {
+                exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            } else if ("etag".equals(query)) {
+                exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.getResponseHeaders().add("X-Revalidated", "true");
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+            } else if ("lastmod".equals(query)) {
+                exchange.getResponseHeaders().add("Cache-Control", "max-age=0");
+                exchange.getResponseHeaders().add("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+                if (exchange.getRequestHeaders().getFirst("If-Modified-Since") != null) {
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+            } else {
+                exchange.getResponseHeaders().add("Cache-Control", "no-store");
+            }
+            respond(exchange, 200, (query + count).getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/error", exchange -> respond(exchange, 500, "error".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/tail", exchange -> {
+            // 同一个 id 的第一个请求很慢，之后的请求(对冲请求)立即返回
+            if (tailIds.add(exchange.getRequestURI().getRawQuery())) {
+                sleep(2000);
+                respond(exchange, 200, "slow".getBytes(StandardCharsets.UTF_8));
+            } else {
+                respond(exchange, 200, "hedged".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSend() throws IOException {
+        try (HttpClient client = HttpClient.newBuilder().nonBlocking(true).build()) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(baseUrl + "/echo?a=1").GET().build(), BodyHandlers.ofString());
+            Assert.assertEquals(200, response.statusCode());
+            Assert.assertEquals("GET a=1 ", response.body());
+
+            response = client.send(HttpRequest.newBuilder().uri(baseUrl + "/echo").POST(BodyPublishers.ofString("你好")).build(), BodyHandlers.ofString());
+            Assert.assertEquals("POST null 你好", response.body());
+
+            response = client.send(HttpRequest.newBuilder().uri(baseUrl + "/chunked").GET().build(), BodyHandlers.ofString());
+            Assert.assertEquals(200, response.statusCode());
+            Assert.assertTrue(response.body().startsWith("line0\nline1\n"));
+            Assert.assertTrue(response.body().endsWith("line999"));
+
+            response = client.send(HttpRequest.newBuilder().uri(baseUrl + "/missing").GET().build(), BodyHandlers.ofString());
+            Assert.assertEquals(404, response.statusCode());
+            Assert.assertEquals("not found", response.body());
+        }
+        // 顺序请求复用同一个连接
+        Assert.assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testConcurrentRequests() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        NioHttpTransport transport = new NioHttpTransport(executor, new UrlConnectionTransport(executor, null, 1000, 1000, false), 1000, 5000, 4,
+                30000L);
+        try (HttpClient client = HttpClient.newBuilder().executor(executor).transport(transport).build()) {
+            List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(client.sendAsync(HttpRequest.newBuilder().uri(baseUrl + "/slow").GET().build(), BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> future : futures) {
+                Assert.assertEquals("slow", future.join().body());
+            }
+            // 连接数不超过上限，连接被复用
+            Assert.assertTrue(clientPorts.toString(), clientPorts.size() <= 4);
+            Assert.assertTrue(transport.getOpenConnectionCount() <= 4);
+            Assert.assertEquals(transport.getOpenConnectionCount(), transport.getIdleConnectionCount());
+        }
+        Assert.assertEquals(0, transport.getOpenConnectionCount());
+    }
+
+    @Test
+    public void testResolveHost() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        NioHttpTransport transport = new NioHttpTransport(executor, new UrlConnectionTransport(executor, null, 1000, 1000, false), 2000, 5000, 4,
+                30000L);
+        try (HttpClient client = HttpClient.newBuilder().executor(executor).transport(transport).build()) {
+            // 主机名在执行器中解析，不阻塞调用方
+            String url = "http://localhost:" + server.getAddress().getPort() + "/echo";
+            Assert.assertEquals(200, client.send(HttpRequest.newBuilder().uri(url).GET().build(), BodyHandlers.ofString()).statusCode());
+            CompletableFuture<HttpResponse<String>> future = client.sendAsync(HttpRequest.newBuilder().uri("http://unknown-host.invalid/").GET().build(),
+                    BodyHandlers.ofString());
+            try {
+                future.join();
+                Assert.fail();
+            } catch (CompletionException e) {
+                Assert.assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof IOException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecutorRejected() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // 只接受第一个任务(解析主机地址)，拒绝之后处理响应的任务
+        AtomicInteger accepted = new AtomicInteger();
+        Executor rejecting = task -> {
+            if (accepted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException();
+            }
+            executor.execute(task);
+        };
+        NioHttpTransport transport = new NioHttpTransport(rejecting, new UrlConnectionTransport(executor, null, 1000, 1000, false), 2000, 5000, 4,
+                30000L);
+        try (HttpClient client = HttpClient.newBuilder().executor(executor).transport(transport).build()) {
+            Thread[] handlerThread = new Thread[1];
+            CompletableFuture<HttpResponse<String>> future = client.sendAsync(HttpRequest.newBuilder().uri(baseUrl + "/echo").GET().build(),
+                    info -> {
+                        handlerThread[0] = Thread.currentThread();
+                        return BodyHandlers.ofString().apply(info);
+                    });
+            try {
+                future.join();
+                Assert.fail();
+            } catch (CompletionException e) {
+                // 执行器拒绝时请求失败，不在 I/O 线程中处理响应
+                Assert.assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof RejectedExecutionException);
+            }
+            Assert.assertNull(handlerThread[0]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTimeout() {
+        try (HttpClient client = HttpClient.newBuilder().nonBlocking(true).readTimeoutMillis(200).build()) {
+            long start = System.nanoTime();
+            try {
+                client.send(HttpRequest.newBuilder().uri(baseUrl + "/hang").GET().build(), BodyHandlers.ofString());
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertTrue(e instanceof SocketTimeoutException);
+            }
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        }
+    }
+
+    @Test
+    public void testStreamingBodyHandlers() throws IOException {
+        int size = 5 * 1024 * 1024 + 17;
+        Path file = Files.createTempFile("http-client-test", ".bin");
+        try {
+            for (boolean nonBlocking : new boolean[] { false, true }) {
+                try (HttpClient client = HttpClient.newBuilder().nonBlocking(nonBlocking).build()) {
+                    HttpRequest request = HttpRequest.newBuilder().uri(baseUrl + "/download?" + size).GET().build();
+
+                    HttpResponse<InputStream> response = client.send(request, BodyHandlers.ofInputStream());
+                    try (InputStream input = response.body()) {
+                        assertPattern(input, size);
+                    }
+
+                    HttpResponse<Path> fileResponse = client.send(request, BodyHandlers.ofFile(file));
+                    Assert.assertEquals(size, Files.size(fileResponse.body()));
+                    try (InputStream input = Files.newInputStream(file)) {
+                        assertPattern(input, size);
+                    }
+
+                    HttpResponse<Void> discarded = client.send(request, BodyHandlers.discarding());
+                    Assert.assertEquals(200, discarded.statusCode());
+                    Assert.assertNull(discarded.body());
+
+                    // 提前关闭输入流，之后的请求不受影响
+                    client.send(request, BodyHandlers.ofInputStream()).body().close();
+
+                    HttpRequest chunked = HttpRequest.newBuilder().uri(baseUrl + "/chunked").GET().build();
+                    try (Stream<String> lines = client.send(chunked, BodyHandlers.ofLines()).body()) {
+                        Assert.assertEquals(1000, lines.count());
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testStreamingBodyPublishers() throws IOException {
+        int size = 3 * 1024 * 1024 + 5;
+        Path file = Files.createTempFile("http-client-test", ".bin");
+        try {
+            byte[] data = new byte[size];
+            long checksum = 0;
+            for (int i = 0; i < size; i++) {
+                data[i] = (byte) (i % 251);
+                checksum += (data[i] & 0xFF) * (i % 7 + 1);
+            }
+            Files.write(file, data);
+            for (boolean nonBlocking : new boolean[] { false, true }) {
+                try (HttpClient client = HttpClient.newBuilder().nonBlocking(nonBlocking).build()) {
+                    HttpRequest request = HttpRequest.newBuilder().uri(baseUrl + "/upload").POST(BodyPublishers.ofFile(file)).build();
+                    Assert.assertEquals(size + " " + checksum + " " + size + " null", client.send(request, BodyHandlers.ofString()).body());
+
+                    request = HttpRequest.newBuilder().uri(baseUrl + "/upload").POST(BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(data)))
+                            .build();
+                    Assert.assertEquals(size + " " + checksum + " null chunked", client.send(request, BodyHandlers.ofString()).body());
+
+                    request = HttpRequest.newBuilder().uri(baseUrl + "/upload").POST(BodyPublishers.ofString("abc")).build();
+                    Assert.assertTrue(client.send(request, BodyHandlers.ofString()).body().startsWith("3 "));
+                }
+            }
+
+            HttpRequest.BodyPublisher multipart = BodyPublishers.ofMultipart(m -> m.addFormField("name", "value").addFile("file", file, "application/octet-stream"));
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            multipart.writeTo(expected);
+            Assert.assertEquals(expected.size(), multipart.contentLength());
+            try (HttpClient client = HttpClient.newHttpClient()) {
+                HttpRequest request = HttpRequest.newBuilder().uri(baseUrl + "/upload").POST(multipart).build();
+                Assert.assertTrue(client.send(request, BodyHandlers.ofString()).body().endsWith(" " + expected.size() + " null"));
+
+                HttpRequest.BodyPublisher streamed = BodyPublishers.ofMultipart(m -> m.addStream("file", "a.bin", new ByteArrayInputStream(data), null));
+                Assert.assertEquals(-1, streamed.contentLength());
+                request = HttpRequest.newBuilder().uri(baseUrl + "/upload").POST(streamed).build();
+                Assert.assertTrue(client.send(request, BodyHandlers.ofString()).body().endsWith(" null chunked"));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        for (boolean nonBlocking : new boolean[] { false, true }) {
+            try (HttpClient client = HttpClient.newBuilder().nonBlocking(nonBlocking).compressRequestBody(1024).build()) {
+                HttpRequest request = HttpRequest.newBuilder().uri(baseUrl + "/json").GET().build();
+                HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
+                Assert.assertTrue(response.body().startsWith("[{\"id\":0,"));
+                Assert.assertTrue(response.body().endsWith("{\"id\":19999,\"name\":\"item\"}]"));
+                Assert.assertNull(response.headers().firstValue("Content-Encoding"));
+
+                try (Stream<String> lines = client.send(request, BodyHandlers.ofLines()).body()) {
+                    Assert.assertEquals(response.body(), lines.findFirst().get());
+                }
+
+                // 指定了 Accept-Encoding 时不自动解压
+                request = HttpRequest.newBuilder().uri(baseUrl + "/json").GET().header("Accept-Encoding", "gzip").build();
+                HttpResponse<byte[]> raw = client.send(request, BodyHandlers.ofByteArray());
+                Assert.assertEquals("gzip", raw.headers().firstValue("Content-Encoding"));
+                Assert.assertEquals(response.body(), new String(IoUtil.toByteArray(new GZIPInputStream(new ByteArrayInputStream(raw.body()))), StandardCharsets.UTF_8));
+
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < 1000; i++) {
+                    text.append("hello ");
+                }
+                request = HttpRequest.newBuilder().uri(baseUrl + "/gunzip").POST(BodyPublishers.ofString(text.toString())).build();
+                String body = client.send(request, BodyHandlers.ofString()).body();
+                Assert.assertTrue(body.startsWith("gzip "));
+                Assert.assertTrue(body.endsWith(" " + text));
+                Assert.assertTrue(Integer.parseInt(body.split(" ")[1]) < 200);
+
+                request = HttpRequest.newBuilder().uri(baseUrl + "/gunzip").POST(BodyPublishers.ofString("small")).build();
+                Assert.assertEquals("null 5 small", client.send(request, BodyHandlers.ofString()).body());
+            }
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().acceptCompression(false).build()) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(baseUrl + "/json").GET().build(), BodyHandlers.ofString());
+            Assert.assertNull(response.headers().firstValue("Content-Encoding"));
+            Assert.assertTrue(response.body().startsWith("[{\"id\":0,"));
+        }
+
+        Assert.assertTrue(HttpUtil.get(baseUrl + "/json").endsWith("{\"id\":19999,\"name\":\"item\"}]"));
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Encoding", "gzip");
+        String body = HttpUtil.post(baseUrl + "/gunzip", "a=1", headers);
+        Assert.assertTrue(body.startsWith("gzip "));
+        Assert.assertTrue(body.endsWith(" a=1"));
+    }
+
+    @Test
+    public void testHedgingAndLimits() throws Exception {
+        try (HttpClient client = HttpClient.newBuilder().hedging(95, 50).build()) {
+            // 积累响应时间样本，刷新对冲延迟
+            for (int i = 0; i < 25; i++) {
+                client.send(HttpRequest.newBuilder().uri(baseUrl + "/echo").GET().build(), BodyHandlers.ofString());
+            }
+            sleep(1100);
+            client.send(HttpRequest.newBuilder().uri(baseUrl + "/echo").GET().build(), BodyHandlers.ofString());
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(baseUrl + "/tail?1").GET().build(), BodyHandlers.ofString());
+            Assert.assertEquals("hedged", response.body());
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+            // 不安全的请求不对冲
+            response = client.send(HttpRequest.newBuilder().uri(baseUrl + "/tail?2").POST(BodyPublishers.ofString("x")).build(), BodyHandlers.ofString());
+            Assert.assertEquals("slow", response.body());
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().adaptiveConcurrencyLimit(2, 2).build()) {
+            List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(client.sendAsync(HttpRequest.newBuilder().uri(baseUrl + "/slow").GET().build(), BodyHandlers.ofString()));
+            }
+            int rejected = 0;
+            for (CompletableFuture<HttpResponse<String>> future : futures) {
+                try {
+                    Assert.assertEquals("slow", future.join().body());
+                } catch (CompletionException e) {
+                    Assert.assertTrue(e.getCause() instanceof HttpRejectedException);
+                    rejected++;
+                }
+            }
+            Assert.assertEquals(4, rejected);
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().circuitBreaker(0.5, 0, 60 * 1000L).build()) {
+            HttpRequest request = HttpRequest.newBuilder().uri(baseUrl + "/error").GET().build();
+            for (int i = 0; i < 20; i++) {
+                Assert.assertEquals(500, client.send(request, BodyHandlers.ofString()).statusCode());
+            }
+            try {
+                client.send(request, BodyHandlers.ofString());
+                Assert.fail();
+            } catch (HttpRejectedException e) {
+                Assert.assertTrue(e.getMessage().contains("Circuit breaker"));
+            }
+        }
+    }
+
+    @Test
+    public void testResponseCache() throws IOException {
+        try (HttpClient client = HttpClient.newBuilder().responseCache(new LocalCacheManager()).build()) {
+            for (String query : new String[] { "fresh", "etag", "lastmod", "none" }) {
+                HttpRequest request = HttpRequest.newBuilder().uri(baseUrl + "/cached?" + query).GET().build();
+                for (int i = 0; i < 3; i++) {
+                    HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
+                    Assert.assertEquals(200, response.statusCode());
+                    Assert.assertEquals("none".equals(query) ? query + (i + 1) : query + "1", response.body());
+                }
+            }
+            // 新鲜的缓存不发送请求，其它的缓存每次都重新验证
+            Assert.assertEquals(1, cacheRequests.get("fresh").get());
+            Assert.assertEquals(3, cacheRequests.get("etag").get());
+            Assert.assertEquals(3, cacheRequests.get("lastmod").get());
+
+            HttpRequest request = HttpRequest.newBuilder().uri(baseUrl + "/cached?etag").GET().build();
+            HttpResponse<byte[]> revalidated = client.sendAsync(request, BodyHandlers.ofByteArray()).join();
+            Assert.assertEquals(200, revalidated.statusCode());
+            Assert.assertEquals("true", revalidated.headers().firstValue("X-Revalidated"));
+            Assert.assertEquals("etag1", new String(revalidated.body(), StandardCharsets.UTF_8));
+
+            HttpRequest fresh = HttpRequest.newBuilder().uri(baseUrl + "/cached?fresh").GET().build();
+            Assert.assertNotNull(client.send(fresh, BodyHandlers.ofString()).headers().firstValue("Age"));
+            HttpRequest noCache = HttpRequest.newBuilder().uri(baseUrl + "/cached?fresh").header("Cache-Control", "no-cache").GET().build();
+            Assert.assertEquals("fresh2", client.send(noCache, BodyHandlers.ofString()).body());
+            // 成功的 POST 请求删除相同地址的缓存
+            client.send(HttpRequest.newBuilder().uri(baseUrl + "/cached?fresh").POST(BodyPublishers.ofString("x")).build(), BodyHandlers.ofString());
+            Assert.assertEquals("fresh4", client.send(fresh, BodyHandlers.ofString()).body());
+            Assert.assertEquals("fresh4", client.send(fresh, BodyHandlers.ofString()).body());
+        }
+    }
+
+    @Test
+    public void testMetrics() throws IOException {
+        HttpMetrics metrics = new HttpMetrics();
+        String host = "http://127.0.0.1:" + server.getAddress().getPort();
+        for (boolean nonBlocking : new boolean[] { true, false }) {
+            metrics.reset();
+            try (HttpClient client = HttpClient.newBuilder().nonBlocking(nonBlocking).eventListener(metrics).build()) {
+                for (int i = 0; i < 5; i++) {
+                    client.send(HttpRequest.newBuilder().uri(baseUrl + "/echo?" + i).POST(BodyPublishers.ofString("hello")).build(), BodyHandlers.ofString());
+                }
+                client.send(HttpRequest.newBuilder().uri(baseUrl + "/missing").GET().build(), BodyHandlers.ofString());
+            }
+            HttpMetrics.Stats stats = metrics.getHost(host);
+            Assert.assertEquals(6, stats.getRequests());
+            Assert.assertEquals(0, stats.getActiveRequests());
+            Assert.assertEquals(0, stats.getErrors());
+            Assert.assertEquals(Long.valueOf(5), stats.getStatusCounts().get(200));
+            Assert.assertEquals(Long.valueOf(1), stats.getStatusCounts().get(404));
+            Assert.assertTrue(stats.getBytesSent() >= 25);
+            Assert.assertTrue(stats.getBytesReceived() > 0);
+            Assert.assertEquals(6, stats.getLatency().getTotalCount());
+            Assert.assertEquals(6, stats.getTimeToFirstByte().getTotalCount());
+            Assert.assertTrue(stats.getConnectLatency().getTotalCount() >= 1);
+            Assert.assertEquals(5, metrics.getRoutes().get("POST " + host + "/echo").getRequests());
+            if (nonBlocking) {
+                // 连接复用，连接池中的连接都是空闲的
+                Assert.assertEquals(1, stats.getConnectLatency().getTotalCount());
+                Assert.assertEquals(64, stats.getMaxConnections());
+                Assert.assertEquals(0D, stats.getPoolUtilization(), 0D);
+            }
+        }
+
+        metrics.reset();
+        HttpUtil.setEventListener(metrics);
+        try {
+            Assert.assertEquals("GET null ", HttpUtil.get(baseUrl + "/echo"));
+            try {
+                HttpUtil.get(baseUrl + "/missing");
+                Assert.fail();
+            } catch (RuntimeException e) {
+                // 404
+            }
+        } finally {
+            HttpUtil.setEventListener(null);
+        }
+        HttpMetrics.Stats stats = metrics.getHost(host);
+        Assert.assertEquals(2, stats.getRequests());
+        Assert.assertEquals(1, stats.getErrors());
+        Assert.assertEquals(Long.valueOf(1), stats.getStatusCounts().get(404));
+        Assert.assertEquals(9, stats.getBytesReceived());
+    }
+
+    @Test
+    public void testMetricsResetWhileActive() {
+        HttpMetrics metrics = new HttpMetrics();
+        URI uri = URI.create(baseUrl + "/echo");
+        String host = HttpCallEvent.hostOf(uri);
+        HttpCallEvent event = HttpCallEvent.start(metrics, "GET", uri);
+        Assert.assertEquals(1, metrics.getHost(host).getActiveRequests());
+        // 清空指标时请求还在进行，结束后进行中的请求数不会变为负数
+        metrics.reset();
+        Assert.assertNull(metrics.getHost(host));
+        event.finish(200, null);
+        HttpMetrics.Stats stats = metrics.getHost(host);
+        Assert.assertEquals(0, stats.getActiveRequests());
+        Assert.assertEquals(1, stats.getRequests());
+    }
+
+    private static void assertPattern(InputStream input, int size) throws IOException {
+        byte[] buffer = new byte[10000];
+        int offset = 0;
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] != (byte) ((offset + i) % 251)) {
+                    Assert.fail("mismatch at " + (offset + i));
+                }
+            }
+            offset += n;
+        }
+        Assert.assertEquals(size, offset);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            IoUtil.toByteArray(input);
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.relucent.base.common.identifier;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.relucent.base.common.exception.GeneralException;
+
+public class JdbcSegmentStoreTest {
+
+    /** 模拟的号段表 */
+    private final Map<String, Long> table = new HashMap<>();
+    /** 执行的SQL(只记录语句类型) */
+    private final List<String> statements = new ArrayList<>();
+    /** 插入时模拟其它进程已经插入了该业务标识(插入的最大ID) */
+    private Long concurrentInsert;
+    /** 更新时抛出异常 */
+    private boolean failOnUpdate;
+    private int commits;
+    private int rollbacks;
+    private boolean autoCommit = true;
+
+    @Test
+    public void testReserveExistingRow() {
+        table.put("order", 100L);
+        JdbcSegmentStore store = new JdbcSegmentStore(dataSource());
+        Assert.assertEquals(150L, store.reserve("order", 50));
+        Assert.assertEquals(Arrays.asList("UPDATE", "SELECT"), statements);
+        Assert.assertEquals(Long.valueOf(150L), table.get("order"));
+        Assert.assertEquals(1, commits);
+        Assert.assertEquals(0, rollbacks);
+        // 恢复连接原来的自动提交设置
+        Assert.assertTrue(autoCommit);
+    }
+
+    @Test
+    public void testInsertMissingRow() {
+        JdbcSegmentStore store = new JdbcSegmentStore(dataSource());
+        Assert.assertEquals(50L, store.reserve("user", 50));
+        Assert.assertEquals(Arrays.asList("UPDATE", "INSERT"), statements);
+        Assert.assertEquals(Long.valueOf(50L), table.get("user"));
+        Assert.assertEquals(100L, store.reserve("user", 50));
+        Assert.assertEquals(2, commits);
+    }
+
+    @Test
+    public void testDuplicateKeyRace() {
+        // 其它进程在 UPDATE 和 INSERT 之间插入了该业务标识，主键冲突后回滚并重新执行 UPDATE
+        concurrentInsert = 30L;
+        JdbcSegmentStore store = new JdbcSegmentStore(dataSource());
+        Assert.assertEquals(80L, store.reserve("user", 50));
+        Assert.assertEquals(Arrays.asList("UPDATE", "INSERT", "UPDATE", "SELECT"), statements);
+        Assert.assertEquals(1, rollbacks);
+        Assert.assertEquals(1, commits);
+    }
+
+    @Test
+    public void testFailure() {
+        table.put("order", 100L);
+        failOnUpdate = true;
+        JdbcSegmentStore store = new JdbcSegmentStore(dataSource());
+        try {
+            store.reserve("order", 50);
+            Assert.fail();
+        } catch (GeneralException e) {
+            Assert.assertTrue(e.getCause() instanceof SQLException);
+        }
+        Assert.assertEquals(1, rollbacks);
+        Assert.assertEquals(0, commits);
+        Assert.assertTrue(autoCommit);
+    }
+
+    private DataSource dataSource() {
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAutoCommit":
+                            return autoCommit;
+                        case "setAutoCommit":
+                            autoCommit = (Boolean) args[0];
+                            return null;
+                        case "commit":
+                            commits++;
+                            return null;
+                        case "rollback":
+                            rollbacks++;
+                            return null;
+                        case "prepareStatement":
+                            return statement((String) args[0]);
+                        default:
+                            return null;
+                    }
+                });
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> "getConnection".equals(method.getName()) ? connection : null);
+    }
+
+    private PreparedStatement statement(String sql) {
+        String type = sql.substring(0, sql.indexOf(' '));
+        Object[] parameters = new Object[3];
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setString":
+                        case "setLong":
+                            parameters[(Integer) args[0]] = args[1];
+                            return null;
+                        case "executeUpdate":
+                            statements.add(type);
+                            return executeUpdate(type, parameters);
+                        case "executeQuery":
+                            statements.add(type);
+                            return resultSet(table.get((String) parameters[1]));
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private int executeUpdate(String type, Object[] parameters) throws SQLException {
+        if ("UPDATE".equals(type)) {
+            if (failOnUpdate) {
+                throw new SQLException("connection reset");
+            }
+            String tag = (String) parameters[2];
+            Long maxId = table.get(tag);
+            if (maxId == null) {
+                return 0;
+            }
+            table.put(tag, maxId + (Long) parameters[1]);
+            return 1;
+        }
+        String tag = (String) parameters[1];
+        if (concurrentInsert != null) {
+            table.put(tag, concurrentInsert);
+            concurrentInsert = null;
+        }
+        if (table.containsKey(tag)) {
+            throw new SQLException("Duplicate entry '" + tag + "' for key 'PRIMARY'", "23000");
+        }
+        table.put(tag, (Long) parameters[2]);
+        return 1;
+    }
+
+    private ResultSet resultSet(Long maxId) {
+        boolean[] consumed = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    boolean next = maxId != null && !consumed[0];
+                    consumed[0] = true;
+                    return next;
+                case "getLong":
+                    return maxId;
+                default:
+                    return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.relucent.base.common.identifier;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SegmentIdAllocatorTest {
+
+    private final Map<String, AtomicLong> table = new ConcurrentHashMap<>();
+    private final AtomicInteger reserveCount = new AtomicInteger();
+    private final SegmentStore store = (tag, step) -> {
+        reserveCount.incrementAndGet();
+        return table.computeIfAbsent(tag, key -> new AtomicLong()).addAndGet(step);
+    };
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testNextId() {
+        SegmentIdAllocator allocator = new SegmentIdAllocator(store, 100, 100, 0.2D, 60000L, executor);
+        long last = 0;
+        for (int i = 0; i < 1000; i++) {
+            long id = allocator.nextId("order");
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        Assert.assertEquals(1L, allocator.nextId("user"));
+        Assert.assertTrue(reserveCount.get() >= 10);
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        SegmentIdAllocator allocator = new SegmentIdAllocator(store, 50, 5000, 0.2D, 60000L, executor);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    Assert.assertTrue(ids.add(allocator.nextId("order")));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(8 * 5000, ids.size());
+        // 消耗很快，号段长度增加
+        Assert.assertTrue(allocator.getStep("order") > 50);
+        Assert.assertEquals(0, allocator.getStep("none"));
+    }
+
+    @Test
+    public void testPrefetchBackoff() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        SegmentIdAllocator allocator = new SegmentIdAllocator((tag, step) -> {
+            calls.incrementAndGet();
+            if (failures.get() > 0) {
+                failures.decrementAndGet();
+                throw new IllegalStateException("database unavailable");
+            }
+            return store.reserve(tag, step);
+        }, 100, 100, 0.2D, 60000L, Runnable::run);
+        Assert.assertEquals(1L, allocator.nextId("order"));
+        Assert.assertEquals(1, calls.get());
+        // 预取失败后，退避间隔内不再重复提交预取
+        failures.set(1);
+        for (int i = 2; i <= 50; i++) {
+            Assert.assertEquals(i, allocator.nextId("order"));
+        }
+        Assert.assertEquals(2, calls.get());
+        // 超过退避间隔后重新预取
+        Thread.sleep(150);
+        Assert.assertEquals(51L, allocator.nextId("order"));
+        Assert.assertEquals(3, calls.get());
+        for (int i = 52; i <= 120; i++) {
+            Assert.assertEquals(i, allocator.nextId("order"));
+        }
+        Assert.assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testStoreFailure() {
+        SegmentIdAllocator allocator = new SegmentIdAllocator((tag, step) -> {
+            throw new IllegalStateException("database unavailable");
+        }, 10, 10, 0.2D, 60000L, executor);
+        try {
+            allocator.nextId("order");
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("database unavailable", e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.github.relucent.base.common.identifier;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -17,4 +19,81 @@ public class SnowflakeIdWorkerTest {
         }
         Assert.assertEquals(count, idSet.size());
     }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        SnowflakeIdWorker snowflake = new SnowflakeIdWorker(1, 1);
+        Set<Long> idSet = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final boolean batch = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                long last = -1L;
+                for (int i = 0; i < 2000; i++) {
+                    long[] ids = batch ? snowflake.nextIds(10) : new long[] { snowflake.nextId() };
+                    for (long id : ids) {
+                        Assert.assertTrue(id > last);
+                        Assert.assertTrue(idSet.add(id));
+                        last = id;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(4 * 2000 * 10 + 4 * 2000, idSet.size());
+    }
+
+    @Test
+    public void reserveRangeTest() {
+        SnowflakeIdWorker snowflake = new SnowflakeIdWorker(3, 5);
+        SnowflakeIdWorker.Range range = snowflake.reserveRange(100);
+        Assert.assertTrue(range.size() >= 1 && range.size() <= 100);
+        long[] ids = range.toArray();
+        Assert.assertEquals(range.getFirst(), ids[0]);
+        Assert.assertEquals(range.getLast(), ids[ids.length - 1]);
+        for (int i = 1; i < ids.length; i++) {
+            Assert.assertEquals(ids[i - 1] + 1, ids[i]);
+        }
+        Assert.assertTrue(snowflake.nextId() > range.getLast());
+        Assert.assertEquals(10000, snowflake.nextIds(10000).length);
+    }
+
+    @Test
+    public void borrowTest() {
+        AtomicLong clock = new AtomicLong(1700000000000L);
+        SnowflakeIdWorker snowflake = new SnowflakeIdWorker(0, 0, 10) {
+            @Override
+            protected long timeGen() {
+                return clock.get();
+            }
+        };
+        // 一次获取超过一个毫秒的序列，借用之后的时间戳
+        SnowflakeIdWorker.Range range = snowflake.reserveRange(3 * 4096);
+        Assert.assertEquals(3 * 4096, range.size());
+        long[] ids = snowflake.nextIds(4096);
+        Assert.assertTrue(ids[0] > range.getLast());
+        // 时钟回拨，继续使用借用的时间戳
+        clock.addAndGet(-5);
+        Assert.assertTrue(snowflake.nextId() > ids[ids.length - 1]);
+
+        SnowflakeIdWorker strict = new SnowflakeIdWorker(0, 0) {
+            @Override
+            protected long timeGen() {
+                return clock.get();
+            }
+        };
+        Assert.assertEquals(4096, strict.reserveRange(3 * 4096).size());
+        clock.incrementAndGet();
+        strict.nextId();
+        clock.addAndGet(-3000);
+        try {
+            strict.nextId();
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
 }
@@ -1,9 +1,13 @@
 package com.github.relucent.base.common.identifier;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -25,4 +29,75 @@ public class UlidTest {
         }
         Assert.assertEquals(count, idSet.size());
     }
+
+    @Test
+    public void bulkTest() {
+        Ulid last = Ulid.create();
+        Ulid[] ulids = Ulid.create(1000);
+        Assert.assertEquals(1000, ulids.length);
+        for (Ulid ulid : ulids) {
+            Assert.assertTrue(last.compareTo(ulid) < 0);
+            last = ulid;
+        }
+        Assert.assertTrue(last.compareTo(Ulid.create()) < 0);
+    }
+
+    @Test
+    public void generatorTest() throws InterruptedException {
+        UlidGenerator generator = UlidGenerator.getInstance();
+        Set<Ulid> ulidSet = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                Ulid last = Ulid.MIN;
+                for (int i = 0; i < 1000; i++) {
+                    for (Ulid ulid : i % 2 == 0 ? new Ulid[] { generator.create() } : generator.create(5)) {
+                        Assert.assertTrue(last.compareTo(ulid) < 0);
+                        Assert.assertTrue(ulidSet.add(ulid));
+                        last = ulid;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(4 * (500 + 500 * 5), ulidSet.size());
+    }
+
+    @Test
+    public void writeTest() {
+        UlidGenerator generator = UlidGenerator.fast();
+        char[] chars = new char[2 + 3 * Ulid.ULID_CHARS];
+        Assert.assertEquals(chars.length, generator.create(chars, 2, 3));
+        String previous = "";
+        for (int i = 0; i < 3; i++) {
+            String text = new String(chars, 2 + i * Ulid.ULID_CHARS, Ulid.ULID_CHARS);
+            Assert.assertTrue(Ulid.isValid(text));
+            Assert.assertTrue(previous.compareTo(text) < 0);
+            previous = text;
+        }
+
+        Ulid ulid = Ulid.create();
+        char[] dest = new char[Ulid.ULID_CHARS];
+        Assert.assertEquals(Ulid.ULID_CHARS, ulid.writeTo(dest, 0));
+        Assert.assertEquals(ulid.toString(), new String(dest));
+
+        byte[] bytes = new byte[Ulid.ULID_BYTES + 1];
+        ulid.writeTo(bytes, 1);
+        Assert.assertEquals(ulid, Ulid.from(Arrays.copyOfRange(bytes, 1, bytes.length)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(Ulid.ULID_BYTES * 3).order(ByteOrder.LITTLE_ENDIAN);
+        ulid.writeTo(buffer);
+        generator.create(buffer, 2);
+        Assert.assertFalse(buffer.hasRemaining());
+        Assert.assertArrayEquals(ulid.toBytes(), Arrays.copyOf(buffer.array(), Ulid.ULID_BYTES));
+
+        byte[] binary = new byte[Ulid.ULID_BYTES * 2];
+        generator.create(binary, 0, 2);
+        Ulid first = Ulid.from(Arrays.copyOf(binary, Ulid.ULID_BYTES));
+        Ulid second = Ulid.from(Arrays.copyOfRange(binary, Ulid.ULID_BYTES, binary.length));
+        Assert.assertTrue(first.compareTo(second) < 0);
+    }
 }
@@ -0,0 +1,170 @@
+package com.github.relucent.base.common.jdbc;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.relucent.base.common.jdbc.impl.MySqlDialect;
+import com.github.relucent.base.common.jdbc.impl.OracleDialect;
+import com.github.relucent.base.common.jdbc.impl.PostgreSqlDialect;
+
+public class DialectRouteUtilTest {
+
+    @Test
+    public void testDialectCachedPerDataSource() throws SQLException {
+        AtomicInteger metadataCalls = new AtomicInteger();
+        Connection connection = connection("jdbc:postgresql://localhost:5432/test", metadataCalls);
+        DataSource dataSource = dataSource();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(DialectRouteUtil.getDialect(dataSource, connection) instanceof PostgreSqlDialect);
+        }
+        Assert.assertEquals(1, metadataCalls.get());
+
+        // 路由数据源不缓存
+        DataSource routingDataSource = new TenantRoutingDataSource();
+        Assert.assertTrue(DialectRouteUtil.getDialect(routingDataSource, connection) instanceof PostgreSqlDialect);
+        Connection mysql = connection("jdbc:mysql://localhost/test", new AtomicInteger());
+        Assert.assertTrue(DialectRouteUtil.getDialect(routingDataSource, mysql) instanceof MySqlDialect);
+    }
+
+    @Test
+    public void testDialectPerConnection() throws SQLException {
+        // 关闭按数据源缓存后每次根据连接地址匹配
+        DialectRouteUtil.setCacheByDataSource(false);
+        try {
+            DataSource dataSource = dataSource();
+            Connection postgresql = connection("jdbc:postgresql://localhost/test", new AtomicInteger());
+            Connection mysql = connection("jdbc:mysql://localhost/test", new AtomicInteger());
+            Assert.assertTrue(DialectRouteUtil.getDialect(dataSource, postgresql) instanceof PostgreSqlDialect);
+            Assert.assertTrue(DialectRouteUtil.getDialect(dataSource, mysql) instanceof MySqlDialect);
+        } finally {
+            DialectRouteUtil.setCacheByDataSource(true);
+        }
+    }
+
+    @Test
+    public void testExplicitDialect() throws SQLException {
+        AtomicInteger metadataCalls = new AtomicInteger();
+        Connection connection = connection("jdbc:mysql://localhost:3306/test", metadataCalls);
+        DataSource dataSource = dataSource();
+        DialectRouteUtil.setDialect(dataSource, OracleDialect.INSTANCE);
+        Assert.assertSame(OracleDialect.INSTANCE, DialectRouteUtil.getDialect(dataSource, connection));
+        Assert.assertEquals(0, metadataCalls.get());
+        DialectRouteUtil.setDialect(dataSource, null);
+        Assert.assertTrue(DialectRouteUtil.getDialect(dataSource, connection) instanceof MySqlDialect);
+    }
+
+    @Test
+    public void testDialectByName() throws SQLException {
+        Assert.assertTrue(DialectRouteUtil.getDialectByName("MySQL") instanceof MySqlDialect);
+        Assert.assertTrue(DialectRouteUtil.getDialectByName(OracleDialect.class.getName()) instanceof OracleDialect);
+    }
+
+    @Test(expected = SQLException.class)
+    public void testUnknownDialect() throws SQLException {
+        DialectRouteUtil.getDialect(connection("jdbc:unknown-db://localhost/test", new AtomicInteger()));
+    }
+
+    @Test
+    public void testRegisterProvider() throws SQLException {
+        DialectProvider provider = url -> url.startsWith("jdbc:custom-db:") ? PostgreSqlDialect.INSTANCE : null;
+        DialectRouteUtil.registerProvider(provider);
+        try {
+            Connection connection = connection("jdbc:custom-db://localhost/test", new AtomicInteger());
+            Assert.assertSame(PostgreSqlDialect.INSTANCE, DialectRouteUtil.getDialect(connection));
+        } finally {
+            DialectRouteUtil.unregisterProvider(provider);
+        }
+        try {
+            DialectRouteUtil.getDialect(connection("jdbc:custom-db://localhost/test", new AtomicInteger()));
+            Assert.fail();
+        } catch (SQLException e) {
+            // expected
+        }
+    }
+
+    private static Connection connection(String url, AtomicInteger metadataCalls) {
+        DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(DialectRouteUtilTest.class.getClassLoader(),
+                new Class<?>[] { DatabaseMetaData.class }, (proxy, method, args) -> "getURL".equals(method.getName()) ? url : null);
+        return (Connection) Proxy.newProxyInstance(DialectRouteUtilTest.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("getMetaData".equals(method.getName())) {
+                        metadataCalls.incrementAndGet();
+                        return metaData;
+                    }
+                    return null;
+                });
+    }
+
+    private static DataSource dataSource() {
+        return (DataSource) Proxy.newProxyInstance(DialectRouteUtilTest.class.getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * 模拟路由数据源(按类名识别)
+     */
+    private static class TenantRoutingDataSource implements DataSource {
+
+        @Override
+        public Connection getConnection() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return null;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) {
+            return null;
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}
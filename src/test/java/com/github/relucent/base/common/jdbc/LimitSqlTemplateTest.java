@@ -0,0 +1,55 @@
+package com.github.relucent.base.common.jdbc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.relucent.base.common.jdbc.impl.Db2Dialect;
+import com.github.relucent.base.common.jdbc.impl.InformixDialect;
+import com.github.relucent.base.common.jdbc.impl.MySqlDialect;
+import com.github.relucent.base.common.jdbc.impl.OracleDialect;
+import com.github.relucent.base.common.jdbc.impl.PostgreSqlDialect;
+
+public class LimitSqlTemplateTest {
+
+    private static final String SQL = "select id,name from user where name like ?";
+
+    @Test
+    public void testMySql() {
+        Dialect dialect = new MySqlDialect();
+        LimitSqlTemplate template = dialect.getLimitSqlTemplate(SQL);
+        Assert.assertEquals(SQL + " limit ?,?", template.getSql());
+        Assert.assertArrayEquals(new long[] { 40, 20 }, template.getParameterValues(40, 20));
+        // 相同的SQL使用缓存的模板
+        Assert.assertSame(template, dialect.getLimitSqlTemplate(SQL));
+    }
+
+    @Test
+    public void testPostgreSql() {
+        LimitSqlTemplate template = new PostgreSqlDialect().getLimitSqlTemplate(SQL);
+        Assert.assertEquals(SQL + " limit ? offset ?", template.getSql());
+        Assert.assertArrayEquals(new long[] { 20, 40 }, template.getParameterValues(40, 20));
+    }
+
+    @Test
+    public void testOracle() {
+        LimitSqlTemplate template = new OracleDialect().getLimitSqlTemplate(SQL);
+        Assert.assertTrue(template.getSql().contains("ROWNUM <= ?"));
+        Assert.assertTrue(template.getSql().contains("ROWNO__L > ?"));
+        Assert.assertArrayEquals(new long[] { 60, 40 }, template.getParameterValues(40, 20));
+    }
+
+    @Test
+    public void testDb2() {
+        Db2Dialect dialect = new Db2Dialect();
+        LimitSqlTemplate template = dialect.getLimitSqlTemplate(SQL + " order by id");
+        Assert.assertTrue(template.getSql().endsWith("between ? and ?"));
+        Assert.assertArrayEquals(new long[] { 41, 60 }, template.getParameterValues(40, 20));
+        // 排序语句中有参数时不能参数化
+        Assert.assertNull(dialect.getLimitSqlTemplate(SQL + " order by locate(?, name)"));
+    }
+
+    @Test
+    public void testUnsupported() {
+        Assert.assertNull(new InformixDialect().getLimitSqlTemplate(SQL));
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.relucent.base.common.jdbc.parser;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -24,4 +26,17 @@ public class CountSqlHelperTest {
         String expected = "select count(*) from user where name like '%admin%'";
         Assert.assertEquals(expected, actual);
     }
+
+    @Test
+    public void testCountSqlCache() {
+        AtomicInteger calls = new AtomicInteger();
+        CountSqlHelper.setCountSqlParser(sql -> "count:" + calls.incrementAndGet());
+        String sql = "select id from user";
+        Assert.assertEquals("count:1", CountSqlHelper.getCountSql(sql));
+        Assert.assertEquals("count:1", CountSqlHelper.getCountSql(sql));
+        // 切换解析器后清空缓存
+        CountSqlHelper.setCountSqlParser(sql2 -> "other");
+        Assert.assertEquals("other", CountSqlHelper.getCountSql(sql));
+        CountSqlHelper.setCountSqlParser(null);
+    }
 }
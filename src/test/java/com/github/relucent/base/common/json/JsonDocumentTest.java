@@ -0,0 +1,98 @@
+package com.github.relucent.base.common.json;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.relucent.base.common.collection.Listx;
+import com.github.relucent.base.common.collection.Mapx;
+
+public class JsonDocumentTest {
+
+	private static final String JSON = "{ \"code\": 0, \"message\": \"ok\\n\\u4e2d\", \"data\": { \"total\": 12345678901, \"items\": ["//
+			+ "{\"id\": 1, \"name\": \"a\", \"tags\": []}, "//
+			+ "{\"id\": 2, \"name\": \"b\", \"tags\": [\"x\", \"y\"]}, "//
+			+ "{\"id\": 3, \"name\": null, \"price\": 9.5, \"enabled\": true}"//
+			+ "] }, \"a.b\": false }";
+
+	@Test
+	public void testGet() {
+		JsonDocument document = JsonDocument.parse(JSON);
+		Assert.assertEquals(Integer.valueOf(0), document.get("$.code"));
+		Assert.assertEquals("ok\n中", document.getString("$.message"));
+		Assert.assertEquals(Long.valueOf(12345678901L), document.getLong("data.total"));
+		Assert.assertEquals(Integer.valueOf(2), document.getInteger("$.data.items[1].id"));
+		Assert.assertEquals("y", document.getString("$.data.items[1].tags[1]"));
+		Assert.assertEquals(Double.valueOf(9.5), document.getDouble("$['data']['items'][2].price"));
+		Assert.assertEquals(Boolean.TRUE, document.getBoolean("$.data.items[2].enabled"));
+		Assert.assertEquals(Boolean.FALSE, document.getBoolean("$['a.b']"));
+		Assert.assertNull(document.get("$.data.items[2].name"));
+		Assert.assertTrue(document.has("$.data.items[2].name"));
+		Assert.assertFalse(document.has("$.data.items[3]"));
+		// 超出 int 范围的下标不会溢出成有效的下标
+		Assert.assertFalse(document.has("$.data.items[4294967297]"));
+		Assert.assertFalse(document.has("$.data.items[99999999999999999999999]"));
+		Assert.assertFalse(document.has("$.data.missing"));
+		Assert.assertFalse(document.has("$.code.missing"));
+	}
+
+	@Test
+	public void testMaterialize() {
+		JsonDocument document = JsonDocument.parse(JSON);
+		Mapx item = document.getMap("$.data.items[1]");
+		Assert.assertEquals(Integer.valueOf(2), item.getInteger("id"));
+		Assert.assertEquals("b", item.getString("name"));
+		Listx tags = item.getList("tags");
+		Assert.assertEquals(Arrays.asList("x", "y"), tags);
+		Assert.assertEquals(0, document.getList("$.data.items[0].tags").size());
+		Assert.assertEquals(JSON.trim(), document.toString());
+		Assert.assertEquals("[\"x\", \"y\"]", document.select("$.data.items[1].tags").toString());
+	}
+
+	@Test
+	public void testIterate() {
+		JsonDocument items = JsonDocument.parse(JSON).select("$.data.items");
+		Assert.assertTrue(items.isArray());
+		Assert.assertEquals(3, items.size());
+		int id = 0;
+		for (JsonDocument item : items) {
+			Assert.assertTrue(item.isObject());
+			Assert.assertEquals(Integer.valueOf(++id), item.getInteger("id"));
+		}
+		Assert.assertEquals(3, id);
+		Assert.assertEquals(Arrays.asList("id", "name", "price", "enabled"), items.select("[2]").keys());
+		Assert.assertEquals(4, items.select("[2]").size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSyntaxError() {
+		JsonDocument.parse("{\"a\": [1, 2}");
+	}
+
+	@Test
+	public void testNumberSyntaxError() {
+		for (String json : new String[] { "[1e]", "[-]", "[01]", "[1.]", "[.5]", "[1e+]", "[-x]" }) {
+			try {
+				JsonDocument.parse(json);
+				Assert.fail(json);
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(e.getMessage(), e.getMessage().contains("at position"));
+			}
+		}
+		Assert.assertEquals(-0.5E+3, JsonDocument.parse("[-0.5E+3]").getDouble("[0]").doubleValue(), 0);
+	}
+
+	@Test
+	public void testEscapeSyntaxError() {
+		for (String json : new String[] { "[\"\\u12\"]", "[\"\\u12", "[\"\\uzzzz\"]", "[\"\\x\"]" }) {
+			try {
+				JsonDocument.parse(json);
+				Assert.fail(json);
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(e.getMessage(), e.getMessage().contains("at position"));
+			}
+		}
+		Assert.assertEquals("\u4e2d/", JsonDocument.parse("[\"\\u4e2d\\/\"]").getString("[0]"));
+	}
+}
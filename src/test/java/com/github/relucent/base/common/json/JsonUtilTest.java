@@ -1,11 +1,18 @@
 package com.github.relucent.base.common.json;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.github.relucent.base.common.collection.Listx;
+import com.github.relucent.base.common.collection.Mapx;
 import com.github.relucent.base.common.json.impl.DefaultJsonHandler;
 import com.github.relucent.base.common.reflect.TypeReference;
 import com.github.relucent.base.common.time.DateUtil;
@@ -67,6 +74,70 @@ public class JsonUtilTest {
 		}
 	}
 
+	@Test
+	public void testEncodeAndDecodeLines() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		JsonUtil.encodeLines(Arrays.asList(samples).iterator(), output);
+		String lines = new String(output.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertEquals(samples.length, lines.split("\n").length);
+
+		Iterator<Sample> iterator = JsonUtil.decodeLines(new ByteArrayInputStream(output.toByteArray()), Sample.class);
+		for (Sample sample : samples) {
+			Assert.assertTrue(iterator.hasNext());
+			Sample decoded = iterator.next();
+			Assert.assertEquals(sample.number, decoded.number);
+			Assert.assertEquals(sample.string, decoded.string);
+			Assert.assertEquals(sample.date, decoded.date);
+		}
+		Assert.assertFalse(iterator.hasNext());
+
+		long count = JsonUtil.decodeLinesAsStream(new ByteArrayInputStream(output.toByteArray()), Sample.class).count();
+		Assert.assertEquals(samples.length, count);
+	}
+
+	@Test
+	public void testDefaultLinesMethods() {
+		// 只实现基本方法的处理器，使用接口默认的 JSON Lines 实现
+		JsonHandler delegate = DefaultJsonHandler.INSTANCE;
+		JsonHandler handler = new JsonHandler() {
+			@Override
+			public String encode(Object object) {
+				return delegate.encode(object);
+			}
+
+			@Override
+			public <T> T decode(String json, Class<T> type) {
+				return delegate.decode(json, type);
+			}
+
+			@Override
+			public <T> T decode(String json, TypeReference<T> token) {
+				return delegate.decode(json, token);
+			}
+
+			@Override
+			public Mapx decodeMap(String json) {
+				return delegate.decodeMap(json);
+			}
+
+			@Override
+			public Listx decodeList(String json) {
+				return delegate.decodeList(json);
+			}
+		};
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		handler.encodeLines(Arrays.asList(samples).iterator(), output);
+		byte[] bytes = (new String(output.toByteArray(), StandardCharsets.UTF_8) + "\n\n").getBytes(StandardCharsets.UTF_8);
+		Iterator<Sample> iterator = handler.decodeLines(new ByteArrayInputStream(bytes), Sample.class);
+		for (Sample sample : samples) {
+			Assert.assertTrue(iterator.hasNext());
+			Sample decoded = iterator.next();
+			Assert.assertEquals(sample.number, decoded.number);
+			Assert.assertEquals(sample.string, decoded.string);
+		}
+		Assert.assertFalse(iterator.hasNext());
+	}
+
 	private static class Sample {
 		public Long number;
 		public String string;
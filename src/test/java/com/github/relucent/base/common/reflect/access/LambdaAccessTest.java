@@ -0,0 +1,71 @@
+package com.github.relucent.base.common.reflect.access;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LambdaAccessTest {
+
+	@Test
+	public void testPublicGetSet() throws Exception {
+		PublicSample sample = new PublicSample();
+		Function<Object, Object> getter = LambdaAccess.getter(PublicSample.class.getMethod("getCount"));
+		BiConsumer<Object, Object> setter = LambdaAccess.setter(PublicSample.class.getMethod("setCount", int.class));
+		setter.accept(sample, 10);
+		Assert.assertEquals(10, sample.getCount());
+		Assert.assertEquals(Integer.valueOf(10), getter.apply(sample));
+
+		BiConsumer<Object, Object> fluentSetter = LambdaAccess.setter(PublicSample.class.getMethod("setName", String.class));
+		fluentSetter.accept(sample, "A");
+		Assert.assertEquals("A", LambdaAccess.getter(PublicSample.class.getMethod("getName")).apply(sample));
+	}
+
+	@Test
+	public void testPrivateClassGetSet() throws Exception {
+		Sample sample = new Sample();
+		Function<Object, Object> getter = LambdaAccess.getter(Sample.class.getMethod("getValue"));
+		BiConsumer<Object, Object> setter = LambdaAccess.setter(Sample.class.getMethod("setValue", String.class));
+		Assert.assertNotNull(getter);
+		Assert.assertNotNull(setter);
+		setter.accept(sample, "B");
+		Assert.assertEquals("B", getter.apply(sample));
+	}
+
+	public static class PublicSample {
+
+		private int count;
+		private String name;
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public PublicSample setName(String name) {
+			this.name = name;
+			return this;
+		}
+	}
+
+	private static class Sample {
+
+		private String value;
+
+		public String getValue() {
+			return value;
+		}
+
+		public void setValue(String value) {
+			this.value = value;
+		}
+	}
+}
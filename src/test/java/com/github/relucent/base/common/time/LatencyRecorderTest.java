@@ -0,0 +1,144 @@
+package com.github.relucent.base.common.time;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(100000, histogram.getTotalCount());
+        Assert.assertEquals(1000L, histogram.getMin());
+        Assert.assertEquals(100000000L, histogram.getMax());
+        assertNear(50000000L, histogram.getValueAtPercentile(50));
+        assertNear(99000000L, histogram.getValueAtPercentile(99));
+        assertNear(99900000L, histogram.getValueAtPercentile(99.9));
+        Assert.assertEquals(100000000L, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(50L, histogram.getValueAtPercentile(50, TimeUnit.MILLISECONDS), 1L);
+        Assert.assertEquals(50000500D, histogram.getMean(), 0.001D);
+
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(-5);
+        small.record(Long.MAX_VALUE);
+        Assert.assertEquals(0L, small.getMin());
+        Assert.assertEquals(3L, small.getValueAtPercentile(50));
+        Assert.assertEquals(Long.MAX_VALUE, small.getMax());
+    }
+
+    @Test
+    public void testMerge() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            a.record(100);
+            b.record(10000);
+        }
+        LatencyHistogram merged = LatencyHistogram.merge(a, b);
+        Assert.assertEquals(200, merged.getTotalCount());
+        Assert.assertEquals(100L, merged.getValueAtPercentile(50));
+        assertNear(10000L, merged.getValueAtPercentile(51));
+        Assert.assertEquals(100, a.getTotalCount());
+    }
+
+    @Test
+    public void testRetireDeadThreads() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int t = 0; t < 100; t++) {
+            Thread thread = new Thread(() -> recorder.record(100));
+            thread.start();
+            thread.join();
+        }
+        // 新线程注册时合并已经结束的线程，不需要读取快照
+        Assert.assertTrue(recorder.stripeCount() <= 1);
+        Assert.assertEquals(100, recorder.snapshot().getTotalCount());
+        Assert.assertEquals(0, recorder.stripeCount());
+    }
+
+    @Test
+    public void testRecorder() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 10000; i++) {
+                    recorder.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram snapshot = recorder.snapshot();
+        Assert.assertEquals(40000, snapshot.getTotalCount());
+        Assert.assertEquals(1L, snapshot.getMin());
+        Assert.assertEquals(10000L, snapshot.getMax());
+        assertNear(5000L, snapshot.getValueAtPercentile(50));
+
+        Assert.assertEquals(40000, recorder.intervalSnapshot().getTotalCount());
+        try (LatencyRecorder.Timer timer = recorder.start()) {
+            Thread.sleep(5);
+        }
+        recorder.recordSince(System.nanoTime() - 1000);
+        LatencyHistogram interval = recorder.intervalSnapshot();
+        Assert.assertEquals(2, interval.getTotalCount());
+        Assert.assertTrue(interval.getMax() >= TimeUnit.MILLISECONDS.toNanos(5));
+        Assert.assertEquals(40002, recorder.snapshot().getTotalCount());
+
+        recorder.reset();
+        Assert.assertEquals(0, recorder.snapshot().getTotalCount());
+        recorder.record(42);
+        Assert.assertEquals(1, recorder.snapshot().getTotalCount());
+        Assert.assertEquals(42L, recorder.snapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testConcurrentHistogram() throws InterruptedException {
+        ConcurrentLatencyHistogram histogram = new ConcurrentLatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 25000; i++) {
+                    histogram.record(i * 4000L);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram snapshot = histogram.snapshot();
+        Assert.assertEquals(100000, snapshot.getTotalCount());
+        Assert.assertEquals(4000L, snapshot.getMin());
+        Assert.assertEquals(100000000L, snapshot.getMax());
+        Assert.assertEquals(50002000D, snapshot.getMean(), 0.001D);
+        // 紧凑直方图的相对误差小于 1/32
+        long p50 = snapshot.getValueAtPercentile(50);
+        Assert.assertTrue(String.valueOf(p50), Math.abs(p50 - 50000000L) <= 50000000L / 32);
+        long p99 = snapshot.getValueAtPercentile(99);
+        Assert.assertTrue(String.valueOf(p99), Math.abs(p99 - 99000000L) <= 99000000L / 32);
+        Assert.assertEquals(0, new ConcurrentLatencyHistogram().snapshot().getTotalCount());
+        // 直接在紧凑的桶上计算百分位数(返回桶的上限)
+        Assert.assertEquals(100000, histogram.getTotalCount());
+        long p95 = histogram.getValueAtPercentile(95);
+        Assert.assertTrue(String.valueOf(p95), p95 >= 95000000L && p95 - 95000000L <= 95000000L / 16);
+        Assert.assertEquals(100000000L, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(4000L, histogram.getValueAtPercentile(0));
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getTotalCount());
+        Assert.assertEquals(0, histogram.getValueAtPercentile(95));
+        histogram.record(42);
+        Assert.assertEquals(42L, histogram.getValueAtPercentile(95));
+    }
+
+    private static void assertNear(long expected, long actual) {
+        Assert.assertTrue(expected + " ~ " + actual, Math.abs(expected - actual) <= expected / 100);
+    }
+}
@@ -1,5 +1,8 @@
 package com.github.relucent.base.common.time;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -39,4 +42,35 @@ public class TemporalAccessorUtilTest {
             Assert.assertEquals(expected.toInstant(), actual.toInstant());
         }
     }
+
+    @Test
+    public void testParseCommonPatterns() {
+        ZoneUtil.setDefaultZoneId(ZoneIdConstant.UTC);
+
+        for (String pattern : new String[] { //
+                "yyyy-MM-dd HH:mm:ss.SSS", //
+                "yyyy-MM-dd HH:mm:ss", //
+                "yyyy/MM/dd HH:mm:ss", //
+                "yyyy-MM-dd HH:mm", //
+                "yyyy/MM/dd HH:mm", //
+                "yyyy-MM-dd", //
+                "yyyy/MM/dd", //
+                "yyyyMMddHHmmss", //
+                "yyyy-MM-dd'T'HH:mm", //
+                "yyyy-MM-dd'T'HH:mm:ss.SSSSSS", //
+        }) {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+            LocalDateTime now = LocalDateTime.now();
+            String text = formatter.format(now);
+            LocalDateTime expected = TemporalAccessorUtil.toLocalDateTime(formatter.parse(text));
+            Assert.assertEquals(text, expected, TemporalAccessorUtil.toLocalDateTime(TemporalAccessorUtil.parse(text)));
+        }
+
+        // 数值不合法时按原有解析器的规则处理
+        Assert.assertEquals(LocalDate.of(2025, 2, 28), LocalDate.from(TemporalAccessorUtil.parse("2025-02-30")));
+        Assert.assertEquals(LocalTime.of(17, 30), LocalTime.from(TemporalAccessorUtil.parse("17:30")));
+        Assert.assertNull(TemporalAccessorUtil.parse("2025-13-01 00:00:00"));
+        Assert.assertNull(TemporalAccessorUtil.parse("2025-11-14 17:00:00.12"));
+        Assert.assertNull(TemporalAccessorUtil.parse("hello"));
+    }
 }
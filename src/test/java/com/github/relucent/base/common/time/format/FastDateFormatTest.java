@@ -0,0 +1,53 @@
+package com.github.relucent.base.common.time.format;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FastDateFormatTest {
+
+    @Test
+    public void testFormat() {
+        TimeZone timeZone = TimeZone.getTimeZone("Asia/Shanghai");
+        long base = 1731574800000L;
+        long[] samples = { base, base + 7, base + 45, base + 999, base + 1000, base + 1001, -1L, -1001L, 0L };
+        for (String pattern : new String[] { //
+                "yyyy-MM-dd HH:mm:ss.SSS", //
+                "yyyy-MM-dd'T'HH:mm:ss.SSSZ", //
+                "yyyy-MM-dd HH:mm:ss", //
+                "HH:mm:ss.SSSS", //
+                "ss.S", //
+                "SS ss", //
+                "S SSS" //
+        }) {
+            SimpleDateFormat expected = new SimpleDateFormat(pattern, Locale.US);
+            expected.setTimeZone(timeZone);
+            char[] dest = new char[64];
+            // 样本中的时间不是递增的，缓存最近一秒的格式化器对较早的时间不使用缓存
+            for (FastDateFormat format : new FastDateFormat[] { FastDateFormat.getInstance(pattern, timeZone, Locale.US),
+                    FastDateFormat.getClockInstance(pattern, timeZone, Locale.US) }) {
+                for (long millis : samples) {
+                    String text = expected.format(new Date(millis));
+                    Assert.assertEquals(pattern, text, format.format(millis));
+                    Assert.assertEquals(pattern, text, format.format(millis, new StringBuilder()).toString());
+                    Assert.assertEquals(pattern, text, format.format(millis, new StringBuffer()).toString());
+                    int length = format.format(millis, dest, 2);
+                    Assert.assertEquals(pattern, text, new String(dest, 2, length));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testClockInstance() {
+        FastDateFormat format = FastDateFormat.getClockInstance("yyyy-MM-dd HH:mm:ss.SSS");
+        Assert.assertSame(format, FastDateFormat.getClockInstance("yyyy-MM-dd HH:mm:ss.SSS"));
+        Assert.assertNotSame(format, FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss.SSS"));
+        long now = System.currentTimeMillis();
+        Assert.assertEquals(FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss.SSS").format(now), format.format(now));
+    }
+}
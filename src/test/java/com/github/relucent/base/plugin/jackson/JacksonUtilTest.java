@@ -1,6 +1,10 @@
 package com.github.relucent.base.plugin.jackson;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -99,6 +103,21 @@ public class JacksonUtilTest {
 		}
 	}
 
+	@Test
+	public void testEncodeAndDecodeLines() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		JacksonHandler.DEFAULT.encodeLines(Arrays.stream(samples), output);
+		Iterator<Sample> iterator = JacksonHandler.DEFAULT.decodeLines(new ByteArrayInputStream(output.toByteArray()), Sample.class);
+		for (Sample sample : samples) {
+			Assert.assertTrue(iterator.hasNext());
+			Sample decoded = iterator.next();
+			Assert.assertEquals(sample.number, decoded.number);
+			Assert.assertEquals(sample.string, decoded.string);
+			Assert.assertEquals(sample.date, decoded.date);
+		}
+		Assert.assertFalse(iterator.hasNext());
+	}
+
 	private static class Sample {
 		public Long number;
 		public String string;
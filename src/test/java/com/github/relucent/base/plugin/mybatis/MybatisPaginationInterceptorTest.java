@@ -0,0 +1,255 @@
+package com.github.relucent.base.plugin.mybatis;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.relucent.base.common.cache.LocalCacheManager;
+import com.github.relucent.base.common.jdbc.impl.MySqlDialect;
+import com.github.relucent.base.plugin.mybatis.MybatisPageContext.CountMode;
+import com.github.relucent.base.plugin.mybatis.MybatisPageContext.SortKey;
+
+public class MybatisPaginationInterceptorTest {
+
+    private static final String SQL = "select id,name from user";
+
+    private StubQueries stub;
+    private MappedStatement ms;
+    private Executor executor;
+    private MybatisPaginationInterceptor interceptor;
+
+    @Before
+    public void setUp() {
+        DataSource dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        // 拦截执行器的查询，COUNT 查询(包括另外的连接上的查询)返回总数，分页查询返回当前页的记录
+        stub = new StubQueries();
+        configuration.addInterceptor(stub);
+        ResultMap resultMap = new ResultMap.Builder(configuration, "user.select-Inline", Object.class, new ArrayList<>()).build();
+        ms = new MappedStatement.Builder(configuration, "user.select", new StaticSqlSource(configuration, SQL), SqlCommandType.SELECT)
+                .resultMaps(Collections.singletonList(resultMap)).build();
+        executor = configuration.newExecutor(new JdbcTransaction(dataSource, null, false));
+        interceptor = new MybatisPaginationInterceptor();
+        interceptor.setDialect(new MySqlDialect());
+    }
+
+    @After
+    public void tearDown() {
+        MybatisPageContextHolder.clearContext();
+    }
+
+    @Test
+    public void testKeysetSql() {
+        Configuration configuration = new Configuration();
+        List<ParameterMapping> parameterMappings = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<SortKey> sortKeys = Arrays.asList(SortKey.asc("name", "n"), SortKey.desc("`id`", 5));
+        String sql = MybatisPaginationInterceptor.getKeysetSql(configuration, SQL, sortKeys, parameterMappings, parameters);
+        Assert.assertEquals("SELECT * FROM (" + SQL + ") T__K WHERE (name > ?) OR (name = ? AND `id` < ?) ORDER BY name ASC, `id` DESC", sql);
+        Assert.assertEquals(3, parameterMappings.size());
+        Assert.assertEquals(parameterMappings.get(0).getProperty(), parameterMappings.get(1).getProperty());
+        Assert.assertEquals(Arrays.asList("n", 5), new ArrayList<>(parameters.values()));
+        Assert.assertEquals(5, parameters.get(parameterMappings.get(2).getProperty()));
+    }
+
+    @Test
+    public void testKeysetSqlFirstPage() {
+        List<ParameterMapping> parameterMappings = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<SortKey> sortKeys = Arrays.asList(SortKey.desc("name", null), SortKey.asc("id", null));
+        String sql = MybatisPaginationInterceptor.getKeysetSql(new Configuration(), SQL, sortKeys, parameterMappings, parameters);
+        // 第一页没有排序键的值，只排序
+        Assert.assertEquals("SELECT * FROM (" + SQL + ") T__K ORDER BY name DESC, id ASC", sql);
+        Assert.assertTrue(parameterMappings.isEmpty());
+        Assert.assertTrue(parameters.isEmpty());
+    }
+
+    @Test
+    public void testKeysetSqlIllegal() {
+        assertKeysetIllegal(SortKey.asc("id; drop table user", 1));
+        assertKeysetIllegal(SortKey.asc("t.id", 1));
+        assertKeysetIllegal(SortKey.asc("1id", 1));
+        // 排序键的值必须全部为空或者全部不为空
+        assertKeysetIllegal(SortKey.asc("name", "n"), SortKey.asc("id", null));
+    }
+
+    @Test
+    public void testDeduceTotal() {
+        // 第一页
+        Assert.assertEquals(0, MybatisPaginationInterceptor.deduceTotal(pageContext(0, 10), 0));
+        Assert.assertEquals(3, MybatisPaginationInterceptor.deduceTotal(pageContext(0, 10), 3));
+        Assert.assertEquals(-1, MybatisPaginationInterceptor.deduceTotal(pageContext(0, 10), 10));
+        // 中间页
+        Assert.assertEquals(-1, MybatisPaginationInterceptor.deduceTotal(pageContext(20, 10), 10));
+        // 最后一页
+        Assert.assertEquals(25, MybatisPaginationInterceptor.deduceTotal(pageContext(20, 10), 5));
+        // 越过最后一页的空页，总数可能小于偏移量
+        Assert.assertEquals(-1, MybatisPaginationInterceptor.deduceTotal(pageContext(20, 10), 0));
+    }
+
+    @Test
+    public void testResultHandler() throws Throwable {
+        stub.rows = 25;
+        ResultHandler<Object> handler = context -> {
+        };
+        for (CountMode mode : CountMode.values()) {
+            MybatisPageContext pageContext = pageContext(0, 10);
+            pageContext.setCountMode(mode);
+            int counts = stub.counts.get();
+            Assert.assertTrue(query(pageContext, handler).isEmpty());
+            // 使用结果处理对象时不能根据记录数推断总数，执行 COUNT 查询
+            Assert.assertEquals(mode.name(), 25, pageContext.getTotal());
+            Assert.assertEquals(mode.name(), counts + 1, stub.counts.get());
+        }
+    }
+
+    @Test
+    public void testCountCacheTtl() throws Throwable {
+        interceptor.setCountCache(new LocalCacheManager(), Duration.ofMillis(200));
+        stub.rows = 25;
+        Assert.assertEquals(25, queryTotal(0, 10));
+        // 有效期内使用缓存的总数
+        stub.rows = 30;
+        Assert.assertEquals(25, queryTotal(0, 10));
+        Assert.assertEquals(1, stub.counts.get());
+        // 超过有效期后重新查询总数
+        Thread.sleep(300);
+        Assert.assertEquals(30, queryTotal(0, 10));
+        Assert.assertEquals(2, stub.counts.get());
+        Assert.assertEquals(30, queryTotal(10, 10));
+        Assert.assertEquals(2, stub.counts.get());
+    }
+
+    @Test
+    public void testCountCacheStaleRefresh() throws Throwable {
+        interceptor.setCountCache(new LocalCacheManager(), Duration.ofMillis(200), Duration.ofSeconds(60));
+        stub.rows = 25;
+        Assert.assertEquals(25, queryTotal(0, 10));
+        stub.rows = 30;
+        Thread.sleep(300);
+        // 过期的总数直接返回，同时在后台刷新
+        Assert.assertEquals(25, queryTotal(0, 10));
+        long deadline = System.currentTimeMillis() + 5000;
+        long total;
+        while ((total = queryTotal(0, 10)) != 30 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(30, total);
+        Assert.assertTrue(stub.counts.get() >= 2);
+    }
+
+    @Test
+    public void testCountCacheEmptyPage() throws Throwable {
+        interceptor.setCountCache(new LocalCacheManager(), Duration.ofSeconds(60));
+        stub.rows = 25;
+        Assert.assertEquals(25, queryTotal(0, 10));
+        // 记录减少后越过最后一页：缓存的总数大于偏移量，一定已经过时，重新查询总数
+        stub.rows = 15;
+        Assert.assertEquals(15, queryTotal(20, 10));
+        Assert.assertEquals(2, stub.counts.get());
+        // 缓存的总数不大于偏移量时仍然使用缓存
+        Assert.assertEquals(15, queryTotal(20, 10));
+        Assert.assertEquals(2, stub.counts.get());
+        // 满页时总数至少包含已经查询到的记录
+        stub.rows = 40;
+        Assert.assertEquals(30, queryTotal(20, 10));
+        Assert.assertEquals(2, stub.counts.get());
+    }
+
+    private static void assertKeysetIllegal(SortKey... sortKeys) {
+        try {
+            MybatisPaginationInterceptor.getKeysetSql(new Configuration(), SQL, Arrays.asList(sortKeys), new ArrayList<>(), new LinkedHashMap<>());
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static MybatisPageContext pageContext(long offset, long limit) {
+        MybatisPageContext pageContext = new MybatisPageContext();
+        pageContext.setOffset(offset);
+        pageContext.setLimit(limit);
+        pageContext.setCount(true);
+        return pageContext;
+    }
+
+    private long queryTotal(long offset, long limit) throws Throwable {
+        MybatisPageContext pageContext = pageContext(offset, limit);
+        query(pageContext, null);
+        return pageContext.getTotal();
+    }
+
+    private List<?> query(MybatisPageContext pageContext, ResultHandler<?> handler) throws Throwable {
+        Method method = Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class);
+        MybatisPageContextHolder.setContext(pageContext);
+        try {
+            return (List<?>) interceptor.intercept(new Invocation(executor, method, new Object[] { ms, null, RowBounds.DEFAULT, handler }));
+        } finally {
+            MybatisPageContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * 模拟查询：表中有 {@code rows} 条记录
+     */
+    @Intercepts(@Signature(type = Executor.class, method = "query", args = { //
+            MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }))
+    private static class StubQueries implements Interceptor {
+
+        private volatile long rows;
+        private final AtomicInteger counts = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) {
+            MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+            if (statement.getId().endsWith("_COUNT")) {
+                counts.incrementAndGet();
+                return Collections.singletonList(rows);
+            }
+            List<Object> records = new ArrayList<>();
+            if (invocation.getArgs()[3] == null) {
+                MybatisPageContext pageContext = MybatisPageContextHolder.getContext();
+                long size = Math.min(pageContext.getLimit(), Math.max(0, rows - pageContext.getOffset()));
+                for (long i = 0; i < size; i++) {
+                    records.add(pageContext.getOffset() + i);
+                }
+            }
+            return records;
+        }
+    }
+}